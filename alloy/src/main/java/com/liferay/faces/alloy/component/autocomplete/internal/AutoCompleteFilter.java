@@ -23,4 +23,10 @@ import java.util.Locale;
 public interface AutoCompleteFilter {
 
 	public List<String> doFilter(String query, List<String> items, boolean caseSensitive, Locale locale);
+
+	/**
+	 * Returns the items of the specified index that match the specified query, in their original order. Filtering stops
+	 * as soon as maxResults items have been found, unless maxResults is less than or equal to zero.
+	 */
+	public List<String> doFilter(String query, AutoCompleteItemIndex itemIndex, int maxResults);
 }
@@ -15,39 +15,27 @@ package com.liferay.faces.alloy.component.autocomplete.internal;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 
 /**
  * @author  Kyle Stiemann
  */
-class AutoCompleteFilterCharMatchImpl implements AutoCompleteFilter {
+class AutoCompleteFilterCharMatchImpl extends AutoCompleteFilterBase {
 
 	@Override
-	public List<String> doFilter(String query, List<String> items, boolean caseSensitive, Locale locale) {
+	public List<String> doFilter(String query, AutoCompleteItemIndex itemIndex, int maxResults) {
 
 		List<String> results = new ArrayList<String>();
 		boolean add;
+		char[] queryCharArray = itemIndex.normalize(query).toCharArray();
+		int size = itemIndex.size();
 
-		if (!caseSensitive) {
-			query = query.toLowerCase(locale);
-		}
-
-		int size = items.size();
-
-		for (int i = 0; i < size; i++) {
-
-			String item = items.get(i);
-
-			if (!caseSensitive) {
-				item = item.toLowerCase(locale);
-			}
+		for (int i = 0; (i < size) && !isLimitReached(results, maxResults); i++) {
 
+			String item = itemIndex.getNormalizedItem(i);
 			add = true;
 
-			char[] queryCharArray = query.toCharArray();
-
-			for (Character queryChar : queryCharArray) {
+			for (char queryChar : queryCharArray) {
 
 				if (item.indexOf(queryChar) < 0) {
 					add = false;
@@ -59,7 +47,7 @@ class AutoCompleteFilterCharMatchImpl implements AutoCompleteFilter {
 			if (add) {
 
 				// Add the original item in case the item was changed to lower case.
-				results.add(items.get(i));
+				results.add(itemIndex.getItem(i));
 			}
 		}
 
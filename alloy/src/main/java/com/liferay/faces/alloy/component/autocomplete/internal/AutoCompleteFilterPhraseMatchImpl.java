@@ -15,30 +15,27 @@ package com.liferay.faces.alloy.component.autocomplete.internal;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 
 /**
  * @author  Kyle Stiemann
  */
-class AutoCompleteFilterPhraseMatchImpl implements AutoCompleteFilter {
+class AutoCompleteFilterPhraseMatchImpl extends AutoCompleteFilterBase {
 
 	@Override
-	public List<String> doFilter(String query, List<String> items, boolean caseSensitive, Locale locale) {
+	public List<String> doFilter(String query, AutoCompleteItemIndex itemIndex, int maxResults) {
 
 		List<String> results = new ArrayList<String>();
+		query = itemIndex.normalize(query);
 
-		if (!caseSensitive) {
-			query = query.toLowerCase(locale);
-		}
+		int size = itemIndex.size();
 
-		for (String item : items) {
+		for (int i = 0; (i < size) && !isLimitReached(results, maxResults); i++) {
 
-			if (caseSensitive && item.contains(query)) {
-				results.add(item);
-			}
-			else if (!caseSensitive && item.toLowerCase(locale).contains(query)) {
-				results.add(item);
+			if (itemIndex.getNormalizedItem(i).contains(query)) {
+
+				// Add the original item in case the item was changed to lower case.
+				results.add(itemIndex.getItem(i));
 			}
 		}
 
@@ -14,31 +14,67 @@
 package com.liferay.faces.alloy.component.autocomplete.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 
 
 /**
  * @author  Kyle Stiemann
  */
-class AutoCompleteFilterStartsWithImpl implements AutoCompleteFilter {
+class AutoCompleteFilterStartsWithImpl extends AutoCompleteFilterBase {
 
 	@Override
-	public List<String> doFilter(String query, List<String> items, boolean caseSensitive, Locale locale) {
+	public List<String> doFilter(String query, AutoCompleteItemIndex itemIndex, int maxResults) {
 
 		List<String> results = new ArrayList<String>();
+		query = itemIndex.normalize(query);
 
-		if (!caseSensitive) {
-			query = query.toLowerCase(locale);
-		}
+		int[] sortedItemIndices = itemIndex.getSortedItemIndices();
+
+		// If the items have been sorted, then the matching items are adjacent to each other and can be found with a
+		// binary search. They must be put back in their original order before the limit is applied.
+		if (sortedItemIndices != null) {
+
+			int low = 0;
+			int high = sortedItemIndices.length;
+
+			while (low < high) {
 
-		for (String item : items) {
+				int middle = (low + high) >>> 1;
 
-			if (caseSensitive && item.startsWith(query)) {
-				results.add(item);
+				if (itemIndex.getNormalizedItem(sortedItemIndices[middle]).compareTo(query) < 0) {
+					low = middle + 1;
+				}
+				else {
+					high = middle;
+				}
 			}
-			else if (!caseSensitive && item.toLowerCase(locale).startsWith(query)) {
-				results.add(item);
+
+			high = low;
+
+			while ((high < sortedItemIndices.length) &&
+					itemIndex.getNormalizedItem(sortedItemIndices[high]).startsWith(query)) {
+				high++;
+			}
+
+			int[] matchingItemIndices = Arrays.copyOfRange(sortedItemIndices, low, high);
+			Arrays.sort(matchingItemIndices);
+
+			for (int i = 0; (i < matchingItemIndices.length) && !isLimitReached(results, maxResults); i++) {
+				results.add(itemIndex.getItem(matchingItemIndices[i]));
+			}
+		}
+		else {
+
+			int size = itemIndex.size();
+
+			for (int i = 0; (i < size) && !isLimitReached(results, maxResults); i++) {
+
+				if (itemIndex.getNormalizedItem(i).startsWith(query)) {
+
+					// Add the original item in case the item was changed to lower case.
+					results.add(itemIndex.getItem(i));
+				}
 			}
 		}
 
@@ -15,39 +15,28 @@ package com.liferay.faces.alloy.component.autocomplete.internal;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 
 /**
  * @author  Kyle Stiemann
  */
-class AutoCompleteFilterSubWordMatchImpl extends AutoCompleteFilterWordMatchBaseImpl implements AutoCompleteFilter {
+class AutoCompleteFilterSubWordMatchImpl extends AutoCompleteFilterWordMatchBaseImpl {
 
 	@Override
-	public List<String> doFilter(String query, List<String> items, boolean caseSensitive, Locale locale) {
+	public List<String> doFilter(String query, AutoCompleteItemIndex itemIndex, int maxResults) {
 
 		List<String> results = new ArrayList<String>();
-
-		if (!caseSensitive) {
-			query = query.toLowerCase(locale);
-		}
-
-		List<String> words = getWords(query);
+		List<String> words = getWords(itemIndex.normalize(query));
 
 		if (!words.isEmpty()) {
 
 			boolean add;
 
-			int size = items.size();
+			int size = itemIndex.size();
 
-			for (int i = 0; i < size; i++) {
-
-				String item = items.get(i);
-
-				if (!caseSensitive) {
-					item = item.toLowerCase(locale);
-				}
+			for (int i = 0; (i < size) && !isLimitReached(results, maxResults); i++) {
 
+				String item = itemIndex.getNormalizedItem(i);
 				add = true;
 
 				for (String word : words) {
@@ -62,7 +51,7 @@ class AutoCompleteFilterSubWordMatchImpl extends AutoCompleteFilterWordMatchBase
 				if (add) {
 
 					// Add the original item in case the item was changed to lower case.
-					results.add(items.get(i));
+					results.add(itemIndex.getItem(i));
 				}
 			}
 		}
@@ -16,7 +16,6 @@ package com.liferay.faces.alloy.component.autocomplete.internal;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.EnumMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -28,12 +27,35 @@ import com.liferay.faces.util.lang.StringPool;
 /**
  * @author  Kyle Stiemann
  */
-abstract class AutoCompleteFilterWordMatchBaseImpl implements AutoCompleteFilter {
+abstract class AutoCompleteFilterWordMatchBaseImpl extends AutoCompleteFilterBase {
+
+	// Private Constants
+	private static final int ALETTER = 1 << PATTERN_KEYS.ALETTER.ordinal();
+	private static final int MIDNUMLET = 1 << PATTERN_KEYS.MIDNUMLET.ordinal();
+	private static final int MIDLETTER = 1 << PATTERN_KEYS.MIDLETTER.ordinal();
+	private static final int MIDNUM = 1 << PATTERN_KEYS.MIDNUM.ordinal();
+	private static final int NUMERIC = 1 << PATTERN_KEYS.NUMERIC.ordinal();
+	private static final int CR = 1 << PATTERN_KEYS.CR.ordinal();
+	private static final int LF = 1 << PATTERN_KEYS.LF.ordinal();
+	private static final int NEWLINE = 1 << PATTERN_KEYS.NEWLINE.ordinal();
+	private static final int EXTEND = 1 << PATTERN_KEYS.EXTEND.ordinal();
+	private static final int FORMAT = 1 << PATTERN_KEYS.FORMAT.ordinal();
+	private static final int KATAKANA = 1 << PATTERN_KEYS.KATAKANA.ordinal();
+	private static final int EXTENDEDNUMLET = 1 << PATTERN_KEYS.EXTENDEDNUMLET.ordinal();
+	private static final int PUNCTUATION = 1 << PATTERN_KEYS.PUNCTUATION.ordinal();
+	private static final int SINGLE_QUOTE = 1 << 13;
+	private static final int WHITESPACE_CHAR = 1 << 14;
+	private static final int COMPUTED = 1 << 15;
 
 	private static final Map<PATTERN_KEYS, Pattern> patterns = new EnumMap<PATTERN_KEYS, Pattern>(PATTERN_KEYS.class);
 	private static final Pattern SINGLE_QUOTE_PATTERN = Pattern.compile(StringPool.APOSTROPHE);
 	private static final Pattern WHITESPACE = Pattern.compile("\\s");
 
+	// Table of the word break classes of each UTF-16 character, stored as a bit mask. A value of zero means that the
+	// classes of the character have not been computed yet. Since short values are read and written atomically and
+	// computing the classes of a character is idempotent, the table does not require synchronization.
+	private static final short[] CHARACTER_CLASSES = new short[Character.MAX_VALUE + 1];
+
 	static {
 
 		String path = "META-INF/resources/liferay-faces-alloy/yui/autocomplete/text-data-wordbreak.js";
@@ -67,6 +89,12 @@ abstract class AutoCompleteFilterWordMatchBaseImpl implements AutoCompleteFilter
 		}
 
 		scanner.close();
+
+		// Precompute the classes of the Latin-1 characters, which make up the vast majority of completion items. The
+		// classes of all other characters are computed and recorded the first time they are encountered.
+		for (char character = 0; character < 256; character++) {
+			getCharacterClasses(character);
+		}
 	}
 
 	private static enum PATTERN_KEYS {
@@ -74,11 +102,32 @@ abstract class AutoCompleteFilterWordMatchBaseImpl implements AutoCompleteFilter
 		PUNCTUATION
 	}
 
-	private static boolean matches(String character, PATTERN_KEYS patternKey) {
-		return patterns.get(patternKey).matcher(character).matches();
+	private static void addWord(List<String> wordList, StringBuilder stringBuilder) {
+
+		String word = stringBuilder.toString();
+		stringBuilder.setLength(0);
+
+		// Ignore whitespace and punctuation. A word can only match the punctuation pattern if its first character is
+		// punctuation, so the pattern itself is only consulted in that case.
+		int firstCharacterClasses = getCharacterClasses(word.charAt(0));
+
+		if (word.length() == 1) {
+
+			if ((firstCharacterClasses & (WHITESPACE_CHAR | PUNCTUATION)) == 0) {
+				wordList.add(word);
+			}
+		}
+		else if (((firstCharacterClasses & PUNCTUATION) == 0) ||
+				!patterns.get(PATTERN_KEYS.PUNCTUATION).matcher(word).matches()) {
+			wordList.add(word);
+		}
 	}
 
-	protected List<String> getWords(String words) {
+	/**
+	 * Splits the specified text into words according to the default word boundary rules of Unicode Standard Annex
+	 * #29, ignoring whitespace and punctuation.
+	 */
+	static List<String> breakWords(String words) {
 
 		// http://unicode.org/reports/tr29/#Word_Boundary_Rules
 
@@ -87,157 +136,162 @@ abstract class AutoCompleteFilterWordMatchBaseImpl implements AutoCompleteFilter
 		if ((words != null) && (words.length() > 0)) {
 
 			StringBuilder stringBuilder = new StringBuilder();
+			int length = words.length();
+			int prevClasses = 0;
+			int classes = getCharacterClasses(words.charAt(0));
+			int nextClasses = (length > 1) ? getCharacterClasses(words.charAt(1)) : 0;
 
-			for (int i = 0; i < words.length(); i++) {
+			for (int i = 0; i < length; i++) {
 
-				String character = Character.toString(words.charAt(i));
+				char character = words.charAt(i);
 
-				if ((i + 1) == words.length()) {
+				if ((i + 1) == length) {
 
 					stringBuilder.append(character);
-					wordList.add(stringBuilder.toString());
+					addWord(wordList, stringBuilder);
 				}
 				else {
 
-					String nextCharacter = Character.toString(words.charAt(i + 1));
-					String nextNextCharacter = null;
-
-					if ((i + 1 + 1) < words.length()) {
-						nextNextCharacter = Character.toString(words.charAt(i + 1 + 1));
-					}
-
-					String prevCharacter = null;
+					int nextNextClasses = 0;
 
-					if ((i - 1) >= 0) {
-						prevCharacter = Character.toString(words.charAt(i - 1));
+					if ((i + 1 + 1) < length) {
+						nextNextClasses = getCharacterClasses(words.charAt(i + 1 + 1));
 					}
 
 					// WB3
-					if (matches(character, PATTERN_KEYS.CR) && matches(nextCharacter, PATTERN_KEYS.LF)) {
+					if (is(classes, CR) && is(nextClasses, LF)) {
 						stringBuilder.append(character);
 					}
 
 					// WB3a
-					else if (matches(character, PATTERN_KEYS.CR) || matches(character, PATTERN_KEYS.LF) ||
-							matches(character, PATTERN_KEYS.NEWLINE)) {
+					else if (is(classes, CR | LF | NEWLINE)) {
 
 						stringBuilder.append(character);
-						wordList.add(stringBuilder.toString());
-						stringBuilder.setLength(0);
+						addWord(wordList, stringBuilder);
 					}
 
 					// WB3b
-					else if (matches(nextCharacter, PATTERN_KEYS.CR) || matches(nextCharacter, PATTERN_KEYS.LF) ||
-							matches(nextCharacter, PATTERN_KEYS.NEWLINE)) {
+					else if (is(nextClasses, CR | LF | NEWLINE)) {
 
 						stringBuilder.append(character);
-						wordList.add(stringBuilder.toString());
-						stringBuilder.setLength(0);
+						addWord(wordList, stringBuilder);
 					}
 
 					// WB4
-					else if (matches(character, PATTERN_KEYS.EXTEND) || matches(character, PATTERN_KEYS.FORMAT)) {
+					else if (is(classes, EXTEND | FORMAT)) {
 						// Ignore
 					}
 
 					// WB5
-					else if (matches(character, PATTERN_KEYS.ALETTER) && matches(nextCharacter, PATTERN_KEYS.ALETTER)) {
+					else if (is(classes, ALETTER) && is(nextClasses, ALETTER)) {
 						stringBuilder.append(character);
 					}
 
 					// WB6
-					else if (matches(character, PATTERN_KEYS.ALETTER) &&
-							(matches(nextCharacter, PATTERN_KEYS.MIDLETTER) ||
-								matches(nextCharacter, PATTERN_KEYS.MIDNUMLET) ||
-								SINGLE_QUOTE_PATTERN.matcher(nextCharacter).matches()) &&
-							((nextNextCharacter != null) && matches(nextNextCharacter, PATTERN_KEYS.ALETTER))) {
+					else if (is(classes, ALETTER) && is(nextClasses, MIDLETTER | MIDNUMLET | SINGLE_QUOTE) &&
+							is(nextNextClasses, ALETTER)) {
 						stringBuilder.append(character);
 					}
 
 					// WB7
-					else if (((prevCharacter != null) && matches(prevCharacter, PATTERN_KEYS.ALETTER)) &&
-							(matches(character, PATTERN_KEYS.MIDLETTER) || matches(character, PATTERN_KEYS.MIDNUMLET) ||
-								SINGLE_QUOTE_PATTERN.matcher(character).matches()) &&
-							matches(nextCharacter, PATTERN_KEYS.ALETTER)) {
+					else if (is(prevClasses, ALETTER) && is(classes, MIDLETTER | MIDNUMLET | SINGLE_QUOTE) &&
+							is(nextClasses, ALETTER)) {
 						stringBuilder.append(character);
 					}
 
 					// WB8
-					else if (matches(character, PATTERN_KEYS.NUMERIC) && matches(nextCharacter, PATTERN_KEYS.NUMERIC)) {
+					else if (is(classes, NUMERIC) && is(nextClasses, NUMERIC)) {
 						stringBuilder.append(character);
 					}
 
 					// WB9
-					else if (matches(character, PATTERN_KEYS.ALETTER) && matches(nextCharacter, PATTERN_KEYS.NUMERIC)) {
+					else if (is(classes, ALETTER) && is(nextClasses, NUMERIC)) {
 						stringBuilder.append(character);
 					}
 
 					// WB10
-					else if (matches(character, PATTERN_KEYS.NUMERIC) && matches(nextCharacter, PATTERN_KEYS.ALETTER)) {
+					else if (is(classes, NUMERIC) && is(nextClasses, ALETTER)) {
 						stringBuilder.append(character);
 					}
 
 					// WB11
-					else if (matches(character, PATTERN_KEYS.NUMERIC) &&
-							(matches(nextCharacter, PATTERN_KEYS.MIDNUM) ||
-								matches(nextCharacter, PATTERN_KEYS.MIDNUMLET) ||
-								SINGLE_QUOTE_PATTERN.matcher(nextCharacter).matches()) &&
-							((nextNextCharacter != null) && matches(nextNextCharacter, PATTERN_KEYS.NUMERIC))) {
+					else if (is(classes, NUMERIC) && is(nextClasses, MIDNUM | MIDNUMLET | SINGLE_QUOTE) &&
+							is(nextNextClasses, NUMERIC)) {
 						stringBuilder.append(character);
 					}
 
 					// WB12
-					else if (((prevCharacter != null) && matches(prevCharacter, PATTERN_KEYS.NUMERIC)) &&
-							(matches(character, PATTERN_KEYS.MIDNUM) || matches(character, PATTERN_KEYS.MIDNUMLET) ||
-								SINGLE_QUOTE_PATTERN.matcher(character).matches()) &&
-							matches(nextCharacter, PATTERN_KEYS.NUMERIC)) {
+					else if (is(prevClasses, NUMERIC) && is(classes, MIDNUM | MIDNUMLET | SINGLE_QUOTE) &&
+							is(nextClasses, NUMERIC)) {
 						stringBuilder.append(character);
 					}
 
 					// WB13
-					else if (matches(character, PATTERN_KEYS.KATAKANA) &&
-							matches(nextCharacter, PATTERN_KEYS.KATAKANA)) {
+					else if (is(classes, KATAKANA) && is(nextClasses, KATAKANA)) {
 						stringBuilder.append(character);
 					}
 
 					// WB13a
-					else if ((matches(character, PATTERN_KEYS.ALETTER) || matches(character, PATTERN_KEYS.NUMERIC) ||
-								matches(character, PATTERN_KEYS.KATAKANA) ||
-								matches(character, PATTERN_KEYS.EXTENDEDNUMLET)) &&
-							matches(nextCharacter, PATTERN_KEYS.EXTENDEDNUMLET)) {
+					else if (is(classes, ALETTER | NUMERIC | KATAKANA | EXTENDEDNUMLET) &&
+							is(nextClasses, EXTENDEDNUMLET)) {
 						stringBuilder.append(character);
 					}
 
-					// WB13a
-					else if (matches(character, PATTERN_KEYS.EXTENDEDNUMLET) &&
-							(matches(nextCharacter, PATTERN_KEYS.ALETTER) ||
-								matches(nextCharacter, PATTERN_KEYS.NUMERIC) ||
-								matches(nextCharacter, PATTERN_KEYS.KATAKANA) ||
-								matches(nextCharacter, PATTERN_KEYS.EXTENDEDNUMLET))) {
+					// WB13b
+					else if (is(classes, EXTENDEDNUMLET) &&
+							is(nextClasses, ALETTER | NUMERIC | KATAKANA | EXTENDEDNUMLET)) {
 						stringBuilder.append(character);
 					}
 					else {
 						stringBuilder.append(character);
-						wordList.add(stringBuilder.toString());
-						stringBuilder.setLength(0);
+						addWord(wordList, stringBuilder);
 					}
+
+					prevClasses = classes;
+					classes = nextClasses;
+					nextClasses = nextNextClasses;
 				}
 			}
 		}
 
-		Iterator<String> iterator = wordList.iterator();
+		return wordList;
+	}
+
+	private static int getCharacterClasses(char character) {
+
+		int characterClasses = CHARACTER_CLASSES[character];
 
-		while (iterator.hasNext()) {
+		if (characterClasses == 0) {
 
-			String word = (String) iterator.next();
+			String characterString = String.valueOf(character);
+			characterClasses = COMPUTED;
+
+			for (PATTERN_KEYS patternKey : PATTERN_KEYS.values()) {
+
+				if (patterns.get(patternKey).matcher(characterString).matches()) {
+					characterClasses |= (1 << patternKey.ordinal());
+				}
+			}
 
-			if (WHITESPACE.matcher(word).matches() || matches(word, PATTERN_KEYS.PUNCTUATION)) {
+			if (SINGLE_QUOTE_PATTERN.matcher(characterString).matches()) {
+				characterClasses |= SINGLE_QUOTE;
+			}
 
-				// Ignore whitespace and punctuation
-				iterator.remove();
+			if (WHITESPACE.matcher(characterString).matches()) {
+				characterClasses |= WHITESPACE_CHAR;
 			}
+
+			CHARACTER_CLASSES[character] = (short) characterClasses;
 		}
 
-		return wordList;
+		return characterClasses;
+	}
+
+	private static boolean is(int characterClasses, int classMask) {
+		return (characterClasses & classMask) != 0;
+	}
+
+	protected List<String> getWords(String words) {
+		return breakWords(words);
 	}
 }
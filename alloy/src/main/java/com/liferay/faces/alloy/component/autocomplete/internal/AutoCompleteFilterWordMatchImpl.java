@@ -28,60 +28,110 @@ package com.liferay.faces.alloy.component.autocomplete.internal;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 
 /**
  * @author  Kyle Stiemann
  */
-class AutoCompleteFilterWordMatchImpl extends AutoCompleteFilterWordMatchBaseImpl implements AutoCompleteFilter {
+class AutoCompleteFilterWordMatchImpl extends AutoCompleteFilterWordMatchBaseImpl {
 
 	@Override
-	public List<String> doFilter(String query, List<String> items, boolean caseSensitive, Locale locale) {
+	public List<String> doFilter(String query, AutoCompleteItemIndex itemIndex, int maxResults) {
 
 		List<String> results = new ArrayList<String>();
+		List<String> words = getWords(itemIndex.normalize(query));
 
-		if (!caseSensitive) {
-			query = query.toLowerCase(locale);
-		}
+		if (!words.isEmpty()) {
 
-		List<String> words = getWords(query);
+			Map<String, int[]> wordPostings = itemIndex.getWordPostings();
 
-		if (!words.isEmpty()) {
+			// If the words of the items have been indexed, then intersect the (ascending) indices of the items that
+			// contain each of the words of the query.
+			if (wordPostings != null) {
+
+				int[] matchingItemIndices = null;
+				int matchCount = 0;
 
-			boolean add;
+				for (String word : words) {
+
+					int[] postings = wordPostings.get(word);
 
-			int size = items.size();
+					if (postings == null) {
+						matchCount = 0;
 
-			for (int i = 0; i < size; i++) {
+						break;
+					}
+					else if (matchingItemIndices == null) {
+						matchingItemIndices = postings.clone();
+						matchCount = postings.length;
+					}
+					else {
+						matchCount = intersect(matchingItemIndices, matchCount, postings);
+					}
 
-				String item = items.get(i);
+					if (matchCount == 0) {
+						break;
+					}
+				}
 
-				if (!caseSensitive) {
-					item = item.toLowerCase(locale);
+				for (int i = 0; (i < matchCount) && !isLimitReached(results, maxResults); i++) {
+					results.add(itemIndex.getItem(matchingItemIndices[i]));
 				}
+			}
+			else {
 
-				add = true;
+				boolean add;
 
-				List<String> itemWords = getWords(item);
+				int size = itemIndex.size();
 
-				for (String word : words) {
+				for (int i = 0; (i < size) && !isLimitReached(results, maxResults); i++) {
 
-					if (!itemWords.contains(word)) {
-						add = false;
+					add = true;
 
-						break;
+					List<String> itemWords = getWords(itemIndex.getNormalizedItem(i));
+
+					for (String word : words) {
+
+						if (!itemWords.contains(word)) {
+							add = false;
+
+							break;
+						}
 					}
-				}
 
-				if (add) {
+					if (add) {
 
-					// Add the original item in case the item was changed to lower case.
-					results.add(items.get(i));
+						// Add the original item in case the item was changed to lower case.
+						results.add(itemIndex.getItem(i));
+					}
 				}
 			}
 		}
 
 		return results;
 	}
+
+	/**
+	 * Retains in the first matchCount elements of the specified matches only those that are also present in the
+	 * specified postings, and returns the number of elements that remain. Both arrays must be in ascending order.
+	 */
+	private static int intersect(int[] matches, int matchCount, int[] postings) {
+
+		int count = 0;
+		int j = 0;
+
+		for (int i = 0; (i < matchCount) && (j < postings.length); i++) {
+
+			while ((j < postings.length) && (postings[j] < matches[i])) {
+				j++;
+			}
+
+			if ((j < postings.length) && (postings[j] == matches[i])) {
+				matches[count++] = matches[i];
+			}
+		}
+
+		return count;
+	}
 }
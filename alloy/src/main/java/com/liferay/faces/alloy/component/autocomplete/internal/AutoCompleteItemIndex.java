@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.alloy.component.autocomplete.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * This class wraps the list of completion items that is filtered by an {@link AutoCompleteFilter}. Items are converted
+ * to lower case (when filtering is not case sensitive) only once, the first time that they are visited. When the index
+ * is cached across requests (see {@link AutoCompleteItemIndexCache}) it also maintains a sorted array of items for
+ * prefix searches and an inverted index of words for word matching, both of which are built lazily on first use.
+ *
+ * @author  Kyle Stiemann
+ */
+public class AutoCompleteItemIndex {
+
+	// Private Data Members
+	private boolean caseSensitive;
+	private boolean indexed;
+	private String[] items;
+	private Locale locale;
+	private String[] normalizedItems;
+	private int[] sortedItemIndices;
+	private Map<String, int[]> wordPostings;
+
+	public AutoCompleteItemIndex(List<String> items, boolean caseSensitive, Locale locale) {
+		this(items, caseSensitive, locale, false);
+	}
+
+	public AutoCompleteItemIndex(List<String> items, boolean caseSensitive, Locale locale, boolean indexed) {
+
+		// Copy the items so that a cached index does not prevent the garbage collection of the list.
+		this.items = items.toArray(new String[items.size()]);
+		this.caseSensitive = caseSensitive;
+		this.locale = locale;
+		this.indexed = indexed;
+		this.normalizedItems = new String[this.items.length];
+	}
+
+	/**
+	 * Returns the specified query in the same case as the normalized items.
+	 */
+	public String normalize(String query) {
+
+		if (caseSensitive) {
+			return query;
+		}
+		else {
+			return query.toLowerCase(locale);
+		}
+	}
+
+	public String getItem(int index) {
+		return items[index];
+	}
+
+	public Locale getLocale() {
+		return locale;
+	}
+
+	/**
+	 * Returns the item at the specified index, converted to lower case if filtering is not case sensitive.
+	 */
+	public String getNormalizedItem(int index) {
+
+		// Note: Concurrent requests that share a cached index may both compute the same value, which is harmless since
+		// Strings are immutable.
+		String normalizedItem = normalizedItems[index];
+
+		if (normalizedItem == null) {
+			normalizedItem = normalize(items[index]);
+			normalizedItems[index] = normalizedItem;
+		}
+
+		return normalizedItem;
+	}
+
+	/**
+	 * Returns the indices of the items sorted by their normalized value, or null if this index is not cached across
+	 * requests (in which case sorting would cost more than a linear scan).
+	 */
+	public synchronized int[] getSortedItemIndices() {
+
+		if (indexed && (sortedItemIndices == null)) {
+
+			int size = size();
+			Integer[] indices = new Integer[size];
+
+			for (int i = 0; i < size; i++) {
+				indices[i] = i;
+			}
+
+			Arrays.sort(indices, new Comparator<Integer>() {
+
+					@Override
+					public int compare(Integer index1, Integer index2) {
+						return getNormalizedItem(index1).compareTo(getNormalizedItem(index2));
+					}
+				});
+
+			int[] sortedItemIndices = new int[size];
+
+			for (int i = 0; i < size; i++) {
+				sortedItemIndices[i] = indices[i];
+			}
+
+			this.sortedItemIndices = sortedItemIndices;
+		}
+
+		return sortedItemIndices;
+	}
+
+	/**
+	 * Returns a map of each normalized word to the ascending indices of the items that contain it, or null if this
+	 * index is not cached across requests.
+	 */
+	public synchronized Map<String, int[]> getWordPostings() {
+
+		if (indexed && (wordPostings == null)) {
+
+			Map<String, List<Integer>> postingLists = new HashMap<String, List<Integer>>();
+			int size = size();
+
+			for (int i = 0; i < size; i++) {
+
+				for (String word : AutoCompleteFilterWordMatchBaseImpl.breakWords(getNormalizedItem(i))) {
+
+					List<Integer> postingList = postingLists.get(word);
+
+					if (postingList == null) {
+						postingList = new ArrayList<Integer>(1);
+						postingLists.put(word, postingList);
+					}
+
+					// Items are visited in ascending order, so a repeated word can only repeat the last index.
+					int last = postingList.size() - 1;
+
+					if ((last < 0) || (postingList.get(last) != i)) {
+						postingList.add(i);
+					}
+				}
+			}
+
+			Map<String, int[]> wordPostings = new HashMap<String, int[]>(postingLists.size());
+
+			for (Map.Entry<String, List<Integer>> entry : postingLists.entrySet()) {
+
+				List<Integer> postingList = entry.getValue();
+				int[] postings = new int[postingList.size()];
+
+				for (int i = 0; i < postings.length; i++) {
+					postings[i] = postingList.get(i);
+				}
+
+				wordPostings.put(entry.getKey(), postings);
+			}
+
+			this.wordPostings = wordPostings;
+		}
+
+		return wordPostings;
+	}
+
+	public boolean isCaseSensitive() {
+		return caseSensitive;
+	}
+
+	public boolean isIndexed() {
+		return indexed;
+	}
+
+	public int size() {
+		return normalizedItems.length;
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.alloy.component.autocomplete.internal;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * This class caches an {@link AutoCompleteItemIndex} for each list of completion items, so that the indices are built
+ * once rather than on every keystroke. Lists are matched by identity (not equality, which would require visiting every
+ * item) and are only weakly referenced, so an index is discarded along with its list. Since a list that is modified in
+ * place cannot be detected unless its size changes, the cache is only enabled via the {@link
+ * com.liferay.faces.alloy.config.internal.AlloyWebConfigParam#AutoCompleteItemIndexEnabled} context-param.
+ *
+ * @author  Kyle Stiemann
+ */
+final class AutoCompleteItemIndexCache {
+
+	// Private Constants
+	private static final int MAX_ENTRIES = 32;
+
+	// Private Data Members
+	private static final LinkedList<Entry> entries = new LinkedList<Entry>();
+
+	private AutoCompleteItemIndexCache() {
+		throw new AssertionError();
+	}
+
+	public static AutoCompleteItemIndex getItemIndex(List<String> items, boolean caseSensitive, Locale locale) {
+
+		synchronized (entries) {
+
+			Iterator<Entry> iterator = entries.iterator();
+
+			while (iterator.hasNext()) {
+
+				Entry entry = iterator.next();
+				List<String> entryItems = entry.itemsReference.get();
+
+				if (entryItems == null) {
+					iterator.remove();
+				}
+				else if ((entryItems == items) && (entry.itemIndex.isCaseSensitive() == caseSensitive) &&
+						entry.itemIndex.getLocale().equals(locale)) {
+
+					iterator.remove();
+
+					if (entry.itemIndex.size() == items.size()) {
+
+						// Move the entry to the front of the list so that the least recently used entry is evicted
+						// first.
+						entries.addFirst(entry);
+
+						return entry.itemIndex;
+					}
+				}
+			}
+
+			AutoCompleteItemIndex itemIndex = new AutoCompleteItemIndex(items, caseSensitive, locale, true);
+			entries.addFirst(new Entry(items, itemIndex));
+
+			if (entries.size() > MAX_ENTRIES) {
+				entries.removeLast();
+			}
+
+			return itemIndex;
+		}
+	}
+
+	private static final class Entry {
+
+		// Private Data Members
+		private AutoCompleteItemIndex itemIndex;
+		private WeakReference<List<String>> itemsReference;
+
+		public Entry(List<String> items, AutoCompleteItemIndex itemIndex) {
+			this.itemsReference = new WeakReference<List<String>>(items);
+			this.itemIndex = itemIndex;
+		}
+	}
+}
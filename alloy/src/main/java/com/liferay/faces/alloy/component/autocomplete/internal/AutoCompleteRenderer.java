@@ -35,6 +35,7 @@ import javax.faces.context.ResponseWriter;
 import javax.faces.render.FacesRenderer;
 
 import com.liferay.faces.alloy.component.autocomplete.AutoComplete;
+import com.liferay.faces.alloy.config.internal.AlloyWebConfigParam;
 import com.liferay.faces.util.component.ClientComponent;
 import com.liferay.faces.util.component.ComponentUtil;
 import com.liferay.faces.util.component.Styleable;
@@ -296,8 +297,27 @@ public class AutoCompleteRenderer extends AutoCompleteRendererBase {
 								serverFilterType);
 
 						if (autoCompleteFilter != null) {
+
 							boolean caseSensitive = serverFilterType.contains("Case");
-							items = autoCompleteFilter.doFilter(query, items, caseSensitive, locale);
+							AutoCompleteItemIndex itemIndex;
+
+							if (AlloyWebConfigParam.AutoCompleteItemIndexEnabled.getBooleanValue(externalContext)) {
+								itemIndex = AutoCompleteItemIndexCache.getItemIndex(items, caseSensitive, locale);
+							}
+							else {
+								itemIndex = new AutoCompleteItemIndex(items, caseSensitive, locale);
+							}
+
+							// Since the client-side component only displays maxItems results, filtering can stop as
+							// soon as that many have been found.
+							int maxResults = 0;
+							Integer maxItems = autoComplete.getMaxItems();
+
+							if (maxItems != null) {
+								maxResults = maxItems;
+							}
+
+							items = autoCompleteFilter.doFilter(query, itemIndex, maxResults);
 						}
 						else {
 							throw new IOException(serverFilterType + " is not a valid serverFilterType.");
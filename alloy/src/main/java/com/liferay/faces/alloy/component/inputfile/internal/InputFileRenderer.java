@@ -200,8 +200,7 @@ public class InputFileRenderer extends InputFileRendererBase implements SystemEv
 
 			if (inputFile.isShowProgress()) {
 				ProgressTableTemplate progressTableTemplate = getProgressTableTemplate(facesContext);
-				String progressTableHTML = progressTableTemplate.format(locale, clientId, inputFile.isAuto());
-				responseWriter.write(progressTableHTML);
+				progressTableTemplate.format(responseWriter, locale, clientId, inputFile.isAuto());
 			}
 
 			// Otherwise, delegate writing to the delegate renderer. Note that this effectively a no-op with Mojarra and
@@ -246,8 +245,7 @@ public class InputFileRenderer extends InputFileRendererBase implements SystemEv
 			Locale locale = facesContext.getViewRoot().getLocale();
 			String clientId = uiComponent.getClientId(facesContext);
 			PreviewTableTemplate previewTableTemplate = getPreviewTableTemplate(facesContext);
-			String previewTableHTML = previewTableTemplate.format(locale, clientId, false);
-			responseWriter.write(previewTableHTML);
+			previewTableTemplate.format(responseWriter, locale, clientId, false);
 
 			// Finish encoding of the outermost <div> element.
 			responseWriter.endElement(StringPool.DIV);
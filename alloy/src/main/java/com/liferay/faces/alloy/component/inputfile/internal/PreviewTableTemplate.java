@@ -14,6 +14,7 @@
 package com.liferay.faces.alloy.component.inputfile.internal;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Locale;
 
 import com.liferay.faces.util.context.MessageContext;
@@ -22,6 +23,7 @@ import com.liferay.faces.util.factory.FactoryExtensionFinder;
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.template.Template;
 import com.liferay.faces.util.template.TemplateFactory;
+import com.liferay.faces.util.template.TemplateUtil;
 
 
 /**
@@ -29,6 +31,13 @@ import com.liferay.faces.util.template.TemplateFactory;
  */
 public class PreviewTableTemplate {
 
+	// Private Constants
+	private static final String[] TOKENS = new String[] {
+			"${clientId}", "${i18n['file-name']}", "${i18n['file-type']}", "${i18n['file-size']}",
+			"${i18n['progress']}", "${i18n['no-files-selected']}", "${i18n['upload-files']}",
+			"${uploadFilesButtonClass}"
+		};
+
 	// Private Data Members
 	private Template template;
 
@@ -37,12 +46,8 @@ public class PreviewTableTemplate {
 		this.template = templateFactory.getTemplate(this.getClass(), "preview-table.html", minified);
 	}
 
-	public String format(Locale locale, String clientId, boolean auto) throws IOException {
-		String[] tokens = new String[] {
-				"${clientId}", "${i18n['file-name']}", "${i18n['file-type']}", "${i18n['file-size']}",
-				"${i18n['progress']}", "${i18n['no-files-selected']}", "${i18n['upload-files']}",
-				"${uploadFilesButtonClass}"
-			};
+	public void format(Writer writer, Locale locale, String clientId, boolean auto) throws IOException {
+
 		MessageContextFactory messageContextFactory = (MessageContextFactory) FactoryExtensionFinder.getFactory(
 				MessageContextFactory.class);
 		MessageContext messageContext = messageContextFactory.getMessageContext();
@@ -63,7 +68,7 @@ public class PreviewTableTemplate {
 				uploadFilesButtonClass
 			};
 
-		return getTemplate().formatTokens(tokens, replacements);
+		TemplateUtil.formatTokens(writer, getTemplate(), TOKENS, replacements);
 	}
 
 	protected Template getTemplate() {
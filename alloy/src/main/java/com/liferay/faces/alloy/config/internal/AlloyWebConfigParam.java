@@ -23,7 +23,13 @@ import com.liferay.faces.util.config.WebConfigParamUtil;
  */
 public enum AlloyWebConfigParam {
 
-	AlloyTagDecoratorEnabled("com.liferay.faces.util.AlloyTagDecoratorEnabled", true);
+	AlloyTagDecoratorEnabled("com.liferay.faces.util.AlloyTagDecoratorEnabled", true),
+
+	/**
+	 * Flag indicating whether server-side filtering of alloy:autoComplete should cache an index of each list of
+	 * completion items. This should only be enabled when the list returned by getAllItems is not modified in place.
+	 */
+	AutoCompleteItemIndexEnabled("com.liferay.faces.alloy.AutoCompleteItemIndexEnabled", false);
 
 	// Private Data Members
 	private boolean defaultBooleanValue;
@@ -73,8 +73,11 @@ public abstract class AlloyRendererBase extends ClientComponentRendererBase impl
 
 	@Override
 	public void encodeJavaScriptBegin(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+
+		// When client script coalescing is enabled, the sandbox is rendered by the ClientScript rather than here.
+		boolean sandboxed = isSandboxed(facesContext, uiComponent) && !isClientScriptCoalescingEnabled(facesContext);
 		AlloyRendererUtil.encodeJavaScriptBegin(facesContext, uiComponent, this, getModules(facesContext, uiComponent),
-			isAjax(facesContext), isSandboxed(facesContext, uiComponent));
+			isAjax(facesContext), sandboxed);
 	}
 
 	@Override
@@ -84,8 +87,9 @@ public abstract class AlloyRendererBase extends ClientComponentRendererBase impl
 
 	@Override
 	public void encodeJavaScriptEnd(FacesContext facesContext, UIComponent uiComponent) throws IOException {
-		AlloyRendererUtil.encodeJavaScriptEnd(facesContext, uiComponent, isAjax(facesContext),
-			isSandboxed(facesContext, uiComponent));
+
+		boolean sandboxed = isSandboxed(facesContext, uiComponent) && !isClientScriptCoalescingEnabled(facesContext);
+		AlloyRendererUtil.encodeJavaScriptEnd(facesContext, uiComponent, isAjax(facesContext), sandboxed);
 	}
 
 	@Override
@@ -122,6 +126,11 @@ public abstract class AlloyRendererBase extends ClientComponentRendererBase impl
 		AlloyRendererUtil.encodeWidgetRender(responseWriter, first);
 	}
 
+	@Override
+	protected String getClientScriptConfig(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+		return getYUIConfig(facesContext, facesContext.getResponseWriter(), uiComponent);
+	}
+
 	@Override
 	public String getYUIConfig(FacesContext facesContext, ResponseWriter responseWriter, UIComponent uiComponent)
 		throws IOException {
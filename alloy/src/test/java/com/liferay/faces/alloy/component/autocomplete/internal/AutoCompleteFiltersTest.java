@@ -14,6 +14,7 @@
 package com.liferay.faces.alloy.component.autocomplete.internal;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 
 import org.junit.Assert;
@@ -46,6 +47,18 @@ public class AutoCompleteFiltersTest {
 				autoCompleteFilter.doFilter("r", Arrays.asList("Red", "red"), true, Locale.ENGLISH)));
 	}
 
+	@Test
+	public void maxResultsTest() {
+
+		List<String> items = Arrays.asList("red", "black", "red black", "Red", "blue");
+		AutoCompleteItemIndex itemIndex = new AutoCompleteItemIndex(items, false, Locale.ENGLISH);
+		AutoCompleteFilter autoCompleteFilter = autoCompleteFilterFactory.getAutoCompleteFilter("phraseMatch");
+		Assert.assertEquals(Arrays.asList("red", "red black"), autoCompleteFilter.doFilter("red", itemIndex, 2));
+		Assert.assertEquals(Arrays.asList("red", "red black", "Red"), autoCompleteFilter.doFilter("red", itemIndex, 0));
+		autoCompleteFilter = autoCompleteFilterFactory.getAutoCompleteFilter("charMatch");
+		Assert.assertEquals(Arrays.asList("black"), autoCompleteFilter.doFilter("bl", itemIndex, 1));
+	}
+
 	@Test
 	public void phraseMatchFilterTest() {
 
@@ -84,6 +97,21 @@ public class AutoCompleteFiltersTest {
 				autoCompleteFilter.doFilter("red", Arrays.asList("Red", "red"), true, Locale.ENGLISH)));
 	}
 
+	@Test
+	public void startsWithIndexedFilterTest() {
+
+		List<String> items = Arrays.asList("red black", "black", "Red", "blue", "red", "reddish");
+		AutoCompleteItemIndex itemIndex = new AutoCompleteItemIndex(items, false, Locale.ENGLISH, true);
+		AutoCompleteFilter autoCompleteFilter = autoCompleteFilterFactory.getAutoCompleteFilter("startsWith");
+		Assert.assertEquals(Arrays.asList("red black", "Red", "red", "reddish"),
+			autoCompleteFilter.doFilter("red", itemIndex, 0));
+		Assert.assertEquals(Arrays.asList("red black", "Red"), autoCompleteFilter.doFilter("RED", itemIndex, 2));
+		Assert.assertTrue(autoCompleteFilter.doFilter("green", itemIndex, 0).isEmpty());
+
+		itemIndex = new AutoCompleteItemIndex(items, true, Locale.ENGLISH, true);
+		Assert.assertEquals(Arrays.asList("Red"), autoCompleteFilter.doFilter("Red", itemIndex, 0));
+	}
+
 	@Test
 	public void subWordMatchTest() {
 
@@ -131,4 +159,17 @@ public class AutoCompleteFiltersTest {
 		Assert.assertTrue(Arrays.asList("red").equals(
 				autoCompleteFilter.doFilter("red", Arrays.asList("Red", "red"), true, Locale.ENGLISH)));
 	}
+
+	@Test
+	public void wordMatchIndexedTest() {
+
+		List<String> items = Arrays.asList("red", "black", "red black blue", "redblack blue", "Blue Red");
+		AutoCompleteItemIndex itemIndex = new AutoCompleteItemIndex(items, false, Locale.ENGLISH, true);
+		AutoCompleteFilter autoCompleteFilter = autoCompleteFilterFactory.getAutoCompleteFilter("wordMatch");
+		Assert.assertEquals(Arrays.asList("red black blue"), autoCompleteFilter.doFilter("blue red black", itemIndex, 0));
+		Assert.assertEquals(Arrays.asList("red", "red black blue", "Blue Red"),
+			autoCompleteFilter.doFilter("red", itemIndex, 0));
+		Assert.assertEquals(Arrays.asList("red black blue"), autoCompleteFilter.doFilter("red blue", itemIndex, 1));
+		Assert.assertTrue(autoCompleteFilter.doFilter("red green", itemIndex, 0).isEmpty());
+	}
 }
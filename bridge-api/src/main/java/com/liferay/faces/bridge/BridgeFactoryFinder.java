@@ -27,7 +27,7 @@ import javax.faces.FacesException;
 public abstract class BridgeFactoryFinder {
 
 	// Private Static Data Members
-	private static BridgeFactoryFinder instance;
+	private static volatile BridgeFactoryFinder instance;
 
 	public static String getClassPathResourceAsString(String resourcePath) {
 		String classPathResourceAsString = null;
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope;
+
+import java.io.IOException;
+
+
+/**
+ * This interface defines a service provider for storing the state that a {@link BridgeRequestScope} saves at the end of
+ * the ACTION_PHASE or EVENT_PHASE of the portlet lifecycle (and restores in subsequent RENDER_PHASE requests) in
+ * serialized form, rather than as live objects on the heap. The class name of an implementation (or the name of one of
+ * the implementations provided by the bridge: "heap", "offHeap" or "mappedFile") can be specified with the {@link
+ * #STATE_STORE} context-param.
+ *
+ * @author  Neil Griffin
+ */
+public interface BridgeRequestScopeStateStore {
+
+	/** Name of the context-param that specifies the state store. */
+	public static final String STATE_STORE = "com.liferay.faces.bridge.bridgeRequestScopeStateStore";
+
+	/**
+	 * Returns the bytes of the state that is referenced by the specified handle.
+	 *
+	 * @param  handle  The handle that was returned by {@link #store(byte[])}.
+	 *
+	 * @throws  IOException  If the state could not be read.
+	 */
+	byte[] load(Object handle) throws IOException;
+
+	/**
+	 * Stores the specified bytes and returns an opaque handle through which they can be loaded. The handle is held by
+	 * the {@link BridgeRequestScope} and the stored bytes must remain available for as long as the handle is
+	 * reachable. Implementations must therefore release any resources associated with the stored bytes when the handle
+	 * is garbage collected.
+	 *
+	 * @param  state  The serialized state.
+	 *
+	 * @throws  IOException  If the state could not be stored.
+	 */
+	Object store(byte[] state) throws IOException;
+}
@@ -0,0 +1,500 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.application.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.faces.application.ProjectStage;
+import javax.faces.application.Resource;
+import javax.faces.application.ResourceHandler;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import com.liferay.faces.util.application.ResourceConstants;
+import com.liferay.faces.util.application.ResourceHandlerWrapperBase;
+import com.liferay.faces.util.application.ResourceMetadataUtil;
+import com.liferay.faces.util.lang.StringPool;
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+import com.liferay.faces.util.render.HttpHeaders;
+
+
+/**
+ * This class represents the concatenation of an ordered list of JavaScript or CSS resources that are delivered to the
+ * browser with a single request. The name of the resource is a digest of the ids (library:name) of the resources that
+ * it contains, so that the same list of resources is always requested with the same URL. The digest is an HMAC with a
+ * key that is chosen randomly when this class is loaded, so that only the combinations that were rendered by the
+ * bridge can be requested. The concatenated content is cached (along with an ETag). Since the cache is stored in the
+ * application map, it is discarded along with the application when it is redeployed. When the project stage is
+ * Development the cache is bypassed so that changes to resources are picked up without a redeploy.
+ *
+ * @author  Neil Griffin
+ */
+public class ComboResourceImpl extends Resource {
+
+	// Public Constants
+	public static final String EXTENSION_CSS = ".css";
+	public static final String EXTENSION_JS = ".js";
+	public static final String LIBRARY_NAME = "liferay-faces-bridge-combo";
+	public static final String RESOURCE_IDS = "resourceIds";
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(ComboResourceImpl.class);
+
+	// Private Constants
+	private static final String COMBO_CONTENT_CACHE = ComboResourceImpl.class.getName() + ".CACHE";
+	private static final String DIGEST_ALGORITHM = "HmacSHA256";
+	private static final SecretKeySpec DIGEST_KEY;
+	private static final int DIGEST_LENGTH = 16;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final int MAX_CACHE_SIZE = 256;
+	private static final byte[] SEPARATOR = new byte[] { '\n' };
+
+	// The contents of RichFaces resources are filtered by ResourceOutputStreamRichFacesImpl and the contents of
+	// liferay-faces-reslib resources are filtered by ExpressionResourceOutputStream when they are requested separately.
+	// Since the content of a combo resource is read directly from Resource.getInputStream() it would bypass the filter.
+	private static final String[] FILTERED_RESOURCE_ID_PREFIXES = new String[] {
+			"org.richfaces", "liferay-faces-reslib:"
+		};
+
+	static {
+
+		byte[] key = new byte[32];
+		new SecureRandom().nextBytes(key);
+		DIGEST_KEY = new SecretKeySpec(key, DIGEST_ALGORITHM);
+	}
+
+	// Private Data Members
+	private ComboContent comboContent;
+	private String contentType;
+	private String digest;
+	private List<String> resourceIds;
+	private String resourceName;
+
+	public ComboResourceImpl(String extension, List<String> resourceIds) {
+		this.resourceIds = resourceIds;
+		this.digest = getDigest(resourceIds);
+		this.resourceName = digest + extension;
+
+		if (EXTENSION_CSS.equals(extension)) {
+			this.contentType = "text/css";
+		}
+		else {
+			this.contentType = "text/javascript";
+		}
+	}
+
+	/**
+	 * Returns the digest of the specified list of resource ids. The digest is stable in that the same list of resource
+	 * ids (in the same order) always produces the same digest until the application is redeployed.
+	 */
+	public static String getDigest(List<String> resourceIds) {
+
+		try {
+			Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+			mac.init(DIGEST_KEY);
+
+			for (String resourceId : resourceIds) {
+				mac.update(resourceId.getBytes(StringPool.UTF8));
+				mac.update((byte) ',');
+			}
+
+			byte[] digest = new byte[DIGEST_LENGTH];
+			System.arraycopy(mac.doFinal(), 0, digest, 0, DIGEST_LENGTH);
+
+			return toHexString(digest);
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Determines whether or not the resource with the specified id can be delivered as part of a combo resource. The id
+	 * must be able to survive as the value of a URL parameter, the resource must be cacheable by the browser and the
+	 * contents of the resource must not be filtered when the resource is requested separately.
+	 */
+	public static boolean isCombinable(String resourceId, String resourceName) {
+
+		boolean combinable = (resourceId != null) && (resourceName != null) && (resourceId.indexOf(',') < 0) &&
+			(resourceId.indexOf('&') < 0) && (resourceId.indexOf('=') < 0) && ResourceImpl.isCacheable(resourceName);
+
+		if (combinable) {
+
+			for (String filteredResourceIdPrefix : FILTERED_RESOURCE_ID_PREFIXES) {
+
+				if (resourceId.startsWith(filteredResourceIdPrefix) ||
+						resourceName.startsWith(filteredResourceIdPrefix)) {
+					combinable = false;
+
+					break;
+				}
+			}
+		}
+
+		return combinable;
+	}
+
+	/**
+	 * Determines whether or not the resource with the specified id can be delivered as part of a combo resource with
+	 * the specified extension.
+	 */
+	public static boolean isCombinable(String resourceId, String resourceName, String extension) {
+		return isCombinable(resourceId, resourceName) && resourceName.endsWith(extension);
+	}
+
+	/**
+	 * Determines whether or not the specified resource name has one of the extensions that are excluded by the {@link
+	 * ResourceHandler#RESOURCE_EXCLUDES_PARAM_NAME} context-param.
+	 */
+	public static boolean isExcluded(ExternalContext externalContext, String resourceName) {
+
+		String resourceExcludes = externalContext.getInitParameter(ResourceHandler.RESOURCE_EXCLUDES_PARAM_NAME);
+
+		if (resourceExcludes == null) {
+			resourceExcludes = ResourceHandler.RESOURCE_EXCLUDES_DEFAULT_VALUE;
+		}
+
+		for (String resourceExclude : resourceExcludes.split("\\s+")) {
+
+			if ((resourceExclude.length() > 0) && resourceName.endsWith(resourceExclude)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Parses the comma-delimited list of URL-encoded resource ids that is found in the URL of a combo resource.
+	 */
+	public static List<String> parseResourceIds(String value) {
+
+		List<String> resourceIds = new ArrayList<String>();
+
+		if (value != null) {
+
+			for (String resourceId : value.split(StringPool.COMMA)) {
+
+				if (resourceId.length() > 0) {
+
+					try {
+						resourceIds.add(URLDecoder.decode(resourceId, StringPool.UTF8));
+					}
+					catch (UnsupportedEncodingException e) {
+						throw new IllegalStateException(e);
+					}
+					catch (IllegalArgumentException e) {
+
+						// A malformed escape sequence cannot have been rendered by the bridge, so the id is ignored and
+						// the digest of the remaining ids will not match the name of the requested resource.
+						logger.debug("Unable to decode resourceId=[{0}]", resourceId);
+					}
+				}
+			}
+		}
+
+		return resourceIds;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected static ConcurrentMap<String, ComboContent> getComboContentCache(FacesContext facesContext) {
+
+		Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+		ConcurrentMap<String, ComboContent> comboContentCache = (ConcurrentMap<String, ComboContent>)
+			applicationMap.get(COMBO_CONTENT_CACHE);
+
+		// It is harmless if more than one thread creates the cache at the same time, since the only consequence is that
+		// the content of a combo resource might be loaded more than once.
+		if (comboContentCache == null) {
+			comboContentCache = new ConcurrentHashMap<String, ComboContent>();
+			applicationMap.put(COMBO_CONTENT_CACHE, comboContentCache);
+		}
+
+		return comboContentCache;
+	}
+
+	@Override
+	public boolean userAgentNeedsUpdate(FacesContext facesContext) {
+
+		boolean needsUpdate = true;
+		ExternalContext externalContext = facesContext.getExternalContext();
+		String ifNoneMatch = externalContext.getRequestHeaderMap().get(HttpHeaders.IF_NONE_MATCH);
+
+		if (ifNoneMatch != null) {
+
+			ComboContent comboContent = getComboContent(facesContext);
+
+			if (comboContent.eTag != null) {
+				needsUpdate = !ResourceMetadataUtil.matchesETag(ifNoneMatch, comboContent.eTag);
+			}
+		}
+
+		logger.debug("resourceName=[{0}] needsUpdate=[{1}]", resourceName, needsUpdate);
+
+		return needsUpdate;
+	}
+
+	protected ComboContent getComboContent(FacesContext facesContext) {
+
+		if (comboContent == null) {
+
+			ConcurrentMap<String, ComboContent> comboContentCache = null;
+
+			if (!facesContext.isProjectStage(ProjectStage.Development)) {
+				comboContentCache = getComboContentCache(facesContext);
+				comboContent = comboContentCache.get(digest);
+			}
+
+			if (comboContent == null) {
+
+				comboContent = loadComboContent(facesContext);
+
+				// Since the digest of a combo resource cannot be forged, only the combinations that were rendered by
+				// the bridge can be cached. Even so, the number of combinations that are cached is bounded.
+				if ((comboContentCache != null) && comboContent.complete &&
+						(comboContentCache.size() < MAX_CACHE_SIZE)) {
+					comboContentCache.putIfAbsent(digest, comboContent);
+				}
+			}
+		}
+
+		return comboContent;
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+
+		ComboContent comboContent = getComboContent(FacesContext.getCurrentInstance());
+
+		return new ByteArrayInputStream(comboContent.bytes);
+	}
+
+	@Override
+	public String getContentType() {
+		return contentType;
+	}
+
+	@Override
+	public String getLibraryName() {
+		return LIBRARY_NAME;
+	}
+
+	@Override
+	public String getRequestPath() {
+
+		FacesContext facesContext = FacesContext.getCurrentInstance();
+		StringBuilder buf = new StringBuilder();
+		buf.append(facesContext.getExternalContext().getRequestContextPath());
+		buf.append(ResourceHandler.RESOURCE_IDENTIFIER);
+		buf.append(StringPool.FORWARD_SLASH);
+		buf.append(resourceName);
+		buf.append(StringPool.QUESTION);
+		buf.append(ResourceConstants.LN);
+		buf.append(StringPool.EQUAL);
+		buf.append(LIBRARY_NAME);
+		buf.append(StringPool.AMPERSAND);
+		buf.append(RESOURCE_IDS);
+		buf.append(StringPool.EQUAL);
+
+		for (int i = 0; i < resourceIds.size(); i++) {
+
+			if (i > 0) {
+				buf.append(StringPool.COMMA);
+			}
+
+			// URL-encode each resource id so that characters like '#', '+', '%', '?' and spaces survive the URL.
+			try {
+				buf.append(URLEncoder.encode(resourceIds.get(i), StringPool.UTF8));
+			}
+			catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		return buf.toString();
+	}
+
+	/**
+	 * Determines whether or not the content of each of the resources that make up this combo resource could be loaded.
+	 */
+	public boolean isComplete() {
+		return getComboContent(FacesContext.getCurrentInstance()).complete;
+	}
+
+	public List<String> getResourceIds() {
+		return Collections.unmodifiableList(resourceIds);
+	}
+
+	@Override
+	public String getResourceName() {
+		return resourceName;
+	}
+
+	@Override
+	public Map<String, String> getResponseHeaders() {
+
+		Map<String, String> responseHeaders = new HashMap<String, String>();
+		ComboContent comboContent = getComboContent(FacesContext.getCurrentInstance());
+
+		if (comboContent.eTag != null) {
+			responseHeaders.put(HttpHeaders.ETAG, comboContent.eTag);
+		}
+
+		return responseHeaders;
+	}
+
+	@Override
+	public URL getURL() {
+		return null;
+	}
+
+	/**
+	 * Concatenates the contents of the resources that make up this combo resource, in order. Each resource is created
+	 * by the chain-of-responsibility found in the application's {@link ResourceHandler} so that it is delivered exactly
+	 * as it would have been with a separate request.
+	 */
+	protected ComboContent loadComboContent(FacesContext facesContext) {
+
+		ResourceHandler resourceHandlerChain = facesContext.getApplication().getResourceHandler();
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		byte[] buffer = new byte[ResourceHandlerWrapperBase.DEFAULT_BUFFER_SIZE];
+		boolean complete = true;
+
+		for (String resourceId : resourceIds) {
+
+			String libraryName = null;
+			String name = resourceId;
+			int colonPos = resourceId.indexOf(StringPool.COLON);
+
+			if (colonPos > 0) {
+				libraryName = resourceId.substring(0, colonPos);
+				name = resourceId.substring(colonPos + 1);
+			}
+
+			Resource resource;
+
+			if (libraryName == null) {
+				resource = resourceHandlerChain.createResource(name);
+			}
+			else {
+				resource = resourceHandlerChain.createResource(name, libraryName);
+			}
+
+			InputStream inputStream = null;
+
+			try {
+
+				if (resource != null) {
+					inputStream = resource.getInputStream();
+				}
+
+				if (inputStream == null) {
+					complete = false;
+					logger.error("Unable to include resourceId=[{0}] in combo resourceName=[{1}]", resourceId,
+						resourceName);
+				}
+				else {
+
+					int bytesRead;
+
+					while ((bytesRead = inputStream.read(buffer)) != -1) {
+						byteArrayOutputStream.write(buffer, 0, bytesRead);
+					}
+
+					byteArrayOutputStream.write(SEPARATOR, 0, SEPARATOR.length);
+				}
+			}
+			catch (IOException e) {
+				complete = false;
+				logger.error("Unable to include resourceId=[{0}] in combo resourceName=[{1}] error=[{2}]", resourceId,
+					resourceName, e.getMessage());
+			}
+			finally {
+
+				if (inputStream != null) {
+
+					try {
+						inputStream.close();
+					}
+					catch (IOException e) {
+						// ignore
+					}
+				}
+			}
+		}
+
+		byte[] bytes = byteArrayOutputStream.toByteArray();
+		String eTag = null;
+
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+			eTag = StringPool.QUOTE + toHexString(messageDigest.digest(bytes)) + StringPool.QUOTE;
+		}
+		catch (NoSuchAlgorithmException e) {
+			logger.error(e);
+		}
+
+		return new ComboContent(bytes, eTag, complete);
+	}
+
+	private static String toHexString(byte[] bytes) {
+
+		char[] chars = new char[bytes.length * 2];
+
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+			chars[(i * 2) + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+		}
+
+		return new String(chars);
+	}
+
+	protected static final class ComboContent {
+
+		// Private Data Members
+		private final byte[] bytes;
+		private final boolean complete;
+		private final String eTag;
+
+		public ComboContent(byte[] bytes, String eTag, boolean complete) {
+			this.bytes = bytes;
+			this.eTag = eTag;
+			this.complete = complete;
+		}
+	}
+}
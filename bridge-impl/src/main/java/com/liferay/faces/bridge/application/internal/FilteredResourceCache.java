@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.application.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * This class provides a bounded, least-recently-used cache of the filtered contents of resources, so that resources
+ * that have to be rewritten (like RichFaces CSS and JavaScript resources) only need to be rewritten the first time they
+ * are requested. Since the filtered contents may contain URLs that depend on the current request (like the
+ * ResourceURLs of images), the filtered contents are held as a template: literal text interleaved with references to
+ * resources whose URLs are resolved for each request. An entry is only used if the unfiltered contents that it was
+ * filtered from have the same size and checksum as the unfiltered contents of the current request.
+ *
+ * @author  Neil Griffin
+ */
+public class FilteredResourceCache {
+
+	// Private Constants
+	private static final int DEFAULT_MAX_SIZE = 128;
+
+	// Private Data Members
+	private Map<String, FilteredResource> cache;
+
+	public FilteredResourceCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public FilteredResourceCache(final int maxSize) {
+		this.cache = new LinkedHashMap<String, FilteredResource>(16, 0.75f, true) {
+
+				// serialVersionUID
+				private static final long serialVersionUID = 5741286139812659813L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, FilteredResource> eldest) {
+					return size() > maxSize;
+				}
+			};
+	}
+
+	public static byte[] gzip(byte[] bytes) throws IOException {
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(bytes.length / 2);
+		GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream);
+		gzipOutputStream.write(bytes);
+		gzipOutputStream.close();
+
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	/**
+	 * Returns the cached filtered resource associated with the specified key, provided that it was filtered from
+	 * unfiltered contents of the specified size and checksum. Otherwise, returns <code>null</code>.
+	 */
+	public FilteredResource get(String key, int unfilteredSize, long unfilteredChecksum) {
+
+		FilteredResource filteredResource;
+
+		synchronized (cache) {
+			filteredResource = cache.get(key);
+		}
+
+		if ((filteredResource != null) &&
+				((filteredResource.getUnfilteredSize() != unfilteredSize) ||
+					(filteredResource.getUnfilteredChecksum() != unfilteredChecksum))) {
+			filteredResource = null;
+		}
+
+		return filteredResource;
+	}
+
+	public void put(String key, FilteredResource filteredResource) {
+
+		synchronized (cache) {
+			cache.put(key, filteredResource);
+		}
+	}
+
+	/**
+	 * @author  Neil Griffin
+	 */
+	public static class FilteredResource {
+
+		// Private Data Members
+		private byte[] bytes;
+		private volatile byte[] gzipBytes;
+		private ResourceReference[] resourceReferences;
+		private String[] texts;
+		private long unfilteredChecksum;
+		private int unfilteredSize;
+
+		/**
+		 * Creates a filtered resource whose contents do not depend on the current request.
+		 */
+		public FilteredResource(int unfilteredSize, long unfilteredChecksum, String text) {
+			this(unfilteredSize, unfilteredChecksum, new String[] { text }, new ResourceReference[0]);
+		}
+
+		/**
+		 * Creates a filtered resource whose contents consist of the specified texts, where the URL of the resource
+		 * reference at index <code>i</code> is to be inserted between the texts at index <code>i</code> and <code>i +
+		 * 1</code>.
+		 */
+		public FilteredResource(int unfilteredSize, long unfilteredChecksum, String[] texts,
+			ResourceReference[] resourceReferences) {
+
+			if (texts.length != (resourceReferences.length + 1)) {
+				throw new IllegalArgumentException("There must be exactly one more text than resource references");
+			}
+
+			this.unfilteredSize = unfilteredSize;
+			this.unfilteredChecksum = unfilteredChecksum;
+			this.texts = texts;
+			this.resourceReferences = resourceReferences;
+
+			if (resourceReferences.length == 0) {
+				this.bytes = texts[0].getBytes();
+			}
+		}
+
+		/**
+		 * Returns the filtered contents, which are only available if the filtered resource does not have any resource
+		 * references. Otherwise, returns <code>null</code>.
+		 */
+		public byte[] getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * Returns the gzip-compressed variant of the filtered contents, compressing them the first time that this
+		 * method is called. Since the compressed bytes are always the same, it is harmless if more than one thread
+		 * compresses them at the same time. Returns <code>null</code> if the filtered resource has resource references.
+		 */
+		public byte[] getGzipBytes() throws IOException {
+
+			byte[] gzipBytes = this.gzipBytes;
+
+			if ((gzipBytes == null) && (bytes != null)) {
+				gzipBytes = gzip(bytes);
+				this.gzipBytes = gzipBytes;
+			}
+
+			return gzipBytes;
+		}
+
+		public ResourceReference[] getResourceReferences() {
+			return resourceReferences;
+		}
+
+		public String[] getTexts() {
+			return texts;
+		}
+
+		public long getUnfilteredChecksum() {
+			return unfilteredChecksum;
+		}
+
+		public int getUnfilteredSize() {
+			return unfilteredSize;
+		}
+	}
+
+	/**
+	 * This class represents a reference to a resource (such as an image) whose URL is resolved for each request.
+	 *
+	 * @author  Neil Griffin
+	 */
+	public static class ResourceReference {
+
+		// Private Data Members
+		private String libraryName;
+		private String resourceName;
+
+		public ResourceReference(String libraryName, String resourceName) {
+			this.libraryName = libraryName;
+			this.resourceName = resourceName;
+		}
+
+		public String getLibraryName() {
+			return libraryName;
+		}
+
+		public String getResourceName() {
+			return resourceName;
+		}
+	}
+}
@@ -14,6 +14,7 @@
 package com.liferay.faces.bridge.application.internal;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 import javax.faces.application.Resource;
@@ -29,6 +30,7 @@ import com.liferay.faces.bridge.config.internal.PortletConfigParam;
 import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.util.application.ResourceConstants;
 import com.liferay.faces.util.application.ResourceHandlerWrapperBase;
+import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 
@@ -152,7 +154,11 @@ public class ResourceHandlerBridgeImpl extends ResourceHandlerWrapperBase {
 			ResourceHandler resourceHandlerChain = facesContext.getApplication().getResourceHandler();
 			Resource resource = null;
 
-			if (libraryName == null) {
+			if (ComboResourceImpl.LIBRARY_NAME.equals(libraryName) && isResourceComboEnabled()) {
+				resource = getComboResource(facesContext, resourceName,
+						requestParameterMap.get(ComboResourceImpl.RESOURCE_IDS));
+			}
+			else if (libraryName == null) {
 				resource = resourceHandlerChain.createResource(resourceName);
 			}
 			else {
@@ -168,6 +174,52 @@ public class ResourceHandlerBridgeImpl extends ResourceHandlerWrapperBase {
 		}
 	}
 
+	/**
+	 * Returns the combo resource that concatenates the resources with the specified ids. Since the name of a combo
+	 * resource is the digest of its resource ids, a request in which the two do not agree is treated as a request for a
+	 * missing resource. The same is true of a request for a combo resource that contains a resource that could not have
+	 * been combined by the bridge, or whose content could not be loaded completely.
+	 */
+	protected Resource getComboResource(FacesContext facesContext, String resourceName, String resourceIds) {
+
+		String extension = ComboResourceImpl.EXTENSION_JS;
+
+		if (resourceName.endsWith(ComboResourceImpl.EXTENSION_CSS)) {
+			extension = ComboResourceImpl.EXTENSION_CSS;
+		}
+
+		List<String> resourceIdList = ComboResourceImpl.parseResourceIds(resourceIds);
+		ComboResourceImpl comboResource = new ComboResourceImpl(extension, resourceIdList);
+		boolean valid = !resourceIdList.isEmpty() && resourceName.equals(comboResource.getResourceName());
+
+		if (valid) {
+
+			ExternalContext externalContext = facesContext.getExternalContext();
+
+			for (String resourceId : resourceIdList) {
+
+				String name = resourceId.substring(resourceId.indexOf(StringPool.COLON) + 1);
+
+				if (!ComboResourceImpl.isCombinable(resourceId, name, extension) ||
+						ComboResourceImpl.isExcluded(externalContext, name)) {
+
+					logger.warn("Unable to include resourceId=[{0}] in combo resourceName=[{1}]", resourceId,
+						resourceName);
+					valid = false;
+
+					break;
+				}
+			}
+		}
+
+		if (valid && comboResource.isComplete()) {
+			return comboResource;
+		}
+		else {
+			return new MissingResourceImpl(getWrapped(), resourceName, ComboResourceImpl.LIBRARY_NAME);
+		}
+	}
+
 	/**
 	 * Gets the size of the buffer (in bytes) that is to be used when loading contents of resources that are to be sent
 	 * back via {@link ExternalContext#getResponseOutputStream()}. The default value is 1024 (1 kilobyte).
@@ -196,6 +248,14 @@ public class ResourceHandlerBridgeImpl extends ResourceHandlerWrapperBase {
 		return (setHttpStatusCodeSupport != null);
 	}
 
+	protected boolean isResourceComboEnabled() {
+
+		BridgeContext bridgeContext = BridgeContext.getCurrentInstance();
+		PortletConfig portletConfig = bridgeContext.getPortletConfig();
+
+		return PortletConfigParam.ResourceComboEnabled.getBooleanValue(portletConfig);
+	}
+
 	@Override
 	public boolean isResourceRequest(FacesContext facesContext) {
 
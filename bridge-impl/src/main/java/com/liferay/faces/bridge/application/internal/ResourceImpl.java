@@ -13,18 +13,12 @@
  */
 package com.liferay.faces.bridge.application.internal;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.io.Serializable;
 import java.net.URL;
-import java.net.URLConnection;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
 
 import javax.faces.application.Resource;
 import javax.faces.application.ResourceHandler;
@@ -34,7 +28,10 @@ import javax.faces.context.FacesContext;
 import com.liferay.faces.bridge.config.BridgeConfig;
 import com.liferay.faces.bridge.config.internal.BridgeConfigAttributeMap;
 import com.liferay.faces.bridge.context.BridgeContext;
+import com.liferay.faces.util.application.ContentPreservingResource;
 import com.liferay.faces.util.application.ResourceConstants;
+import com.liferay.faces.util.application.ResourceMetadata;
+import com.liferay.faces.util.application.ResourceMetadataUtil;
 import com.liferay.faces.util.config.ConfiguredServletMapping;
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
@@ -43,11 +40,12 @@ import com.liferay.faces.util.render.HttpHeaders;
 
 
 /**
- * This class decorates the resource implementation from the JSF implementation.
+ * This class decorates the resource implementation from the JSF implementation. Since it does not alter the contents of
+ * the wrapped resource, it is a {@link ContentPreservingResource}.
  *
  * @author  Neil Griffin
  */
-public class ResourceImpl extends ResourceWrapper implements Serializable {
+public class ResourceImpl extends ResourceWrapper implements Serializable, ContentPreservingResource {
 
 	// serialVersionUID
 	private static final long serialVersionUID = 827821821511052062L;
@@ -55,9 +53,6 @@ public class ResourceImpl extends ResourceWrapper implements Serializable {
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(ResourceImpl.class);
 
-	// Private Constants
-	private static final String HTTP_SPEC_DATE_PATTERN = "EEE, dd MMM yyyy HH:mm:ss zzz";
-
 	// Private Constants: Resources that can't be cached.
 	private static final String EXTENSION_FACES = ".faces";
 	private static final String LIBRARY_NAME_JAVAX_FACES = "javax.faces";
@@ -79,7 +74,7 @@ public class ResourceImpl extends ResourceWrapper implements Serializable {
 	}
 
 	// Private Data Members
-	private Long lastModifiedInSeconds;
+	private transient ResourceMetadata resourceMetadata;
 	private Resource wrappedResource;
 
 	/**
@@ -92,6 +87,13 @@ public class ResourceImpl extends ResourceWrapper implements Serializable {
 		this.wrappedResource = wrappedResource;
 	}
 
+	/**
+	 * Determines whether or not the resource with the specified name can be cached by the browser.
+	 */
+	public static boolean isCacheable(String resourceName) {
+		return !NON_CACHED_RESOURCES.contains(resourceName);
+	}
+
 	/**
 	 * Since this method is not supplied by the {@link ResourceWrapper} class it has to be implemented here.
 	 */
@@ -129,66 +131,42 @@ public class ResourceImpl extends ResourceWrapper implements Serializable {
 			// Otherwise,
 			else {
 
-				if (lastModifiedInSeconds == null) {
-					URL url = wrappedResource.getURL();
+				ResourceMetadata resourceMetadata = getResourceMetadata();
+
+				if (resourceMetadata != null) {
 
-					if (url != null) {
-						InputStream inputStream = null;
+					Map<String, String> requestHeaderMap = facesContext.getExternalContext().getRequestHeaderMap();
 
-						try {
-							URLConnection urlConnection = url.openConnection();
-							urlConnection.setUseCaches(false);
-							urlConnection.connect();
-							inputStream = urlConnection.getInputStream();
+					// http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.26
+					String ifNoneMatch = requestHeaderMap.get(HttpHeaders.IF_NONE_MATCH);
 
-							long lastModifiedInMilliSeconds = urlConnection.getLastModified();
-							lastModifiedInSeconds = (lastModifiedInMilliSeconds / 1000);
-						}
-						catch (IOException e) {
-							lastModifiedInSeconds = 0L;
-						}
-						finally {
+					// If the user agent supplied an entity tag, then it takes precedence over the If-Modified-Since
+					// request header.
+					if ((ifNoneMatch != null) && (resourceMetadata.getETag() != null)) {
 
-							if (inputStream != null) {
+						needsUpdate = !ResourceMetadataUtil.matchesETag(ifNoneMatch, resourceMetadata.getETag());
 
-								try {
-									inputStream.close();
-								}
-								catch (IOException e) {
-									// ignore
-								}
-							}
+						if (logger.isDebugEnabled()) {
+							logger.debug("resourceName=[{0}] eTag=[{1}] ifNoneMatch=[{2}]", resourceName,
+								resourceMetadata.getETag(), ifNoneMatch);
 						}
 					}
 					else {
-						logger.warn(
-							"Unable to determine if user agent needs update because resource URL was null for resourceName=[{0}].",
-							resourceName);
-					}
-				}
-
-				if (lastModifiedInSeconds != null) {
 
-					long ifModifiedHeaderInSeconds = 0L;
-					Map<String, String> requestHeaderMap = facesContext.getExternalContext().getRequestHeaderMap();
-
-					// http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.25
-					String requestHeaderValue = requestHeaderMap.get(HttpHeaders.IF_MODIFIED_SINCE);
+						long lastModifiedInSeconds = resourceMetadata.getLastModifiedInSeconds();
+						long ifModifiedHeaderInSeconds = 0L;
 
-					if (requestHeaderValue != null) {
+						// http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.25
+						String requestHeaderValue = requestHeaderMap.get(HttpHeaders.IF_MODIFIED_SINCE);
 
-						try {
+						if (requestHeaderValue != null) {
 
-							// Note that SimpleDateFormat is not thread-safe so an instance variable has to be used
-							// instead of a static variable.
-							// http://www.codefutures.com/weblog/andygrove/2007/10/simpledateformat-and-thread-safety.html
-							SimpleDateFormat httpSpecDateFormat = new SimpleDateFormat(HTTP_SPEC_DATE_PATTERN,
-									Locale.US);
-							httpSpecDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+							long ifModifiedHeaderInMilliSeconds = ResourceMetadataUtil.parseHttpDate(
+									requestHeaderValue);
 
-							long ifModifiedHeaderInMilliSeconds = httpSpecDateFormat.parse(requestHeaderValue)
-								.getTime();
-							ifModifiedHeaderInSeconds = (ifModifiedHeaderInMilliSeconds / 1000L);
+							if (ifModifiedHeaderInMilliSeconds != -1L) {
+								ifModifiedHeaderInSeconds = (ifModifiedHeaderInMilliSeconds / 1000L);
+							}
 
 							if (logger.isDebugEnabled()) {
 								logger.debug(
@@ -196,21 +174,22 @@ public class ResourceImpl extends ResourceWrapper implements Serializable {
 									resourceName, requestHeaderValue, Long.toString(ifModifiedHeaderInSeconds));
 							}
 						}
-						catch (ParseException e) {
-							logger.error("Unable to parse request-header=[{0}] value=[{1}]",
-								HttpHeaders.IF_MODIFIED_SINCE, requestHeaderValue);
+
+						if (logger.isDebugEnabled()) {
+							logger.debug("resourceName=[{0}] lastModified=[{1}] ifModifiedHeaderInSeconds=[{2}]",
+								resourceName, Long.toString(lastModifiedInSeconds),
+								Long.toString(ifModifiedHeaderInSeconds));
 						}
-					}
 
-					if (logger.isDebugEnabled()) {
-						logger.debug("resourceName=[{0}] lastModified=[{1}] ifModifiedHeaderInSeconds=[{2}]",
-							resourceName, Long.toString(lastModifiedInSeconds),
-							Long.toString(ifModifiedHeaderInSeconds));
+						// FACES-62: Only compare seconds rather than milliseconds since LastModified header typically
+						// only contains seconds. This will avoid unnecessary updates.
+						needsUpdate = (lastModifiedInSeconds > ifModifiedHeaderInSeconds);
 					}
-
-					// FACES-62: Only compare seconds rather than milliseconds since LastModified header typically only
-					// contains seconds. This will avoid unnecessary updates.
-					needsUpdate = (lastModifiedInSeconds > ifModifiedHeaderInSeconds);
+				}
+				else {
+					logger.warn(
+						"Unable to determine if user agent needs update because resource URL was null for resourceName=[{0}].",
+						resourceName);
 				}
 			}
 		}
@@ -252,6 +231,19 @@ public class ResourceImpl extends ResourceWrapper implements Serializable {
 		wrappedResource.setLibraryName(libraryName);
 	}
 
+	/**
+	 * Returns the metadata for this resource from the index that is shared by all requests. The metadata is also
+	 * remembered by this instance so that the index is consulted at most once per instance.
+	 */
+	protected ResourceMetadata getResourceMetadata() {
+
+		if (resourceMetadata == null) {
+			resourceMetadata = ResourceMetadataUtil.getResourceMetadata(wrappedResource);
+		}
+
+		return resourceMetadata;
+	}
+
 	@Override
 	public String getRequestPath() {
 
@@ -355,6 +347,36 @@ public class ResourceImpl extends ResourceWrapper implements Serializable {
 		wrappedResource.setResourceName(resourceName);
 	}
 
+	/**
+	 * Returns the response headers of the wrapped resource, replacing the ETag header (if any) with the weak entity
+	 * tag that is computed from the contents of the resource so that subsequent If-None-Match requests can be answered
+	 * by {@link #userAgentNeedsUpdate(FacesContext)}.
+	 */
+	@Override
+	public Map<String, String> getResponseHeaders() {
+
+		Map<String, String> responseHeaders = wrappedResource.getResponseHeaders();
+
+		if (!NON_CACHED_RESOURCES.contains(getResourceName())) {
+
+			ResourceMetadata resourceMetadata = getResourceMetadata();
+
+			if ((resourceMetadata != null) && (resourceMetadata.getETag() != null)) {
+
+				if (responseHeaders == null) {
+					responseHeaders = new HashMap<String, String>();
+				}
+				else {
+					responseHeaders = new HashMap<String, String>(responseHeaders);
+				}
+
+				responseHeaders.put(HttpHeaders.ETAG, resourceMetadata.getETag());
+			}
+		}
+
+		return responseHeaders;
+	}
+
 	@Override
 	public Resource getWrapped() {
 		return wrappedResource;
@@ -14,18 +14,29 @@
 package com.liferay.faces.bridge.application.internal;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.zip.CRC32;
 
 import javax.faces.application.Resource;
 import javax.faces.application.ResourceHandler;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 
+import com.liferay.faces.bridge.application.internal.FilteredResourceCache.FilteredResource;
+import com.liferay.faces.bridge.application.internal.FilteredResourceCache.ResourceReference;
+import com.liferay.faces.bridge.config.internal.PortletConfigParam;
+import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.util.io.Filterable;
 import com.liferay.faces.util.io.ResourceOutputStream;
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
+import com.liferay.faces.util.render.HttpHeaders;
 
 
 /**
@@ -39,24 +50,27 @@ public class ResourceOutputStreamRichFacesImpl extends ResourceOutputStream impl
 
 	// Private Constants
 	private static final String EXTENSION_CSS = ".css";
+	private static final String GZIP = "gzip";
 	private static final String ORG_RICHFACES_IMAGES = "org.richfaces.images";
 	private static final String PACKED_JS = "packed.js";
+	private static final String VARY = "Vary";
+
+	// Since the filtered contents are shared by all requests, the cache is static.
+	private static final FilteredResourceCache filteredResourceCache = new FilteredResourceCache();
 
 	// FACES-1214
 	protected enum RichFacesImageResource {
-		TYPE1(ResourceRichFacesImpl.ORG_RICHFACES, "../../org.richfaces.images/", "richfaces-type1"),
-		TYPE2(ResourceRichFacesImpl.ORG_RICHFACES, "../../", "richfaces-type2"),
-		TYPE3(ORG_RICHFACES_IMAGES, "../org.richfaces.images/", "richfaces-type3"),
-		TYPE4(ORG_RICHFACES_IMAGES, "org.richfaces.images/", "richfaces-type4");
+		TYPE1(ResourceRichFacesImpl.ORG_RICHFACES, "../../org.richfaces.images/"),
+		TYPE2(ResourceRichFacesImpl.ORG_RICHFACES, "../../"),
+		TYPE3(ORG_RICHFACES_IMAGES, "../org.richfaces.images/"),
+		TYPE4(ORG_RICHFACES_IMAGES, "org.richfaces.images/");
 
 		private String libraryName;
 		private String pathPrefix;
-		private String substitutionToken;
 
-		private RichFacesImageResource(String libraryName, String pathPrefix, String substitutionToken) {
+		private RichFacesImageResource(String libraryName, String pathPrefix) {
 			this.libraryName = libraryName;
 			this.pathPrefix = pathPrefix;
-			this.substitutionToken = substitutionToken;
 		}
 
 		public String getLibraryName() {
@@ -66,10 +80,6 @@ public class ResourceOutputStreamRichFacesImpl extends ResourceOutputStream impl
 		public String getPathPrefix() {
 			return pathPrefix;
 		}
-
-		public String getSubstitutionToken() {
-			return substitutionToken;
-		}
 	}
 
 	public ResourceOutputStreamRichFacesImpl(Resource resource, int size) {
@@ -78,110 +88,235 @@ public class ResourceOutputStreamRichFacesImpl extends ResourceOutputStream impl
 
 	public void filter() throws IOException {
 
-		String resourceName = getResource().getResourceName();
+		Resource resource = getResource();
+		String resourceName = resource.getResourceName();
+		boolean css = (resourceName.indexOf(EXTENSION_CSS) > 0);
 
-		FacesContext facesContext = FacesContext.getCurrentInstance();
+		if (css || (resourceName.indexOf(PACKED_JS) >= 0)) {
 
-		// If this is a RichFaces CSS resource like packed.css or skinning.css, then fix the URLs
-		// inside of the CSS text before sending it back as part of the response. For more info, see
-		// http://issues.liferay.com/browse/FACES-1214
-		if (resourceName.indexOf(EXTENSION_CSS) > 0) {
+			FacesContext facesContext = FacesContext.getCurrentInstance();
+			String filteredResourceKey = getFilteredResourceKey(facesContext, resource);
+			int unfilteredSize = size();
+			CRC32 crc32 = new CRC32();
+			crc32.update(buf, 0, count);
 
-			String textBefore = toString();
-			String textAfter = fixRichFacesImageURLs(facesContext, textBefore);
-			reset();
-			write(textAfter.getBytes());
-		}
+			long unfilteredChecksum = crc32.getValue();
+			FilteredResource filteredResource = filteredResourceCache.get(filteredResourceKey, unfilteredSize,
+					unfilteredChecksum);
 
-		// Otherwise, if this is the packed.js JavaScript resource, then fix the JS code so that
-		// rich:fileUpload will work.
-		else if (resourceName.indexOf(PACKED_JS) >= 0) {
+			if (filteredResource == null) {
+
+				String textBefore = toString();
+
+				// If this is a RichFaces CSS resource like packed.css or skinning.css, then fix the URLs
+				// inside of the CSS text before sending it back as part of the response. For more info, see
+				// http://issues.liferay.com/browse/FACES-1214
+				if (css) {
+					filteredResource = filterRichFacesImageURLs(unfilteredSize, unfilteredChecksum, textBefore);
+				}
+
+				// Otherwise, if this is the packed.js JavaScript resource, then fix the JS code so that
+				// rich:fileUpload will work.
+				else {
+					filteredResource = new FilteredResource(unfilteredSize, unfilteredChecksum,
+							fixRichFacesPackedDotJs(facesContext, textBefore));
+				}
+
+				filteredResourceCache.put(filteredResourceKey, filteredResource);
+			}
+			else {
+				logger.debug("Found filtered resource key=[{0}] in the cache", filteredResourceKey);
+			}
 
-			String textBefore = toString();
-			String textAfter = fixRichFacesPackedDotJs(facesContext, textBefore);
 			reset();
-			write(textAfter.getBytes());
+
+			boolean gzipAccepted = isGzipAccepted(facesContext);
+			byte[] bytes;
+
+			// Since the URLs of the images depend on the current portlet, they are resolved for every request and the
+			// contents are compressed for every request.
+			if (filteredResource.getBytes() == null) {
+
+				bytes = resolveResourceReferences(facesContext, filteredResource).getBytes();
+
+				if (gzipAccepted) {
+					bytes = FilteredResourceCache.gzip(bytes);
+				}
+			}
+			else if (gzipAccepted) {
+				bytes = filteredResource.getGzipBytes();
+			}
+			else {
+				bytes = filteredResource.getBytes();
+			}
+
+			if (gzipAccepted) {
+
+				ExternalContext externalContext = facesContext.getExternalContext();
+				externalContext.setResponseHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+				externalContext.setResponseHeader(VARY, HttpHeaders.ACCEPT_ENCODING);
+			}
+
+			write(bytes);
 		}
 	}
 
 	/**
 	 * This method is part of a fix for FACES-1214. Some of the RichFacess CSS resources have relative URLs that must be
-	 * translated to ResourceURLs so that they work in a portlet environment.
+	 * translated to ResourceURLs so that they work in a portlet environment. The CSS text is scanned exactly once, and
+	 * at each position the longest matching path prefix (in the order defined by {@link RichFacesImageResource}) is
+	 * replaced by a {@link ResourceReference} whose URL is resolved for each request by {@link
+	 * #resolveResourceReferences(FacesContext, FilteredResource)}.
 	 */
-	protected String fixRichFacesImageURLs(FacesContext facesContext, String cssText) {
-
-		// Since the same image URL often appears more then once, maintain a cache of URLs for fast lookup.
-		Map<String, String> resourceURLCache = new HashMap<String, String>();
-		ResourceHandler resourceHandler = facesContext.getApplication().getResourceHandler();
+	protected FilteredResource filterRichFacesImageURLs(int unfilteredSize, long unfilteredChecksum, String cssText) {
 
-		// For each of the RichFaces image resource types:
-		for (RichFacesImageResource richFacesImageResource : RichFacesImageResource.values()) {
+		List<String> texts = new ArrayList<String>();
+		List<ResourceReference> resourceReferences = new ArrayList<ResourceReference>();
+		RichFacesImageResource[] richFacesImageResources = RichFacesImageResource.values();
+		int length = cssText.length();
 
-			// Parse the specified CSS text, and replace each relative URL with a ResourceURL.
-			boolean doneProcessingURLs = false;
+		// Note that a relative URL at the very beginning of the CSS text is not a valid URL.
+		int copyStartPos = 0;
+		int pos = 1;
 
-			while (!doneProcessingURLs) {
+		while (pos < length) {
 
-				String pathPrefix = richFacesImageResource.getPathPrefix();
-				int urlStartPos = cssText.indexOf(pathPrefix);
+			RichFacesImageResource matchingImageResource = null;
 
-				if (urlStartPos > 0) {
+			if ((cssText.charAt(pos) == '.') || (cssText.charAt(pos) == 'o')) {
 
-					int fileNameStartPos = urlStartPos + pathPrefix.length();
+				for (RichFacesImageResource richFacesImageResource : richFacesImageResources) {
 
-					int dotPos = cssText.indexOf(StringPool.PERIOD, fileNameStartPos);
+					if (cssText.startsWith(richFacesImageResource.getPathPrefix(), pos)) {
+						matchingImageResource = richFacesImageResource;
 
-					if (dotPos > 0) {
-						boolean doneFindingExtension = false;
-						int extensionStartPos = dotPos + 1;
-						int extensionFinishPos = extensionStartPos;
+						break;
+					}
+				}
+			}
 
-						while (!doneFindingExtension) {
+			if (matchingImageResource == null) {
+				pos++;
+			}
+			else {
 
-							if ((extensionFinishPos < cssText.length()) &&
-									Character.isLetterOrDigit(cssText.charAt(extensionFinishPos))) {
-								extensionFinishPos++;
-							}
-							else {
-								doneFindingExtension = true;
-							}
-						}
+				String pathPrefix = matchingImageResource.getPathPrefix();
+				int fileNameStartPos = pos + pathPrefix.length();
+				int dotPos = cssText.indexOf(StringPool.PERIOD, fileNameStartPos);
 
-						String relativePathKey = cssText.substring(urlStartPos, extensionFinishPos);
-						String imageResourceURL = resourceURLCache.get(relativePathKey);
+				if (dotPos > 0) {
 
-						if (imageResourceURL == null) {
-							String resourceName = cssText.substring(fileNameStartPos, extensionFinishPos);
-							String libraryName = richFacesImageResource.getLibraryName();
-							String substitutionToken = richFacesImageResource.getSubstitutionToken();
-							Resource imageResource = resourceHandler.createResource(resourceName, libraryName);
-							imageResourceURL = imageResource.getRequestPath();
-							imageResourceURL = imageResourceURL.replaceAll(libraryName, substitutionToken);
-							resourceURLCache.put(relativePathKey, imageResourceURL);
-						}
+					int extensionFinishPos = dotPos + 1;
 
-						StringBuilder buf = new StringBuilder();
-						buf.append(cssText.substring(0, urlStartPos));
-						buf.append(imageResourceURL);
-						buf.append(cssText.substring(extensionFinishPos));
-						cssText = buf.toString();
-					}
-					else {
-						logger.error("Unable to find image filename in URL");
+					while ((extensionFinishPos < length) &&
+							Character.isLetterOrDigit(cssText.charAt(extensionFinishPos))) {
+						extensionFinishPos++;
 					}
+
+					String resourceName = cssText.substring(fileNameStartPos, extensionFinishPos);
+					texts.add(cssText.substring(copyStartPos, pos));
+					resourceReferences.add(new ResourceReference(matchingImageResource.getLibraryName(),
+							resourceName));
+					pos = extensionFinishPos;
+					copyStartPos = pos;
 				}
 				else {
-					doneProcessingURLs = true;
+					logger.error("Unable to find image filename in URL");
+					pos = fileNameStartPos;
 				}
 			}
 		}
 
-		for (RichFacesImageResource richFacesImageResource : RichFacesImageResource.values()) {
-			cssText = cssText.replace(richFacesImageResource.getSubstitutionToken(),
-					richFacesImageResource.getLibraryName());
+		texts.add(cssText.substring(copyStartPos, length));
+
+		return new FilteredResource(unfilteredSize, unfilteredChecksum, texts.toArray(new String[texts.size()]),
+				resourceReferences.toArray(new ResourceReference[resourceReferences.size()]));
+	}
+
+	/**
+	 * Returns the filtered contents of the specified resource, with the URL of each resource reference resolved for the
+	 * current request.
+	 */
+	protected String resolveResourceReferences(FacesContext facesContext, FilteredResource filteredResource) {
+
+		// Since the same image URL often appears more then once, maintain a cache of URLs for fast lookup.
+		Map<String, String> resourceURLCache = new HashMap<String, String>();
+		ResourceHandler resourceHandler = facesContext.getApplication().getResourceHandler();
+		String[] texts = filteredResource.getTexts();
+		ResourceReference[] resourceReferences = filteredResource.getResourceReferences();
+		int length = 0;
+
+		for (String text : texts) {
+			length += text.length();
+		}
+
+		StringBuilder buf = new StringBuilder(length + (length / 4));
+
+		for (int i = 0; i < resourceReferences.length; i++) {
+
+			buf.append(texts[i]);
+
+			String libraryName = resourceReferences[i].getLibraryName();
+			String resourceName = resourceReferences[i].getResourceName();
+			String resourceURLKey = libraryName + StringPool.FORWARD_SLASH + resourceName;
+			String imageResourceURL = resourceURLCache.get(resourceURLKey);
+
+			if (imageResourceURL == null) {
+				Resource imageResource = resourceHandler.createResource(resourceName, libraryName);
+				imageResourceURL = imageResource.getRequestPath();
+				resourceURLCache.put(resourceURLKey, imageResourceURL);
+			}
+
+			buf.append(imageResourceURL);
+		}
+
+		buf.append(texts[resourceReferences.length]);
+
+		return buf.toString();
+	}
+
+	/**
+	 * Returns the key of the specified resource in the cache of filtered resources, which consists of the library name,
+	 * resource name and locale. Since the URLs that depend on the current request are resolved for every request, the
+	 * filtered contents do not depend on any other inputs.
+	 */
+	protected String getFilteredResourceKey(FacesContext facesContext, Resource resource) {
+
+		StringBuilder buf = new StringBuilder();
+		buf.append(resource.getLibraryName());
+		buf.append(StringPool.FORWARD_SLASH);
+		buf.append(resource.getResourceName());
+		buf.append(StringPool.PIPE);
+
+		Locale locale = null;
+		UIViewRoot viewRoot = facesContext.getViewRoot();
+
+		if (viewRoot != null) {
+			locale = viewRoot.getLocale();
+		}
+
+		if (locale == null) {
+			locale = facesContext.getExternalContext().getRequestLocale();
+		}
+
+		buf.append(locale);
+
+		return buf.toString();
+	}
+
+	protected boolean isGzipAccepted(FacesContext facesContext) {
+
+		boolean gzipAccepted = false;
+		BridgeContext bridgeContext = BridgeContext.getCurrentInstance();
+
+		if (PortletConfigParam.ResourceCompressionEnabled.getBooleanValue(bridgeContext.getPortletConfig())) {
+
+			String acceptEncoding = facesContext.getExternalContext().getRequestHeaderMap().get(
+					HttpHeaders.ACCEPT_ENCODING);
+			gzipAccepted = (acceptEncoding != null) && (acceptEncoding.indexOf(GZIP) >= 0);
 		}
 
-		return cssText;
+		return gzipAccepted;
 	}
 
 	protected String fixRichFacesPackedDotJs(FacesContext facesContext, String javaScriptText) {
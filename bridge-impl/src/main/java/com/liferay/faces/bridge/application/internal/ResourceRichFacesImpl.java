@@ -18,6 +18,7 @@ import javax.faces.application.ResourceWrapper;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 
+import com.liferay.faces.util.application.ContentPreservingResource;
 import com.liferay.faces.util.application.ResourceConstants;
 import com.liferay.faces.util.lang.StringPool;
 
@@ -25,7 +26,7 @@ import com.liferay.faces.util.lang.StringPool;
 /**
  * @author  Neil Griffin
  */
-public class ResourceRichFacesImpl extends ResourceWrapper {
+public class ResourceRichFacesImpl extends ResourceWrapper implements ContentPreservingResource {
 
 	// Public Constants
 	public static final String ORG_RICHFACES = "org.richfaces";
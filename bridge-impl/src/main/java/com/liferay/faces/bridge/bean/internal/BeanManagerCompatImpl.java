@@ -24,20 +24,14 @@ import javax.faces.bean.ManagedBean;
 public abstract class BeanManagerCompatImpl implements BeanManager {
 
 	/**
-	 * Determines whether or not the specified object is annotated as a JSF managed-bean.
+	 * Determines whether or not the specified class is annotated as a JSF managed-bean.
 	 *
-	 * @param   obj  The object to check.
+	 * @param   clazz  The class to check.
 	 *
-	 * @return  true if the specified object is annotated as a JSF managed-bean, otherwise false.
+	 * @return  true if the specified class is annotated as a JSF managed-bean, otherwise false.
 	 */
-	protected boolean hasManagedBeanAnnotation(Object object) {
-
-		if ((object != null) && (object.getClass().getAnnotation(ManagedBean.class) != null)) {
-			return true;
-		}
-		else {
-			return false;
-		}
+	protected boolean hasManagedBeanAnnotation(Class<?> clazz) {
+		return clazz.getAnnotation(ManagedBean.class) != null;
 	}
 
 }
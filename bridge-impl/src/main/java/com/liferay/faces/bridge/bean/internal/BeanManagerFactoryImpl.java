@@ -27,9 +27,20 @@ public class BeanManagerFactoryImpl extends BeanManagerFactory {
 	private static final boolean MOJARRA_DETECTED = ProductMap.getInstance().get(ProductConstants.JSF).getTitle()
 		.equals(ProductConstants.MOJARRA);
 
+	// Private Data Members
+	private volatile CachedBeanManager cachedBeanManager;
+
 	@Override
 	public BeanManager getBeanManager(FacesConfig facesConfig) {
 
+		// Since the FacesConfig is created once at startup, the BeanManager (along with the metadata that it caches)
+		// can be reused for as long as the same FacesConfig is specified.
+		CachedBeanManager cachedBeanManager = this.cachedBeanManager;
+
+		if ((cachedBeanManager != null) && (cachedBeanManager.facesConfig == facesConfig)) {
+			return cachedBeanManager.beanManager;
+		}
+
 		BeanManager beanManager = null;
 
 		if (MOJARRA_DETECTED) {
@@ -39,6 +50,8 @@ public class BeanManagerFactoryImpl extends BeanManagerFactory {
 			beanManager = new BeanManagerImpl(facesConfig.getConfiguredManagedBeans());
 		}
 
+		this.cachedBeanManager = new CachedBeanManager(facesConfig, beanManager);
+
 		return beanManager;
 	}
 
@@ -48,4 +61,15 @@ public class BeanManagerFactoryImpl extends BeanManagerFactory {
 		return null;
 	}
 
+	private static final class CachedBeanManager {
+
+		// Private Data Members
+		private final BeanManager beanManager;
+		private final FacesConfig facesConfig;
+
+		public CachedBeanManager(FacesConfig facesConfig, BeanManager beanManager) {
+			this.facesConfig = facesConfig;
+			this.beanManager = beanManager;
+		}
+	}
 }
@@ -15,9 +15,12 @@ package com.liferay.faces.bridge.bean.internal;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.portlet.faces.annotation.BridgePreDestroy;
 
@@ -36,16 +39,26 @@ public class BeanManagerImpl extends BeanManagerCompatImpl {
 	private static final String JAVAX_ANNOTATION_PRE_DESTROY = "javax.annotation.PreDestroy";
 	private static final String JAVAX_ANNOTATION_BRIDGE_PRE_DESTROY = "javax.portlet.faces.annotation.BridgePreDestroy";
 	private static final String JAVAX_PORTLET_P = "javax.portlet.p.";
+	private static final int MAX_CACHED_NAMES = 4096;
+	private static final Method[] NO_METHODS = new Method[0];
+	private static final String NOT_CONFIGURED = "";
 
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(BeanManagerImpl.class);
 
 	// Private Data Members
+	private ConcurrentMap<Class<?>, BeanClassMetadata> beanClassMetadataCache;
 	private Map<String, ConfiguredManagedBean> configuredManagedBeanSet;
+	private ConcurrentMap<String, String> configuredManagedBeanClassCache;
 
 	public BeanManagerImpl(List<ConfiguredManagedBean> configuredManagedBeans) {
 
+		// Since the metadata cache is held by the BeanManager (which is reused for the lifetime of the application)
+		// rather than by a static field, the cached classes do not pin the class loader of an application that has been
+		// redeployed.
+		this.beanClassMetadataCache = new ConcurrentHashMap<Class<?>, BeanClassMetadata>();
 		this.configuredManagedBeanSet = new HashMap<String, ConfiguredManagedBean>();
+		this.configuredManagedBeanClassCache = new ConcurrentHashMap<String, String>();
 
 		if (configuredManagedBeans != null) {
 
@@ -60,45 +73,81 @@ public class BeanManagerImpl extends BeanManagerCompatImpl {
 		if (managedBean != null) {
 
 			Class<?> clazz = managedBean.getClass();
-			Method[] methods = managedBean.getClass().getMethods();
+			BeanClassMetadata beanClassMetadata = getBeanClassMetadata(clazz);
 
-			if (methods != null) {
+			if (preferPreDestroy) {
 
-				for (Method method : methods) {
+				for (Method method : beanClassMetadata.preDestroyMethods) {
 
-					if (preferPreDestroy) {
+					try {
+						logger.debug("Invoking @PreDestroy method named [{0}] on managedBean class=[{1}]",
+							method.getName(), clazz.getName());
+						method.invoke(managedBean, new Object[] {});
+					}
+					catch (Exception e) {
+						logger.error(e.getMessage(), e);
+					}
+				}
+			}
+			else {
 
-						if (hasPreDestroyAnnotation(method)) {
+				for (Method method : beanClassMetadata.bridgePreDestroyMethods) {
 
-							try {
-								logger.debug("Invoking @PreDestroy method named [{0}] on managedBean class=[{1}]",
-									method.getName(), clazz.getName());
-								method.invoke(managedBean, new Object[] {});
-							}
-							catch (Exception e) {
-								logger.error(e.getMessage(), e);
-							}
-						}
+					try {
+						logger.debug("Invoking @BridgePreDestroy method named [{0}] on managedBean class=[{1}]",
+							method.getName(), clazz.getName());
+						method.invoke(managedBean, new Object[] {});
 					}
-					else {
-
-						if (hasBridgePreDestroyAnnotation(method)) {
-
-							try {
-								logger.debug("Invoking @BridgePreDestroy method named [{0}] on managedBean class=[{1}]",
-									method.getName(), clazz.getName());
-								method.invoke(managedBean, new Object[] {});
-							}
-							catch (Exception e) {
-								logger.error(e.getMessage(), e);
-							}
-						}
+					catch (Exception e) {
+						logger.error(e.getMessage(), e);
 					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Returns the lifecycle metadata for the specified managed-bean class, resolving it via reflection the first time
+	 * that the class is encountered.
+	 */
+	protected BeanClassMetadata getBeanClassMetadata(Class<?> clazz) {
+
+		BeanClassMetadata beanClassMetadata = beanClassMetadataCache.get(clazz);
+
+		if (beanClassMetadata == null) {
+
+			List<Method> preDestroyMethods = new ArrayList<Method>();
+			List<Method> bridgePreDestroyMethods = new ArrayList<Method>();
+			Method[] methods = clazz.getMethods();
+
+			if (methods != null) {
+
+				for (Method method : methods) {
+
+					if (hasPreDestroyAnnotation(method)) {
+						preDestroyMethods.add(method);
+					}
+
+					if (hasBridgePreDestroyAnnotation(method)) {
+						bridgePreDestroyMethods.add(method);
+					}
+				}
+			}
+
+			beanClassMetadata = new BeanClassMetadata(hasManagedBeanAnnotation(clazz), toArray(preDestroyMethods),
+					toArray(bridgePreDestroyMethods));
+
+			BeanClassMetadata existingBeanClassMetadata = beanClassMetadataCache.putIfAbsent(clazz,
+					beanClassMetadata);
+
+			if (existingBeanClassMetadata != null) {
+				beanClassMetadata = existingBeanClassMetadata;
+			}
+		}
+
+		return beanClassMetadata;
+	}
+
 	/**
 	 * Determines whether or not the specified method is annotated with the {@link BridgePreDestroy} annotation. Note
 	 * that the method signature must also have a void return type an zero parameters in order for this method to return
@@ -162,41 +211,95 @@ public class BeanManagerImpl extends BeanManagerCompatImpl {
 		return false;
 	}
 
-	public boolean isManagedBean(String name, Object value) {
+	/**
+	 * Returns the class name of the managed-bean that is configured in faces-config.xml with the specified (possibly
+	 * namespaced) name, or an empty string if there is no such managed-bean. Results are cached by name so that the
+	 * namespace prefix only needs to be stripped the first time that a name is encountered.
+	 */
+	protected String getConfiguredManagedBeanClass(String name) {
 
-		boolean managedBean = false;
+		String configuredManagedBeanClass = configuredManagedBeanClassCache.get(name);
 
-		if (value != null) {
+		if (configuredManagedBeanClass == null) {
 
-			if (hasManagedBeanAnnotation(value)) {
-				managedBean = true;
+			String managedBeanName = name;
+
+			// Section PLT.18.3 of the Portlet 2.0 Specification titled "Binding Attributes into a Session" requires
+			// that PortletSession attribute names be namespaced/prefixed with the "javax.portlet.p.<ID>?" pattern. In
+			// order to determine if the specified name is a SessionScoped managed-bean, it is necessary to first strip
+			// the pattern from it.
+			if (managedBeanName.startsWith(JAVAX_PORTLET_P)) {
+				int pos = managedBeanName.indexOf(StringPool.QUESTION);
+
+				if (pos > 0) {
+					managedBeanName = managedBeanName.substring(pos + 1);
+				}
+			}
+
+			ConfiguredManagedBean configuredManagedBean = configuredManagedBeanSet.get(managedBeanName);
+
+			if (configuredManagedBean == null) {
+				configuredManagedBeanClass = NOT_CONFIGURED;
 			}
 			else {
+				configuredManagedBeanClass = configuredManagedBean.getManagedBeanClass();
+			}
 
-				if (name != null) {
+			// Namespaced names are distinct for each portlet window, so the size of the cache is bounded.
+			if (configuredManagedBeanClassCache.size() < MAX_CACHED_NAMES) {
+				configuredManagedBeanClassCache.put(name, configuredManagedBeanClass);
+			}
+		}
 
-					// Section PLT.18.3 of the Portlet 2.0 Specification titled "Binding Attributes into a Session"
-					// requires that PortletSession attribute names be namespaced/prefixed with the
-					// "javax.portlet.p.<ID>?" pattern. In order to determine if the specified name is a SessionScoped
-					// managed-bean, it is necessary to first strip the pattern from it.
-					if (name.startsWith(JAVAX_PORTLET_P)) {
-						int pos = name.indexOf(StringPool.QUESTION);
+		return configuredManagedBeanClass;
+	}
 
-						if (pos > 0) {
-							name = name.substring(pos + 1);
-						}
-					}
+	public boolean isManagedBean(String name, Object value) {
 
-					ConfiguredManagedBean configuredManagedBean = configuredManagedBeanSet.get(name);
+		boolean managedBean = false;
 
-					if (configuredManagedBean != null) {
-						String managedBeanClass = value.getClass().getName();
-						managedBean = managedBeanClass.equals(configuredManagedBean.getManagedBeanClass());
-					}
-				}
+		if (value != null) {
+
+			Class<?> clazz = value.getClass();
+
+			if (getBeanClassMetadata(clazz).managedBeanAnnotated) {
+				managedBean = true;
+			}
+			else if (name != null) {
+
+				managedBean = getConfiguredManagedBeanClass(name).equals(clazz.getName());
 			}
 		}
 
 		return managedBean;
 	}
+
+	private static Method[] toArray(List<Method> methods) {
+
+		if (methods.isEmpty()) {
+			return NO_METHODS;
+		}
+		else {
+			return methods.toArray(new Method[methods.size()]);
+		}
+	}
+
+	/**
+	 * This class holds the result of resolving the lifecycle annotations of a managed-bean class. An empty array of
+	 * methods indicates that the class has no methods with the corresponding annotation.
+	 */
+	protected static final class BeanClassMetadata {
+
+		// Private Data Members
+		private final Method[] bridgePreDestroyMethods;
+		private final boolean managedBeanAnnotated;
+		private final Method[] preDestroyMethods;
+
+		public BeanClassMetadata(boolean managedBeanAnnotated, Method[] preDestroyMethods,
+			Method[] bridgePreDestroyMethods) {
+			this.managedBeanAnnotated = managedBeanAnnotated;
+			this.preDestroyMethods = preDestroyMethods;
+			this.bridgePreDestroyMethods = bridgePreDestroyMethods;
+		}
+	}
 }
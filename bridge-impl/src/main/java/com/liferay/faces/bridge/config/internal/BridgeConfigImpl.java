@@ -23,6 +23,7 @@ import javax.portlet.PortletConfig;
 import javax.portlet.PortletContext;
 
 import com.liferay.faces.bridge.config.BridgeConfig;
+import com.liferay.faces.bridge.event.internal.PublicRenderParameterBindings;
 import com.liferay.faces.util.config.ApplicationConfig;
 import com.liferay.faces.util.config.ConfiguredElement;
 import com.liferay.faces.util.config.FacesConfig;
@@ -122,6 +123,10 @@ public class BridgeConfigImpl implements BridgeConfig {
 			}
 		}
 
+		// publicRenderParameterBindings
+		bridgeConfigAttributeMap.put(BridgeConfigAttributeMap.PUBLIC_RENDER_PARAMETER_BINDINGS,
+			new PublicRenderParameterBindings(publicParameterMappings));
+
 		// writeBehindRenderResponseWrapper
 		for (ConfiguredElement configuredElement : configuredApplicationExtensions) {
 			String configuredElementName = configuredElement.getName();
@@ -76,6 +76,19 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 	ResourceBufferSize("com.liferay.faces.bridge.resourceBufferSize", "org.portletfaces.bridge.resourceBufferSize",
 		1024),
 
+	/**
+	 * Flag indicating whether or not the JavaScript and CSS resources that are added to the &lt;head&gt; section of the
+	 * portal page are combined into a single request for each consecutive run of scripts or stylesheets. Default value
+	 * is false.
+	 */
+	ResourceComboEnabled("com.liferay.faces.bridge.resourceComboEnabled", false),
+
+	/**
+	 * Flag indicating whether or not resources that are filtered by the bridge (such as RichFaces CSS and JavaScript
+	 * resources) are delivered gzip-compressed to browsers that accept it. Default value is false.
+	 */
+	ResourceCompressionEnabled("com.liferay.faces.bridge.resourceCompressionEnabled", false),
+
 	/**
 	 * Absolute path to a directory (folder) in which the uploaded file data should be written to. Default value is the
 	 * value of the system property "java.io.tmpdir".
@@ -181,7 +194,7 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 
 	@Override
 	public boolean getBooleanValue(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.getBooleanValue(portletConfig, name, alternateName, defaultBooleanValue);
+		return PortletConfigParamUtil.getSnapshot(portletConfig).getBooleanValue(this);
 	}
 
 	@Override
@@ -191,7 +204,7 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 
 	@Override
 	public boolean isConfigured(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.isSpecified(portletConfig, name, alternateName);
+		return PortletConfigParamUtil.getSnapshot(portletConfig).isConfigured(this);
 	}
 
 	public boolean getDefaultBooleanValue() {
@@ -213,12 +226,12 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 
 	@Override
 	public int getIntegerValue(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.getIntegerValue(portletConfig, name, alternateName, defaultIntegerValue);
+		return PortletConfigParamUtil.getSnapshot(portletConfig).getIntegerValue(this);
 	}
 
 	@Override
 	public long getLongValue(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.getLongValue(portletConfig, name, alternateName, defaultLongValue);
+		return PortletConfigParamUtil.getSnapshot(portletConfig).getLongValue(this);
 	}
 
 	public String getName() {
@@ -227,6 +240,6 @@ public enum PortletConfigParam implements ConfigParam<PortletConfig> {
 
 	@Override
 	public String getStringValue(PortletConfig portletConfig) {
-		return PortletConfigParamUtil.getStringValue(portletConfig, name, alternateName, defaultStringValue);
+		return PortletConfigParamUtil.getSnapshot(portletConfig).getStringValue(this);
 	}
 }
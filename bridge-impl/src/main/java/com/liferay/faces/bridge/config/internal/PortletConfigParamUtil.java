@@ -13,12 +13,14 @@
  */
 package com.liferay.faces.bridge.config.internal;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.portlet.PortletConfig;
 import javax.portlet.PortletContext;
 
+import com.liferay.faces.util.config.ConfigParamSnapshot;
 import com.liferay.faces.util.helper.BooleanHelper;
 import com.liferay.faces.util.helper.IntegerHelper;
 import com.liferay.faces.util.helper.LongHelper;
@@ -32,9 +34,13 @@ import com.liferay.faces.util.helper.LongHelper;
  */
 public class PortletConfigParamUtil {
 
-	// Note: Performance is faster with a synchronized block around HashMap.put(String, Object) rather than using a
-	// ConcurrentHashMap.
-	private static final Map<String, Object> configParamCache = new HashMap<String, Object>();
+	// Note: A ConcurrentHashMap is necessary since an unsynchronized HashMap.get(Object) can fail while another thread
+	// is resizing the map in HashMap.put(String, Object).
+	private static final Map<String, Object> configParamCache = new ConcurrentHashMap<String, Object>();
+
+	// Immutable snapshots of the values of the PortletConfigParam constants, keyed by portlet name.
+	private static final ConcurrentMap<String, ConfigParamSnapshot<PortletConfigParam, PortletConfig>> snapshots =
+		new ConcurrentHashMap<String, ConfigParamSnapshot<PortletConfigParam, PortletConfig>>();
 
 	public static boolean getBooleanValue(PortletConfig portletConfig, String name, String alternateName,
 		boolean defaultBooleanValue) {
@@ -64,15 +70,43 @@ public class PortletConfigParamUtil {
 					booleanValue = BooleanHelper.isTrueToken(configuredValue);
 				}
 
-				synchronized (configParamCache) {
-					configParamCache.put(configParamName, Boolean.valueOf(booleanValue));
-				}
+				configParamCache.put(configParamName, Boolean.valueOf(booleanValue));
 			}
 		}
 
 		return booleanValue;
 	}
 
+	/**
+	 * Creates a new snapshot of the values of the {@link PortletConfigParam} constants for the specified portlet and
+	 * replaces the snapshot that is returned by {@link #getSnapshot(PortletConfig)}. This is called when the bridge is
+	 * initialized, and is also a hook for picking up changes to the init-param values without redeploying the portlet.
+	 */
+	public static ConfigParamSnapshot<PortletConfigParam, PortletConfig> reload(PortletConfig portletConfig) {
+
+		ConfigParamSnapshot<PortletConfigParam, PortletConfig> snapshot =
+			new ConfigParamSnapshot<PortletConfigParam, PortletConfig>(PortletConfigParam.class, portletConfig);
+		String portletName = portletConfig.getPortletName();
+
+		if (portletName != null) {
+			snapshots.put(portletName, snapshot);
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Removes the snapshot of the values of the {@link PortletConfigParam} constants for the specified portlet.
+	 */
+	public static void remove(PortletConfig portletConfig) {
+
+		String portletName = portletConfig.getPortletName();
+
+		if (portletName != null) {
+			snapshots.remove(portletName);
+		}
+	}
+
 	public static String getConfiguredValue(PortletConfig portletConfig, String name, String alternateName) {
 
 		String configuredValue = portletConfig.getInitParameter(name);
@@ -99,6 +133,35 @@ public class PortletConfigParamUtil {
 		return (getConfiguredValue(portletConfig, name, alternateName) != null);
 	}
 
+	/**
+	 * Returns the snapshot of the values of the {@link PortletConfigParam} constants for the specified portlet,
+	 * creating it if necessary.
+	 */
+	public static ConfigParamSnapshot<PortletConfigParam, PortletConfig> getSnapshot(PortletConfig portletConfig) {
+
+		String portletName = portletConfig.getPortletName();
+
+		if (portletName == null) {
+			return new ConfigParamSnapshot<PortletConfigParam, PortletConfig>(PortletConfigParam.class, portletConfig);
+		}
+
+		ConfigParamSnapshot<PortletConfigParam, PortletConfig> snapshot = snapshots.get(portletName);
+
+		if (snapshot == null) {
+			snapshot = new ConfigParamSnapshot<PortletConfigParam, PortletConfig>(PortletConfigParam.class,
+					portletConfig);
+
+			ConfigParamSnapshot<PortletConfigParam, PortletConfig> existingSnapshot = snapshots.putIfAbsent(
+					portletName, snapshot);
+
+			if (existingSnapshot != null) {
+				snapshot = existingSnapshot;
+			}
+		}
+
+		return snapshot;
+	}
+
 	public static int getIntegerValue(PortletConfig portletConfig, String name, String alternateName,
 		int defaultIntegerValue) {
 
@@ -127,9 +190,7 @@ public class PortletConfigParamUtil {
 					integerValue = IntegerHelper.toInteger(configuredValue);
 				}
 
-				synchronized (configParamCache) {
-					configParamCache.put(configParamName, Integer.valueOf(integerValue));
-				}
+				configParamCache.put(configParamName, Integer.valueOf(integerValue));
 			}
 		}
 
@@ -164,9 +225,7 @@ public class PortletConfigParamUtil {
 					longValue = LongHelper.toLong(configuredValue);
 				}
 
-				synchronized (configParamCache) {
-					configParamCache.put(configParamName, Long.valueOf(longValue));
-				}
+				configParamCache.put(configParamName, Long.valueOf(longValue));
 			}
 		}
 
@@ -201,7 +260,7 @@ public class PortletConfigParamUtil {
 					stringValue = configuredValue;
 				}
 
-				synchronized (configParamCache) {
+				if (stringValue != null) {
 					configParamCache.put(configParamName, stringValue);
 				}
 			}
@@ -55,6 +55,7 @@ import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.bridge.context.BridgePortalContext;
 import com.liferay.faces.bridge.context.IncongruityContext;
 import com.liferay.faces.bridge.context.map.internal.ContextMapFactory;
+import com.liferay.faces.bridge.context.map.internal.ContextMapFactoryImpl;
 import com.liferay.faces.bridge.context.map.internal.RequestHeaderMap;
 import com.liferay.faces.bridge.context.map.internal.RequestHeaderValuesMap;
 import com.liferay.faces.bridge.context.url.BridgeResourceURL;
@@ -1015,6 +1016,10 @@ public class BridgeContextImpl extends BridgeContextCompatImpl {
 		this.requestParameterValuesMap = null;
 		this.requestHeaderMap = null;
 		this.requestHeaderValuesMap = null;
+
+		if (attributeMap != null) {
+			attributeMap.remove(ContextMapFactoryImpl.ATTR_FACES_REQUEST_PARAMETER_MAP);
+		}
 	}
 
 	@Override
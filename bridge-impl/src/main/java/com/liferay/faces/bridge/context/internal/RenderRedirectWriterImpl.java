@@ -15,49 +15,107 @@ package com.liferay.faces.bridge.context.internal;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
 
 
 /**
- * This class supports the render-redirect feature by queuing up a list of all write operations. Calling the {@link
- * #render()} method causes the queued operations to be invoked. Conversely, not calling the method will prevent the
- * queued operations from being invoked. This is necessary because in the case of a render-redirect, any markup written
- * to the response in the initially rendered view must be discarded.
+ * This class supports the render-redirect feature by buffering all of the characters that are written to it. Calling
+ * the {@link #render()} method causes the buffered characters to be written to the wrapped {@link Writer}.
+ * Conversely, not calling the method will prevent the buffered characters from being written. This is necessary
+ * because in the case of a render-redirect, any markup written to the response in the initially rendered view must be
+ * discarded.
+ *
+ * <p>Characters are buffered in fixed-size chunks rather than as a list of write operations, so that the amount of
+ * memory that is used depends on the size of the output rather than on the number of calls to write. Chunks that are
+ * no longer needed after a call to {@link #discard()} or {@link #render()} are kept in a small per-thread pool so that
+ * subsequent render requests processed by the same thread can reuse them.</p>
  *
  * @author  Neil Griffin
  */
 public class RenderRedirectWriterImpl extends RenderRedirectWriter {
 
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(RenderRedirectWriterImpl.class);
+
+	// Private Constants
+	private static final int CHUNK_SIZE = 8192;
+	private static final int MAX_POOLED_CHUNKS = 16;
+	private static final AtomicLong maxPeakBufferedSize = new AtomicLong();
+	private static final ThreadLocal<ArrayDeque<char[]>> chunkPool = new ThreadLocal<ArrayDeque<char[]>>();
+
 	// Private Data Members
+	private char[] chunk;
+	private List<char[]> chunks;
+	private boolean closed;
+	private boolean flushed;
+	private int peakBufferedSize;
+	private int position;
 	private Writer wrappedWriter;
-	private List<OutputOperation> outputOperationList;
 
 	public RenderRedirectWriterImpl(Writer writer) {
 		this.wrappedWriter = writer;
-		this.outputOperationList = new ArrayList<OutputOperation>();
+		this.chunks = new ArrayList<char[]>();
+	}
+
+	/**
+	 * Returns the largest number of characters that have been buffered by any instance of this class since the
+	 * application was started.
+	 */
+	public static long getMaxPeakBufferedSize() {
+		return maxPeakBufferedSize.get();
 	}
 
 	@Override
 	public void close() throws IOException {
-		outputOperationList.add(new CloseOperation());
+		closed = true;
 	}
 
 	@Override
 	public void discard() {
-		this.outputOperationList = new ArrayList<OutputOperation>();
+		releaseChunks();
+		closed = false;
+		flushed = false;
 	}
 
 	@Override
 	public void flush() throws IOException {
-		outputOperationList.add(new FlushOperation());
+		flushed = true;
 	}
 
 	@Override
 	public void render() throws IOException {
 
-		for (OutputOperation outputOperation : outputOperationList) {
-			outputOperation.invoke();
+		int bufferedSize = getBufferedSize();
+		int lastIndex = chunks.size() - 1;
+
+		for (int i = 0; i <= lastIndex; i++) {
+
+			if (i < lastIndex) {
+				wrappedWriter.write(chunks.get(i), 0, CHUNK_SIZE);
+			}
+			else {
+				wrappedWriter.write(chunk, 0, position);
+			}
+		}
+
+		releaseChunks();
+
+		logger.debug("Rendered bufferedSize=[{0}] peakBufferedSize=[{1}]", bufferedSize, peakBufferedSize);
+
+		if (flushed) {
+			flushed = false;
+			wrappedWriter.flush();
+		}
+
+		if (closed) {
+			closed = false;
+			wrappedWriter.close();
 		}
 	}
 
@@ -65,20 +123,25 @@ public class RenderRedirectWriterImpl extends RenderRedirectWriter {
 	public void write(char[] cbuf) throws IOException {
 
 		if (cbuf != null) {
-			outputOperationList.add(new CbufWriteOperation(cbuf));
+			write(cbuf, 0, cbuf.length);
 		}
 	}
 
 	@Override
 	public void write(int c) throws IOException {
-		outputOperationList.add(new IntWriteOperation(c));
+
+		if ((chunk == null) || (position == CHUNK_SIZE)) {
+			addChunk();
+		}
+
+		chunk[position++] = (char) c;
 	}
 
 	@Override
 	public void write(String str) throws IOException {
 
 		if (str != null) {
-			outputOperationList.add(new StrWriteOperation(str));
+			write(str, 0, str.length());
 		}
 	}
 
@@ -86,7 +149,23 @@ public class RenderRedirectWriterImpl extends RenderRedirectWriter {
 	public void write(char[] cbuf, int off, int len) throws IOException {
 
 		if (cbuf != null) {
-			outputOperationList.add(new CBufOffLenOutputOperation(cbuf, off, len));
+
+			if ((off < 0) || (len < 0) || ((off + len) > cbuf.length)) {
+				throw new IndexOutOfBoundsException();
+			}
+
+			while (len > 0) {
+
+				if ((chunk == null) || (position == CHUNK_SIZE)) {
+					addChunk();
+				}
+
+				int count = Math.min(len, CHUNK_SIZE - position);
+				System.arraycopy(cbuf, off, chunk, position, count);
+				position += count;
+				off += count;
+				len -= count;
+			}
 		}
 	}
 
@@ -94,100 +173,107 @@ public class RenderRedirectWriterImpl extends RenderRedirectWriter {
 	public void write(String str, int off, int len) throws IOException {
 
 		if (str != null) {
-			outputOperationList.add(new StrOffLenWriteOperation(str, off, len));
-		}
-	}
 
-	public Writer getWrapped() {
-		return wrappedWriter;
-	}
-
-	protected interface OutputOperation {
-		void invoke() throws IOException;
-	}
+			if ((off < 0) || (len < 0) || ((off + len) > str.length())) {
+				throw new IndexOutOfBoundsException();
+			}
 
-	protected class CBufOffLenOutputOperation implements OutputOperation {
+			while (len > 0) {
 
-		private char[] cbuf;
-		private int off;
-		private int len;
+				if ((chunk == null) || (position == CHUNK_SIZE)) {
+					addChunk();
+				}
 
-		public CBufOffLenOutputOperation(char[] cbuf, int off, int len) {
-			this.cbuf = cbuf.clone();
-			this.off = off;
-			this.len = len;
-		}
-
-		public void invoke() throws IOException {
-			wrappedWriter.write(cbuf, off, len);
+				int count = Math.min(len, CHUNK_SIZE - position);
+				str.getChars(off, off + count, chunk, position);
+				position += count;
+				off += count;
+				len -= count;
+			}
 		}
 	}
 
-	protected class CbufWriteOperation implements OutputOperation {
+	protected void addChunk() {
 
-		private char[] cbuf;
+		ArrayDeque<char[]> pooledChunks = chunkPool.get();
 
-		public CbufWriteOperation(char[] cbuf) {
-			this.cbuf = cbuf.clone();
+		if ((pooledChunks != null) && !pooledChunks.isEmpty()) {
+			chunk = pooledChunks.pop();
 		}
-
-		public void invoke() throws IOException {
-			wrappedWriter.write(cbuf);
+		else {
+			chunk = new char[CHUNK_SIZE];
 		}
-	}
 
-	protected class CloseOperation implements OutputOperation {
-		public void invoke() throws IOException {
-			wrappedWriter.close();
-		}
+		chunks.add(chunk);
+		position = 0;
 	}
 
-	protected class FlushOperation implements OutputOperation {
-		public void invoke() throws IOException {
-			wrappedWriter.flush();
-		}
-	}
+	protected void releaseChunks() {
 
-	protected class IntWriteOperation implements OutputOperation {
+		// Since the number of buffered characters only decreases when the chunks are released, this is the only place
+		// where the peak needs to be recorded.
+		updatePeakBufferedSize();
 
-		private int c;
+		ArrayDeque<char[]> pooledChunks = chunkPool.get();
 
-		public IntWriteOperation(int c) {
-			this.c = c;
+		if (pooledChunks == null) {
+			pooledChunks = new ArrayDeque<char[]>();
+			chunkPool.set(pooledChunks);
 		}
 
-		public void invoke() throws IOException {
-			wrappedWriter.write(c);
+		for (char[] releasedChunk : chunks) {
+
+			if (pooledChunks.size() < MAX_POOLED_CHUNKS) {
+				pooledChunks.push(releasedChunk);
+			}
+			else {
+				break;
+			}
 		}
+
+		chunks.clear();
+		chunk = null;
+		position = 0;
 	}
 
-	protected class StrOffLenWriteOperation implements OutputOperation {
+	protected void updatePeakBufferedSize() {
 
-		private String str;
-		private int off;
-		private int len;
+		int bufferedSize = getBufferedSize();
 
-		public StrOffLenWriteOperation(String str, int off, int len) {
-			this.str = str;
-			this.off = off;
-			this.len = len;
-		}
+		if (bufferedSize > peakBufferedSize) {
 
-		public void invoke() throws IOException {
-			wrappedWriter.write(str, off, len);
+			peakBufferedSize = bufferedSize;
+
+			long maxPeak = maxPeakBufferedSize.get();
+
+			while ((bufferedSize > maxPeak) && !maxPeakBufferedSize.compareAndSet(maxPeak, bufferedSize)) {
+				maxPeak = maxPeakBufferedSize.get();
+			}
 		}
 	}
 
-	protected class StrWriteOperation implements OutputOperation {
+	/**
+	 * Returns the number of characters that are currently buffered.
+	 */
+	public int getBufferedSize() {
 
-		private String str;
+		int bufferedSize = 0;
 
-		public StrWriteOperation(String str) {
-			this.str = str;
+		if (chunk != null) {
+			bufferedSize = ((chunks.size() - 1) * CHUNK_SIZE) + position;
 		}
 
-		public void invoke() throws IOException {
-			wrappedWriter.write(str);
-		}
+		return bufferedSize;
+	}
+
+	/**
+	 * Returns the largest number of characters that have been buffered by this instance at any one time.
+	 */
+	public int getPeakBufferedSize() {
+		return Math.max(peakBufferedSize, getBufferedSize());
+	}
+
+	public Writer getWrapped() {
+		return wrappedWriter;
 	}
 }
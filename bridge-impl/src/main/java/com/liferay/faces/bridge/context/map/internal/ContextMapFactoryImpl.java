@@ -39,6 +39,9 @@ import com.liferay.faces.util.product.ProductMap;
  */
 public class ContextMapFactoryImpl extends ContextMapFactory {
 
+	// Public Constants
+	public static final String ATTR_FACES_REQUEST_PARAMETER_MAP = FacesRequestParameterMap.class.getName();
+
 	// Private Constants
 	private static final boolean ICEFACES_DETECTED = ProductMap.getInstance().get(ProductConstants.ICEFACES)
 		.isDetected();
@@ -51,7 +54,16 @@ public class ContextMapFactoryImpl extends ContextMapFactory {
 
 	protected FacesRequestParameterMap getFacesRequestParameterMap(BridgeContext bridgeContext) {
 
-		FacesRequestParameterMap facesRequestParameterMap = null;
+		// Share a single instance (and therefore a single index of the request parameters) between the request
+		// parameter map and the request parameter values map.
+		Map<String, Object> bridgeContextAttributes = bridgeContext.getAttributes();
+		FacesRequestParameterMap facesRequestParameterMap = (FacesRequestParameterMap) bridgeContextAttributes.get(
+				ATTR_FACES_REQUEST_PARAMETER_MAP);
+
+		if (facesRequestParameterMap != null) {
+			return facesRequestParameterMap;
+		}
+
 		PortletRequest portletRequest = bridgeContext.getPortletRequest();
 		PortletResponse portletResponse = bridgeContext.getPortletResponse();
 		String namespace = portletResponse.getNamespace();
@@ -97,6 +109,8 @@ public class ContextMapFactoryImpl extends ContextMapFactory {
 					facesViewParameterMap, defaultRenderKitId);
 		}
 
+		bridgeContextAttributes.put(ATTR_FACES_REQUEST_PARAMETER_MAP, facesRequestParameterMap);
+
 		return facesRequestParameterMap;
 	}
 
@@ -13,12 +13,10 @@
  */
 package com.liferay.faces.bridge.context.map.internal;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -49,6 +47,7 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 	private String defaultRenderKitId;
 	private Map<String, String> facesViewParameterMap;
 	private String namespace;
+	private RequestParameterIndex requestParameterIndex;
 	private Map<String, String[]> wrappedParameterMap;
 
 	public FacesRequestParameterMapImpl(String namespace, BridgeRequestScope bridgeRequestScope,
@@ -80,16 +79,20 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 		}
 
 		if (namespacedKey) {
-			wrappedParameterMap.put(key, values);
+			put(key, values);
 		}
 		else {
-			wrappedParameterMap.put(namespace + key, values);
+			put(namespace + key, values);
 		}
 	}
 
 	@Override
 	public void clear() {
 		wrappedParameterMap.clear();
+
+		if (requestParameterIndex != null) {
+			requestParameterIndex.clear();
+		}
 	}
 
 	/**
@@ -103,22 +106,18 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 		// If the specified key has a valid value, then
 		if (key != null) {
 
-			// Determine whether or not the key is present in the parameter-map within the PortletRequest. This should
-			// be a quick lookup (minimal performance impact).
-			found = wrappedParameterMap.containsKey(key);
+			// Determine whether or not the key (or the namespaced key) is present in the index of the parameter-map
+			// within the PortletRequest.
+			found = getRequestParameterIndex().containsKey(key);
 
+			// NOTE: If the index contains the key, then trust that fact and let this method return true as well.
+			// Otherwise, don't trust it! This might be a Liferay WSRP producer portlet in which
+			// NamespaceServletRequest.getParameterMap().containsKey(String) erroneously returns false (and the
+			// entries of the parameter-map that the index was built from are likewise incomplete). Just in case, try
+			// again by seeing if the parameter has a value. If it does, then let this method return true.
 			if (!found) {
-				found = wrappedParameterMap.containsKey(namespace + key);
-			}
 
-			if (!found) {
-
-				// NOTE: If the valuesMap.containsKey(String) method call returned true, then trust that fact and let
-				// this method return true as well. Otherwise, don't trust it! This might be a Liferay WSRP producer
-				// portlet in which NamespaceServletRequest.getParameterMap().containsKey(String) erroneously returns
-				// false. Just in case, try again by seeing if the parameter has a value. If it does, then let this
-				// method return true.
-				String[] values = wrappedParameterMap.get(key.toString());
+				String[] values = getUnindexedValues(key);
 
 				if (values != null) {
 
@@ -133,30 +132,15 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 				}
 			}
 
-			// If the key was not present in the quick lookup, then
+			// If the key was not present in the index, then
 			if (!found) {
 
-				String keyAsString = (String) key;
+				String keyAsString = key.toString();
 
-				// If the key is "javax.faces.ViewState" then avoid the performance impact of the superclass delegation
-				// by handling this special case here.
+				// If the key is "javax.faces.ViewState" then determine whether or not it was preserved in the
+				// BridgeRequestScope.
 				if (ResponseStateManager.VIEW_STATE_PARAM.equals(keyAsString)) {
-
-					String viewStateParam = getFirst(key);
-
-					if (viewStateParam == null) {
-
-						if (bridgeRequestScope != null) {
-							viewStateParam = bridgeRequestScope.getPreservedViewStateParam();
-
-							if (viewStateParam != null) {
-								found = true;
-							}
-						}
-					}
-					else {
-						found = true;
-					}
+					found = (bridgeRequestScope != null) && (bridgeRequestScope.getPreservedViewStateParam() != null);
 				}
 
 				// Otherwise,
@@ -170,18 +154,19 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 						// nothing to do -- just here for comments readability.
 					}
 
-					// Otherwise, iterate through the parameter names to see if the name is present. This is done as a
-					// last resort since getting the parameter names is an expensive operation.
+					// Otherwise, determine whether or not the name is one of the names that are added to the
+					// parameter-map by keySet().
 					else {
 
-						Set<String> parameterNames = keySet();
-
-						for (String parameterName : parameterNames) {
-							found = parameterName.equals(keyAsString);
+						if (bridgeRequestScope != null) {
+							Map<String, String> preservedActionParamMap =
+								bridgeRequestScope.getPreservedActionParameterMap();
+							found = (preservedActionParamMap != null) &&
+								preservedActionParamMap.containsKey(keyAsString);
+						}
 
-							if (found) {
-								break;
-							}
+						if (!found) {
+							found = facesViewParameterMap.containsKey(keyAsString);
 						}
 					}
 				}
@@ -204,10 +189,11 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 	@Override
 	public String[] get(Object key) {
 
-		String[] values = wrappedParameterMap.get(key);
+		String[] values = getRequestParameterIndex().get(key);
 
+		// See the note regarding Liferay WSRP producer portlets in containsKey(Object).
 		if (values == null) {
-			values = wrappedParameterMap.get(namespace + key);
+			values = getUnindexedValues(key);
 		}
 
 		if (values == null) {
@@ -226,71 +212,67 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 	public Set<String> keySet() {
 
 		// Note: This can't be cached because the caller basically wants a new enumeration to iterate over each time.
-		Set<String> keyNames = new HashSet<String>();
+		Set<String> keyNames = new HashSet<String>(wrappedParameterMap.keySet());
 
 		String renderKitIdParam = getFirst(ResponseStateManager.RENDER_KIT_ID_PARAM);
 
-		if (renderKitIdParam == null) {
-			renderKitIdParam = defaultRenderKitId;
-		}
-
-		List<String> requestParamerNameList = new ArrayList<String>();
-		requestParamerNameList.addAll(wrappedParameterMap.keySet());
-
 		// Section 6.9 of the Bridge spec requires that a parameter name be added to the return value of
 		// ExternalContext.getRequestParameterNames() for ResponseStateManager.RENDER_KIT_ID_PARAM.
 		if (renderKitIdParam != null) {
-			requestParamerNameList.add(ResponseStateManager.RENDER_KIT_ID_PARAM);
+			keyNames.add(ResponseStateManager.RENDER_KIT_ID_PARAM);
 		}
 
 		// If the "javax.faces.ViewState" parameter was preserved in the BridgeRequestScope, then add it to the return
 		// value list of names.
 		String viewStateParam = getFirst(ResponseStateManager.VIEW_STATE_PARAM);
 
-		if ((viewStateParam == null) && (bridgeRequestScope != null)) {
-			viewStateParam = bridgeRequestScope.getPreservedViewStateParam();
-		}
-
 		if (viewStateParam != null) {
-			requestParamerNameList.add(ResponseStateManager.VIEW_STATE_PARAM);
+			keyNames.add(ResponseStateManager.VIEW_STATE_PARAM);
 		}
 
 		if (bridgeRequestScope != null) {
 			Map<String, String> preservedActionParamMap = bridgeRequestScope.getPreservedActionParameterMap();
 
 			if (preservedActionParamMap != null) {
-				Set<String> keySet = preservedActionParamMap.keySet();
-
-				for (String key : keySet) {
-					requestParamerNameList.add(key);
-				}
+				keyNames.addAll(preservedActionParamMap.keySet());
 			}
 		}
 
-		Set<String> keySet = facesViewParameterMap.keySet();
-
-		for (String key : keySet) {
-			requestParamerNameList.add(key);
-		}
-
-		keyNames.addAll(requestParamerNameList);
+		keyNames.addAll(facesViewParameterMap.keySet());
 
 		return keyNames;
 	}
 
 	@Override
 	public String[] put(String key, String[] value) {
-		return wrappedParameterMap.put(key, value);
+
+		String[] oldValue = wrappedParameterMap.put(key, value);
+
+		if (requestParameterIndex != null) {
+			requestParameterIndex.put(key, value);
+		}
+
+		return oldValue;
 	}
 
 	@Override
 	public void putAll(Map<? extends String, ? extends String[]> m) {
-		wrappedParameterMap.putAll(m);
+
+		for (Map.Entry<? extends String, ? extends String[]> mapEntry : m.entrySet()) {
+			put(mapEntry.getKey(), mapEntry.getValue());
+		}
 	}
 
 	@Override
 	public String[] remove(Object key) {
-		return wrappedParameterMap.remove(key);
+
+		String[] oldValue = wrappedParameterMap.remove(key);
+
+		if (requestParameterIndex != null) {
+			requestParameterIndex.remove(key);
+		}
+
+		return oldValue;
 	}
 
 	@Override
@@ -312,10 +294,6 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 
 			String[] values = get(key);
 
-			if (values == null) {
-				values = get(namespace + key);
-			}
-
 			if ((values != null) && (values.length > 0)) {
 				firstValue = values[0];
 			}
@@ -335,6 +313,33 @@ public class FacesRequestParameterMapImpl implements FacesRequestParameterMap {
 		return namespace;
 	}
 
+	/**
+	 * Returns the index of the parameter-map within the PortletRequest, building it if necessary.
+	 */
+	protected RequestParameterIndex getRequestParameterIndex() {
+
+		if (requestParameterIndex == null) {
+			requestParameterIndex = new RequestParameterIndex(wrappedParameterMap, namespace);
+		}
+
+		return requestParameterIndex;
+	}
+
+	/**
+	 * Returns the values of the specified parameter by asking the parameter-map within the PortletRequest directly,
+	 * rather than the index that was built from its entries.
+	 */
+	protected String[] getUnindexedValues(Object key) {
+
+		String[] values = null;
+
+		if (key instanceof String) {
+			values = wrappedParameterMap.get(key);
+		}
+
+		return values;
+	}
+
 	protected String getSpecialParameterValue(String parameterName) {
 
 		String specialParameterValue = null;
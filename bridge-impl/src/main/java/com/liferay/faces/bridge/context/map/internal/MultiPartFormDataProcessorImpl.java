@@ -15,9 +15,12 @@ package com.liferay.faces.bridge.context.map.internal;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.FileChannel;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Enumeration;
@@ -43,11 +46,11 @@ import org.apache.commons.fileupload.FileItemHeaders;
 import org.apache.commons.fileupload.FileItemIterator;
 import org.apache.commons.fileupload.FileItemStream;
 import org.apache.commons.fileupload.InvalidFileNameException;
+import org.apache.commons.fileupload.ParameterParser;
 import org.apache.commons.fileupload.disk.DiskFileItem;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.portlet.PortletFileUpload;
 import org.apache.commons.fileupload.util.Streams;
-import org.apache.commons.io.FileUtils;
 
 import com.liferay.faces.bridge.BridgeFactoryFinder;
 import com.liferay.faces.bridge.config.internal.PortletConfigParam;
@@ -68,6 +71,10 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(MultiPartFormDataProcessorImpl.class);
 
+	// Private Constants
+	private static final String TEMP_FILE_PREFIX = "upload_";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
 	@Override
 	public Map<String, List<UploadedFile>> process(ClientDataRequest clientDataRequest, PortletConfig portletConfig,
 		FacesRequestParameterMap facesRequestParameterMap) {
@@ -98,9 +105,10 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 		// Initialize commons-fileupload so that uploaded temporary files are not automatically deleted.
 		diskFileItemFactory.setFileCleaningTracker(null);
 
-		// Initialize the commons-fileupload size threshold to zero, so that all files will be dumped to disk
-		// instead of staying in memory.
-		diskFileItemFactory.setSizeThreshold(0);
+		// Initialize commons-fileupload so that simple form-fields are kept in memory unless they are unusually large.
+		// Note that file parts do not pass through the DiskFileItemFactory, since they are streamed directly to a file
+		// in the upload path.
+		diskFileItemFactory.setSizeThreshold(DiskFileItemFactory.DEFAULT_SIZE_THRESHOLD);
 
 		// Determine the max file upload size threshold (in bytes).
 		long uploadedFileMaxSize = PortletConfigParam.UploadedFileMaxSize.getLongValue(portletConfig);
@@ -172,15 +180,15 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 							fileName = e.getName();
 						}
 
-						// Copy the stream of file data to a temporary file. NOTE: This is necessary even if the
-						// current field is a simple form-field because the call below to diskFileItem.getString()
-						// will fail otherwise.
-						DiskFileItem diskFileItem = (DiskFileItem) diskFileItemFactory.createItem(fieldName,
-								contentType, formField, fileName);
-						Streams.copy(fieldStream.openStream(), diskFileItem.getOutputStream(), true);
-
 						// If the current field is a simple form-field, then save the form field value in the map.
-						if (diskFileItem.isFormField()) {
+						if (formField) {
+
+							// Copy the stream of field data to a DiskFileItem, which will keep the data in memory
+							// unless it exceeds the size threshold.
+							DiskFileItem diskFileItem = (DiskFileItem) diskFileItemFactory.createItem(fieldName,
+									contentType, formField, fileName);
+							Streams.copy(fieldStream.openStream(), diskFileItem.getOutputStream(), true);
+
 							String characterEncoding = clientDataRequest.getCharacterEncoding();
 							String requestParameterValue = null;
 
@@ -191,30 +199,37 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 								requestParameterValue = diskFileItem.getString(characterEncoding);
 							}
 
+							diskFileItem.delete();
 							facesRequestParameterMap.addValue(fieldName, requestParameterValue);
 						}
 						else {
 
-							File tempFile = diskFileItem.getStoreLocation();
+							// Stream the file data to a temporary file in the upload path. This has to be done prior
+							// to determining the final file name since the file might be a zero-length upload.
+							File tempFile = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX, uploadedFilesPath);
+							long size;
 
-							// If the copy was successful, then
-							if (tempFile.exists()) {
+							try {
+								size = Streams.copy(fieldStream.openStream(), new FileOutputStream(tempFile), true);
+							}
+							catch (IOException e) {
 
-								// Copy the commons-fileupload temporary file to a file in the same temporary
-								// location, but with the filename provided by the user in the upload. This has two
-								// benefits: 1) The temporary file will have a nice meaningful name. 2) By copying
-								// the file, the developer can have access to a semi-permanent file, because the
-								// commmons-fileupload DiskFileItem.finalize() method automatically deletes the
-								// temporary one.
-								String tempFileName = tempFile.getName();
-								String tempFileAbsolutePath = tempFile.getAbsolutePath();
+								// Don't leave a partially written temporary file behind in the upload path.
+								tempFile.delete();
 
-								String copiedFileName = stripIllegalCharacters(fileName);
+								throw e;
+							}
+
+							// If the copy was successful, then
+							if (size > 0) {
 
-								String copiedFileAbsolutePath = tempFileAbsolutePath.replace(tempFileName,
-										copiedFileName);
-								File copiedFile = new File(copiedFileAbsolutePath);
-								FileUtils.copyFile(tempFile, copiedFile);
+								// Move the temporary file to a file in the same location, but with the filename
+								// provided by the user in the upload. This has two benefits: 1) The file will have a
+								// nice meaningful name. 2) The developer can have access to a semi-permanent file.
+								String copiedFileName = stripIllegalCharacters(fileName);
+								File copiedFile = new File(uploadedFilesPath, copiedFileName);
+								String copiedFileAbsolutePath = copiedFile.getAbsolutePath();
+								moveFile(tempFile, copiedFile);
 
 								// If present, build up a map of headers.
 								Map<String, List<String>> headersMap = new HashMap<String, List<String>>();
@@ -249,9 +264,8 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 								String id = Long.toString(((long) hashCode()) + System.currentTimeMillis());
 								String message = null;
 								UploadedFile uploadedFile = uploadedFileFactory.getUploadedFile(copiedFileAbsolutePath,
-										attributeMap, diskFileItem.getCharSet(), diskFileItem.getContentType(),
-										headersMap, id, message, fileName, diskFileItem.getSize(),
-										UploadedFile.Status.FILE_SAVED);
+										attributeMap, getCharSet(contentType), contentType, headersMap, id, message,
+										fileName, size, UploadedFile.Status.FILE_SAVED);
 
 								facesRequestParameterMap.addValue(fieldName, copiedFileAbsolutePath);
 								addUploadedFile(uploadedFileMap, fieldName, uploadedFile);
@@ -260,6 +274,8 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 							}
 							else {
 
+								tempFile.delete();
+
 								if ((fileName != null) && (fileName.trim().length() > 0)) {
 									Exception e = new IOException("Failed to copy the stream of uploaded file=[" +
 											fileName + "] to a temporary file (possibly a zero-length uploaded file)");
@@ -292,6 +308,22 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 		return uploadedFileMap;
 	}
 
+	protected String getCharSet(String contentType) {
+
+		String charSet = null;
+
+		if (contentType != null) {
+
+			ParameterParser parameterParser = new ParameterParser();
+			parameterParser.setLowerCaseNames(true);
+
+			Map<String, String> parameters = parameterParser.parse(contentType, ';');
+			charSet = parameters.get("charset");
+		}
+
+		return charSet;
+	}
+
 	protected void addUploadedFile(Map<String, List<UploadedFile>> uploadedFileMap, String fieldName,
 		UploadedFile uploadedFile) {
 		List<UploadedFile> uploadedFiles = uploadedFileMap.get(fieldName);
@@ -304,6 +336,60 @@ public class MultiPartFormDataProcessorImpl implements MultiPartFormDataProcesso
 		uploadedFiles.add(uploadedFile);
 	}
 
+	/**
+	 * Moves the specified source file to the specified destination file, replacing the destination if it already
+	 * exists. Since both files reside in the same folder, the move is ordinarily a simple rename. If the rename fails,
+	 * then the contents are transferred with {@link FileChannel#transferTo(long, long,
+	 * java.nio.channels.WritableByteChannel)} so that the data does not have to be copied through a heap buffer.
+	 */
+	protected void moveFile(File sourceFile, File destFile) throws IOException {
+
+		if (destFile.exists()) {
+			destFile.delete();
+		}
+
+		if (!sourceFile.renameTo(destFile)) {
+
+			boolean copied = false;
+
+			try {
+				FileInputStream fileInputStream = new FileInputStream(sourceFile);
+
+				try {
+					FileOutputStream fileOutputStream = new FileOutputStream(destFile);
+
+					try {
+						FileChannel sourceChannel = fileInputStream.getChannel();
+						FileChannel destChannel = fileOutputStream.getChannel();
+						long size = sourceChannel.size();
+						long position = 0;
+
+						while (position < size) {
+							position += sourceChannel.transferTo(position, size - position, destChannel);
+						}
+					}
+					finally {
+						fileOutputStream.close();
+					}
+				}
+				finally {
+					fileInputStream.close();
+				}
+
+				copied = true;
+			}
+			finally {
+
+				// The source file is always deleted, and if the copy failed then so is the incomplete destination file.
+				sourceFile.delete();
+
+				if (!copied) {
+					destFile.delete();
+				}
+			}
+		}
+	}
+
 	protected String stripIllegalCharacters(String fileName) {
 
 		// FACES-64: Need to strip out invalid characters.
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.map.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * This class provides an index of request parameters that is built once per request, so that a parameter can be found
+ * by either its namespaced name or its un-namespaced name with no more than two hash lookups and without building
+ * namespaced names. The names as they appear in the request take precedence over un-namespaced names, which is
+ * consistent with looking up the specified name before looking up the namespaced name.
+ *
+ * @author  Neil Griffin
+ */
+public class RequestParameterIndex {
+
+	// Private Data Members
+	private String namespace;
+	private Map<String, String[]> parameterValues;
+	private Map<String, String[]> unnamespacedParameterValues;
+
+	public RequestParameterIndex(Map<String, String[]> parameterMap, String namespace) {
+
+		this.namespace = namespace;
+
+		int capacity = (parameterMap.size() * 4 / 3) + 1;
+		this.parameterValues = new HashMap<String, String[]>(capacity);
+		this.unnamespacedParameterValues = new HashMap<String, String[]>(capacity);
+
+		for (Map.Entry<String, String[]> mapEntry : parameterMap.entrySet()) {
+			put(mapEntry.getKey(), mapEntry.getValue());
+		}
+	}
+
+	public void clear() {
+		parameterValues.clear();
+		unnamespacedParameterValues.clear();
+	}
+
+	public boolean containsKey(Object name) {
+		return parameterValues.containsKey(name) || unnamespacedParameterValues.containsKey(name);
+	}
+
+	public String[] get(Object name) {
+
+		String[] values = parameterValues.get(name);
+
+		if (values == null) {
+			values = unnamespacedParameterValues.get(name);
+		}
+
+		return values;
+	}
+
+	public void put(String name, String[] values) {
+
+		if (values != null) {
+
+			parameterValues.put(name, values);
+
+			if (isNamespaced(name)) {
+				unnamespacedParameterValues.put(name.substring(namespace.length()), values);
+			}
+		}
+		else {
+			remove(name);
+		}
+	}
+
+	public void remove(Object name) {
+
+		parameterValues.remove(name);
+
+		if ((name instanceof String) && isNamespaced((String) name)) {
+			unnamespacedParameterValues.remove(((String) name).substring(namespace.length()));
+		}
+	}
+
+	protected boolean isNamespaced(String name) {
+		return (name != null) && (namespace != null) && (namespace.length() > 0) &&
+			(name.length() > namespace.length()) && name.startsWith(namespace);
+	}
+}
@@ -16,6 +16,7 @@ package com.liferay.faces.bridge.context.map.internal;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Map;
+import java.util.Set;
 
 import com.liferay.faces.util.context.map.FacesRequestParameterMap;
 import com.liferay.faces.util.map.AbstractPropertyMap;
@@ -39,6 +40,20 @@ public class RequestParameterMap extends AbstractPropertyMap<String> implements
 		return facesRequestParameterMap.containsKey(key);
 	}
 
+	/**
+	 * Returns the names of the parameters directly rather than copying them from {@link #getPropertyNames()}, since
+	 * {@link FacesRequestParameterMap#keySet()} already returns a new set.
+	 */
+	@Override
+	public Set<String> keySet() {
+		return facesRequestParameterMap.keySet();
+	}
+
+	@Override
+	public int size() {
+		return facesRequestParameterMap.keySet().size();
+	}
+
 	@Override
 	protected AbstractPropertyMapEntry<String> createPropertyMapEntry(String name) {
 		return new RequestParameterMapEntry(name, this);
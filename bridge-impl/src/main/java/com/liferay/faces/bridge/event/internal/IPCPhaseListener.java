@@ -13,8 +13,8 @@
  */
 package com.liferay.faces.bridge.event.internal;
 
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import javax.faces.context.FacesContext;
 import javax.faces.event.PhaseEvent;
@@ -26,8 +26,8 @@ import javax.portlet.faces.BridgePublicRenderParameterHandler;
 import javax.portlet.faces.BridgeUtil;
 
 import com.liferay.faces.bridge.config.BridgeConfig;
+import com.liferay.faces.bridge.config.internal.BridgeConfigAttributeMap;
 import com.liferay.faces.bridge.context.BridgeContext;
-import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 
@@ -114,73 +114,64 @@ public class IPCPhaseListener implements PhaseListener {
 					String portletName = bridgeContext.getPortletConfig().getPortletName();
 					Map<String, String[]> publicParameterMap = bridgeContext.getPortletRequest()
 						.getPublicParameterMap();
-					Set<String> publicRenderParameterNames = publicParameterMappings.keySet();
+					List<PublicRenderParameterBinding> bindings = getPublicRenderParameterBindings(bridgeConfig,
+							portletName);
 
-					// For each of the public render parameters found in the WEB-INF/faces-config.xml file:
-					for (String prefixedParameterName : publicRenderParameterNames) {
+					// For each of the public render parameter model expressions found in the WEB-INF/faces-config.xml
+					// file:
+					for (PublicRenderParameterBinding binding : bindings) {
 
-						String[] modelExpressions = publicParameterMappings.get(prefixedParameterName);
+						String nonPrefixedParameterName = binding.getParameterName();
 
-						if (modelExpressions != null) {
+						if (publicParameterMap.containsKey(nonPrefixedParameterName)) {
 
-							String parameterPrefix;
-							String nonPrefixedParameterName;
+							String[] parameterValues = publicParameterMap.get(nonPrefixedParameterName);
+							String parameterValue = null;
 
-							int colonPos = prefixedParameterName.indexOf(StringPool.COLON);
-
-							if (colonPos > 0) {
-								parameterPrefix = prefixedParameterName.substring(0, colonPos);
-								nonPrefixedParameterName = prefixedParameterName.substring(colonPos + 1);
-							}
-							else {
-								parameterPrefix = null;
-								nonPrefixedParameterName = prefixedParameterName;
+							if ((parameterValues != null) && (parameterValues.length > 0)) {
+								parameterValue = parameterValues[0];
 							}
 
-							if (publicParameterMap.containsKey(nonPrefixedParameterName)) {
+							if (logger.isTraceEnabled()) {
+								logger.trace(
+									"portletName=[{0}] public render parameter=[{1}] modelEL=[{2}] isForThisPortlet=[{3}]",
+									portletName, nonPrefixedParameterName, binding.getModelEL(),
+									binding.isForThisPortlet());
+							}
 
-								for (String originalModelEL : modelExpressions) {
+							if (binding.isForThisPortlet()) {
 
-									String[] parameterValues = publicParameterMap.get(nonPrefixedParameterName);
-									String parameterValue = null;
+								PublicRenderParameter publicRenderParameter = new PublicRenderParameterImpl(binding,
+										parameterValue);
 
-									if ((parameterValues != null) && (parameterValues.length > 0)) {
-										parameterValue = parameterValues[0];
-									}
+								// Skip the injection if the model already has the value of the parameter, which is
+								// typically the case when the same page is rendered again.
+								if (publicRenderParameter.isModelValueChanged(facesContext)) {
 
-									PublicRenderParameter publicRenderParameter = new PublicRenderParameterImpl(
-											parameterPrefix, parameterValue, originalModelEL, portletName);
+									logger.debug("Injecting render parameter=[{0}] value=[{1}] into expression=[{2}]",
+										nonPrefixedParameterName, parameterValue, binding.getModelEL());
 
-									if (logger.isTraceEnabled()) {
-										logger.trace(
-											"portletName=[{0}] public render parameter=[{1}] originalModelEL=[{2}] modifiedModelEL=[{3}] isForThisPortlet=[{4}]",
-											portletName, nonPrefixedParameterName, originalModelEL,
-											publicRenderParameter.getModifiedModelEL(),
-											publicRenderParameter.isForThisPortlet());
-									}
-
-									if (publicRenderParameter.isForThisPortlet()) {
-
-										logger.debug(
-											"Injecting render parameter=[{0}] value=[{1}] into expression=[{2}]",
-											nonPrefixedParameterName, parameterValue,
-											publicRenderParameter.getModifiedModelEL());
-										invokeHandler = publicRenderParameter.injectIntoModel(facesContext);
-									}
-									else {
-										logger.debug(
-											"NOT injecting render parameter=[{0}] value=[{1}] into expression=[{2}] because it is NOT for this portletName=[{3}]",
-											nonPrefixedParameterName, parameterValue,
-											publicRenderParameter.getModifiedModelEL(), portletName);
+									if (publicRenderParameter.injectIntoModel(facesContext)) {
+										invokeHandler = true;
 									}
 								}
+								else {
+									logger.debug(
+										"NOT injecting render parameter=[{0}] value=[{1}] into expression=[{2}] because the model value has NOT changed",
+										nonPrefixedParameterName, parameterValue, binding.getModelEL());
+								}
 							}
 							else {
 								logger.debug(
-									"NOT injecting render parameter=[{0}] because it is not found in the public parameter map",
-									nonPrefixedParameterName);
+									"NOT injecting render parameter=[{0}] value=[{1}] into expression=[{2}] because it is NOT for this portletName=[{3}]",
+									nonPrefixedParameterName, parameterValue, binding.getModelEL(), portletName);
 							}
 						}
+						else {
+							logger.debug(
+								"NOT injecting render parameter=[{0}] because it is not found in the public parameter map",
+								nonPrefixedParameterName);
+						}
 					}
 
 					// Section 5.3.2 also requires that if a bridgePublicRenderParameterHandler has been registered
@@ -240,71 +231,52 @@ public class IPCPhaseListener implements PhaseListener {
 					String portletName = bridgeContext.getPortletConfig().getPortletName();
 					Map<String, String[]> publicParameterMap = bridgeContext.getPortletRequest()
 						.getPublicParameterMap();
-					Set<String> publicRenderParameterNames = publicParameterMappings.keySet();
+					List<PublicRenderParameterBinding> bindings = getPublicRenderParameterBindings(bridgeConfig,
+							portletName);
 
-					// For each of the public render parameters found in the WEB-INF/faces-config.xml file:
-					for (String prefixedParameterName : publicRenderParameterNames) {
-						String[] modelExpressions = publicParameterMappings.get(prefixedParameterName);
+					// For each of the public render parameter model expressions found in the WEB-INF/faces-config.xml
+					// file:
+					for (PublicRenderParameterBinding binding : bindings) {
 
-						if (modelExpressions != null) {
+						String nonPrefixedParameterName = binding.getParameterName();
 
-							String parameterPrefix;
-							String nonPrefixedParameterName;
+						if (binding.isForThisPortlet()) {
 
-							int colonPos = prefixedParameterName.indexOf(StringPool.COLON);
+							String[] parameterValues = publicParameterMap.get(nonPrefixedParameterName);
+							String parameterValue = null;
 
-							if (colonPos > 0) {
-								parameterPrefix = prefixedParameterName.substring(0, colonPos);
-								nonPrefixedParameterName = prefixedParameterName.substring(colonPos + 1);
+							if ((parameterValues != null) && (parameterValues.length > 0)) {
+								parameterValue = parameterValues[0];
 							}
-							else {
-								parameterPrefix = null;
-								nonPrefixedParameterName = prefixedParameterName;
-							}
-
-							for (String originalModelEL : modelExpressions) {
-
-								String[] parameterValues = publicParameterMap.get(nonPrefixedParameterName);
-								String parameterValue = null;
-
-								if ((parameterValues != null) && (parameterValues.length > 0)) {
-									parameterValue = parameterValues[0];
-								}
-
-								PublicRenderParameter publicRenderParameter = new PublicRenderParameterImpl(
-										parameterPrefix, parameterValue, originalModelEL, portletName);
-
-								if (publicRenderParameter.isForThisPortlet()) {
 
-									String modelValue = publicRenderParameter.getModelValue(facesContext);
-									boolean modelValueHasChanged = publicRenderParameter.isModelValueChanged(
-											facesContext);
+							PublicRenderParameter publicRenderParameter = new PublicRenderParameterImpl(binding,
+									parameterValue);
+							String modelValue = publicRenderParameter.getModelValue(facesContext);
+							boolean modelValueHasChanged = publicRenderParameter.isModelValueChanged(facesContext);
 
-									if (logger.isTraceEnabled()) {
-										logger.trace(
-											"portletName=[{0}] public render parameter=[{1}] parameterValue=[{2}] modelValue=[{3}] modelValueHasChanged=[{4}]",
-											portletName, nonPrefixedParameterName, parameterValue, modelValue,
-											modelValueHasChanged);
-									}
+							if (logger.isTraceEnabled()) {
+								logger.trace(
+									"portletName=[{0}] public render parameter=[{1}] parameterValue=[{2}] modelValue=[{3}] modelValueHasChanged=[{4}]",
+									portletName, nonPrefixedParameterName, parameterValue, modelValue,
+									modelValueHasChanged);
+							}
 
-									if (modelValueHasChanged) {
-										logger.debug(
-											"Setting render parameter=[{0}] in response because modelValue=[{1}] has changed",
-											nonPrefixedParameterName, modelValue);
-										stateAwareResponse.setRenderParameter(nonPrefixedParameterName, modelValue);
-									}
-									else {
-										logger.debug(
-											"NOT setting render parameter=[{0}] in response because modelValue=[{1}] has NOT changed",
-											nonPrefixedParameterName, modelValue);
-									}
-								}
-								else {
-									logger.debug(
-										"NOT setting render parameter=[{0}] in response because it is NOT for this portletName=[{1}]",
-										nonPrefixedParameterName, portletName);
-								}
+							if (modelValueHasChanged) {
+								logger.debug(
+									"Setting render parameter=[{0}] in response because modelValue=[{1}] has changed",
+									nonPrefixedParameterName, modelValue);
+								stateAwareResponse.setRenderParameter(nonPrefixedParameterName, modelValue);
 							}
+							else {
+								logger.debug(
+									"NOT setting render parameter=[{0}] in response because modelValue=[{1}] has NOT changed",
+									nonPrefixedParameterName, modelValue);
+							}
+						}
+						else {
+							logger.debug(
+								"NOT setting render parameter=[{0}] in response because it is NOT for this portletName=[{1}]",
+								nonPrefixedParameterName, portletName);
 						}
 					}
 				}
@@ -318,6 +290,24 @@ public class IPCPhaseListener implements PhaseListener {
 		}
 	}
 
+	/**
+	 * Returns the precompiled Public Render Parameter bindings of the specified portlet. If the bridge configuration
+	 * was not created by the bridge (and therefore does not provide precompiled bindings) then the bindings are created
+	 * from the mappings of the bridge configuration.
+	 */
+	protected List<PublicRenderParameterBinding> getPublicRenderParameterBindings(BridgeConfig bridgeConfig,
+		String portletName) {
+
+		Object bindings = bridgeConfig.getAttributes().get(BridgeConfigAttributeMap.PUBLIC_RENDER_PARAMETER_BINDINGS);
+
+		if (bindings instanceof PublicRenderParameterBindings) {
+			return ((PublicRenderParameterBindings) bindings).getBindings(portletName);
+		}
+		else {
+			return PublicRenderParameterBindings.newBindings(bridgeConfig.getPublicParameterMappings(), portletName);
+		}
+	}
+
 	public PhaseId getPhaseId() {
 		return PhaseId.ANY_PHASE;
 	}
@@ -19,21 +19,16 @@ package com.liferay.faces.bridge.event.internal;
 public abstract class PublicRenderParameterBaseImpl implements PublicRenderParameter {
 
 	// Protected Data Members
+	protected PublicRenderParameterBinding binding;
 	protected boolean forThisPortlet;
 	protected String modelEL;
 	protected String originalRequestValue;
 
-	public PublicRenderParameterBaseImpl(String prefix, String originalRequestValue, String originalModelEL,
-		String portletName) {
+	public PublicRenderParameterBaseImpl(PublicRenderParameterBinding binding, String originalRequestValue) {
 
+		this.binding = binding;
 		this.originalRequestValue = originalRequestValue;
-		this.modelEL = originalModelEL;
-
-		if (prefix == null) {
-			this.forThisPortlet = true;
-		}
-		else {
-			this.forThisPortlet = prefix.equals(portletName);
-		}
+		this.modelEL = binding.getModelEL();
+		this.forThisPortlet = binding.isForThisPortlet();
 	}
 }
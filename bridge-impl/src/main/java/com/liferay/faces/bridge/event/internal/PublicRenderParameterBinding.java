@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.event.internal;
+
+import javax.el.ValueExpression;
+import javax.faces.context.FacesContext;
+
+
+/**
+ * This class represents the binding of a Public Render Parameter to a model-el expression for a particular portlet, as
+ * specified by the bridge:public-parameter-mappings element of the faces-config.xml descriptor. The prefixed parameter
+ * name is parsed once when the binding is created and the {@link ValueExpression} is created once when the binding is
+ * first used, so that processing the parameters of a request only requires reading the values.
+ *
+ * @author  Neil Griffin
+ */
+public class PublicRenderParameterBinding {
+
+	// Private Data Members
+	private boolean forThisPortlet;
+	private String modelEL;
+	private String parameterName;
+	private String prefix;
+	private volatile ValueExpression valueExpression;
+
+	public PublicRenderParameterBinding(String prefix, String parameterName, String modelEL, String portletName) {
+
+		this.prefix = prefix;
+		this.parameterName = parameterName;
+		this.modelEL = modelEL;
+
+		if (prefix == null) {
+			this.forThisPortlet = true;
+		}
+		else {
+			this.forThisPortlet = prefix.equals(portletName);
+		}
+	}
+
+	public boolean isForThisPortlet() {
+		return forThisPortlet;
+	}
+
+	public String getModelEL() {
+		return modelEL;
+	}
+
+	/**
+	 * Returns the non-prefixed name of the Public Render Parameter.
+	 */
+	public String getParameterName() {
+		return parameterName;
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * Returns the {@link ValueExpression} for the model-el expression, creating it the first time that it is requested.
+	 * Since the expression does not depend on any variables or functions that are specific to the current request,
+	 * it can safely be shared by concurrent requests.
+	 */
+	public ValueExpression getValueExpression(FacesContext facesContext) {
+
+		ValueExpression valueExpression = this.valueExpression;
+
+		if (valueExpression == null) {
+			valueExpression = facesContext.getApplication().getExpressionFactory().createValueExpression(
+					facesContext.getELContext(), modelEL, String.class);
+			this.valueExpression = valueExpression;
+		}
+
+		return valueExpression;
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.event.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.liferay.faces.util.lang.StringPool;
+
+
+/**
+ * This class precompiles the Public Render Parameter mappings of the bridge configuration into a list of {@link
+ * PublicRenderParameterBinding} instances for each portlet. Since the bridge configuration is shared by all of the
+ * portlets in a portlet context, and since whether or not a binding applies depends on the name of the portlet, the
+ * bindings are created the first time that they are requested for a particular portlet.
+ *
+ * @author  Neil Griffin
+ */
+public class PublicRenderParameterBindings {
+
+	// Private Data Members
+	private ConcurrentMap<String, List<PublicRenderParameterBinding>> bindingsByPortletName;
+	private Map<String, String[]> publicParameterMappings;
+
+	public PublicRenderParameterBindings(Map<String, String[]> publicParameterMappings) {
+		this.publicParameterMappings = publicParameterMappings;
+		this.bindingsByPortletName = new ConcurrentHashMap<String, List<PublicRenderParameterBinding>>();
+	}
+
+	public List<PublicRenderParameterBinding> getBindings(String portletName) {
+
+		List<PublicRenderParameterBinding> bindings = bindingsByPortletName.get(portletName);
+
+		if (bindings == null) {
+
+			bindings = newBindings(publicParameterMappings, portletName);
+
+			List<PublicRenderParameterBinding> existingBindings = bindingsByPortletName.putIfAbsent(portletName,
+					bindings);
+
+			if (existingBindings != null) {
+				bindings = existingBindings;
+			}
+		}
+
+		return bindings;
+	}
+
+	/**
+	 * Creates the bindings for the specified portlet by parsing the prefixed parameter names of the specified
+	 * mappings. The prefix (if any) is the name of the portlet that the parameter is intended for.
+	 */
+	public static List<PublicRenderParameterBinding> newBindings(Map<String, String[]> publicParameterMappings,
+		String portletName) {
+
+		List<PublicRenderParameterBinding> bindings = new ArrayList<PublicRenderParameterBinding>();
+
+		if (publicParameterMappings != null) {
+
+			for (Map.Entry<String, String[]> mapping : publicParameterMappings.entrySet()) {
+
+				String[] modelExpressions = mapping.getValue();
+
+				if (modelExpressions != null) {
+
+					String prefixedParameterName = mapping.getKey();
+					String parameterPrefix;
+					String nonPrefixedParameterName;
+
+					int colonPos = prefixedParameterName.indexOf(StringPool.COLON);
+
+					if (colonPos > 0) {
+						parameterPrefix = prefixedParameterName.substring(0, colonPos);
+						nonPrefixedParameterName = prefixedParameterName.substring(colonPos + 1);
+					}
+					else {
+						parameterPrefix = null;
+						nonPrefixedParameterName = prefixedParameterName;
+					}
+
+					for (String modelExpression : modelExpressions) {
+						bindings.add(new PublicRenderParameterBinding(parameterPrefix, nonPrefixedParameterName,
+								modelExpression, portletName));
+					}
+				}
+			}
+		}
+
+		return Collections.unmodifiableList(bindings);
+	}
+}
@@ -32,9 +32,8 @@ public abstract class PublicRenderParameterCompatImpl extends PublicRenderParame
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(PublicRenderParameterCompatImpl.class);
 
-	public PublicRenderParameterCompatImpl(String prefix, String originalRequestValue, String originalModelEL,
-		String portletName) {
-		super(prefix, originalRequestValue, originalModelEL, portletName);
+	public PublicRenderParameterCompatImpl(PublicRenderParameterBinding binding, String originalRequestValue) {
+		super(binding, originalRequestValue);
 	}
 
 	public boolean injectIntoModel(FacesContext facesContext) {
@@ -42,8 +41,7 @@ public abstract class PublicRenderParameterCompatImpl extends PublicRenderParame
 		try {
 
 			ELContext elContext = facesContext.getELContext();
-			ValueExpression valueExpression = facesContext.getApplication().getExpressionFactory()
-				.createValueExpression(elContext, modelEL, String.class);
+			ValueExpression valueExpression = binding.getValueExpression(facesContext);
 			valueExpression.setValue(elContext, originalRequestValue);
 
 			return true;
@@ -39,6 +39,7 @@ import com.liferay.faces.bridge.BridgePhase;
 import com.liferay.faces.bridge.BridgePhaseFactory;
 import com.liferay.faces.bridge.config.BridgeConfig;
 import com.liferay.faces.bridge.config.BridgeConfigFactory;
+import com.liferay.faces.bridge.config.internal.PortletConfigParamUtil;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeManager;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeManagerFactory;
 import com.liferay.faces.util.lang.StringPool;
@@ -61,6 +62,10 @@ public class BridgeImpl implements Bridge {
 	public void destroy() {
 		initialized = false;
 
+		if (portletConfig != null) {
+			PortletConfigParamUtil.remove(portletConfig);
+		}
+
 		// FACES-1450: Surround with try/catch block in order to prevent hot re-deploys from failing in Liferay Portal.
 		try {
 
@@ -181,6 +186,9 @@ public class BridgeImpl implements Bridge {
 		System.out.println(logMessage.toString());
 		this.initialized = true;
 		this.portletConfig = portletConfig;
+
+		// Take the snapshot of the init-param values for this portlet so that requests never need to resolve them.
+		PortletConfigParamUtil.reload(portletConfig);
 	}
 
 	protected void checkNull(PortletRequest portletRequest, PortletResponse portletResponse) {
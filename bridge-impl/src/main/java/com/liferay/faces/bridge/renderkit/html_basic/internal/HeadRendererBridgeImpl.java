@@ -29,6 +29,8 @@ import javax.portlet.PortletRequest;
 import javax.portlet.faces.component.PortletNamingContainerUIViewRoot;
 
 import com.liferay.faces.bridge.BridgeFactoryFinder;
+import com.liferay.faces.bridge.application.internal.ComboResourceImpl;
+import com.liferay.faces.bridge.config.internal.PortletConfigParam;
 import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.bridge.context.BridgePortalContext;
 import com.liferay.faces.bridge.context.HeadResponseWriter;
@@ -57,11 +59,20 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 	private static final String ADDED = UIComponentBase.class.getName() + ".ADDED";
 	private static final String EXTENSION_CSS = "css";
 	private static final String FIRST_FACET = "first";
+	private static final String HREF = "href";
 	private static final String MIDDLE_FACET = "middle";
 	private static final String LAST_FACET = "last";
+	private static final String LINK = "link";
+	private static final String MEDIA = "media";
 	private static final String RENDERER_TYPE_RICHFACES_RESOURCE_LIBRARY =
 		"org.richfaces.renderkit.ResourceLibraryRenderer";
+	private static final String REL = "rel";
 	private static final String RICHFACES_RESLIB_SUFFIX = "reslib";
+	private static final String SCRIPT = "script";
+	private static final String SCRIPT_RENDERER_TYPE = "javax.faces.resource.Script";
+	private static final String SRC = "src";
+	private static final String STYLESHEET = "stylesheet";
+	private static final String STYLESHEET_RENDERER_TYPE = "javax.faces.resource.Stylesheet";
 
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(HeadRendererBridgeImpl.class);
@@ -256,47 +267,48 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 			portletRequest.setAttribute(HeadResponseWriter.class.getName(), headResponseWriter);
 			facesContext.setResponseWriter(headResponseWriter);
 
+			// If resources are to be combined, then consecutive runs of scripts (or stylesheets) that are not yet
+			// present in the head are rendered as a single combo resource. Otherwise, each resource is rendered
+			// individually.
+			boolean resourceComboEnabled = PortletConfigParam.ResourceComboEnabled.getBooleanValue(
+					bridgeContext.getPortletConfig());
+			List<UIComponent> comboResources = new ArrayList<UIComponent>();
+			String comboExtension = null;
+
 			// For each resource:
 			for (UIComponent uiComponentResource : resourcesForAddingToHead) {
 
 				ComponentResource componentResource = componentResourceFactory.getComponentResource(
 						uiComponentResource);
 
-				// Command the resource to render itself to the HeadResponseWriter
-				if (componentResource.isRenderable()) {
-					uiComponentResource.encodeAll(facesContext);
-				}
-
-				String resourceId = componentResource.getId();
+				if (resourceComboEnabled) {
 
-				// If the resource has not yet been marked as having been added, then mark it now. Note that unless the
-				// resource is a RichFaces Resource Library (see comments below), the resource has probably already been
-				// marked as being in the head by ResourceRendererBridgeImpl#encodeEnd(FacesContext, UIComponent).
-				if (!headResourceIdsFromManagedBean.contains(resourceId)) {
+					String extension = getComboExtension(uiComponentResource, componentResource);
 
-					headResourceIdsFromManagedBean.add(resourceId);
+					if ((extension != null) && !headResourceIdsFromManagedBean.contains(componentResource.getId())) {
 
-					if (logger.isDebugEnabled()) {
+						if (!extension.equals(comboExtension)) {
+							encodeComboResources(facesContext, comboExtension, comboResources,
+								headResourceIdsFromManagedBean);
+							comboExtension = extension;
+						}
 
-						if (resourceId.endsWith(RICHFACES_RESLIB_SUFFIX) ||
-								RENDERER_TYPE_RICHFACES_RESOURCE_LIBRARY.equals(
-									uiComponentResource.getRendererType())) {
+						comboResources.add(uiComponentResource);
 
-							// RichFaces has resources like "org.richfaces:base-component.reslib",
-							// "org.richfaces:message.reslib", and "org.richfaces:ajax.reslib" that represent a
-							// collection of resources.
-							logger.debug("Marking RichFaces resource library [{0}] as being present in the head",
-								resourceId);
-						}
-						else {
-							logger.debug("Marking non-RichFaces resourceId=[{0}] as being present in the head",
-								resourceId);
-						}
+						continue;
 					}
+
+					encodeComboResources(facesContext, comboExtension, comboResources,
+						headResourceIdsFromManagedBean);
+					comboExtension = null;
 				}
 
+				encodeHeadResource(facesContext, uiComponentResource, componentResource,
+					headResourceIdsFromManagedBean);
 			}
 
+			encodeComboResources(facesContext, comboExtension, comboResources, headResourceIdsFromManagedBean);
+
 			super.encodeChildren(facesContext, uiComponent);
 
 			// Restore the temporary ResponseWriter reference.
@@ -328,11 +340,130 @@ public class HeadRendererBridgeImpl extends BridgeRenderer {
 
 	}
 
+	protected void encodeComboResources(FacesContext facesContext, String extension, List<UIComponent> comboResources,
+		Set<String> headResourceIds) throws IOException {
+
+		if (comboResources.size() == 1) {
+
+			ComponentResourceFactory componentResourceFactory = (ComponentResourceFactory) FactoryExtensionFinder
+				.getFactory(ComponentResourceFactory.class);
+			UIComponent uiComponentResource = comboResources.get(0);
+			ComponentResource componentResource = componentResourceFactory.getComponentResource(uiComponentResource);
+			encodeHeadResource(facesContext, uiComponentResource, componentResource, headResourceIds);
+		}
+		else if (comboResources.size() > 1) {
+
+			ComponentResourceFactory componentResourceFactory = (ComponentResourceFactory) FactoryExtensionFinder
+				.getFactory(ComponentResourceFactory.class);
+			List<String> resourceIds = new ArrayList<String>(comboResources.size());
+
+			for (UIComponent uiComponentResource : comboResources) {
+				ComponentResource componentResource = componentResourceFactory.getComponentResource(
+						uiComponentResource);
+				resourceIds.add(componentResource.getId());
+			}
+
+			ComboResourceImpl comboResource = new ComboResourceImpl(extension, resourceIds);
+
+			String url = facesContext.getExternalContext().encodeResourceURL(comboResource.getRequestPath());
+			ResponseWriter responseWriter = facesContext.getResponseWriter();
+
+			if (ComboResourceImpl.EXTENSION_CSS.equals(extension)) {
+				responseWriter.startElement(LINK, null);
+				responseWriter.writeAttribute(StringPool.TYPE, "text/css", null);
+				responseWriter.writeAttribute(REL, STYLESHEET, null);
+				responseWriter.writeAttribute(HREF, url, null);
+				responseWriter.endElement(LINK);
+			}
+			else {
+				responseWriter.startElement(SCRIPT, null);
+				responseWriter.writeAttribute(StringPool.TYPE, "text/javascript", null);
+				responseWriter.writeAttribute(SRC, url, null);
+				responseWriter.endElement(SCRIPT);
+			}
+
+			// Mark the combined resources as being present in the head so that they are not rendered again.
+			headResourceIds.addAll(resourceIds);
+
+			logger.debug("Combined resourceIds={0} into combo resourceName=[{1}]", resourceIds,
+				comboResource.getResourceName());
+		}
+
+		comboResources.clear();
+	}
+
+	protected void encodeHeadResource(FacesContext facesContext, UIComponent uiComponentResource,
+		ComponentResource componentResource, Set<String> headResourceIds) throws IOException {
+
+		// Command the resource to render itself to the HeadResponseWriter
+		if (componentResource.isRenderable()) {
+			uiComponentResource.encodeAll(facesContext);
+		}
+
+		String resourceId = componentResource.getId();
+
+		// If the resource has not yet been marked as having been added, then mark it now. Note that unless the
+		// resource is a RichFaces Resource Library (see comments below), the resource has probably already been
+		// marked as being in the head by ResourceRendererBridgeImpl#encodeEnd(FacesContext, UIComponent).
+		if (!headResourceIds.contains(resourceId)) {
+
+			headResourceIds.add(resourceId);
+
+			if (logger.isDebugEnabled()) {
+
+				if (resourceId.endsWith(RICHFACES_RESLIB_SUFFIX) ||
+						RENDERER_TYPE_RICHFACES_RESOURCE_LIBRARY.equals(uiComponentResource.getRendererType())) {
+
+					// RichFaces has resources like "org.richfaces:base-component.reslib",
+					// "org.richfaces:message.reslib", and "org.richfaces:ajax.reslib" that represent a
+					// collection of resources.
+					logger.debug("Marking RichFaces resource library [{0}] as being present in the head", resourceId);
+				}
+				else {
+					logger.debug("Marking non-RichFaces resourceId=[{0}] as being present in the head", resourceId);
+				}
+			}
+		}
+	}
+
 	@Override
 	public void encodeEnd(FacesContext context, UIComponent component) throws IOException {
 		// no-op because Portlets are forbidden from rendering the <head>...</head> section.
 	}
 
+	/**
+	 * Returns the extension of the combo resource that the specified resource can be combined into, or <code>
+	 * null</code> if the resource must be rendered individually. Only resources that are rendered as a plain script or
+	 * stylesheet (without content of their own and without a media attribute) can be combined.
+	 */
+	protected String getComboExtension(UIComponent uiComponentResource, ComponentResource componentResource) {
+
+		String extension = null;
+		String rendererType = uiComponentResource.getRendererType();
+
+		if (componentResource.isRenderable() && (uiComponentResource.getChildCount() == 0) &&
+				(ComponentResourceUtil.getComponentValue(uiComponentResource) == null)) {
+
+			if (SCRIPT_RENDERER_TYPE.equals(rendererType)) {
+				extension = ComboResourceImpl.EXTENSION_JS;
+			}
+			else if (STYLESHEET_RENDERER_TYPE.equals(rendererType) &&
+					(uiComponentResource.getAttributes().get(MEDIA) == null)) {
+				extension = ComboResourceImpl.EXTENSION_CSS;
+			}
+
+			// The same check is made when the combo resource is requested, so that only the resources that could
+			// have been combined here can be requested as part of a combo resource.
+			if ((extension != null) &&
+					!ComboResourceImpl.isCombinable(componentResource.getId(), componentResource.getName(),
+						extension)) {
+				extension = null;
+			}
+		}
+
+		return extension;
+	}
+
 	protected List<UIComponent> getFirstResources(FacesContext facesContext, UIComponent uiComponent) {
 
 		List<UIComponent> resources = null;
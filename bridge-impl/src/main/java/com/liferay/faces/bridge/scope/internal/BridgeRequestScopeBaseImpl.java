@@ -15,6 +15,7 @@ package com.liferay.faces.bridge.scope.internal;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import com.liferay.faces.bridge.scope.BridgeRequestScope;
 
@@ -35,6 +36,14 @@ public abstract class BridgeRequestScopeBaseImpl implements BridgeRequestScope {
 		return attributeMap.get(key);
 	}
 
+	protected Set<String> getAttributeNames() {
+		return attributeMap.keySet();
+	}
+
+	protected Object removeAttribute(String key) {
+		return attributeMap.remove(key);
+	}
+
 	public void setAttribute(String key, Object value) {
 		attributeMap.put(key, value);
 	}
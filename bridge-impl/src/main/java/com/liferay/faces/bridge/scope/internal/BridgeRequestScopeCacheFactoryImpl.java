@@ -13,11 +13,16 @@
  */
 package com.liferay.faces.bridge.scope.internal;
 
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+
 import javax.portlet.PortletContext;
 import javax.portlet.faces.Bridge;
 
 import com.liferay.faces.bridge.scope.BridgeRequestScopeCache;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeCacheFactory;
+import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 
@@ -27,9 +32,33 @@ import com.liferay.faces.util.logging.LoggerFactory;
  */
 public class BridgeRequestScopeCacheFactoryImpl extends BridgeRequestScopeCacheFactory {
 
+	// Public Constants
+	public static final String ATTR_BRIDGE_REQUEST_SCOPE_CACHE = "com.liferay.faces.bridge.bridgeRequestScopeCache";
+
 	// Private Constants
 	private static final int DEFAULT_MAX_MANAGED_REQUEST_SCOPES = -1; // Unlimited
-	private static final String ATTR_BRIDGE_REQUEST_SCOPE_CACHE = "com.liferay.faces.bridge.bridgeRequestScopeCache";
+	private static final long DEFAULT_MAX_IDLE_TIME = -1L; // Unlimited
+	private static final String MAX_IDLE_TIME = "com.liferay.faces.bridge.bridgeRequestScopeMaxIdleTime";
+	private static final String REPLICATION_ACK_TIMEOUT =
+		"com.liferay.faces.bridge.bridgeRequestScopeReplicationAckTimeout";
+	private static final String REPLICATION_ALLOWED_CLASSES =
+		"com.liferay.faces.bridge.bridgeRequestScopeReplicationAllowedClasses";
+	private static final String REPLICATION_BATCH_DELAY =
+		"com.liferay.faces.bridge.bridgeRequestScopeReplicationBatchDelay";
+	private static final String REPLICATION_BIND_ADDRESS =
+		"com.liferay.faces.bridge.bridgeRequestScopeReplicationBindAddress";
+	private static final String REPLICATION_CONSISTENCY =
+		"com.liferay.faces.bridge.bridgeRequestScopeReplicationConsistency";
+	private static final String REPLICATION_MAX_BATCH_SIZE =
+		"com.liferay.faces.bridge.bridgeRequestScopeReplicationMaxBatchSize";
+	private static final String REPLICATION_MAX_FRAME_SIZE =
+		"com.liferay.faces.bridge.bridgeRequestScopeReplicationMaxFrameSize";
+	private static final String REPLICATION_MAX_QUEUE_SIZE =
+		"com.liferay.faces.bridge.bridgeRequestScopeReplicationMaxQueueSize";
+	private static final String REPLICATION_PEERS = "com.liferay.faces.bridge.bridgeRequestScopeReplicationPeers";
+	private static final String REPLICATION_PORT = "com.liferay.faces.bridge.bridgeRequestScopeReplicationPort";
+	private static final String REPLICATION_SHARED_SECRET =
+		"com.liferay.faces.bridge.bridgeRequestScopeReplicationSharedSecret";
 
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(BridgeRequestScopeCacheFactoryImpl.class);
@@ -60,7 +89,33 @@ public class BridgeRequestScopeCacheFactoryImpl extends BridgeRequestScopeCacheF
 					}
 				}
 
-				bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(maxSize);
+				// Optional eviction of bridge request scopes that have not been accessed within the specified number
+				// of milliseconds.
+				long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+				String maxIdleTimeParam = portletContext.getInitParameter(MAX_IDLE_TIME);
+
+				if (maxIdleTimeParam != null) {
+
+					try {
+						maxIdleTime = Long.parseLong(maxIdleTimeParam);
+					}
+					catch (NumberFormatException e) {
+						logger.error("Unable to parse init-param name=[{0}] error=[{1}]", MAX_IDLE_TIME,
+							e.getMessage());
+					}
+				}
+
+				IndexedBridgeRequestScopeCache indexedBridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(maxSize,
+						maxIdleTime);
+				bridgeRequestScopeCache = indexedBridgeRequestScopeCache;
+
+				// Optional replication of bridge request scopes to the other nodes in a cluster.
+				String replicationPeers = portletContext.getInitParameter(REPLICATION_PEERS);
+
+				if ((replicationPeers != null) && (replicationPeers.trim().length() > 0)) {
+					bridgeRequestScopeCache = getReplicatedBridgeRequestScopeCache(portletContext,
+							indexedBridgeRequestScopeCache, replicationPeers);
+				}
 
 				portletContext.setAttribute(ATTR_BRIDGE_REQUEST_SCOPE_CACHE, bridgeRequestScopeCache);
 			}
@@ -69,6 +124,137 @@ public class BridgeRequestScopeCacheFactoryImpl extends BridgeRequestScopeCacheF
 		return bridgeRequestScopeCache;
 	}
 
+	protected BridgeRequestScopeCache getReplicatedBridgeRequestScopeCache(PortletContext portletContext,
+		IndexedBridgeRequestScopeCache bridgeRequestScopeCache, String replicationPeers) {
+
+		// Since the peers deserialize the scopes that they receive, replication is only enabled when the address to
+		// listen on and the secret that is used to sign the frames have been explicitly configured.
+		int port = (int) getLongInitParameter(portletContext, REPLICATION_PORT, -1L);
+		String bindAddress = portletContext.getInitParameter(REPLICATION_BIND_ADDRESS);
+		String sharedSecret = portletContext.getInitParameter(REPLICATION_SHARED_SECRET);
+
+		if (port < 0) {
+			logger.error("Unable to replicate bridgeRequestScope cache since init-param name=[{0}] is not specified",
+				REPLICATION_PORT);
+
+			return bridgeRequestScopeCache;
+		}
+
+		if ((bindAddress == null) || (bindAddress.trim().length() == 0)) {
+			logger.error("Unable to replicate bridgeRequestScope cache since init-param name=[{0}] is not specified",
+				REPLICATION_BIND_ADDRESS);
+
+			return bridgeRequestScopeCache;
+		}
+
+		if ((sharedSecret == null) || (sharedSecret.trim().length() == 0)) {
+			logger.error("Unable to replicate bridgeRequestScope cache since init-param name=[{0}] is not specified",
+				REPLICATION_SHARED_SECRET);
+
+			return bridgeRequestScopeCache;
+		}
+
+		BridgeRequestScopeReplicator.Configuration configuration = new BridgeRequestScopeReplicator.Configuration();
+		configuration.setBindAddress(new InetSocketAddress(bindAddress.trim(), port));
+
+		try {
+			configuration.setSharedSecret(sharedSecret.trim().getBytes(StringPool.UTF8));
+		}
+		catch (UnsupportedEncodingException e) {
+
+			// Not possible since UTF-8 is always supported.
+			throw new IllegalStateException(e);
+		}
+
+		for (String replicationPeer : replicationPeers.split(",")) {
+
+			replicationPeer = replicationPeer.trim();
+
+			int pos = replicationPeer.lastIndexOf(':');
+
+			try {
+				configuration.getPeerAddresses().add(new InetSocketAddress(replicationPeer.substring(0, pos),
+						Integer.parseInt(replicationPeer.substring(pos + 1))));
+			}
+			catch (RuntimeException e) {
+				logger.error("Unable to parse peer=[{0}] of init-param name=[{1}]", replicationPeer,
+					REPLICATION_PEERS);
+			}
+		}
+
+		String consistencyParam = portletContext.getInitParameter(REPLICATION_CONSISTENCY);
+
+		if (consistencyParam != null) {
+
+			try {
+				configuration.setConsistency(BridgeRequestScopeReplicator.Consistency.valueOf(
+						consistencyParam.trim().toUpperCase()));
+			}
+			catch (IllegalArgumentException e) {
+				logger.error("Unable to parse init-param name=[{0}] value=[{1}]", REPLICATION_CONSISTENCY,
+					consistencyParam);
+			}
+		}
+
+		// The classes of the managed beans and request attributes of the portlet application must be allowed in order
+		// for them to be deserialized by the peers.
+		String allowedClasses = portletContext.getInitParameter(REPLICATION_ALLOWED_CLASSES);
+
+		if (allowedClasses != null) {
+
+			for (String allowedClass : allowedClasses.split(",")) {
+
+				allowedClass = allowedClass.trim();
+
+				if (allowedClass.length() > 0) {
+					configuration.getAllowedClassNamePrefixes().add(allowedClass);
+				}
+			}
+		}
+
+		configuration.setBatchDelay(getLongInitParameter(portletContext, REPLICATION_BATCH_DELAY,
+				configuration.getBatchDelay()));
+		configuration.setMaxBatchSize((int) getLongInitParameter(portletContext, REPLICATION_MAX_BATCH_SIZE,
+				configuration.getMaxBatchSize()));
+		configuration.setMaxFrameSize((int) getLongInitParameter(portletContext, REPLICATION_MAX_FRAME_SIZE,
+				configuration.getMaxFrameSize()));
+		configuration.setMaxQueueSize((int) getLongInitParameter(portletContext, REPLICATION_MAX_QUEUE_SIZE,
+				configuration.getMaxQueueSize()));
+		configuration.setAckTimeout(getLongInitParameter(portletContext, REPLICATION_ACK_TIMEOUT,
+				configuration.getAckTimeout()));
+
+		try {
+			BridgeRequestScopeReplicator bridgeRequestScopeReplicator = new BridgeRequestScopeReplicator(
+					bridgeRequestScopeCache, configuration);
+
+			return new BridgeRequestScopeCacheReplicatedImpl(bridgeRequestScopeCache, bridgeRequestScopeReplicator);
+		}
+		catch (IOException e) {
+			logger.error("Unable to replicate bridgeRequestScope cache on address=[{0}]: {1}",
+				configuration.getBindAddress(), e.getMessage());
+
+			return bridgeRequestScopeCache;
+		}
+	}
+
+	protected long getLongInitParameter(PortletContext portletContext, String name, long defaultValue) {
+
+		long value = defaultValue;
+		String initParameter = portletContext.getInitParameter(name);
+
+		if (initParameter != null) {
+
+			try {
+				value = Long.parseLong(initParameter.trim());
+			}
+			catch (NumberFormatException e) {
+				logger.error("Unable to parse init-param name=[{0}] error=[{1}]", name, e.getMessage());
+			}
+		}
+
+		return value;
+	}
+
 	public BridgeRequestScopeCacheFactory getWrapped() {
 
 		// Since this is the factory instance provided by the bridge, it will never wrap another factory.
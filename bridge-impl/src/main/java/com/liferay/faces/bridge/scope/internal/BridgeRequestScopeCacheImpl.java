@@ -13,75 +13,678 @@
  */
 package com.liferay.faces.bridge.scope.internal;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.portlet.faces.Bridge;
 
 import com.liferay.faces.bridge.scope.BridgeRequestScope;
-import com.liferay.faces.bridge.scope.BridgeRequestScopeCache;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 
 
 /**
- * This class provides a {@link java.util.Map} style interface for managing cache of {@link BridgeRequestScope}.
+ * This class provides a {@link java.util.Map} style interface for managing cache of {@link BridgeRequestScope}. Entries
+ * are stored in a {@link ConcurrentHashMap} so that lookups never block. In order to avoid a single monitor that every
+ * request would have to queue on, the cache is divided into segments (chosen by the hash of the key), each of which
+ * has its own lock, its own doubly-linked list of entries in least-recently-used order, and its own indexes by portlet
+ * name and session id (see {@link BridgeRequestScopeId}). Eviction of idle entries (when the maximum idle time is
+ * exceeded) is therefore a constant-time operation that only blocks writers of the same segment. The maximum size on
+ * the other hand is enforced across the entire cache by a single counter: when a put exceeds it, the eldest entries of
+ * the segments are compared (one segment lock at a time) and the least-recently-accessed of them is evicted. Since
+ * reordering on access is skipped under contention, the eviction order is an approximation of least-recently-used.
  *
  * @author  Neil Griffin
  */
-public class BridgeRequestScopeCacheImpl extends ConcurrentHashMap<String, BridgeRequestScope>
-	implements BridgeRequestScopeCache {
-
-	// serialVersionUID
-	private static final long serialVersionUID = 4546189667853367660L;
+public class BridgeRequestScopeCacheImpl extends AbstractMap<String, BridgeRequestScope>
+	implements IndexedBridgeRequestScopeCache {
 
 	// Logger
 	private static final Logger logger = LoggerFactory.getLogger(BridgeRequestScopeCacheImpl.class);
 
+	// Private Constants
+	private static final int MAX_SEGMENTS = 16;
+	private static final int MIN_SEGMENT_SIZE = 16;
+
 	// Private Data Members
+	private AtomicInteger count;
+	private AtomicLong evictionCount;
+	private ReentrantLock evictionLock;
+	private Set<Map.Entry<String, BridgeRequestScope>> entrySet;
+	private AtomicLong hitCount;
+	private ConcurrentMap<String, Node> map;
+	private long maxIdleTime;
 	private int maxSize;
+	private AtomicLong missCount;
+	private Segment[] segments;
 
 	public BridgeRequestScopeCacheImpl(int maxSize) {
+		this(maxSize, -1L);
+	}
+
+	/**
+	 * @param  maxSize      The maximum number of entries, or -1 for unlimited.
+	 * @param  maxIdleTime  The maximum number of milliseconds an entry may go without being accessed before it is
+	 *                      evicted, or -1 for unlimited.
+	 */
+	public BridgeRequestScopeCacheImpl(int maxSize, long maxIdleTime) {
 		super();
 		this.maxSize = maxSize;
+		this.maxIdleTime = maxIdleTime;
+		this.hitCount = new AtomicLong();
+		this.missCount = new AtomicLong();
+		this.evictionCount = new AtomicLong();
+		this.count = new AtomicInteger();
+		this.evictionLock = new ReentrantLock();
+
+		int segmentCount = MAX_SEGMENTS;
+
+		if (maxSize != -1) {
+
+			while ((segmentCount > 1) && ((maxSize / segmentCount) < MIN_SEGMENT_SIZE)) {
+				segmentCount = segmentCount / 2;
+			}
+		}
+
+		this.map = new ConcurrentHashMap<String, Node>(16, 0.75f, segmentCount);
+		this.segments = new Segment[segmentCount];
+
+		for (int i = 0; i < segmentCount; i++) {
+			this.segments[i] = new Segment();
+		}
+	}
+
+	@Override
+	public void clear() {
+
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+
+		Node node = map.get(key);
+
+		return (node != null) && !isExpired(node, getCurrentTimeMillis());
+	}
+
+	@Override
+	public Set<Map.Entry<String, BridgeRequestScope>> entrySet() {
+
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+		}
+
+		return entrySet;
+	}
+
+	@Override
+	public BridgeRequestScope get(Object key) {
+
+		Node node = map.get(key);
+
+		if (node == null) {
+			missCount.incrementAndGet();
+
+			return null;
+		}
+
+		long now = getCurrentTimeMillis();
+
+		if (isExpired(node, now)) {
+			missCount.incrementAndGet();
+
+			if (removeNode(node)) {
+				evictionCount.incrementAndGet();
+				logger.debug("Exceeded max idle time of [{0}] ms, removed bridgeRequestScope id=[{1}]", maxIdleTime,
+					node.key);
+			}
+
+			return null;
+		}
+
+		hitCount.incrementAndGet();
+		node.lastAccessed = now;
+		getSegment(node.key).touch(node);
+
+		return node.value;
 	}
 
 	@Override
 	public BridgeRequestScope put(String bridgeRequestScopeId, BridgeRequestScope bridgeRequestScope) {
 
-		// If there is a maximum size threshold for the cache, then
-		if (maxSize != -1) {
+		if ((bridgeRequestScopeId == null) || (bridgeRequestScope == null)) {
+			throw new NullPointerException();
+		}
+
+		Node node = new Node(bridgeRequestScopeId, BridgeRequestScopeId.parse(bridgeRequestScopeId),
+				bridgeRequestScope, getCurrentTimeMillis());
+		Node oldNode = getSegment(bridgeRequestScopeId).put(node);
+
+		if (oldNode == null) {
 
-			// If the threshold has been exceeded, then remove the eldest entry.
-			if (super.size() > maxSize) {
+			if ((maxSize != -1) && (count.get() > maxSize)) {
+				evictEldest();
+			}
+
+			return null;
+		}
+		else {
+			return oldNode.value;
+		}
+	}
+
+	@Override
+	public BridgeRequestScope remove(Object key) {
+
+		if (!(key instanceof String)) {
+			return null;
+		}
+
+		Node node = getSegment((String) key).remove((String) key);
+
+		if (node == null) {
+			return null;
+		}
+		else {
+			return node.value;
+		}
+	}
 
-				// Note: Iterating through the entire map is not the most performant algorithm for determining the
-				// eldest entry, but there don't seem to be any good options for implementing an LRU feature for
-				// ConcurrentHashMap without an external dependency. See:
-				// http://stackoverflow.com/questions/221525/how-would-you-implement-an-lru-cache-in-java-6
-				BridgeRequestScope eldestBridgeRequestScope = null;
-				long oldestDate = bridgeRequestScope.getDateCreated();
-				Set<Map.Entry<String, BridgeRequestScope>> entrySet = super.entrySet();
+	public void removeBridgeRequestScopesByPortletName(String portletName) {
 
-				for (Map.Entry<String, BridgeRequestScope> mapEntry : entrySet) {
-					BridgeRequestScope currentBridgeRequestScope = mapEntry.getValue();
+		for (Segment segment : segments) {
+			segment.removeIndexed(segment.portletNameIndex, portletName);
+		}
+	}
 
-					if (currentBridgeRequestScope.getDateCreated() < oldestDate) {
-						eldestBridgeRequestScope = currentBridgeRequestScope;
+	public void removeBridgeRequestScopesBySessionId(String sessionId) {
+
+		for (Segment segment : segments) {
+			segment.removeIndexed(segment.sessionIdIndex, sessionId);
+		}
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[size=" + map.size() + ", maxSize=" + maxSize + ", maxIdleTime=" +
+			maxIdleTime + ", segments=" + segments.length + ", hitCount=" + hitCount.get() + ", missCount=" +
+			missCount.get() + ", evictionCount=" + evictionCount.get() + "]";
+	}
+
+	/**
+	 * Evicts the least-recently-accessed entries of the cache until the maximum size is no longer exceeded. Only one
+	 * thread at a time evicts so that concurrent puts do not evict more entries than necessary, and the lock of each
+	 * segment is only held while peeking at its eldest entry so that no more than one segment lock is held at a time.
+	 */
+	protected void evictEldest() {
+
+		evictionLock.lock();
+
+		try {
+
+			while (count.get() > maxSize) {
+
+				Node eldest = null;
+
+				for (Segment segment : segments) {
+
+					Node segmentEldest = segment.peekEldest();
+
+					if ((segmentEldest != null) &&
+							((eldest == null) || (segmentEldest.lastAccessed < eldest.lastAccessed))) {
+						eldest = segmentEldest;
 					}
 				}
 
-				if (eldestBridgeRequestScope != null) {
-					String eldestBridgeRequestScopeId = eldestBridgeRequestScope.getId();
-					super.remove(eldestBridgeRequestScopeId);
+				if (eldest == null) {
+					break;
+				}
+
+				// If the eldest entry was removed by another thread in the meantime, then the count was decremented by
+				// that thread and the loop re-checks it.
+				if (removeNode(eldest)) {
+					evictionCount.incrementAndGet();
 					logger.debug("Exceeded threshold of [{0}] for [{1}], removed eldest bridgeRequestScope id=[{2}]",
-						maxSize, Bridge.MAX_MANAGED_REQUEST_SCOPES, eldestBridgeRequestScopeId);
+						maxSize, Bridge.MAX_MANAGED_REQUEST_SCOPES, eldest.key);
+				}
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+
+	protected boolean removeNode(Node node) {
+		return getSegment(node.key).removeNode(node);
+	}
+
+	/**
+	 * Returns the current time in milliseconds that is used to determine whether or not an entry has been idle for
+	 * longer than the maximum idle time.
+	 */
+	protected long getCurrentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Returns the number of entries that were removed because the maximum size or maximum idle time was exceeded.
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	protected boolean isExpired(Node node, long now) {
+		return (maxIdleTime >= 0) && ((now - node.lastAccessed) > maxIdleTime);
+	}
+
+	/**
+	 * Returns the number of calls to {@link #get(Object)} that found a (non-expired) entry.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMaxIdleTime() {
+		return maxIdleTime;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the number of calls to {@link #get(Object)} that did not find a (non-expired) entry.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	protected Segment getSegment(String key) {
+
+		// Spread the bits of the hash code so that keys that only differ in their upper bits (such as the dateCreated
+		// suffix of the id) are distributed among the segments.
+		int hash = key.hashCode();
+		hash ^= (hash >>> 20) ^ (hash >>> 12);
+		hash ^= (hash >>> 7) ^ (hash >>> 4);
+
+		return segments[hash & (segments.length - 1)];
+	}
+
+	/**
+	 * Returns the number of segments that the cache is divided into.
+	 */
+	public int getSegmentCount() {
+		return segments.length;
+	}
+
+	protected static class Node {
+
+		// Private Data Members
+		private BridgeRequestScopeId id;
+		private String key;
+		private volatile long lastAccessed;
+		private Node next;
+		private Node prev;
+		private BridgeRequestScope value;
+
+		public Node(String key, BridgeRequestScopeId id, BridgeRequestScope value, long lastAccessed) {
+			this.key = key;
+			this.id = id;
+			this.value = value;
+			this.lastAccessed = lastAccessed;
+		}
+	}
+
+	protected class EntryIterator implements Iterator<Map.Entry<String, BridgeRequestScope>> {
+
+		// Private Data Members
+		private Node current;
+		private Iterator<Node> iterator;
+
+		public EntryIterator() {
+			this.iterator = map.values().iterator();
+		}
+
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		public Map.Entry<String, BridgeRequestScope> next() {
+			current = iterator.next();
+
+			return new AbstractMap.SimpleImmutableEntry<String, BridgeRequestScope>(current.key, current.value);
+		}
+
+		public void remove() {
+
+			if (current == null) {
+				throw new IllegalStateException();
+			}
+
+			removeNode(current);
+			current = null;
+		}
+	}
+
+	protected class EntrySet extends AbstractSet<Map.Entry<String, BridgeRequestScope>> {
+
+		@Override
+		public void clear() {
+			BridgeRequestScopeCacheImpl.this.clear();
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, BridgeRequestScope>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+	}
+
+	/**
+	 * A segment guards the least-recently-used list and the indexes of the entries whose keys hash to it. All of the
+	 * methods that modify the list or the indexes acquire the lock of the segment.
+	 */
+	protected class Segment {
+
+		// Private Data Members
+		private Node head;
+		private ReentrantLock lock;
+		private Map<String, Set<Node>> portletNameIndex;
+		private Map<String, Set<Node>> sessionIdIndex;
+
+		public Segment() {
+			this.lock = new ReentrantLock();
+			this.head = new Node(null, null, null, 0L);
+			this.head.prev = this.head;
+			this.head.next = this.head;
+			this.portletNameIndex = new HashMap<String, Set<Node>>();
+			this.sessionIdIndex = new HashMap<String, Set<Node>>();
+		}
+
+		public void clear() {
+
+			lock.lock();
+
+			try {
+				Node node = head.next;
+
+				while (node != head) {
+
+					if (map.remove(node.key, node)) {
+						count.decrementAndGet();
+					}
+
+					node = node.next;
+				}
+
+				portletNameIndex.clear();
+				sessionIdIndex.clear();
+				head.prev = head;
+				head.next = head;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		public Node put(Node node) {
+
+			lock.lock();
+
+			try {
+				Node oldNode = map.put(node.key, node);
+
+				if (oldNode == null) {
+					count.incrementAndGet();
+				}
+				else {
+					unlink(oldNode);
+					unindex(oldNode);
 				}
+
+				linkLast(node);
+				index(node);
+				evict(node.lastAccessed);
+
+				return oldNode;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		public Node remove(String key) {
+
+			lock.lock();
+
+			try {
+				Node node = map.remove(key);
+
+				if (node != null) {
+					count.decrementAndGet();
+					unlink(node);
+					unindex(node);
+				}
+
+				return node;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		public void removeIndexed(Map<String, Set<Node>> index, String indexKey) {
+
+			List<Node> removedNodes = null;
+
+			lock.lock();
+
+			try {
+				Set<Node> nodes = index.get(indexKey);
+
+				if (nodes != null) {
+
+					// Copy the set since unindexing the nodes will modify it.
+					removedNodes = new ArrayList<Node>(nodes);
+
+					for (Node node : removedNodes) {
+
+						if (map.remove(node.key, node)) {
+							count.decrementAndGet();
+						}
+
+						unlink(node);
+						unindex(node);
+					}
+				}
+			}
+			finally {
+				lock.unlock();
 			}
 
+			if (removedNodes != null) {
+
+				for (Node node : removedNodes) {
+					logger.debug("Removed bridgeRequestScopeId=[{0}] bridgeRequestScope=[{1}] from cache", node.key,
+						node.value);
+				}
+			}
 		}
 
-		return super.put(bridgeRequestScopeId, bridgeRequestScope);
+		public boolean removeNode(Node node) {
+
+			lock.lock();
+
+			try {
+				boolean removed = map.remove(node.key, node);
+
+				if (removed) {
+					count.decrementAndGet();
+					unlink(node);
+					unindex(node);
+				}
+
+				return removed;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Returns the least-recently-used entry of the segment, or null if the segment is empty.
+		 */
+		public Node peekEldest() {
+
+			lock.lock();
+
+			try {
+
+				if (head.next == head) {
+					return null;
+				}
+				else {
+					return head.next;
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Moves the specified node to the most-recently-used end of the list. Reordering the list is only a hint, so
+		 * rather than making readers wait for the lock, the reordering is skipped if another thread currently holds it.
+		 */
+		public void touch(Node node) {
+
+			if (lock.tryLock()) {
+
+				try {
+
+					if (node.next != null) {
+						unlink(node);
+						linkLast(node);
+					}
+				}
+				finally {
+					lock.unlock();
+				}
+			}
+		}
+
+		/**
+		 * Removes the entries at the eldest end of the list that have been idle for longer than the maximum idle time.
+		 * Must be called while holding the lock.
+		 */
+		protected void evict(long now) {
+
+			Node eldest = head.next;
+
+			while (eldest != head) {
+
+				if (isExpired(eldest, now)) {
+
+					Node next = eldest.next;
+
+					if (map.remove(eldest.key, eldest)) {
+						count.decrementAndGet();
+					}
+
+					unlink(eldest);
+					unindex(eldest);
+					evictionCount.incrementAndGet();
+					logger.debug("Exceeded max idle time of [{0}] ms, removed bridgeRequestScope id=[{1}]", maxIdleTime,
+						eldest.key);
+
+					eldest = next;
+				}
+				else {
+					break;
+				}
+			}
+		}
+
+		protected void index(Node node) {
+			index(portletNameIndex, node.id.getPortletName(), node);
+			index(sessionIdIndex, node.id.getSessionId(), node);
+		}
+
+		protected void index(Map<String, Set<Node>> index, String indexKey, Node node) {
+
+			if (indexKey != null) {
+
+				Set<Node> nodes = index.get(indexKey);
+
+				if (nodes == null) {
+					nodes = new HashSet<Node>();
+					index.put(indexKey, nodes);
+				}
+
+				nodes.add(node);
+			}
+		}
+
+		protected void linkLast(Node node) {
+			node.prev = head.prev;
+			node.next = head;
+			head.prev.next = node;
+			head.prev = node;
+		}
+
+		protected void unindex(Node node) {
+			unindex(portletNameIndex, node.id.getPortletName(), node);
+			unindex(sessionIdIndex, node.id.getSessionId(), node);
+		}
+
+		protected void unindex(Map<String, Set<Node>> index, String indexKey, Node node) {
+
+			if (indexKey != null) {
+
+				Set<Node> nodes = index.get(indexKey);
+
+				if (nodes != null) {
+					nodes.remove(node);
+
+					if (nodes.isEmpty()) {
+						index.remove(indexKey);
+					}
+				}
+			}
+		}
+
+		protected void unlink(Node node) {
+
+			if (node.next != null) {
+				node.prev.next = node.next;
+				node.next.prev = node.prev;
+				node.prev = null;
+				node.next = null;
+			}
+		}
 	}
 }
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import java.io.Closeable;
+
+import com.liferay.faces.bridge.scope.BridgeRequestScope;
+import com.liferay.faces.bridge.scope.BridgeRequestScopeCache;
+import com.liferay.faces.bridge.scope.BridgeRequestScopeCacheWrapper;
+
+
+/**
+ * This class decorates a local {@link IndexedBridgeRequestScopeCache} so that changes made by this node are replicated
+ * to the peer nodes in a cluster by a {@link BridgeRequestScopeReplicator}. Lookups are always satisfied by the local
+ * cache, which also receives the changes replicated from the peers. Since only the changes that are made through the
+ * cache are replicated, a replica reflects its scope as of the most recent put (see {@link
+ * BridgeRequestScopeReplicator}).
+ *
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeCacheReplicatedImpl extends BridgeRequestScopeCacheWrapper
+	implements IndexedBridgeRequestScopeCache, Closeable {
+
+	// Private Data Members
+	private BridgeRequestScopeReplicator bridgeRequestScopeReplicator;
+	private IndexedBridgeRequestScopeCache wrappedBridgeRequestScopeCache;
+
+	public BridgeRequestScopeCacheReplicatedImpl(IndexedBridgeRequestScopeCache bridgeRequestScopeCache,
+		BridgeRequestScopeReplicator bridgeRequestScopeReplicator) {
+		this.wrappedBridgeRequestScopeCache = bridgeRequestScopeCache;
+		this.bridgeRequestScopeReplicator = bridgeRequestScopeReplicator;
+	}
+
+	public void close() {
+		bridgeRequestScopeReplicator.close();
+	}
+
+	@Override
+	public BridgeRequestScope put(String bridgeRequestScopeId, BridgeRequestScope bridgeRequestScope) {
+
+		BridgeRequestScope oldBridgeRequestScope = super.put(bridgeRequestScopeId, bridgeRequestScope);
+		bridgeRequestScopeReplicator.replicatePut(bridgeRequestScopeId, bridgeRequestScope);
+
+		return oldBridgeRequestScope;
+	}
+
+	@Override
+	public BridgeRequestScope remove(Object key) {
+
+		BridgeRequestScope bridgeRequestScope = super.remove(key);
+
+		// Replicate the removal even if the scope was not found, since it might have already been evicted from the
+		// local cache but not from the caches of the peers.
+		if (key instanceof String) {
+			bridgeRequestScopeReplicator.replicateRemove((String) key);
+		}
+
+		return bridgeRequestScope;
+	}
+
+	public void removeBridgeRequestScopesByPortletName(String portletName) {
+		wrappedBridgeRequestScopeCache.removeBridgeRequestScopesByPortletName(portletName);
+		bridgeRequestScopeReplicator.replicateRemoveByPortletName(portletName);
+	}
+
+	public void removeBridgeRequestScopesBySessionId(String sessionId) {
+		wrappedBridgeRequestScopeCache.removeBridgeRequestScopesBySessionId(sessionId);
+		bridgeRequestScopeReplicator.replicateRemoveBySessionId(sessionId);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[" + wrappedBridgeRequestScopeCache + ", " +
+			bridgeRequestScopeReplicator + "]";
+	}
+
+	public BridgeRequestScopeReplicator getBridgeRequestScopeReplicator() {
+		return bridgeRequestScopeReplicator;
+	}
+
+	@Override
+	public BridgeRequestScopeCache getWrapped() {
+		return wrappedBridgeRequestScopeCache;
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+/**
+ * This class represents the structured form of a {@link com.liferay.faces.bridge.scope.BridgeRequestScope} id, which
+ * has the string form <code>portletName:::sessionId:::dateCreated</code>. The string form is parsed exactly once so
+ * that the portlet name and session id can be used to index the cache without repeatedly splitting the id.
+ *
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeId {
+
+	// Public Constants
+	public static final String SEPARATOR = ":::";
+
+	// Private Data Members
+	private String id;
+	private String portletName;
+	private String sessionId;
+
+	private BridgeRequestScopeId(String id, String portletName, String sessionId) {
+		this.id = id;
+		this.portletName = portletName;
+		this.sessionId = sessionId;
+	}
+
+	/**
+	 * Parses the specified string form of a bridge request scope id. If the specified value does not contain the
+	 * expected separators, then the portlet name and session id of the returned instance will be <code>null</code>.
+	 */
+	public static BridgeRequestScopeId parse(String id) {
+
+		String portletName = null;
+		String sessionId = null;
+		int pos1 = id.indexOf(SEPARATOR);
+
+		if (pos1 >= 0) {
+
+			int pos2 = id.indexOf(SEPARATOR, pos1 + SEPARATOR.length());
+
+			if (pos2 >= 0) {
+				portletName = id.substring(0, pos1);
+				sessionId = id.substring(pos1 + SEPARATOR.length(), pos2);
+			}
+		}
+
+		return new BridgeRequestScopeId(id, portletName, sessionId);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+
+		if (obj == this) {
+			return true;
+		}
+		else if (obj instanceof BridgeRequestScopeId) {
+			return id.equals(((BridgeRequestScopeId) obj).id);
+		}
+		else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return id.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return id;
+	}
+
+	public String getPortletName() {
+		return portletName;
+	}
+
+	public String getSessionId() {
+		return sessionId;
+	}
+}
@@ -13,14 +13,27 @@
  */
 package com.liferay.faces.bridge.scope.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -54,7 +67,9 @@ import javax.servlet.http.HttpSession;
 import com.liferay.faces.bridge.config.BridgeConfig;
 import com.liferay.faces.bridge.context.BridgeContext;
 import com.liferay.faces.bridge.context.IncongruityContext;
+import com.liferay.faces.bridge.scope.BridgeRequestScopeStateStore;
 import com.liferay.faces.bridge.util.internal.FacesMessageWrapper;
+import com.liferay.faces.util.lang.NameValuePair;
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
@@ -94,6 +109,22 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 	// Other Private Constants
 	private static final String JAVAX_FACES_ENCODED_URL_PARAM = "javax.faces.encodedURL";
 
+	// Types of lists of name/value pairs that are written by writeAttributes(ObjectOutputStream, Collection)
+	private static final byte LIST_TYPE_NONE = 0;
+	private static final byte LIST_TYPE_FACES_MESSAGES = 1;
+	private static final byte LIST_TYPE_INCONGRUITY_ATTRIBUTES = 2;
+	private static final byte LIST_TYPE_FACES_CONTEXT_ATTRIBUTES = 3;
+	private static final byte LIST_TYPE_REQUEST_ATTRIBUTES = 4;
+
+	// Names of the attributes that are only needed by restoreState(FacesContext) and can therefore be kept in a
+	// BridgeRequestScopeStateStore between requests. The view root is not one of them, since it can only be saved
+	// correctly by the StateManager of the JSF implementation (which requires the current request), so it is always
+	// kept as a live object.
+	private static final String[] STORABLE_ATTRIBUTE_NAMES = new String[] {
+			BRIDGE_REQ_SCOPE_ATTR_FACES_MESSAGES, BRIDGE_REQ_SCOPE_ATTR_INCONGRUITY_CONTEXT_ATTRIBUTES,
+			BRIDGE_REQ_SCOPE_ATTR_REQUEST_ATTRIBUTES
+		};
+
 	// Private Data Members
 	private Bridge.PortletPhase beganInPhase;
 	private long dateCreated;
@@ -101,14 +132,16 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 	private boolean facesLifecycleExecuted;
 	private String idPrefix;
 	private String idSuffix;
-	private Map<String, Object> managedBeanMap;
+	private transient Map<String, Object> managedBeanMap;
 	private boolean navigationOccurred;
-	private PortletMode portletMode;
+	private transient PortletMode portletMode;
 	private String portletName;
 	private boolean portletModeChanged;
 	private Set<String> preExistingAttributeNames;
 	private boolean redirect;
 	private Set<String> removedAttributeNames;
+	private transient BridgeRequestScopeStateStore stateStore;
+	private transient Object storedState;
 
 	public BridgeRequestScopeImpl(PortletRequest portletRequest, PortletConfig portletConfig,
 		BridgeConfig bridgeConfig) {
@@ -120,7 +153,7 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 
 		PortletSession portletSession = portletRequest.getPortletSession();
 		String sessionId = portletSession.getId();
-		this.idPrefix = portletName + ":::" + sessionId + ":::";
+		this.idPrefix = portletName + BridgeRequestScopeId.SEPARATOR + sessionId + BridgeRequestScopeId.SEPARATOR;
 		this.idSuffix = Long.toString(this.dateCreated);
 
 		this.excludedAttributeNames = new ArrayList<String>();
@@ -148,6 +181,46 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 		this.beganInPhase = (Bridge.PortletPhase) portletRequest.getAttribute(Bridge.PORTLET_LIFECYCLE_PHASE);
 
 		this.removedAttributeNames = new HashSet<String>();
+		this.stateStore = BridgeRequestScopeStateStoreUtil.getStateStore(portletContext);
+	}
+
+	/**
+	 * Creates a shallow copy of the specified scope, so that the copy can be serialized by another thread while the
+	 * specified scope continues to be used by the request thread. The saved view root is not copied, since it is not
+	 * serialized.
+	 *
+	 * @see  #getReplicationSnapshot()
+	 */
+	protected BridgeRequestScopeImpl(BridgeRequestScopeImpl bridgeRequestScope) {
+
+		this.beganInPhase = bridgeRequestScope.beganInPhase;
+		this.dateCreated = bridgeRequestScope.dateCreated;
+		this.excludedAttributeNames = bridgeRequestScope.excludedAttributeNames;
+		this.facesLifecycleExecuted = bridgeRequestScope.facesLifecycleExecuted;
+		this.idPrefix = bridgeRequestScope.idPrefix;
+		this.idSuffix = bridgeRequestScope.idSuffix;
+		this.navigationOccurred = bridgeRequestScope.navigationOccurred;
+		this.portletMode = bridgeRequestScope.portletMode;
+		this.portletName = bridgeRequestScope.portletName;
+		this.portletModeChanged = bridgeRequestScope.portletModeChanged;
+		this.preExistingAttributeNames = bridgeRequestScope.preExistingAttributeNames;
+		this.redirect = bridgeRequestScope.redirect;
+		this.removedAttributeNames = new HashSet<String>(bridgeRequestScope.removedAttributeNames);
+		this.stateStore = bridgeRequestScope.stateStore;
+		this.storedState = bridgeRequestScope.storedState;
+
+		for (String attributeName : bridgeRequestScope.getAttributeNames()) {
+
+			Object attributeValue = bridgeRequestScope.getAttribute(attributeName);
+
+			if (!(attributeValue instanceof UIViewRoot)) {
+				setAttribute(attributeName, attributeValue);
+			}
+		}
+
+		if (bridgeRequestScope.managedBeanMap != null) {
+			this.managedBeanMap = new HashMap<String, Object>(bridgeRequestScope.managedBeanMap);
+		}
 	}
 
 	/**
@@ -241,11 +314,29 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	public void restoreState(FacesContext facesContext) {
 
 		logger.debug("restoreState(facesContext)");
 
+		// If the saved state was kept in a state store, then temporarily rehydrate it for the duration of this method
+		// so that it does not remain on the heap between requests. Only the attributes that were rehydrated are
+		// removed afterwards, since any others are live attributes that were never stored.
+		Set<String> rehydratedAttributeNames = rehydrateState();
+
+		try {
+			restoreSavedState(facesContext);
+		}
+		finally {
+
+			for (String attributeName : rehydratedAttributeNames) {
+				removeAttribute(attributeName);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	protected void restoreSavedState(FacesContext facesContext) {
+
 		boolean restoreNonExcludedRequestAttributes = ((beganInPhase == Bridge.PortletPhase.ACTION_PHASE) ||
 				(beganInPhase == Bridge.PortletPhase.EVENT_PHASE) ||
 				(beganInPhase == Bridge.PortletPhase.RESOURCE_PHASE));
@@ -552,6 +643,409 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 
 			setAttribute(BRIDGE_REQ_SCOPE_ATTR_INCONGRUITY_CONTEXT_ATTRIBUTES, savedIncongruityAttributes);
 		}
+
+		// If a state store has been configured, then move the saved state into it so that the objects can be garbage
+		// collected.
+		if (stateStore != null) {
+			storeState();
+		}
+	}
+
+	/**
+	 * Reads attributes that were written by {@link #writeAttributes(ObjectOutputStream, Collection)}. Attributes that
+	 * already have a value are not overwritten, since they were saved more recently.
+	 *
+	 * @return  The names of the attributes that were set.
+	 */
+	protected Set<String> readAttributes(ObjectInputStream objectInputStream) throws IOException,
+		ClassNotFoundException {
+
+		Set<String> attributeNames = new HashSet<String>();
+		int attributeCount = objectInputStream.readInt();
+
+		for (int i = 0; i < attributeCount; i++) {
+
+			String attributeName = objectInputStream.readUTF();
+			byte[] attributeBytes = new byte[objectInputStream.readInt()];
+			objectInputStream.readFully(attributeBytes);
+
+			ObjectInputStream attributeInputStream = newObjectInputStream(objectInputStream, attributeBytes);
+
+			try {
+				Object attributeValue;
+				byte listType = attributeInputStream.readByte();
+
+				if (listType == LIST_TYPE_NONE) {
+					attributeValue = attributeInputStream.readObject();
+				}
+				else {
+
+					int size = attributeInputStream.readInt();
+					List<Object> list = new ArrayList<Object>(size);
+
+					for (int j = 0; j < size; j++) {
+
+						Object name = attributeInputStream.readObject();
+						Object value = attributeInputStream.readObject();
+
+						if (listType == LIST_TYPE_FACES_MESSAGES) {
+							list.add(new FacesMessageWrapper((String) name, (FacesMessage) value));
+						}
+						else if (listType == LIST_TYPE_INCONGRUITY_ATTRIBUTES) {
+							list.add(new IncongruityAttribute((String) name, value));
+						}
+						else if (listType == LIST_TYPE_FACES_CONTEXT_ATTRIBUTES) {
+							list.add(new FacesContextAttribute(name, value));
+						}
+						else {
+							list.add(new RequestAttribute((String) name, value));
+						}
+					}
+
+					attributeValue = list;
+				}
+
+				if (getAttribute(attributeName) == null) {
+					setAttribute(attributeName, attributeValue);
+					attributeNames.add(attributeName);
+				}
+			}
+			catch (InvalidClassException e) {
+
+				// The class of the value is not allowed to be deserialized, so the attribute is skipped.
+				logger.error("Unable to read attribute name=[{0}]: {1}", attributeName, e.getMessage());
+			}
+			finally {
+				attributeInputStream.close();
+			}
+		}
+
+		return attributeNames;
+	}
+
+	/**
+	 * Reads the state that was written by {@link #writeObject(ObjectOutputStream)}, for example when this scope was
+	 * replicated from another node in the cluster.
+	 */
+	private void readObject(ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+
+		objectInputStream.defaultReadObject();
+
+		String portletModeName = (String) objectInputStream.readObject();
+
+		if (portletModeName != null) {
+			this.portletMode = new PortletMode(portletModeName);
+		}
+
+		readAttributes(objectInputStream);
+
+		int stateLength = objectInputStream.readInt();
+
+		if (stateLength >= 0) {
+
+			byte[] state = new byte[stateLength];
+			objectInputStream.readFully(state);
+
+			ObjectInputStream stateInputStream = newObjectInputStream(objectInputStream, state);
+
+			try {
+				readAttributes(stateInputStream);
+			}
+			finally {
+				stateInputStream.close();
+			}
+		}
+
+		// Since the saved view root is not replicated, the view must be restored by the Faces lifecycle on this node.
+		if (getAttribute(BRIDGE_REQ_SCOPE_ATTR_FACES_VIEW_ROOT) == null) {
+			this.facesLifecycleExecuted = false;
+		}
+
+		int managedBeanCount = objectInputStream.readInt();
+
+		for (int i = 0; i < managedBeanCount; i++) {
+
+			String name = objectInputStream.readUTF();
+			byte[] managedBeanBytes = new byte[objectInputStream.readInt()];
+			objectInputStream.readFully(managedBeanBytes);
+
+			ObjectInputStream managedBeanInputStream = newObjectInputStream(objectInputStream, managedBeanBytes);
+
+			try {
+				getManagedBeanMap().put(name, managedBeanInputStream.readObject());
+			}
+			catch (InvalidClassException e) {
+				logger.error("Unable to read managed bean name=[{0}]: {1}", name, e.getMessage());
+			}
+			finally {
+				managedBeanInputStream.close();
+			}
+		}
+	}
+
+	/**
+	 * Creates a stream for reading an attribute value (or managed bean) that was serialized separately from the
+	 * specified stream. The new stream resolves classes in the same manner as the specified stream, so that any
+	 * restriction on the classes that may be deserialized also applies to the nested values.
+	 */
+	protected ObjectInputStream newObjectInputStream(ObjectInputStream objectInputStream, byte[] bytes)
+		throws IOException {
+
+		ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
+
+		if (objectInputStream instanceof ContextClassLoaderObjectInputStream) {
+			return new ContextClassLoaderObjectInputStream(byteArrayInputStream,
+					((ContextClassLoaderObjectInputStream) objectInputStream).allowedClassNamePrefixes);
+		}
+		else {
+			return new ContextClassLoaderObjectInputStream(byteArrayInputStream);
+		}
+	}
+
+	/**
+	 * Rehydrates the attributes that were moved into the state store by {@link #storeState()}.
+	 *
+	 * @return  The names of the attributes that were rehydrated.
+	 */
+	protected Set<String> rehydrateState() {
+
+		Set<String> rehydratedAttributeNames = Collections.emptySet();
+
+		if ((stateStore != null) && (storedState != null)) {
+
+			try {
+				byte[] state = stateStore.load(storedState);
+				ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(state));
+
+				try {
+					rehydratedAttributeNames = readAttributes(objectInputStream);
+				}
+				finally {
+					objectInputStream.close();
+				}
+
+				logger.debug("Rehydrated {0} bytes of saved state", state.length);
+			}
+			catch (Exception e) {
+				logger.error(e);
+			}
+		}
+
+		return rehydratedAttributeNames;
+	}
+
+	/**
+	 * Serializes the attributes that are only needed by {@link #restoreState(FacesContext)} and moves them into the
+	 * state store. If any of the attribute values is not serializable, then the attributes are kept as live objects.
+	 */
+	protected void storeState() {
+
+		// If state was stored by a previous call (for example in the ACTION_PHASE prior to the EVENT_PHASE), then
+		// merge it with the state that was just saved. From this point on, the live attributes are the only copy.
+		rehydrateState();
+		this.storedState = null;
+
+		try {
+			List<String> storableAttributeNames = Arrays.asList(STORABLE_ATTRIBUTE_NAMES);
+			ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+			ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+			int attributeCount = writeAttributes(objectOutputStream, storableAttributeNames);
+			objectOutputStream.close();
+
+			int expectedAttributeCount = 0;
+
+			for (String attributeName : storableAttributeNames) {
+
+				if (getAttribute(attributeName) != null) {
+					expectedAttributeCount++;
+				}
+			}
+
+			if (attributeCount == expectedAttributeCount) {
+
+				byte[] state = byteArrayOutputStream.toByteArray();
+				this.storedState = stateStore.store(state);
+
+				for (String attributeName : storableAttributeNames) {
+					removeAttribute(attributeName);
+				}
+
+				logger.debug("Stored {0} bytes of saved state", state.length);
+			}
+			else {
+				logger.debug("Keeping saved state on the heap since it is not serializable");
+			}
+		}
+		catch (IOException e) {
+			logger.error(e);
+		}
+	}
+
+	/**
+	 * Writes each of the specified attributes that has a serializable value to the specified stream, and returns the
+	 * number of attributes that were written. Lists of name/value pairs (such as the saved request attributes) are
+	 * written as pairs, since the classes of the list elements are not serializable themselves. Each attribute is
+	 * serialized separately so that a value that is not serializable (such as the saved view root) can be skipped.
+	 */
+	protected int writeAttributes(ObjectOutputStream objectOutputStream, Collection<String> attributeNames)
+		throws IOException {
+
+		Map<String, byte[]> serializedAttributes = new LinkedHashMap<String, byte[]>();
+
+		for (String attributeName : attributeNames) {
+
+			Object attributeValue = getAttribute(attributeName);
+
+			if ((attributeValue != null) && !(attributeValue instanceof UIViewRoot)) {
+
+				ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+				ObjectOutputStream attributeOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+
+				try {
+					byte listType = getListType(attributeValue);
+					attributeOutputStream.writeByte(listType);
+
+					if (listType == LIST_TYPE_NONE) {
+						attributeOutputStream.writeObject(attributeValue);
+					}
+					else {
+
+						List<?> list = (List<?>) attributeValue;
+						attributeOutputStream.writeInt(list.size());
+
+						for (Object element : list) {
+
+							if (element instanceof FacesMessageWrapper) {
+								FacesMessageWrapper facesMessageWrapper = (FacesMessageWrapper) element;
+								attributeOutputStream.writeObject(facesMessageWrapper.getClientId());
+								attributeOutputStream.writeObject(facesMessageWrapper.getFacesMessage());
+							}
+							else {
+								NameValuePair<?, ?> nameValuePair = (NameValuePair<?, ?>) element;
+								attributeOutputStream.writeObject(nameValuePair.getName());
+								attributeOutputStream.writeObject(nameValuePair.getValue());
+							}
+						}
+					}
+
+					attributeOutputStream.close();
+					serializedAttributes.put(attributeName, byteArrayOutputStream.toByteArray());
+				}
+				catch (NotSerializableException e) {
+					logger.trace("Unable to serialize attribute name=[{0}]: {1}", attributeName, e.getMessage());
+				}
+			}
+		}
+
+		objectOutputStream.writeInt(serializedAttributes.size());
+
+		for (Map.Entry<String, byte[]> serializedAttribute : serializedAttributes.entrySet()) {
+
+			byte[] attributeBytes = serializedAttribute.getValue();
+			objectOutputStream.writeUTF(serializedAttribute.getKey());
+			objectOutputStream.writeInt(attributeBytes.length);
+			objectOutputStream.write(attributeBytes);
+		}
+
+		return serializedAttributes.size();
+	}
+
+	/**
+	 * Writes the state of this scope so that it can be replicated to another node in the cluster. The saved view root
+	 * is not written, since it can only be saved by the StateManager during the request that owns it. Instead, the
+	 * view is restored by the Faces lifecycle on the other node. The attributes and managed beans that are not
+	 * serializable are skipped.
+	 */
+	private void writeObject(ObjectOutputStream objectOutputStream) throws IOException {
+
+		objectOutputStream.defaultWriteObject();
+
+		if (portletMode == null) {
+			objectOutputStream.writeObject(null);
+		}
+		else {
+			objectOutputStream.writeObject(portletMode.toString());
+		}
+
+		writeAttributes(objectOutputStream, new ArrayList<String>(getAttributeNames()));
+
+		// If the saved state was moved into the state store, then copy it into the stream since the state store is
+		// local to this node.
+		byte[] state = null;
+
+		if ((stateStore != null) && (storedState != null)) {
+			state = stateStore.load(storedState);
+		}
+
+		if (state == null) {
+			objectOutputStream.writeInt(-1);
+		}
+		else {
+			objectOutputStream.writeInt(state.length);
+			objectOutputStream.write(state);
+		}
+
+		// Each managed bean is serialized separately (and only once) so that a managed bean that is not serializable
+		// can be skipped.
+		Map<String, byte[]> serializedManagedBeans = new LinkedHashMap<String, byte[]>();
+
+		if (managedBeanMap != null) {
+
+			for (Map.Entry<String, Object> mapEntry : managedBeanMap.entrySet()) {
+
+				Object managedBean = mapEntry.getValue();
+
+				if (managedBean instanceof Serializable) {
+
+					try {
+						ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+						ObjectOutputStream managedBeanOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+						managedBeanOutputStream.writeObject(managedBean);
+						managedBeanOutputStream.close();
+						serializedManagedBeans.put(mapEntry.getKey(), byteArrayOutputStream.toByteArray());
+					}
+					catch (NotSerializableException e) {
+						logger.trace("Unable to serialize managed bean name=[{0}]: {1}", mapEntry.getKey(),
+							e.getMessage());
+					}
+				}
+			}
+		}
+
+		objectOutputStream.writeInt(serializedManagedBeans.size());
+
+		for (Map.Entry<String, byte[]> serializedManagedBean : serializedManagedBeans.entrySet()) {
+
+			byte[] managedBeanBytes = serializedManagedBean.getValue();
+			objectOutputStream.writeUTF(serializedManagedBean.getKey());
+			objectOutputStream.writeInt(managedBeanBytes.length);
+			objectOutputStream.write(managedBeanBytes);
+		}
+	}
+
+	protected byte getListType(Object attributeValue) {
+
+		byte listType = LIST_TYPE_NONE;
+
+		if ((attributeValue instanceof List) && !((List<?>) attributeValue).isEmpty()) {
+
+			Object element = ((List<?>) attributeValue).get(0);
+
+			if (element instanceof FacesMessageWrapper) {
+				listType = LIST_TYPE_FACES_MESSAGES;
+			}
+			else if (element instanceof IncongruityAttribute) {
+				listType = LIST_TYPE_INCONGRUITY_ATTRIBUTES;
+			}
+			else if (element instanceof FacesContextAttribute) {
+				listType = LIST_TYPE_FACES_CONTEXT_ATTRIBUTES;
+			}
+			else if (element instanceof RequestAttribute) {
+				listType = LIST_TYPE_REQUEST_ATTRIBUTES;
+			}
+		}
+
+		return listType;
 	}
 
 	/**
@@ -763,4 +1257,118 @@ public class BridgeRequestScopeImpl extends BridgeRequestScopeCompat_2_2_Impl im
 	public Set<String> getRemovedAttributeNames() {
 		return removedAttributeNames;
 	}
+
+	/**
+	 * Returns a shallow copy of this scope that can be serialized by another thread in order to replicate it to the
+	 * other nodes in a cluster. Subclasses must override this method in order to return a copy of the same class.
+	 */
+	public BridgeRequestScopeImpl getReplicationSnapshot() {
+		return new BridgeRequestScopeImpl(this);
+	}
+
+	/**
+	 * Resolves classes with the thread context class loader, so that request attribute values whose classes are defined
+	 * by the portlet application can be deserialized. Optionally, only the classes whose names start with one of the
+	 * allowed prefixes (and arrays of them or of primitives) can be deserialized, for example when the serialized data
+	 * was received from another node in the cluster.
+	 */
+	protected static class ContextClassLoaderObjectInputStream extends ObjectInputStream {
+
+		// Private Constants
+		private static final List<String> PRIMITIVE_CLASS_NAMES = Arrays.asList("boolean", "byte", "char", "double",
+				"float", "int", "long", "short", "void");
+
+		// Private Data Members
+		private List<String> allowedClassNamePrefixes;
+
+		public ContextClassLoaderObjectInputStream(InputStream inputStream) throws IOException {
+			this(inputStream, null);
+		}
+
+		/**
+		 * @param  allowedClassNamePrefixes  The prefixes of the names of the classes that can be deserialized, or null
+		 *                                   if any class can be deserialized.
+		 */
+		public ContextClassLoaderObjectInputStream(InputStream inputStream, List<String> allowedClassNamePrefixes)
+			throws IOException {
+			super(inputStream);
+			this.allowedClassNamePrefixes = allowedClassNamePrefixes;
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass objectStreamClass) throws IOException,
+			ClassNotFoundException {
+
+			String className = objectStreamClass.getName();
+
+			if (!isAllowed(className)) {
+				throw new InvalidClassException(className, "Class is not allowed to be deserialized");
+			}
+
+			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+			if (classLoader != null) {
+
+				try {
+					return Class.forName(className, false, classLoader);
+				}
+				catch (ClassNotFoundException e) {
+					// Fall back to the default behavior below.
+				}
+			}
+
+			return super.resolveClass(objectStreamClass);
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(String[] interfaceNames) throws IOException, ClassNotFoundException {
+
+			for (String interfaceName : interfaceNames) {
+
+				if (!isAllowed(interfaceName)) {
+					throw new InvalidClassException(interfaceName, "Class is not allowed to be deserialized");
+				}
+			}
+
+			return super.resolveProxyClass(interfaceNames);
+		}
+
+		protected boolean isAllowed(String className) {
+
+			if (allowedClassNamePrefixes == null) {
+				return true;
+			}
+
+			// Arrays are allowed if their component type is allowed.
+			String componentClassName = className;
+
+			while (componentClassName.startsWith("[")) {
+				componentClassName = componentClassName.substring(1);
+			}
+
+			if (componentClassName.length() < className.length()) {
+
+				if (componentClassName.length() == 1) {
+
+					// Array of primitives, such as "[B"
+					return true;
+				}
+				else if (componentClassName.startsWith("L") && componentClassName.endsWith(";")) {
+					componentClassName = componentClassName.substring(1, componentClassName.length() - 1);
+				}
+			}
+			else if (PRIMITIVE_CLASS_NAMES.contains(componentClassName)) {
+				return true;
+			}
+
+			for (String allowedClassNamePrefix : allowedClassNamePrefixes) {
+
+				if (componentClassName.startsWith(allowedClassNamePrefix)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
 }
@@ -93,6 +93,10 @@ public class BridgeRequestScopeLiferayImpl extends BridgeRequestScopeImpl {
 		super(portletRequest, portletConfig, bridgeConfig);
 	}
 
+	protected BridgeRequestScopeLiferayImpl(BridgeRequestScopeLiferayImpl bridgeRequestScopeLiferayImpl) {
+		super(bridgeRequestScopeLiferayImpl);
+	}
+
 	/**
 	 * This is a method-override that provides specific behavior for Liferay Portal. Specifically, since Liferay Portal
 	 * does not implement the POST-REDIRECT-GET design pattern, not all instance types listed in Section 5.1.2 of the
@@ -212,4 +216,9 @@ public class BridgeRequestScopeLiferayImpl extends BridgeRequestScopeImpl {
 
 		return excluded;
 	}
+
+	@Override
+	public BridgeRequestScopeImpl getReplicationSnapshot() {
+		return new BridgeRequestScopeLiferayImpl(this);
+	}
 }
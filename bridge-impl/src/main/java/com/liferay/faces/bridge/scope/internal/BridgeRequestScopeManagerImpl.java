@@ -49,6 +49,14 @@ public class BridgeRequestScopeManagerImpl implements BridgeRequestScopeManager
 		PortletContext portletContext = portletConfig.getPortletContext();
 		BridgeRequestScopeCache bridgeRequestScopeCache = bridgeRequestScopeCacheFactory.getBridgeRequestScopeCache(
 				portletContext);
+
+		if (bridgeRequestScopeCache instanceof IndexedBridgeRequestScopeCache) {
+			((IndexedBridgeRequestScopeCache) bridgeRequestScopeCache).removeBridgeRequestScopesByPortletName(
+				portletNameToRemove);
+
+			return;
+		}
+
 		Set<Map.Entry<String, BridgeRequestScope>> mapEntries = bridgeRequestScopeCache.entrySet();
 
 		if (mapEntries != null) {
@@ -57,8 +65,7 @@ public class BridgeRequestScopeManagerImpl implements BridgeRequestScopeManager
 
 			for (Map.Entry<String, BridgeRequestScope> mapEntry : mapEntries) {
 				BridgeRequestScope bridgeRequestScope = mapEntry.getValue();
-				String bridgeRequestScopeId = bridgeRequestScope.getId();
-				String portletName = bridgeRequestScopeId.split("[:][:][:]")[0];
+				String portletName = BridgeRequestScopeId.parse(bridgeRequestScope.getId()).getPortletName();
 
 				if (portletNameToRemove.equals(portletName)) {
 					keysToRemove.add(mapEntry.getKey());
@@ -76,14 +83,26 @@ public class BridgeRequestScopeManagerImpl implements BridgeRequestScopeManager
 	 * BridgeSessionListener} when a session timeout/expiration occurs. The logic in this method is a little awkward
 	 * because we have to try and remove BridgeRequestScope instances from {@link Map} instances in the {@link
 	 * ServletContext} rather than the {@link PortletContext} because we only have access to the Servlet-API when
-	 * sessions expire.
+	 * sessions expire. Since the portlet container typically exposes {@link PortletContext} attributes as {@link
+	 * ServletContext} attributes, the bridge's own cache is looked up directly so that its session index (see {@link
+	 * IndexedBridgeRequestScopeCache}) can be used.
+	 * Otherwise, all of the {@link ServletContext} attributes are scanned.
 	 */
 	public void removeBridgeRequestScopesBySession(HttpSession httpSession) {
 
-		// For each ServletContext attribute name:
 		String httpSessionId = httpSession.getId();
 		ServletContext servletContext = httpSession.getServletContext();
+		Object bridgeRequestScopeCache = servletContext.getAttribute(
+				BridgeRequestScopeCacheFactoryImpl.ATTR_BRIDGE_REQUEST_SCOPE_CACHE);
 
+		if (bridgeRequestScopeCache instanceof IndexedBridgeRequestScopeCache) {
+			((IndexedBridgeRequestScopeCache) bridgeRequestScopeCache).removeBridgeRequestScopesBySessionId(
+				httpSessionId);
+
+			return;
+		}
+
+		// For each ServletContext attribute name:
 		Enumeration<String> attributeNames = servletContext.getAttributeNames();
 
 		if (attributeNames != null) {
@@ -123,7 +142,8 @@ public class BridgeRequestScopeManagerImpl implements BridgeRequestScopeManager
 
 							if ((value != null) && (value instanceof BridgeRequestScope)) {
 								BridgeRequestScope bridgeRequestScope = (BridgeRequestScope) value;
-								String bridgeRequestScopeSessionId = bridgeRequestScope.getId().split("[:][:][:]")[1];
+								String bridgeRequestScopeSessionId = BridgeRequestScopeId.parse(
+										bridgeRequestScope.getId()).getSessionId();
 
 								if (httpSessionId.equals(bridgeRequestScopeSessionId)) {
 									keysToRemove.add(key);
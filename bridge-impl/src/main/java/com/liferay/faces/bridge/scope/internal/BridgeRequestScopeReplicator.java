@@ -0,0 +1,1020 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.liferay.faces.bridge.scope.BridgeRequestScope;
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class replicates changes to an {@link IndexedBridgeRequestScopeCache} to the same cache on peer nodes in a
+ * cluster, and applies the changes that are received from the peers to the local cache. Changes are queued by the
+ * request thread and sent in batches by a background thread over a persistent socket connection to each peer. Each
+ * batch is acknowledged by the peer after it has been applied, so that in {@link Consistency#SYNC} mode the request
+ * thread can wait until the change is visible on all of the peers.
+ *
+ * <p>In order to keep serialization off of the request thread, the request thread only takes a shallow {@link
+ * BridgeRequestScopeImpl#getReplicationSnapshot() snapshot} of a scope that is put into the cache, and the snapshot is
+ * serialized by the background thread. Only the changes that are made through the cache are replicated. A scope that
+ * is changed after it was put into the cache (for example by managed beans that are created in the RENDER_PHASE) is not
+ * replicated again, so the replica on a peer reflects the scope as of the most recent put, which happens at the end of
+ * the ACTION_PHASE, EVENT_PHASE or RESOURCE_PHASE.</p>
+ *
+ * <p>Since the replicated scopes are deserialized by the peers, each frame is signed with an HMAC of a secret that is
+ * shared by all of the nodes (and of a nonce that is chosen by the receiving node for each connection, so that frames
+ * cannot be replayed). Frames that are too large or that have an invalid signature cause the connection to be closed
+ * before anything is deserialized, and only the classes that match the configured class name prefixes can be
+ * deserialized.</p>
+ *
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeReplicator implements Closeable {
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(BridgeRequestScopeReplicator.class);
+
+	// Private Constants
+	private static final int ACK = 1;
+	private static final int CONNECT_TIMEOUT = 2000;
+	private static final String MAC_ALGORITHM = "HmacSHA256";
+	private static final int MAC_LENGTH = 32;
+	private static final long MAX_RETRY_DELAY = 60000L;
+	private static final long MIN_RETRY_DELAY = 1000L;
+	private static final int NONCE_LENGTH = 16;
+	private static final byte OPERATION_PUT = 1;
+	private static final byte OPERATION_REMOVE = 2;
+	private static final byte OPERATION_REMOVE_BY_PORTLET_NAME = 3;
+	private static final byte OPERATION_REMOVE_BY_SESSION_ID = 4;
+	private static final int SOCKET_TIMEOUT = 10000;
+
+	// Private Data Members
+	private long ackTimeout;
+	private List<String> allowedClassNamePrefixes;
+	private long batchDelay;
+	private AtomicLong batchCount;
+	private AtomicLong bytesSentCount;
+	private ClassLoader classLoader;
+	private volatile boolean closed;
+	private Consistency consistency;
+	private AtomicLong droppedCount;
+	private IndexedBridgeRequestScopeCache localCache;
+	private int maxBatchSize;
+	private int maxFrameSize;
+	private List<Peer> peers;
+	private AtomicLong putCount;
+	private BlockingQueue<Operation> queue;
+	private AtomicLong receivedCount;
+	private Set<Socket> receiverSockets;
+	private AtomicLong rejectedCount;
+	private AtomicLong removeCount;
+	private SecureRandom secureRandom;
+	private SecretKeySpec secretKey;
+	private AtomicLong sendFailureCount;
+	private Thread senderThread;
+	private AtomicLong serializationFailureCount;
+	private ServerSocket serverSocket;
+
+	/**
+	 * @param  localCache     The local cache that changes received from the peers are applied to.
+	 * @param  configuration  The addresses, shared secret and limits of the replication.
+	 */
+	public BridgeRequestScopeReplicator(IndexedBridgeRequestScopeCache localCache, Configuration configuration)
+		throws IOException {
+
+		if (configuration.getBindAddress() == null) {
+			throw new IllegalArgumentException("The bind address is required");
+		}
+
+		byte[] sharedSecret = configuration.getSharedSecret();
+
+		if ((sharedSecret == null) || (sharedSecret.length == 0)) {
+			throw new IllegalArgumentException("The shared secret is required");
+		}
+
+		this.localCache = localCache;
+		this.consistency = configuration.getConsistency();
+		this.batchDelay = configuration.getBatchDelay();
+		this.maxBatchSize = Math.max(1, configuration.getMaxBatchSize());
+		this.maxFrameSize = configuration.getMaxFrameSize();
+		this.ackTimeout = configuration.getAckTimeout();
+		this.allowedClassNamePrefixes = new ArrayList<String>(configuration.getAllowedClassNamePrefixes());
+		this.classLoader = Thread.currentThread().getContextClassLoader();
+		this.queue = new LinkedBlockingQueue<Operation>(Math.max(1, configuration.getMaxQueueSize()));
+		this.receiverSockets = Collections.synchronizedSet(new HashSet<Socket>());
+		this.secretKey = new SecretKeySpec(sharedSecret, MAC_ALGORITHM);
+		this.secureRandom = new SecureRandom();
+		this.batchCount = new AtomicLong();
+		this.bytesSentCount = new AtomicLong();
+		this.droppedCount = new AtomicLong();
+		this.putCount = new AtomicLong();
+		this.receivedCount = new AtomicLong();
+		this.rejectedCount = new AtomicLong();
+		this.removeCount = new AtomicLong();
+		this.sendFailureCount = new AtomicLong();
+		this.serializationFailureCount = new AtomicLong();
+
+		List<InetSocketAddress> peerAddresses = configuration.getPeerAddresses();
+		this.peers = new ArrayList<Peer>(peerAddresses.size());
+
+		for (InetSocketAddress peerAddress : peerAddresses) {
+			peers.add(new Peer(peerAddress));
+		}
+
+		// Fail early if the MAC algorithm is not available.
+		newMac();
+
+		InetSocketAddress bindAddress = configuration.getBindAddress();
+		this.serverSocket = new ServerSocket(bindAddress.getPort(), 50, bindAddress.getAddress());
+
+		Thread acceptorThread = new Thread(new Acceptor(), getThreadName("Acceptor"));
+		acceptorThread.setDaemon(true);
+		acceptorThread.start();
+
+		this.senderThread = new Thread(new Sender(), getThreadName("Sender"));
+		this.senderThread.setDaemon(true);
+		this.senderThread.start();
+
+		logger.info("Replicating bridgeRequestScope cache from address=[{0}] to peers={1} consistency=[{2}]",
+			serverSocket.getLocalSocketAddress(), peerAddresses, consistency);
+	}
+
+	public void close() {
+
+		if (!closed) {
+
+			closed = true;
+			senderThread.interrupt();
+
+			try {
+				serverSocket.close();
+			}
+			catch (IOException e) {
+				logger.error(e);
+			}
+
+			for (Peer peer : peers) {
+				peer.disconnect();
+			}
+
+			synchronized (receiverSockets) {
+
+				for (Socket receiverSocket : receiverSockets) {
+					closeQuietly(receiverSocket);
+				}
+			}
+
+			// Release any request threads that are waiting for changes that will never be sent.
+			List<Operation> unsentOperations = new ArrayList<Operation>();
+			queue.drainTo(unsentOperations);
+
+			for (Operation operation : unsentOperations) {
+				operation.failed = true;
+				operation.latch.countDown();
+			}
+
+			logger.info("Closed {0}", this);
+		}
+	}
+
+	/**
+	 * Replicates the specified scope to the peers. The scope is serialized by the background thread, so a scope that
+	 * cannot be serialized (or that is larger than the maximum frame size) is only reported as a failure in {@link
+	 * Consistency#SYNC} mode.
+	 *
+	 * @return  false if the change could not be replicated, or (in {@link Consistency#SYNC} mode) if it was not
+	 *          acknowledged by all of the peers. Otherwise true.
+	 */
+	public boolean replicatePut(String bridgeRequestScopeId, BridgeRequestScope bridgeRequestScope) {
+
+		// Take a snapshot of the scope so that the background thread does not read the scope while the request thread
+		// continues to change it.
+		Serializable snapshot;
+
+		if (bridgeRequestScope instanceof BridgeRequestScopeImpl) {
+			snapshot = ((BridgeRequestScopeImpl) bridgeRequestScope).getReplicationSnapshot();
+		}
+		else if (bridgeRequestScope instanceof Serializable) {
+			snapshot = (Serializable) bridgeRequestScope;
+		}
+		else {
+			serializationFailureCount.incrementAndGet();
+			logger.error("Unable to replicate bridgeRequestScope id=[{0}] since it is not serializable",
+				bridgeRequestScopeId);
+
+			return false;
+		}
+
+		putCount.incrementAndGet();
+
+		return replicate(new Operation(OPERATION_PUT, bridgeRequestScopeId, snapshot));
+	}
+
+	public boolean replicateRemove(String bridgeRequestScopeId) {
+		removeCount.incrementAndGet();
+
+		return replicate(new Operation(OPERATION_REMOVE, bridgeRequestScopeId, null));
+	}
+
+	public boolean replicateRemoveByPortletName(String portletName) {
+		removeCount.incrementAndGet();
+
+		return replicate(new Operation(OPERATION_REMOVE_BY_PORTLET_NAME, portletName, null));
+	}
+
+	public boolean replicateRemoveBySessionId(String sessionId) {
+		removeCount.incrementAndGet();
+
+		return replicate(new Operation(OPERATION_REMOVE_BY_SESSION_ID, sessionId, null));
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[port=" + getPort() + ", consistency=" + consistency + ", putCount=" +
+			putCount.get() + ", removeCount=" + removeCount.get() + ", batchCount=" + batchCount.get() +
+			", bytesSentCount=" + bytesSentCount.get() + ", receivedCount=" + receivedCount.get() +
+			", rejectedCount=" + rejectedCount.get() + ", sendFailureCount=" + sendFailureCount.get() +
+			", serializationFailureCount=" + serializationFailureCount.get() + ", droppedCount=" +
+			droppedCount.get() + ", queueSize=" + queue.size() + "]";
+	}
+
+	protected void apply(byte operationType, String key, byte[] payload) throws IOException, ClassNotFoundException {
+
+		if (operationType == OPERATION_PUT) {
+
+			ObjectInputStream objectInputStream = new BridgeRequestScopeImpl.ContextClassLoaderObjectInputStream(
+					new ByteArrayInputStream(payload), allowedClassNamePrefixes);
+
+			try {
+				localCache.put(key, (BridgeRequestScope) objectInputStream.readObject());
+			}
+			finally {
+				objectInputStream.close();
+			}
+		}
+		else if (operationType == OPERATION_REMOVE) {
+			localCache.remove(key);
+		}
+		else if (operationType == OPERATION_REMOVE_BY_PORTLET_NAME) {
+			localCache.removeBridgeRequestScopesByPortletName(key);
+		}
+		else if (operationType == OPERATION_REMOVE_BY_SESSION_ID) {
+			localCache.removeBridgeRequestScopesBySessionId(key);
+		}
+		else {
+			throw new IOException("Unknown operation type=[" + operationType + "]");
+		}
+
+		receivedCount.incrementAndGet();
+	}
+
+	protected void closeQuietly(Socket socket) {
+
+		try {
+			socket.close();
+		}
+		catch (IOException e) {
+			// ignore
+		}
+	}
+
+	protected Mac newMac() {
+
+		try {
+			Mac mac = Mac.getInstance(MAC_ALGORITHM);
+			mac.init(secretKey);
+
+			return mac;
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	protected boolean replicate(Operation operation) {
+
+		if (closed || peers.isEmpty()) {
+			return true;
+		}
+
+		if (!queue.offer(operation)) {
+
+			// Rather than blocking the request thread (or exhausting the heap) when the peers cannot keep up, the
+			// change is dropped.
+			if ((droppedCount.incrementAndGet() % 1000) == 1) {
+				logger.warn("Dropped change to key=[{0}] since the replication queue is full: {1}", operation.key,
+					this);
+			}
+
+			return false;
+		}
+
+		boolean replicated = true;
+
+		if (consistency == Consistency.SYNC) {
+
+			try {
+
+				if (!operation.latch.await(ackTimeout, TimeUnit.MILLISECONDS)) {
+					logger.warn("Timed out after [{0}] ms waiting for peers to acknowledge key=[{1}]", ackTimeout,
+						operation.key);
+					replicated = false;
+				}
+				else if (operation.failed) {
+					logger.warn("Unable to replicate key=[{0}] to all of the peers", operation.key);
+					replicated = false;
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				replicated = false;
+			}
+		}
+
+		return replicated;
+	}
+
+	protected void send(List<Operation> batch) {
+
+		// Split the batch into frames that do not exceed the maximum frame size of the peers.
+		List<Operation> frameOperations = new ArrayList<Operation>();
+		int frameSize = Integer.SIZE / Byte.SIZE;
+
+		for (Operation operation : batch) {
+
+			if (!encode(operation)) {
+				operation.failed = true;
+				operation.latch.countDown();
+
+				continue;
+			}
+
+			if (!frameOperations.isEmpty() && ((frameSize + operation.encoded.length) > maxFrameSize)) {
+				sendFrame(frameOperations, frameSize);
+				frameOperations.clear();
+				frameSize = Integer.SIZE / Byte.SIZE;
+			}
+
+			frameOperations.add(operation);
+			frameSize += operation.encoded.length;
+		}
+
+		if (!frameOperations.isEmpty()) {
+			sendFrame(frameOperations, frameSize);
+		}
+
+		batchCount.incrementAndGet();
+	}
+
+	protected void sendFrame(List<Operation> frameOperations, int frameSize) {
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(frameSize);
+		DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+
+		try {
+			dataOutputStream.writeInt(frameOperations.size());
+
+			for (Operation operation : frameOperations) {
+				dataOutputStream.write(operation.encoded);
+			}
+
+			dataOutputStream.close();
+		}
+		catch (IOException e) {
+
+			// Not possible with a ByteArrayOutputStream.
+			throw new IllegalStateException(e);
+		}
+
+		byte[] frame = byteArrayOutputStream.toByteArray();
+		boolean failed = false;
+
+		for (Peer peer : peers) {
+
+			try {
+				peer.send(frame);
+				bytesSentCount.addAndGet(frame.length);
+			}
+			catch (IOException e) {
+				sendFailureCount.incrementAndGet();
+				failed = true;
+				peer.markDown(frameOperations.size(), e);
+			}
+		}
+
+		for (Operation operation : frameOperations) {
+			operation.failed = failed;
+			operation.latch.countDown();
+		}
+	}
+
+	/**
+	 * Serializes the payload of the specified operation.
+	 *
+	 * @return  true if the operation was serialized and fits in a frame by itself, otherwise false.
+	 */
+	protected boolean encode(Operation operation) {
+
+		try {
+			operation.encode();
+		}
+		catch (IOException e) {
+			serializationFailureCount.incrementAndGet();
+			logger.error("Unable to replicate bridgeRequestScope id=[{0}]: {1}", operation.key, e.getMessage());
+
+			return false;
+		}
+
+		// Since the peers reject frames that are larger than the maximum, an operation that would not fit in a frame by
+		// itself can never be replicated.
+		if (((Integer.SIZE / Byte.SIZE) + operation.encoded.length) > maxFrameSize) {
+			serializationFailureCount.incrementAndGet();
+			logger.error("Unable to replicate bridgeRequestScope id=[{0}] since its size=[{1}] exceeds the maximum " +
+				"frame size=[{2}]", operation.key, operation.encoded.length, maxFrameSize);
+
+			return false;
+		}
+
+		return true;
+	}
+
+	public long getBatchCount() {
+		return batchCount.get();
+	}
+
+	public long getBytesSentCount() {
+		return bytesSentCount.get();
+	}
+
+	public Consistency getConsistency() {
+		return consistency;
+	}
+
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	protected byte[] getMac(Mac mac, byte[] nonce, long sequence, byte[] frame) {
+
+		mac.reset();
+		mac.update(nonce);
+
+		for (int i = (Long.SIZE / Byte.SIZE) - 1; i >= 0; i--) {
+			mac.update((byte) (sequence >>> (i * Byte.SIZE)));
+		}
+
+		return mac.doFinal(frame);
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public long getPutCount() {
+		return putCount.get();
+	}
+
+	public int getQueueSize() {
+		return queue.size();
+	}
+
+	public long getReceivedCount() {
+		return receivedCount.get();
+	}
+
+	/**
+	 * Returns the number of connections from peers that were closed because a frame was too large or had an invalid
+	 * signature.
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	public long getRemoveCount() {
+		return removeCount.get();
+	}
+
+	public long getSendFailureCount() {
+		return sendFailureCount.get();
+	}
+
+	public long getSerializationFailureCount() {
+		return serializationFailureCount.get();
+	}
+
+	protected String getThreadName(String role) {
+		return getClass().getSimpleName() + "-" + role + "-" + serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Indicates whether a change is acknowledged by the peers before the request thread continues.
+	 */
+	public enum Consistency {
+
+		/** Changes are sent by a background thread without waiting for acknowledgement. This is the default. */
+		ASYNC,
+
+		/** The request thread waits (up to a timeout) for the peers to acknowledge each change. */
+		SYNC
+	}
+
+	/**
+	 * The settings of a {@link BridgeRequestScopeReplicator}. The bind address and the shared secret are required.
+	 */
+	public static class Configuration {
+
+		// Public Constants
+		public static final List<String> DEFAULT_ALLOWED_CLASS_NAME_PREFIXES = Collections.unmodifiableList(
+				Arrays.asList("java.lang.", "java.util.", "java.math.", "javax.el.", "javax.faces.", "javax.portlet.",
+					"com.liferay.faces.", "com.sun.el.", "com.sun.faces.", "org.apache.el.", "org.apache.myfaces."));
+		public static final long DEFAULT_ACK_TIMEOUT = 5000L;
+		public static final long DEFAULT_BATCH_DELAY = 10L;
+		public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+		public static final int DEFAULT_MAX_FRAME_SIZE = 16 * 1024 * 1024;
+		public static final int DEFAULT_MAX_QUEUE_SIZE = 10000;
+
+		// Private Data Members
+		private long ackTimeout = DEFAULT_ACK_TIMEOUT;
+		private List<String> allowedClassNamePrefixes = new ArrayList<String>(DEFAULT_ALLOWED_CLASS_NAME_PREFIXES);
+		private long batchDelay = DEFAULT_BATCH_DELAY;
+		private InetSocketAddress bindAddress;
+		private Consistency consistency = Consistency.ASYNC;
+		private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+		private int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+		private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+		private List<InetSocketAddress> peerAddresses = new ArrayList<InetSocketAddress>();
+		private byte[] sharedSecret;
+
+		/**
+		 * Returns the maximum number of milliseconds to wait for acknowledgement in {@link Consistency#SYNC} mode.
+		 */
+		public long getAckTimeout() {
+			return ackTimeout;
+		}
+
+		public void setAckTimeout(long ackTimeout) {
+			this.ackTimeout = ackTimeout;
+		}
+
+		/**
+		 * Returns the prefixes of the names of the classes that may be deserialized when a scope is received from a
+		 * peer. The classes of the managed beans and request attributes of the portlet application must be added to the
+		 * {@link #DEFAULT_ALLOWED_CLASS_NAME_PREFIXES defaults} in order to be replicated.
+		 */
+		public List<String> getAllowedClassNamePrefixes() {
+			return allowedClassNamePrefixes;
+		}
+
+		/**
+		 * Returns the number of milliseconds to wait for additional changes before sending a batch.
+		 */
+		public long getBatchDelay() {
+			return batchDelay;
+		}
+
+		public void setBatchDelay(long batchDelay) {
+			this.batchDelay = batchDelay;
+		}
+
+		/**
+		 * Returns the address (and port) to listen on for changes from the peers.
+		 */
+		public InetSocketAddress getBindAddress() {
+			return bindAddress;
+		}
+
+		public void setBindAddress(InetSocketAddress bindAddress) {
+			this.bindAddress = bindAddress;
+		}
+
+		/**
+		 * Returns whether or not changes are sent synchronously with the request.
+		 */
+		public Consistency getConsistency() {
+			return consistency;
+		}
+
+		public void setConsistency(Consistency consistency) {
+			this.consistency = consistency;
+		}
+
+		/**
+		 * Returns the maximum number of changes sent in a single batch.
+		 */
+		public int getMaxBatchSize() {
+			return maxBatchSize;
+		}
+
+		public void setMaxBatchSize(int maxBatchSize) {
+			this.maxBatchSize = maxBatchSize;
+		}
+
+		/**
+		 * Returns the maximum number of bytes in a frame that is sent to or received from a peer.
+		 */
+		public int getMaxFrameSize() {
+			return maxFrameSize;
+		}
+
+		public void setMaxFrameSize(int maxFrameSize) {
+			this.maxFrameSize = maxFrameSize;
+		}
+
+		/**
+		 * Returns the maximum number of changes that can wait to be sent. Changes are dropped when the queue is full.
+		 */
+		public int getMaxQueueSize() {
+			return maxQueueSize;
+		}
+
+		public void setMaxQueueSize(int maxQueueSize) {
+			this.maxQueueSize = maxQueueSize;
+		}
+
+		/**
+		 * Returns the addresses of the peers that changes are sent to.
+		 */
+		public List<InetSocketAddress> getPeerAddresses() {
+			return peerAddresses;
+		}
+
+		/**
+		 * Returns the secret that is shared by all of the nodes and used to sign the frames.
+		 */
+		public byte[] getSharedSecret() {
+			return sharedSecret;
+		}
+
+		public void setSharedSecret(byte[] sharedSecret) {
+			this.sharedSecret = sharedSecret;
+		}
+	}
+
+	protected static class Operation {
+
+		// Private Data Members
+		private byte[] encoded;
+		private volatile boolean failed;
+		private String key;
+		private CountDownLatch latch;
+		private Serializable payload;
+		private byte type;
+
+		/**
+		 * @param  payload  The object that is serialized by {@link #encode()}, or null if the operation does not have
+		 *                  a payload.
+		 */
+		public Operation(byte type, String key, Serializable payload) {
+			this.type = type;
+			this.key = key;
+			this.payload = payload;
+			this.latch = new CountDownLatch(1);
+		}
+
+		/**
+		 * Serializes the operation (and its payload) so that it can be written to a frame. This method is called by
+		 * the background thread.
+		 */
+		public void encode() throws IOException {
+
+			if (encoded == null) {
+
+				byte[] payloadBytes = null;
+
+				if (payload != null) {
+
+					ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+					ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+
+					try {
+						objectOutputStream.writeObject(payload);
+					}
+					catch (RuntimeException e) {
+
+						// For example, a ConcurrentModificationException from a managed bean that is being changed by
+						// a request thread.
+						throw new IOException(e.toString());
+					}
+
+					objectOutputStream.close();
+					payloadBytes = byteArrayOutputStream.toByteArray();
+				}
+
+				ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+				DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+				dataOutputStream.writeByte(type);
+				dataOutputStream.writeUTF(key);
+
+				if (payloadBytes == null) {
+					dataOutputStream.writeInt(-1);
+				}
+				else {
+					dataOutputStream.writeInt(payloadBytes.length);
+					dataOutputStream.write(payloadBytes);
+				}
+
+				dataOutputStream.close();
+				this.encoded = byteArrayOutputStream.toByteArray();
+				this.payload = null;
+			}
+		}
+	}
+
+	protected class Acceptor implements Runnable {
+
+		public void run() {
+
+			while (!closed) {
+
+				try {
+					Socket socket = serverSocket.accept();
+					receiverSockets.add(socket);
+
+					Thread receiverThread = new Thread(new Receiver(socket), getThreadName("Receiver"));
+					receiverThread.setDaemon(true);
+					receiverThread.start();
+				}
+				catch (IOException e) {
+
+					if (!closed) {
+						logger.error(e);
+					}
+				}
+			}
+		}
+	}
+
+	protected class Peer {
+
+		// Private Data Members
+		private InetSocketAddress address;
+		private DataInputStream dataInputStream;
+		private DataOutputStream dataOutputStream;
+		private int failureCount;
+		private Mac mac;
+		private byte[] nonce;
+		private long retryTime;
+		private long sequence;
+		private Socket socket;
+
+		public Peer(InetSocketAddress address) {
+			this.address = address;
+			this.mac = newMac();
+		}
+
+		public void disconnect() {
+
+			if (socket != null) {
+				closeQuietly(socket);
+				socket = null;
+			}
+		}
+
+		/**
+		 * Disconnects from the peer and marks it as down, so that (with an exponential backoff) frames are not sent to
+		 * it until the retry time has passed rather than each frame waiting for the connection to time out.
+		 */
+		public void markDown(int operationCount, IOException e) {
+
+			disconnect();
+
+			long retryDelay = Math.min(MAX_RETRY_DELAY, MIN_RETRY_DELAY << Math.min(failureCount, 16));
+			retryTime = System.currentTimeMillis() + retryDelay;
+			failureCount++;
+
+			if (failureCount == 1) {
+				logger.warn("Unable to replicate [{0}] changes to peer=[{1}]: {2}", operationCount, address,
+					e.getMessage());
+			}
+			else {
+				logger.debug("Unable to replicate [{0}] changes to peer=[{1}] (retrying in [{2}] ms): {3}",
+					operationCount, address, retryDelay, e.getMessage());
+			}
+		}
+
+		public void send(byte[] frame) throws IOException {
+
+			if (socket == null) {
+
+				if (System.currentTimeMillis() < retryTime) {
+					throw new IOException("Peer is down");
+				}
+
+				Socket socket = new Socket();
+
+				try {
+					socket.connect(address, CONNECT_TIMEOUT);
+					socket.setSoTimeout(SOCKET_TIMEOUT);
+					socket.setTcpNoDelay(true);
+					this.dataInputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+					this.dataOutputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+					// The peer chooses a nonce for each connection that is included in the signature of each frame.
+					this.nonce = new byte[NONCE_LENGTH];
+					this.dataInputStream.readFully(this.nonce);
+					this.sequence = 0;
+				}
+				catch (IOException e) {
+					closeQuietly(socket);
+					throw e;
+				}
+
+				this.socket = socket;
+			}
+
+			dataOutputStream.writeInt(frame.length);
+			dataOutputStream.write(frame);
+			dataOutputStream.write(getMac(mac, nonce, sequence++, frame));
+			dataOutputStream.flush();
+
+			if (dataInputStream.readInt() != ACK) {
+				throw new IOException("Invalid acknowledgement");
+			}
+
+			failureCount = 0;
+		}
+	}
+
+	protected class Receiver implements Runnable {
+
+		// Private Data Members
+		private Socket socket;
+
+		public Receiver(Socket socket) {
+			this.socket = socket;
+		}
+
+		public void run() {
+
+			// Deserialize the classes of the replicated attribute values with the class loader of the portlet
+			// application rather than the class loader of the container thread that created this thread.
+			Thread.currentThread().setContextClassLoader(classLoader);
+
+			try {
+				DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(
+							socket.getInputStream()));
+				DataOutputStream dataOutputStream = new DataOutputStream(socket.getOutputStream());
+
+				byte[] nonce = new byte[NONCE_LENGTH];
+				secureRandom.nextBytes(nonce);
+				dataOutputStream.write(nonce);
+				dataOutputStream.flush();
+
+				Mac mac = newMac();
+				long sequence = 0;
+				byte[] signature = new byte[MAC_LENGTH];
+
+				while (!closed) {
+
+					// Verify the size and the signature of the frame before anything in it is deserialized.
+					int frameLength = dataInputStream.readInt();
+
+					if ((frameLength < 0) || (frameLength > maxFrameSize)) {
+						rejectedCount.incrementAndGet();
+						throw new IOException("Invalid frame length=[" + frameLength + "]");
+					}
+
+					byte[] frame = new byte[frameLength];
+					dataInputStream.readFully(frame);
+					dataInputStream.readFully(signature);
+
+					if (!MessageDigest.isEqual(signature, getMac(mac, nonce, sequence++, frame))) {
+						rejectedCount.incrementAndGet();
+						throw new IOException("Invalid frame signature");
+					}
+
+					DataInputStream frameInputStream = new DataInputStream(new ByteArrayInputStream(frame));
+					int operationCount = frameInputStream.readInt();
+
+					for (int i = 0; i < operationCount; i++) {
+
+						byte operationType = frameInputStream.readByte();
+						String key = frameInputStream.readUTF();
+						int payloadLength = frameInputStream.readInt();
+						byte[] payload = null;
+
+						if (payloadLength > frameInputStream.available()) {
+							throw new IOException("Invalid payload length=[" + payloadLength + "]");
+						}
+						else if (payloadLength >= 0) {
+							payload = new byte[payloadLength];
+							frameInputStream.readFully(payload);
+						}
+
+						// Since each payload was read separately, a payload that cannot be deserialized does not
+						// prevent the other changes from being applied.
+						try {
+							apply(operationType, key, payload);
+						}
+						catch (ClassNotFoundException e) {
+							logger.error("Unable to apply replicated bridgeRequestScope id=[{0}]: {1}", key,
+								e.getMessage());
+						}
+						catch (IOException e) {
+							logger.error("Unable to apply replicated bridgeRequestScope id=[{0}]: {1}", key,
+								e.getMessage());
+						}
+					}
+
+					dataOutputStream.writeInt(ACK);
+					dataOutputStream.flush();
+				}
+			}
+			catch (IOException e) {
+
+				if (!closed) {
+					logger.debug("Closed connection from peer=[{0}]: {1}", socket.getRemoteSocketAddress(),
+						e.getMessage());
+				}
+			}
+			finally {
+				receiverSockets.remove(socket);
+				closeQuietly(socket);
+			}
+		}
+	}
+
+	protected class Sender implements Runnable {
+
+		public void run() {
+
+			List<Operation> batch = new ArrayList<Operation>(maxBatchSize);
+
+			while (!closed) {
+
+				try {
+					Operation operation = queue.take();
+					batch.add(operation);
+
+					// Give the request threads a chance to queue additional changes so that they can be sent in a
+					// single batch. In SYNC mode the request thread is waiting, so the batch is sent immediately.
+					if ((batchDelay > 0) && (consistency == Consistency.ASYNC)) {
+						Thread.sleep(batchDelay);
+					}
+
+					queue.drainTo(batch, maxBatchSize - 1);
+					send(batch);
+				}
+				catch (InterruptedException e) {
+
+					// Release any request threads that are waiting for the changes in the batch that was not sent.
+					for (Operation operation : batch) {
+						operation.failed = true;
+						operation.latch.countDown();
+					}
+
+					break;
+				}
+				catch (RuntimeException e) {
+					logger.error(e);
+				}
+				finally {
+					batch.clear();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import com.liferay.faces.bridge.scope.BridgeRequestScopeStateStore;
+
+
+/**
+ * This class provides an implementation of {@link BridgeRequestScopeStateStore} that keeps the serialized state in a
+ * byte array on the heap.
+ *
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeStateStoreHeapImpl implements BridgeRequestScopeStateStore {
+
+	@Override
+	public byte[] load(Object handle) {
+		return (byte[]) handle;
+	}
+
+	@Override
+	public Object store(byte[] state) {
+		return state;
+	}
+}
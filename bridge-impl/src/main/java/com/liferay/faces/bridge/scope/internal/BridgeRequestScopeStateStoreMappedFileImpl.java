@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class provides an implementation of {@link com.liferay.faces.bridge.scope.BridgeRequestScopeStateStore} that
+ * keeps the serialized state in a memory-mapped temporary file, so that the operating system can page it out of memory
+ * when it is not needed. The file is deleted as soon as it has been mapped and the mapping is released when the buffer
+ * is garbage collected. On operating systems that do not permit a mapped file to be deleted (such as Windows), the
+ * deletion is retried by subsequent calls to {@link #store(byte[])}, and any files that are left over from a previous
+ * run are deleted when the state store is created.
+ *
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeStateStoreMappedFileImpl extends BridgeRequestScopeStateStoreOffHeapImpl {
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(BridgeRequestScopeStateStoreMappedFileImpl.class);
+
+	// Private Constants
+	private static final String FILE_PREFIX = "bridgeRequestScope_";
+	private static final String FILE_SUFFIX = ".state";
+
+	// Private Data Members
+	private File directory;
+	private Queue<File> undeletedFiles;
+
+	public BridgeRequestScopeStateStoreMappedFileImpl(File directory) {
+
+		this.directory = directory;
+		this.undeletedFiles = new ConcurrentLinkedQueue<File>();
+
+		File[] files = directory.listFiles();
+
+		if (files != null) {
+
+			for (File file : files) {
+
+				String fileName = file.getName();
+
+				if (fileName.startsWith(FILE_PREFIX) && fileName.endsWith(FILE_SUFFIX) && !file.delete()) {
+					logger.debug("Unable to delete file=[{0}] that was left over from a previous run", file);
+				}
+			}
+		}
+	}
+
+	@Override
+	public Object store(byte[] state) {
+
+		// Files that could not be deleted while they were mapped can be deleted once their buffers have been garbage
+		// collected.
+		int undeletedFileCount = undeletedFiles.size();
+
+		for (int i = 0; i < undeletedFileCount; i++) {
+
+			File undeletedFile = undeletedFiles.poll();
+
+			if (undeletedFile == null) {
+				break;
+			}
+			else if (!undeletedFile.delete() && undeletedFile.exists()) {
+				undeletedFiles.add(undeletedFile);
+			}
+		}
+
+		MappedByteBuffer mappedByteBuffer = null;
+		File file = null;
+
+		try {
+			file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX, directory);
+
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+
+			try {
+				FileChannel fileChannel = randomAccessFile.getChannel();
+				mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, state.length);
+				mappedByteBuffer.put(state);
+				mappedByteBuffer.flip();
+			}
+			finally {
+				randomAccessFile.close();
+			}
+		}
+		catch (IOException e) {
+			logger.error(e);
+		}
+
+		if ((file != null) && !file.delete()) {
+			undeletedFiles.add(file);
+		}
+
+		// If the file could not be mapped, then fall back to keeping the state in native memory.
+		if (mappedByteBuffer == null) {
+			return super.store(state);
+		}
+		else {
+			return mappedByteBuffer;
+		}
+	}
+}
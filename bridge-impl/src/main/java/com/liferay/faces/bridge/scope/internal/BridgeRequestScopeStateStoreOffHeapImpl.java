@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import java.nio.ByteBuffer;
+
+import com.liferay.faces.bridge.scope.BridgeRequestScopeStateStore;
+
+
+/**
+ * This class provides an implementation of {@link BridgeRequestScopeStateStore} that keeps the serialized state in a
+ * direct {@link ByteBuffer}, outside of the heap. The native memory is released when the buffer is garbage collected.
+ *
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeStateStoreOffHeapImpl implements BridgeRequestScopeStateStore {
+
+	@Override
+	public byte[] load(Object handle) {
+
+		// Read from a duplicate so that concurrent render requests do not interfere with each other's position.
+		ByteBuffer byteBuffer = ((ByteBuffer) handle).duplicate();
+		byteBuffer.rewind();
+
+		byte[] state = new byte[byteBuffer.remaining()];
+		byteBuffer.get(state);
+
+		return state;
+	}
+
+	@Override
+	public Object store(byte[] state) {
+
+		ByteBuffer byteBuffer = ByteBuffer.allocateDirect(state.length);
+		byteBuffer.put(state);
+		byteBuffer.flip();
+
+		return byteBuffer;
+	}
+}
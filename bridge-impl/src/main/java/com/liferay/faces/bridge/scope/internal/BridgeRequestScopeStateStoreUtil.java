@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import java.io.File;
+
+import javax.portlet.PortletContext;
+
+import com.liferay.faces.bridge.scope.BridgeRequestScopeStateStore;
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeStateStoreUtil {
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(BridgeRequestScopeStateStoreUtil.class);
+
+	// Private Constants
+	private static final String ATTR_STATE_STORE = BridgeRequestScopeStateStore.class.getName();
+	private static final String NONE = "none";
+
+	/**
+	 * Returns the {@link BridgeRequestScopeStateStore} that is specified by the {@link
+	 * BridgeRequestScopeStateStore#STATE_STORE} context-param, or null if the saved state of bridge request scopes is
+	 * to be kept as live objects (the default).
+	 */
+	public static BridgeRequestScopeStateStore getStateStore(PortletContext portletContext) {
+
+		Object stateStore = portletContext.getAttribute(ATTR_STATE_STORE);
+
+		if (stateStore == null) {
+
+			String stateStoreParam = portletContext.getInitParameter(BridgeRequestScopeStateStore.STATE_STORE);
+
+			if ((stateStoreParam == null) || (stateStoreParam.trim().length() == 0)) {
+				stateStore = NONE;
+			}
+			else {
+
+				stateStoreParam = stateStoreParam.trim();
+
+				if ("heap".equals(stateStoreParam)) {
+					stateStore = new BridgeRequestScopeStateStoreHeapImpl();
+				}
+				else if ("offHeap".equals(stateStoreParam)) {
+					stateStore = new BridgeRequestScopeStateStoreOffHeapImpl();
+				}
+				else if ("mappedFile".equals(stateStoreParam)) {
+
+					File directory = (File) portletContext.getAttribute("javax.servlet.context.tempdir");
+
+					if (directory == null) {
+						directory = new File(System.getProperty("java.io.tmpdir"));
+					}
+
+					stateStore = new BridgeRequestScopeStateStoreMappedFileImpl(directory);
+				}
+				else {
+
+					try {
+						ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+						Class<?> stateStoreClass = Class.forName(stateStoreParam, true, classLoader);
+						stateStore = stateStoreClass.newInstance();
+					}
+					catch (Exception e) {
+						logger.error("Unable to instantiate {0}=[{1}]: {2}", BridgeRequestScopeStateStore.STATE_STORE,
+							stateStoreParam, e);
+						stateStore = NONE;
+					}
+				}
+			}
+
+			logger.debug("Using {0}=[{1}]", BridgeRequestScopeStateStore.STATE_STORE, stateStore);
+			portletContext.setAttribute(ATTR_STATE_STORE, stateStore);
+		}
+
+		if (stateStore instanceof BridgeRequestScopeStateStore) {
+			return (BridgeRequestScopeStateStore) stateStore;
+		}
+		else {
+			return null;
+		}
+	}
+}
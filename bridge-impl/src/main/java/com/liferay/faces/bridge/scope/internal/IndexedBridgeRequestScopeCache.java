@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope.internal;
+
+import com.liferay.faces.bridge.scope.BridgeRequestScope;
+import com.liferay.faces.bridge.scope.BridgeRequestScopeCache;
+
+
+/**
+ * This interface is implemented by the bridge's own {@link BridgeRequestScopeCache} implementations in order to remove
+ * the {@link BridgeRequestScope} instances of a portlet or session without scanning every entry. It is not part of the
+ * bridge-api so that third-party implementations of {@link BridgeRequestScopeCache} are not required to implement it.
+ *
+ * @author  Neil Griffin
+ */
+public interface IndexedBridgeRequestScopeCache extends BridgeRequestScopeCache {
+
+	/**
+	 * Removes all of the {@link BridgeRequestScope} instances that are associated with the specified portlet name.
+	 *
+	 * @param  portletName  The name of the portlet.
+	 */
+	void removeBridgeRequestScopesByPortletName(String portletName);
+
+	/**
+	 * Removes all of the {@link BridgeRequestScope} instances that are associated with the specified session id.
+	 *
+	 * @param  sessionId  The id of the session.
+	 */
+	void removeBridgeRequestScopesBySessionId(String sessionId);
+}
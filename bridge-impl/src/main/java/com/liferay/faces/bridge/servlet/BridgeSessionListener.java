@@ -13,13 +13,12 @@
  */
 package com.liferay.faces.bridge.servlet;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
 
-import javax.faces.FactoryFinder;
-import javax.faces.context.FacesContext;
-import javax.faces.context.FacesContextFactory;
-import javax.faces.lifecycle.Lifecycle;
-import javax.faces.lifecycle.LifecycleFactory;
 import javax.portlet.faces.BridgeException;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
@@ -33,6 +32,8 @@ import com.liferay.faces.bridge.bean.internal.BeanManager;
 import com.liferay.faces.bridge.bean.internal.BeanManagerFactory;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeManager;
 import com.liferay.faces.bridge.scope.BridgeRequestScopeManagerFactory;
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeCacheFactoryImpl;
+import com.liferay.faces.bridge.servlet.internal.SessionCleanupQueue;
 import com.liferay.faces.util.config.ApplicationConfig;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
@@ -52,16 +53,46 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 	private static final Logger logger = LoggerFactory.getLogger(BridgeSessionListener.class);
 
 	// Private Constants
+	private static final int DEFAULT_SESSION_CLEANUP_MAX_BATCH_SIZE = 64;
+	private static final int DEFAULT_SESSION_CLEANUP_QUEUE_CAPACITY = 0; // Synchronous
 	private static final String MOJARRA_ACTIVE_VIEW_MAPS = "com.sun.faces.application.view.activeViewMaps";
 	private static final String MOJARRA_PACKAGE_PREFIX = "com.sun.faces";
 	private static final String MOJARRA_VIEW_SCOPE_MANAGER = "com.sun.faces.application.view.viewScopeManager";
+	private static final String SESSION_CLEANUP_MAX_BATCH_SIZE =
+		"com.liferay.faces.bridge.sessionCleanupMaxBatchSize";
+	private static final String SESSION_CLEANUP_QUEUE_CAPACITY =
+		"com.liferay.faces.bridge.sessionCleanupQueueCapacity";
 
 	// Private Data Members
 	private boolean firstInstance;
+	private SessionCleanupQueue sessionCleanupQueue;
 
 	@Override
 	public void contextDestroyed(ServletContextEvent servletContextEvent) {
-		// no-op
+
+		ServletContext servletContext = servletContextEvent.getServletContext();
+
+		// Destroy the managed-beans of any expired sessions that are still waiting to be cleaned up.
+		if (sessionCleanupQueue != null) {
+			sessionCleanupQueue.close();
+			servletContext.removeAttribute(SessionCleanupQueue.ATTR_SESSION_CLEANUP_QUEUE);
+			sessionCleanupQueue = null;
+		}
+
+		// If the bridge request scope cache holds resources such as the sockets used for replication, then release
+		// them.
+		Object bridgeRequestScopeCache = servletContext.getAttribute(
+				BridgeRequestScopeCacheFactoryImpl.ATTR_BRIDGE_REQUEST_SCOPE_CACHE);
+
+		if (bridgeRequestScopeCache instanceof Closeable) {
+
+			try {
+				((Closeable) bridgeRequestScopeCache).close();
+			}
+			catch (IOException e) {
+				logger.error(e);
+			}
+		}
 	}
 
 	/**
@@ -79,6 +110,17 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 			servletContext.setAttribute(BridgeSessionListener.class.getName(), Boolean.TRUE);
 			firstInstance = true;
 
+			// Optionally destroy the managed-beans of expired sessions on a background thread.
+			int capacity = getIntegerInitParameter(servletContext, SESSION_CLEANUP_QUEUE_CAPACITY,
+					DEFAULT_SESSION_CLEANUP_QUEUE_CAPACITY);
+
+			if (capacity > 0) {
+
+				int maxBatchSize = getIntegerInitParameter(servletContext, SESSION_CLEANUP_MAX_BATCH_SIZE,
+						DEFAULT_SESSION_CLEANUP_MAX_BATCH_SIZE);
+				sessionCleanupQueue = new SessionCleanupQueue(servletContext, capacity, Math.max(maxBatchSize, 1));
+				servletContext.setAttribute(SessionCleanupQueue.ATTR_SESSION_CLEANUP_QUEUE, sessionCleanupQueue);
+			}
 		}
 		else {
 			logger.debug("Preventing multiple instantiation for contextPath=[{0}]", servletContext.getContextPath());
@@ -153,6 +195,7 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 				ApplicationConfig applicationConfig = (ApplicationConfig) servletContext.getAttribute(
 						appConfigAttrName);
 				BeanManager beanManager = beanManagerFactory.getBeanManager(applicationConfig.getFacesConfig());
+				List<Object> managedBeans = new ArrayList<Object>();
 
 				try {
 
@@ -185,23 +228,7 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 									// would have the same session attribute names for managed-beans, and only the last
 									// one would get cleaned-up by Mojarra.
 									if (beanManager.isManagedBean(attributeName, attributeValue)) {
-
-										// NOTE: The BeanManager implementation utilizes FacesContext in order to
-										// determine the Mojarra injection provider. For this reason it is necessary to
-										// create a special FacesContext instance (that can function during session
-										// expiration) before invoking any methods on the BeanManager.
-										LifecycleFactory lifecycleFactory = (LifecycleFactory) FactoryFinder.getFactory(
-												FactoryFinder.LIFECYCLE_FACTORY);
-										Lifecycle lifecycle = lifecycleFactory.getLifecycle(
-												LifecycleFactory.DEFAULT_LIFECYCLE);
-										FacesContextFactory facesContextFactory = (FacesContextFactory) FactoryFinder
-											.getFactory(FactoryFinder.FACES_CONTEXT_FACTORY);
-
-										FacesContext facesContext = facesContextFactory.getFacesContext(servletContext,
-												null, null, lifecycle);
-
-										beanManager.invokePreDestroyMethods(attributeValue, true);
-										facesContext.release();
+										managedBeans.add(attributeValue);
 									}
 
 									// Otherwise,
@@ -266,8 +293,34 @@ public class BridgeSessionListener implements HttpSessionListener, ServletContex
 				catch (IllegalStateException e) {
 					logger.warn("Server does not permit cleanup of Mojarra managed-beans during session expiration");
 				}
+
+				// Destroy the managed-beans that were removed from the session. Since they are no longer reachable
+				// from the session, this can be done on a background thread when the cleanup queue is enabled.
+				if (sessionCleanupQueue == null) {
+					SessionCleanupQueue.destroyManagedBeans(servletContext, beanManager, managedBeans);
+				}
+				else {
+					sessionCleanupQueue.add(httpSession.getId(), beanManager, managedBeans);
+				}
 			}
 		}
 	}
 
+	protected int getIntegerInitParameter(ServletContext servletContext, String name, int defaultValue) {
+
+		int value = defaultValue;
+		String initParameter = servletContext.getInitParameter(name);
+
+		if (initParameter != null) {
+
+			try {
+				value = Integer.parseInt(initParameter.trim());
+			}
+			catch (NumberFormatException e) {
+				logger.error("Unable to parse context-param name=[{0}] error=[{1}]", name, e.getMessage());
+			}
+		}
+
+		return value;
+	}
 }
@@ -0,0 +1,386 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.servlet.internal;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.faces.FactoryFinder;
+import javax.faces.context.FacesContext;
+import javax.faces.context.FacesContextFactory;
+import javax.faces.lifecycle.Lifecycle;
+import javax.faces.lifecycle.LifecycleFactory;
+import javax.servlet.ServletContext;
+
+import com.liferay.faces.bridge.bean.internal.BeanManager;
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class destroys the managed-beans of expired sessions on a background thread so that the thread of the servlet
+ * container that expires sessions does not stall when a large number of sessions time out at the same time. The
+ * managed-beans are snapshotted by the session listener while the session is still accessible, and the background
+ * thread destroys them in batches that share a single {@link FacesContext}. The queue is bounded: if it is full, then
+ * the caller destroys the managed-beans itself, which slows down the producer until the background thread catches up.
+ * When the queue is closed, the background thread destroys the managed-beans of the sessions that are still queued
+ * before it exits, so that a batch is never processed by more than one thread at the same time.
+ *
+ * @author  Neil Griffin
+ */
+public class SessionCleanupQueue implements Closeable {
+
+	// Public Constants
+	public static final String ATTR_SESSION_CLEANUP_QUEUE = "com.liferay.faces.bridge.sessionCleanupQueue";
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(SessionCleanupQueue.class);
+
+	// Private Constants
+	private static final long CLOSE_TIMEOUT = 10000L;
+	private static final long POLL_TIMEOUT = 500L;
+
+	// Private Data Members
+	private AtomicLong batchCount;
+	private AtomicLong callerRunsCount;
+	private ClassLoader classLoader;
+	private volatile boolean closed;
+	private ReadWriteLock closeLock;
+	private AtomicLong maxLatency;
+	private int maxBatchSize;
+	private AtomicLong processedCount;
+	private BlockingQueue<Cleanup> queue;
+	private ServletContext servletContext;
+	private AtomicLong totalLatency;
+	private Thread workerThread;
+
+	/**
+	 * @param  servletContext  The servlet context of the web application that the sessions belong to.
+	 * @param  capacity        The maximum number of expired sessions that can be waiting to be cleaned up.
+	 * @param  maxBatchSize    The maximum number of expired sessions that are cleaned up with a single {@link
+	 *                         FacesContext}.
+	 */
+	public SessionCleanupQueue(ServletContext servletContext, int capacity, int maxBatchSize) {
+
+		this.servletContext = servletContext;
+		this.maxBatchSize = maxBatchSize;
+		this.classLoader = Thread.currentThread().getContextClassLoader();
+		this.queue = new ArrayBlockingQueue<Cleanup>(capacity);
+		this.batchCount = new AtomicLong();
+		this.callerRunsCount = new AtomicLong();
+		this.closeLock = new ReentrantReadWriteLock();
+		this.maxLatency = new AtomicLong();
+		this.processedCount = new AtomicLong();
+		this.totalLatency = new AtomicLong();
+		this.workerThread = new Thread(new Worker(),
+				"liferay-faces-bridge-session-cleanup" + servletContext.getContextPath());
+		this.workerThread.setDaemon(true);
+		this.workerThread.start();
+
+		logger.info("Cleaning up expired sessions asynchronously with capacity=[{0}] maxBatchSize=[{1}]", capacity,
+			maxBatchSize);
+	}
+
+	/**
+	 * Destroys the specified managed-beans by invoking their {@link javax.annotation.PreDestroy} methods. The {@link
+	 * BeanManager} implementation utilizes {@link FacesContext} in order to determine the Mojarra injection provider,
+	 * so a special {@link FacesContext} instance (that can function during session expiration) is created before
+	 * invoking any methods on the {@link BeanManager} and is released afterwards.
+	 */
+	public static void destroyManagedBeans(ServletContext servletContext, BeanManager beanManager,
+		List<Object> managedBeans) {
+
+		if (!managedBeans.isEmpty()) {
+
+			List<Cleanup> cleanups = new ArrayList<Cleanup>(1);
+			cleanups.add(new Cleanup(null, beanManager, managedBeans));
+			destroyManagedBeans(servletContext, cleanups);
+		}
+	}
+
+	protected static void destroyManagedBeans(ServletContext servletContext, List<Cleanup> cleanups) {
+
+		LifecycleFactory lifecycleFactory = (LifecycleFactory) FactoryFinder.getFactory(
+				FactoryFinder.LIFECYCLE_FACTORY);
+		Lifecycle lifecycle = lifecycleFactory.getLifecycle(LifecycleFactory.DEFAULT_LIFECYCLE);
+		FacesContextFactory facesContextFactory = (FacesContextFactory) FactoryFinder.getFactory(
+				FactoryFinder.FACES_CONTEXT_FACTORY);
+		FacesContext facesContext = facesContextFactory.getFacesContext(servletContext, null, null, lifecycle);
+
+		try {
+
+			for (Cleanup cleanup : cleanups) {
+
+				for (Object managedBean : cleanup.managedBeans) {
+
+					try {
+						cleanup.beanManager.invokePreDestroyMethods(managedBean, true);
+					}
+					catch (RuntimeException e) {
+						logger.error(e);
+					}
+				}
+			}
+		}
+		finally {
+			facesContext.release();
+		}
+	}
+
+	/**
+	 * Queues the specified managed-beans of an expired session for destruction. If the queue is full or has been
+	 * closed, then the managed-beans are destroyed by the calling thread.
+	 */
+	public void add(String sessionId, BeanManager beanManager, List<Object> managedBeans) {
+
+		if (!managedBeans.isEmpty()) {
+
+			Cleanup cleanup = new Cleanup(sessionId, beanManager, managedBeans);
+			boolean queued = false;
+
+			// Checking whether or not the queue is closed and offering the cleanup must be atomic with respect to
+			// close(), since otherwise the cleanup could be queued after the background thread has drained the queue.
+			closeLock.readLock().lock();
+
+			try {
+
+				if (!closed) {
+					queued = queue.offer(cleanup);
+				}
+			}
+			finally {
+				closeLock.readLock().unlock();
+			}
+
+			if (!queued) {
+
+				callerRunsCount.incrementAndGet();
+				logger.debug("Cleaning up sessionId=[{0}] synchronously since queueDepth=[{1}]", sessionId,
+					queue.size());
+
+				List<Cleanup> cleanups = new ArrayList<Cleanup>(1);
+				cleanups.add(cleanup);
+				process(cleanups);
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting expired sessions and waits for the background thread to destroy the managed-beans of the sessions
+	 * that are still queued. If the background thread does not finish in time, then it continues in the background
+	 * rather than having the calling thread process the remaining sessions at the same time.
+	 */
+	public void close() {
+
+		boolean closing = false;
+
+		closeLock.writeLock().lock();
+
+		try {
+
+			if (!closed) {
+				closed = true;
+				closing = true;
+			}
+		}
+		finally {
+			closeLock.writeLock().unlock();
+		}
+
+		if (closing) {
+
+			try {
+				workerThread.join(CLOSE_TIMEOUT);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			if (workerThread.isAlive()) {
+				logger.warn("Timed out waiting for the remaining queueDepth=[{0}] expired sessions to be cleaned up",
+					queue.size());
+			}
+
+			// Otherwise, if the background thread terminated unexpectedly then the calling thread is the only one that
+			// can clean up the remaining sessions.
+			else {
+
+				List<Cleanup> remaining = new ArrayList<Cleanup>();
+				queue.drainTo(remaining);
+
+				if (!remaining.isEmpty()) {
+					process(remaining);
+				}
+			}
+
+			logger.info("Closed {0}", this);
+		}
+	}
+
+	/**
+	 * Destroys the managed-beans of the specified batch of expired sessions.
+	 */
+	protected void destroyManagedBeans(List<Cleanup> cleanups) {
+		destroyManagedBeans(servletContext, cleanups);
+	}
+
+	protected void process(List<Cleanup> cleanups) {
+
+		try {
+			destroyManagedBeans(cleanups);
+		}
+		catch (RuntimeException e) {
+			logger.error(e);
+		}
+
+		long now = System.nanoTime();
+
+		for (Cleanup cleanup : cleanups) {
+
+			long latency = TimeUnit.NANOSECONDS.toMillis(now - cleanup.queuedTime);
+			totalLatency.addAndGet(latency);
+
+			long currentMaxLatency = maxLatency.get();
+
+			while ((latency > currentMaxLatency) && !maxLatency.compareAndSet(currentMaxLatency, latency)) {
+				currentMaxLatency = maxLatency.get();
+			}
+		}
+
+		processedCount.addAndGet(cleanups.size());
+		batchCount.incrementAndGet();
+	}
+
+	/**
+	 * Returns the average number of milliseconds between the time that an expired session was queued and the time
+	 * that its managed-beans were destroyed.
+	 */
+	public long getAverageLatency() {
+
+		long processed = processedCount.get();
+
+		if (processed == 0L) {
+			return 0L;
+		}
+		else {
+			return totalLatency.get() / processed;
+		}
+	}
+
+	public long getBatchCount() {
+		return batchCount.get();
+	}
+
+	/**
+	 * Returns the number of expired sessions that were cleaned up by the calling thread because the queue was full.
+	 */
+	public long getCallerRunsCount() {
+		return callerRunsCount.get();
+	}
+
+	public long getMaxLatency() {
+		return maxLatency.get();
+	}
+
+	public long getProcessedCount() {
+		return processedCount.get();
+	}
+
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[queueDepth=" + queue.size() + ", processedCount=" +
+			processedCount.get() + ", batchCount=" + batchCount.get() + ", callerRunsCount=" + callerRunsCount.get() +
+			", averageLatency=" + getAverageLatency() + ", maxLatency=" + maxLatency.get() + "]";
+	}
+
+	protected static final class Cleanup {
+
+		// Private Data Members
+		private BeanManager beanManager;
+		private List<Object> managedBeans;
+		private long queuedTime;
+		private String sessionId;
+
+		public Cleanup(String sessionId, BeanManager beanManager, List<Object> managedBeans) {
+			this.sessionId = sessionId;
+			this.beanManager = beanManager;
+			this.managedBeans = managedBeans;
+			this.queuedTime = System.nanoTime();
+		}
+
+		public String getSessionId() {
+			return sessionId;
+		}
+	}
+
+	protected class Worker implements Runnable {
+
+		public void run() {
+
+			// The JSF FactoryFinder locates factories according to the thread context class loader, so it must be the
+			// class loader of the web application.
+			Thread.currentThread().setContextClassLoader(classLoader);
+
+			List<Cleanup> batch = new ArrayList<Cleanup>(maxBatchSize);
+
+			// Since this thread is not interrupted when the queue is closed (so that the PreDestroy methods of
+			// managed-beans are not interrupted) the queue is polled in order to notice the closed flag. Once the queue
+			// is closed nothing more can be added to it, and the loop continues until the queue has been drained.
+			while (true) {
+
+				try {
+					Cleanup cleanup;
+
+					if (closed) {
+						cleanup = queue.poll();
+
+						if (cleanup == null) {
+							break;
+						}
+					}
+					else {
+						cleanup = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+
+						if (cleanup == null) {
+							continue;
+						}
+					}
+
+					batch.add(cleanup);
+					queue.drainTo(batch, maxBatchSize - 1);
+					logger.debug("Cleaning up batch of [{0}] expired sessions, first sessionId=[{1}]", batch.size(),
+						batch.get(0).sessionId);
+					process(batch);
+				}
+				catch (InterruptedException e) {
+					break;
+				}
+				finally {
+					batch.clear();
+				}
+			}
+		}
+	}
+}
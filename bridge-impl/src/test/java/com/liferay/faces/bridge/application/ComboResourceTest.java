@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.application;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.application.internal.ComboResourceImpl;
+import com.liferay.faces.bridge.context.FacesContextMockImpl;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ComboResourceTest {
+
+	@Test
+	public void testDigest() throws Exception {
+
+		List<String> resourceIds = Arrays.asList("javax.faces:jsf.js", "primefaces:jquery/jquery.js", "foo.js");
+		String digest = ComboResourceImpl.getDigest(resourceIds);
+
+		// The digest must be stable for the same list of resource ids.
+		Assert.assertEquals(32, digest.length());
+		Assert.assertEquals(digest,
+			ComboResourceImpl.getDigest(Arrays.asList("javax.faces:jsf.js", "primefaces:jquery/jquery.js", "foo.js")));
+
+		// The digest must reflect the order of the resource ids, since the order of the content matters.
+		Assert.assertFalse(digest.equals(
+				ComboResourceImpl.getDigest(
+					Arrays.asList("primefaces:jquery/jquery.js", "javax.faces:jsf.js", "foo.js"))));
+
+		// The digest must not be computable without the key, so that combinations that were not rendered by the bridge
+		// cannot be requested.
+		MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+
+		for (String resourceId : resourceIds) {
+			messageDigest.update(resourceId.getBytes("UTF-8"));
+			messageDigest.update((byte) ',');
+		}
+
+		Assert.assertFalse(digest.equals(new BigInteger(1, messageDigest.digest()).toString(16)));
+
+		ComboResourceImpl comboResource = new ComboResourceImpl(ComboResourceImpl.EXTENSION_CSS, resourceIds);
+		Assert.assertEquals(digest + ComboResourceImpl.EXTENSION_CSS, comboResource.getResourceName());
+		Assert.assertEquals(ComboResourceImpl.LIBRARY_NAME, comboResource.getLibraryName());
+		Assert.assertEquals("text/css", comboResource.getContentType());
+	}
+
+	@Test
+	public void testIsCombinable() {
+
+		Assert.assertTrue(ComboResourceImpl.isCombinable("primefaces:jquery/jquery.js", "jquery/jquery.js"));
+		Assert.assertFalse(ComboResourceImpl.isCombinable("javax.faces:jsf.js", "jsf.js"));
+		Assert.assertFalse(ComboResourceImpl.isCombinable("lib:a,b.js", "a,b.js"));
+		Assert.assertFalse(ComboResourceImpl.isCombinable("lib:a.js?x=y", "a.js?x=y"));
+		Assert.assertFalse(ComboResourceImpl.isCombinable(null, null));
+
+		// Resources whose contents are filtered when they are requested separately must not be combined.
+		Assert.assertFalse(ComboResourceImpl.isCombinable("org.richfaces.staticResource/4.3.7/packed/packed.js",
+				"org.richfaces.staticResource/4.3.7/packed/packed.js"));
+		Assert.assertFalse(ComboResourceImpl.isCombinable("org.richfaces:skinning.ecss", "skinning.ecss"));
+		Assert.assertFalse(ComboResourceImpl.isCombinable("liferay-faces-reslib:liferay.js", "liferay.js"));
+	}
+
+	@Test
+	public void testIsCombinableWithExtension() {
+
+		// A resource can only be requested as part of a combo resource with the same extension.
+		Assert.assertTrue(ComboResourceImpl.isCombinable("primefaces:jquery/jquery.js", "jquery/jquery.js",
+				ComboResourceImpl.EXTENSION_JS));
+		Assert.assertFalse(ComboResourceImpl.isCombinable("primefaces:jquery/jquery.js", "jquery/jquery.js",
+				ComboResourceImpl.EXTENSION_CSS));
+		Assert.assertFalse(ComboResourceImpl.isCombinable("lib:messages.properties", "messages.properties",
+				ComboResourceImpl.EXTENSION_JS));
+		Assert.assertFalse(ComboResourceImpl.isCombinable("lib:page.xhtml", "page.xhtml",
+				ComboResourceImpl.EXTENSION_CSS));
+	}
+
+	@Test
+	public void testIsExcluded() {
+
+		FacesContext facesContext = new FacesContextMockImpl();
+
+		try {
+			ExternalContext externalContext = facesContext.getExternalContext();
+			Assert.assertTrue(ComboResourceImpl.isExcluded(externalContext, "messages.properties"));
+			Assert.assertTrue(ComboResourceImpl.isExcluded(externalContext, "page.xhtml"));
+			Assert.assertFalse(ComboResourceImpl.isExcluded(externalContext, "jquery/jquery.js"));
+		}
+		finally {
+			facesContext.release();
+		}
+	}
+
+	@Test
+	public void testParseResourceIds() {
+
+		List<String> resourceIds = ComboResourceImpl.parseResourceIds("javax.faces:jsf.js,,foo.js");
+		Assert.assertEquals(Arrays.asList("javax.faces:jsf.js", "foo.js"), resourceIds);
+		Assert.assertTrue(ComboResourceImpl.parseResourceIds(null).isEmpty());
+
+		// Resource ids are URL-encoded in the request path of a combo resource.
+		resourceIds = ComboResourceImpl.parseResourceIds("lib%3Aa+b%2Bc%23d%25e%3F.js,foo.js");
+		Assert.assertEquals(Arrays.asList("lib:a b+c#d%e?.js", "foo.js"), resourceIds);
+
+		// Ids with malformed escape sequences are ignored.
+		resourceIds = ComboResourceImpl.parseResourceIds("a%zz.js,foo.js");
+		Assert.assertEquals(Arrays.asList("foo.js"), resourceIds);
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.application;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.application.internal.FilteredResourceCache;
+import com.liferay.faces.bridge.application.internal.FilteredResourceCache.FilteredResource;
+import com.liferay.faces.bridge.application.internal.FilteredResourceCache.ResourceReference;
+import com.liferay.faces.bridge.application.internal.ResourceOutputStreamRichFacesImpl;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class FilteredResourceCacheTest {
+
+	@Test
+	public void testChecksum() {
+
+		FilteredResourceCache filteredResourceCache = new FilteredResourceCache();
+		filteredResourceCache.put("org.richfaces/skinning.css|en_US", new FilteredResource(3, 1L, "abc"));
+		Assert.assertNotNull(filteredResourceCache.get("org.richfaces/skinning.css|en_US", 3, 1L));
+
+		// Contents of the same size that were changed (for example by switching the skin) must be filtered again.
+		Assert.assertNull(filteredResourceCache.get("org.richfaces/skinning.css|en_US", 3, 2L));
+		Assert.assertNull(filteredResourceCache.get("org.richfaces/skinning.css|en_US", 4, 1L));
+	}
+
+	@Test
+	public void testImageURLsAreNotCached() {
+
+		RichFacesResourceOutputStream resourceOutputStream = new RichFacesResourceOutputStream();
+		String cssText = "a{background:url(../../org.richfaces.images/foo.png)} b{background:url(../../bar.gif)}";
+		FilteredResource filteredResource = resourceOutputStream.filterRichFacesImageURLs(cssText.length(), 0L,
+				cssText);
+
+		// The URLs of the images belong to the current portlet, so they must be resolved for each request rather than
+		// being part of the cached contents.
+		Assert.assertNull(filteredResource.getBytes());
+
+		String[] texts = filteredResource.getTexts();
+		ResourceReference[] resourceReferences = filteredResource.getResourceReferences();
+		Assert.assertEquals(2, resourceReferences.length);
+		Assert.assertEquals("a{background:url(", texts[0]);
+		Assert.assertEquals(")} b{background:url(", texts[1]);
+		Assert.assertEquals(")}", texts[2]);
+		Assert.assertEquals("org.richfaces", resourceReferences[0].getLibraryName());
+		Assert.assertEquals("foo.png", resourceReferences[0].getResourceName());
+		Assert.assertEquals("org.richfaces", resourceReferences[1].getLibraryName());
+		Assert.assertEquals("bar.gif", resourceReferences[1].getResourceName());
+	}
+
+	protected static class RichFacesResourceOutputStream extends ResourceOutputStreamRichFacesImpl {
+
+		public RichFacesResourceOutputStream() {
+			super(null, 0);
+		}
+
+		@Override
+		public FilteredResource filterRichFacesImageURLs(int unfilteredSize, long unfilteredChecksum, String cssText) {
+			return super.filterRichFacesImageURLs(unfilteredSize, unfilteredChecksum, cssText);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+import javax.portlet.faces.annotation.BridgePreDestroy;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.bean.internal.BeanManager;
+import com.liferay.faces.bridge.bean.internal.BeanManagerImpl;
+import com.liferay.faces.util.config.ConfiguredManagedBean;
+import com.liferay.faces.util.config.ConfiguredManagedBeanImpl;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BeanManagerTest {
+
+	@Test
+	public void testInvokePreDestroyMethods() {
+
+		BeanManager beanManager = new BeanManagerImpl(null);
+		TestBean testBean = new TestBean();
+
+		// Invoke twice so that the second invocation uses the cached lifecycle metadata.
+		beanManager.invokePreDestroyMethods(testBean, true);
+		beanManager.invokePreDestroyMethods(testBean, true);
+		Assert.assertEquals(2, testBean.preDestroyCount);
+		Assert.assertEquals(0, testBean.bridgePreDestroyCount);
+
+		beanManager.invokePreDestroyMethods(testBean, false);
+		Assert.assertEquals(2, testBean.preDestroyCount);
+		Assert.assertEquals(1, testBean.bridgePreDestroyCount);
+
+		// Classes without lifecycle methods must be tolerated.
+		beanManager.invokePreDestroyMethods(new Object(), true);
+		beanManager.invokePreDestroyMethods(new Object(), false);
+	}
+
+	@Test
+	public void testIsManagedBean() {
+
+		List<ConfiguredManagedBean> configuredManagedBeans = new ArrayList<ConfiguredManagedBean>();
+		configuredManagedBeans.add(new ConfiguredManagedBeanImpl(TestBean.class.getName(), "testBean", "session"));
+
+		BeanManager beanManager = new BeanManagerImpl(configuredManagedBeans);
+		TestBean testBean = new TestBean();
+
+		for (int i = 0; i < 2; i++) {
+			Assert.assertTrue(beanManager.isManagedBean("testBean", testBean));
+			Assert.assertTrue(beanManager.isManagedBean("javax.portlet.p.1_WAR_portlet?testBean", testBean));
+			Assert.assertFalse(beanManager.isManagedBean("testBean", "notTheConfiguredClass"));
+			Assert.assertFalse(beanManager.isManagedBean("otherBean", testBean));
+			Assert.assertFalse(beanManager.isManagedBean(null, testBean));
+			Assert.assertFalse(beanManager.isManagedBean("testBean", null));
+		}
+	}
+
+	public static class TestBean {
+
+		// Private Data Members
+		private int bridgePreDestroyCount;
+		private int preDestroyCount;
+
+		@BridgePreDestroy
+		public void bridgePreDestroy() {
+			bridgePreDestroyCount++;
+		}
+
+		@PreDestroy
+		public void preDestroy() {
+			preDestroyCount++;
+		}
+	}
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.faces.application.Application;
+import javax.faces.application.ApplicationWrapper;
+import javax.faces.application.FacesMessage;
+import javax.faces.application.FacesMessage.Severity;
+import javax.faces.component.UINamingContainer;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.ExternalContextWrapper;
+import javax.faces.context.FacesContext;
+import javax.faces.context.Flash;
+import javax.faces.context.ResponseStream;
+import javax.faces.context.ResponseWriter;
+import javax.faces.event.PhaseId;
+import javax.faces.event.SystemEvent;
+import javax.faces.lifecycle.ClientWindow;
+import javax.faces.render.RenderKit;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class FacesContextMockImpl extends FacesContext {
+
+	// Private Data Members
+	private Application application;
+	private Map<Object, Object> attributes;
+	private ExternalContext externalContext;
+	private Map<String, List<FacesMessage>> messages;
+	private UIViewRoot viewRoot;
+
+	public FacesContextMockImpl() {
+
+		// Since there is no JSF implementation, the application only needs to ignore the system events that are
+		// published when components are added to or removed from the view, and the external context only needs to
+		// supply the request and session attributes.
+		this.application = new ApplicationWrapper() {
+
+				@Override
+				public void publishEvent(FacesContext facesContext, Class<? extends SystemEvent> systemEventClass,
+					Object source) {
+				}
+
+				@Override
+				public void publishEvent(FacesContext facesContext, Class<? extends SystemEvent> systemEventClass,
+					Class<?> sourceBaseType, Object source) {
+				}
+
+				@Override
+				public Application getWrapped() {
+					throw new UnsupportedOperationException();
+				}
+			};
+
+		this.externalContext = new ExternalContextWrapper() {
+
+				// Private Data Members
+				private ClientWindow clientWindow;
+				private Map<String, Object> requestMap = new HashMap<String, Object>();
+				private Map<String, Object> sessionMap = new HashMap<String, Object>();
+
+				@Override
+				public ClientWindow getClientWindow() {
+					return clientWindow;
+				}
+
+				@Override
+				public void setClientWindow(ClientWindow clientWindow) {
+					this.clientWindow = clientWindow;
+				}
+
+				@Override
+				public Flash getFlash() {
+					return null;
+				}
+
+				@Override
+				public String getInitParameter(String name) {
+					return null;
+				}
+
+				@Override
+				public Map<String, Object> getRequestMap() {
+					return requestMap;
+				}
+
+				@Override
+				public Map<String, String> getRequestParameterMap() {
+					return Collections.emptyMap();
+				}
+
+				@Override
+				public Object getResponse() {
+					return null;
+				}
+
+				@Override
+				public Map<String, Object> getSessionMap() {
+					return sessionMap;
+				}
+
+				@Override
+				public ExternalContext getWrapped() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		this.attributes = new HashMap<Object, Object>();
+		this.attributes.put(UINamingContainer.SEPARATOR_CHAR_PARAM_NAME, ':');
+		this.messages = new LinkedHashMap<String, List<FacesMessage>>();
+		setCurrentInstance(this);
+	}
+
+	@Override
+	public void addMessage(String clientId, FacesMessage message) {
+
+		List<FacesMessage> clientIdMessages = messages.get(clientId);
+
+		if (clientIdMessages == null) {
+			clientIdMessages = new ArrayList<FacesMessage>();
+			messages.put(clientId, clientIdMessages);
+		}
+
+		clientIdMessages.add(message);
+	}
+
+	@Override
+	public void release() {
+		setCurrentInstance(null);
+	}
+
+	@Override
+	public void renderResponse() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void responseComplete() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Application getApplication() {
+		return application;
+	}
+
+	@Override
+	public Map<Object, Object> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public Iterator<String> getClientIdsWithMessages() {
+		return messages.keySet().iterator();
+	}
+
+	@Override
+	public PhaseId getCurrentPhaseId() {
+		return PhaseId.RENDER_RESPONSE;
+	}
+
+	@Override
+	public ExternalContext getExternalContext() {
+		return externalContext;
+	}
+
+	@Override
+	public Severity getMaximumSeverity() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Iterator<FacesMessage> getMessages() {
+
+		List<FacesMessage> allMessages = new ArrayList<FacesMessage>();
+
+		for (List<FacesMessage> clientIdMessages : messages.values()) {
+			allMessages.addAll(clientIdMessages);
+		}
+
+		return allMessages.iterator();
+	}
+
+	@Override
+	public Iterator<FacesMessage> getMessages(String clientId) {
+
+		List<FacesMessage> clientIdMessages = messages.get(clientId);
+
+		if (clientIdMessages == null) {
+			clientIdMessages = Collections.emptyList();
+		}
+
+		return clientIdMessages.iterator();
+	}
+
+	@Override
+	public RenderKit getRenderKit() {
+		return null;
+	}
+
+	@Override
+	public boolean getRenderResponse() {
+		return false;
+	}
+
+	@Override
+	public boolean getResponseComplete() {
+		return false;
+	}
+
+	@Override
+	public ResponseStream getResponseStream() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setResponseStream(ResponseStream responseStream) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public ResponseWriter getResponseWriter() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setResponseWriter(ResponseWriter responseWriter) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public UIViewRoot getViewRoot() {
+		return viewRoot;
+	}
+
+	@Override
+	public void setViewRoot(UIViewRoot viewRoot) {
+		this.viewRoot = viewRoot;
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.context.internal.RenderRedirectWriterImpl;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class RenderRedirectWriterTest {
+
+	@Test
+	public void testDiscard() throws IOException {
+
+		StringWriter stringWriter = new StringWriter();
+		RenderRedirectWriterImpl renderRedirectWriter = new RenderRedirectWriterImpl(stringWriter);
+		renderRedirectWriter.write("<p>original view</p>");
+		renderRedirectWriter.discard();
+		Assert.assertEquals(0, renderRedirectWriter.getBufferedSize());
+		Assert.assertEquals(20, renderRedirectWriter.getPeakBufferedSize());
+
+		renderRedirectWriter.write("<p>redirect view</p>");
+		renderRedirectWriter.render();
+		Assert.assertEquals("<p>redirect view</p>", stringWriter.toString());
+	}
+
+	@Test
+	public void testRender() throws IOException {
+
+		StringWriter stringWriter = new StringWriter();
+		RenderRedirectWriterImpl renderRedirectWriter = new RenderRedirectWriterImpl(stringWriter);
+		StringBuilder expected = new StringBuilder();
+
+		// Write enough output to span several chunks, using each of the write methods.
+		for (int i = 0; i < 5000; i++) {
+
+			String text = "line " + i + "\n";
+
+			switch (i % 5) {
+
+			case 0:
+				renderRedirectWriter.write(text);
+
+				break;
+
+			case 1:
+				renderRedirectWriter.write(text.toCharArray());
+
+				break;
+
+			case 2:
+				renderRedirectWriter.write("xx" + text + "xx", 2, text.length());
+
+				break;
+
+			case 3:
+				renderRedirectWriter.write(("xx" + text).toCharArray(), 2, text.length());
+
+				break;
+
+			default:
+
+				for (int j = 0; j < text.length(); j++) {
+					renderRedirectWriter.write(text.charAt(j));
+				}
+			}
+
+			expected.append(text);
+		}
+
+		Assert.assertEquals(expected.length(), renderRedirectWriter.getBufferedSize());
+		Assert.assertEquals(0, stringWriter.getBuffer().length());
+
+		renderRedirectWriter.render();
+		Assert.assertEquals(expected.toString(), stringWriter.toString());
+		Assert.assertEquals(0, renderRedirectWriter.getBufferedSize());
+		Assert.assertEquals(expected.length(), renderRedirectWriter.getPeakBufferedSize());
+		Assert.assertTrue(RenderRedirectWriterImpl.getMaxPeakBufferedSize() >= expected.length());
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.context.map;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.faces.render.ResponseStateManager;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.context.map.internal.FacesRequestParameterMapImpl;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class FacesRequestParameterMapTest {
+
+	// Private Constants
+	private static final String NAMESPACE = "_1_WAR_portlet_";
+
+	@Test
+	public void testAddValue() {
+
+		FacesRequestParameterMapImpl facesRequestParameterMap = new FacesRequestParameterMapImpl(NAMESPACE, null,
+				new HashMap<String, String>(), null);
+		facesRequestParameterMap.addValue("field", "a");
+		facesRequestParameterMap.addValue(NAMESPACE + "field", "b");
+
+		Assert.assertEquals(2, facesRequestParameterMap.get("field").length);
+		Assert.assertEquals("b", facesRequestParameterMap.get(NAMESPACE + "field")[1]);
+		Assert.assertTrue(facesRequestParameterMap.containsKey("field"));
+
+		facesRequestParameterMap.remove(NAMESPACE + "field");
+		Assert.assertFalse(facesRequestParameterMap.containsKey("field"));
+		Assert.assertNull(facesRequestParameterMap.get("field"));
+	}
+
+	@Test
+	public void testNamespacedLookup() {
+
+		Map<String, String[]> parameterMap = new HashMap<String, String[]>();
+		parameterMap.put(NAMESPACE + "form:name", new String[] { "namespaced" });
+		parameterMap.put("plain", new String[] { "plain" });
+		parameterMap.put(NAMESPACE + "plain", new String[] { "shadowed" });
+
+		Map<String, String> facesViewParameterMap = new HashMap<String, String>();
+		facesViewParameterMap.put("viewParam", "1");
+
+		FacesRequestParameterMapImpl facesRequestParameterMap = new FacesRequestParameterMapImpl(parameterMap,
+				NAMESPACE, null, facesViewParameterMap, "HTML_BASIC");
+
+		Assert.assertEquals("namespaced", facesRequestParameterMap.getFirst("form:name"));
+		Assert.assertEquals("namespaced", facesRequestParameterMap.getFirst(NAMESPACE + "form:name"));
+		Assert.assertTrue(facesRequestParameterMap.containsKey("form:name"));
+
+		// The name as it appears in the request takes precedence over the un-namespaced name.
+		Assert.assertEquals("plain", facesRequestParameterMap.getFirst("plain"));
+		Assert.assertEquals("shadowed", facesRequestParameterMap.getFirst(NAMESPACE + "plain"));
+
+		Assert.assertFalse(facesRequestParameterMap.containsKey("missing"));
+		Assert.assertNull(facesRequestParameterMap.get("missing"));
+		Assert.assertFalse(facesRequestParameterMap.containsKey(ResponseStateManager.VIEW_STATE_PARAM));
+		Assert.assertTrue(facesRequestParameterMap.containsKey("viewParam"));
+		Assert.assertEquals("HTML_BASIC", facesRequestParameterMap.getFirst(ResponseStateManager.RENDER_KIT_ID_PARAM));
+		Assert.assertTrue(facesRequestParameterMap.keySet().contains(ResponseStateManager.RENDER_KIT_ID_PARAM));
+		Assert.assertTrue(facesRequestParameterMap.keySet().contains("viewParam"));
+	}
+
+	@Test
+	public void testUnindexedParameter() {
+
+		// Simulates the parameter-map of a Liferay WSRP producer portlet, in which containsKey(String) erroneously
+		// returns false (and the entries are incomplete) even though the parameter has a value.
+		Map<String, String[]> parameterMap = new HashMap<String, String[]>() {
+
+				// serialVersionUID
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public boolean containsKey(Object key) {
+					return false;
+				}
+
+				@Override
+				public String[] get(Object key) {
+
+					if ("wsrp".equals(key)) {
+						return new String[] { "value" };
+					}
+					else if ("wsrpEmpty".equals(key)) {
+						return new String[] { "" };
+					}
+					else {
+						return super.get(key);
+					}
+				}
+			};
+
+		FacesRequestParameterMapImpl facesRequestParameterMap = new FacesRequestParameterMapImpl(parameterMap,
+				NAMESPACE, null, new HashMap<String, String>(), "HTML_BASIC");
+
+		Assert.assertTrue(facesRequestParameterMap.containsKey("wsrp"));
+		Assert.assertEquals("value", facesRequestParameterMap.getFirst("wsrp"));
+		Assert.assertFalse(facesRequestParameterMap.containsKey("wsrpEmpty"));
+		Assert.assertFalse(facesRequestParameterMap.containsKey("missing"));
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.event;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.event.internal.PublicRenderParameterBinding;
+import com.liferay.faces.bridge.event.internal.PublicRenderParameterBindings;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class PublicRenderParameterBindingsTest {
+
+	@Test
+	public void testGetBindings() {
+
+		Map<String, String[]> publicParameterMappings = new HashMap<String, String[]>();
+		publicParameterMappings.put("customerId", new String[] { "#{customersModelBean.selectedCustomerId}" });
+		publicParameterMappings.put("bookingsPortlet:customerId",
+			new String[] { "#{bookingsModelBean.customerId}", "#{flightsModelBean.customerId}" });
+
+		PublicRenderParameterBindings publicRenderParameterBindings = new PublicRenderParameterBindings(
+				publicParameterMappings);
+		List<PublicRenderParameterBinding> bindings = publicRenderParameterBindings.getBindings("customersPortlet");
+
+		// The bindings must be precompiled once per portlet.
+		Assert.assertEquals(3, bindings.size());
+		Assert.assertSame(bindings, publicRenderParameterBindings.getBindings("customersPortlet"));
+
+		int forThisPortletCount = 0;
+
+		for (PublicRenderParameterBinding binding : bindings) {
+
+			Assert.assertEquals("customerId", binding.getParameterName());
+
+			if (binding.getPrefix() == null) {
+				Assert.assertTrue(binding.isForThisPortlet());
+				Assert.assertEquals("#{customersModelBean.selectedCustomerId}", binding.getModelEL());
+				forThisPortletCount++;
+			}
+			else {
+				Assert.assertEquals("bookingsPortlet", binding.getPrefix());
+				Assert.assertFalse(binding.isForThisPortlet());
+			}
+		}
+
+		Assert.assertEquals(1, forThisPortletCount);
+
+		forThisPortletCount = 0;
+
+		for (PublicRenderParameterBinding binding : publicRenderParameterBindings.getBindings("bookingsPortlet")) {
+
+			if (binding.isForThisPortlet()) {
+				forThisPortletCount++;
+			}
+		}
+
+		Assert.assertEquals(3, forThisPortletCount);
+	}
+}
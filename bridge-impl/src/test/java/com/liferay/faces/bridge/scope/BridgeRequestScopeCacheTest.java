@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeCacheImpl;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeCacheTest {
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+
+		final int threadCount = 8;
+		final int scopesPerThread = 500;
+		final BridgeRequestScopeCacheImpl bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(1000);
+		Assert.assertTrue(bridgeRequestScopeCache.getSegmentCount() > 1);
+
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		for (int i = 0; i < threadCount; i++) {
+
+			final String sessionId = "session" + i;
+
+			Thread thread = new Thread(new Runnable() {
+
+						public void run() {
+
+							try {
+								startLatch.await();
+
+								for (long j = 0; j < scopesPerThread; j++) {
+									BridgeRequestScope bridgeRequestScope = new BridgeRequestScopeMockImpl("portlet1",
+											sessionId, j);
+									put(bridgeRequestScopeCache, bridgeRequestScope);
+									bridgeRequestScopeCache.get(bridgeRequestScope.getId());
+								}
+							}
+							catch (Throwable t) {
+								failure.compareAndSet(null, t);
+							}
+							finally {
+								doneLatch.countDown();
+							}
+						}
+					});
+			thread.start();
+		}
+
+		// Release all of the threads at the same time so that they contend for the segments.
+		startLatch.countDown();
+		Assert.assertTrue(doneLatch.await(30, TimeUnit.SECONDS));
+		Assert.assertNull(failure.get());
+		Assert.assertEquals(1000, bridgeRequestScopeCache.size());
+		Assert.assertEquals((threadCount * scopesPerThread) - 1000, bridgeRequestScopeCache.getEvictionCount());
+
+		int iteratedCount = 0;
+
+		for (Map.Entry<String, BridgeRequestScope> entry : bridgeRequestScopeCache.entrySet()) {
+			Assert.assertNotNull(entry.getValue());
+			iteratedCount++;
+		}
+
+		Assert.assertEquals(1000, iteratedCount);
+
+		bridgeRequestScopeCache.removeBridgeRequestScopesByPortletName("portlet1");
+		Assert.assertTrue(bridgeRequestScopeCache.isEmpty());
+	}
+
+	@Test
+	public void testEntrySetRemove() {
+
+		BridgeRequestScopeCacheImpl bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(-1);
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet1", "session1", 1L));
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet2", "session1", 2L));
+
+		Iterator<Map.Entry<String, BridgeRequestScope>> iterator = bridgeRequestScopeCache.entrySet().iterator();
+
+		while (iterator.hasNext()) {
+
+			if (iterator.next().getKey().startsWith("portlet1")) {
+				iterator.remove();
+			}
+		}
+
+		Assert.assertEquals(1, bridgeRequestScopeCache.size());
+		Assert.assertNotNull(bridgeRequestScopeCache.get("portlet2:::session1:::2"));
+	}
+
+	@Test
+	public void testIndexedRemoval() {
+
+		BridgeRequestScopeCacheImpl bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(-1);
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet1", "session1", 1L));
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet1", "session2", 2L));
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet2", "session1", 3L));
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet2", "session2", 4L));
+
+		bridgeRequestScopeCache.removeBridgeRequestScopesBySessionId("session1");
+		Assert.assertEquals(2, bridgeRequestScopeCache.size());
+		Assert.assertNotNull(bridgeRequestScopeCache.get("portlet1:::session2:::2"));
+		Assert.assertNotNull(bridgeRequestScopeCache.get("portlet2:::session2:::4"));
+
+		bridgeRequestScopeCache.removeBridgeRequestScopesByPortletName("portlet1");
+		Assert.assertEquals(1, bridgeRequestScopeCache.size());
+		Assert.assertNotNull(bridgeRequestScopeCache.get("portlet2:::session2:::4"));
+
+		bridgeRequestScopeCache.remove("portlet2:::session2:::4");
+		bridgeRequestScopeCache.removeBridgeRequestScopesBySessionId("session2");
+		Assert.assertTrue(bridgeRequestScopeCache.isEmpty());
+	}
+
+	@Test
+	public void testMaxIdleTime() {
+
+		final AtomicLong currentTimeMillis = new AtomicLong(1000L);
+		BridgeRequestScopeCacheImpl bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(-1, 10L) {
+
+				@Override
+				protected long getCurrentTimeMillis() {
+					return currentTimeMillis.get();
+				}
+			};
+
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet1", "session1", 1L));
+		currentTimeMillis.addAndGet(10L);
+		Assert.assertNotNull(bridgeRequestScopeCache.get("portlet1:::session1:::1"));
+		currentTimeMillis.addAndGet(11L);
+		Assert.assertNull(bridgeRequestScopeCache.get("portlet1:::session1:::1"));
+		Assert.assertEquals(0, bridgeRequestScopeCache.size());
+		Assert.assertEquals(1L, bridgeRequestScopeCache.getEvictionCount());
+		Assert.assertEquals(1L, bridgeRequestScopeCache.getMissCount());
+	}
+
+	@Test
+	public void testMaxSize() {
+
+		BridgeRequestScopeCacheImpl bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(2);
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet1", "session1", 1L));
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet1", "session1", 2L));
+
+		// Accessing the first scope makes the second scope the least-recently-used.
+		Assert.assertNotNull(bridgeRequestScopeCache.get("portlet1:::session1:::1"));
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet1", "session1", 3L));
+
+		Assert.assertEquals(2, bridgeRequestScopeCache.size());
+		Assert.assertNotNull(bridgeRequestScopeCache.get("portlet1:::session1:::1"));
+		Assert.assertNull(bridgeRequestScopeCache.get("portlet1:::session1:::2"));
+		Assert.assertNotNull(bridgeRequestScopeCache.get("portlet1:::session1:::3"));
+		Assert.assertEquals(1L, bridgeRequestScopeCache.getEvictionCount());
+		Assert.assertEquals(3L, bridgeRequestScopeCache.getHitCount());
+		Assert.assertEquals(1L, bridgeRequestScopeCache.getMissCount());
+	}
+
+	@Test
+	public void testMaxSizeAcrossSegments() {
+
+		final AtomicLong currentTimeMillis = new AtomicLong(1000L);
+		BridgeRequestScopeCacheImpl bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(100) {
+
+				@Override
+				protected long getCurrentTimeMillis() {
+					return currentTimeMillis.incrementAndGet();
+				}
+			};
+
+		Assert.assertTrue(bridgeRequestScopeCache.getSegmentCount() > 1);
+
+		for (long i = 1; i <= 100; i++) {
+			put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet1", "session1", i));
+		}
+
+		// The maximum size is not divided among the segments, so none of the entries are evicted until the cache as a
+		// whole is full.
+		Assert.assertEquals(100, bridgeRequestScopeCache.size());
+		Assert.assertEquals(0L, bridgeRequestScopeCache.getEvictionCount());
+
+		put(bridgeRequestScopeCache, new BridgeRequestScopeMockImpl("portlet1", "session1", 101L));
+		Assert.assertEquals(100, bridgeRequestScopeCache.size());
+		Assert.assertEquals(1L, bridgeRequestScopeCache.getEvictionCount());
+		Assert.assertFalse(bridgeRequestScopeCache.containsKey("portlet1:::session1:::1"));
+		Assert.assertTrue(bridgeRequestScopeCache.containsKey("portlet1:::session1:::101"));
+	}
+
+	protected void put(BridgeRequestScopeCache bridgeRequestScopeCache, BridgeRequestScope bridgeRequestScope) {
+		bridgeRequestScopeCache.put(bridgeRequestScope.getId(), bridgeRequestScope);
+	}
+}
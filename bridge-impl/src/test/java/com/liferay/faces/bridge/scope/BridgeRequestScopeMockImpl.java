@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+import javax.faces.context.FacesContext;
+import javax.portlet.PortletMode;
+import javax.portlet.RenderRequest;
+import javax.portlet.faces.Bridge;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeMockImpl implements BridgeRequestScope, Serializable {
+
+	// serialVersionUID
+	private static final long serialVersionUID = 3710645927843119263L;
+
+	// Private Data Members
+	private long dateCreated;
+	private String idPrefix;
+
+	public BridgeRequestScopeMockImpl(String portletName, String sessionId, long dateCreated) {
+		this.idPrefix = portletName + ":::" + sessionId + ":::";
+		this.dateCreated = dateCreated;
+	}
+
+	public void removeExcludedAttributes(RenderRequest renderRequest) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void restoreState(FacesContext facesContext) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void saveState(FacesContext facesContext) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Bridge.PortletPhase getBeganInPhase() {
+		return Bridge.PortletPhase.ACTION_PHASE;
+	}
+
+	public long getDateCreated() {
+		return dateCreated;
+	}
+
+	public boolean isFacesLifecycleExecuted() {
+		return false;
+	}
+
+	public void setFacesLifecycleExecuted(boolean facesLifecycleExecuted) {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getId() {
+		return idPrefix + Long.toString(dateCreated);
+	}
+
+	public void setIdPrefix(String idPrefix) {
+		this.idPrefix = idPrefix;
+	}
+
+	public boolean isNavigationOccurred() {
+		return false;
+	}
+
+	public void setNavigationOccurred(boolean navigationOccurred) {
+		throw new UnsupportedOperationException();
+	}
+
+	public PortletMode getPortletMode() {
+		return PortletMode.VIEW;
+	}
+
+	public void setPortletMode(PortletMode portletMode) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isPortletModeChanged() {
+		return false;
+	}
+
+	public void setPortletModeChanged(boolean portletModeChanged) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Map<String, String> getPreservedActionParameterMap() {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getPreservedViewStateParam() {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isRedirectOccurred() {
+		return false;
+	}
+
+	public void setRedirectOccurred(boolean redirectOccurred) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Set<String> getRemovedAttributeNames() {
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeCacheImpl;
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeCacheReplicatedImpl;
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeReplicator;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeReplicationTest {
+
+	@Test
+	public void testAsyncReplication() throws Exception {
+
+		int port1 = getFreePort();
+		int port2 = getFreePort();
+		BridgeRequestScopeCacheReplicatedImpl cache1 = newReplicatedCache(port1, port2,
+				BridgeRequestScopeReplicator.Consistency.ASYNC);
+		BridgeRequestScopeCacheReplicatedImpl cache2 = newReplicatedCache(port2, port1,
+				BridgeRequestScopeReplicator.Consistency.ASYNC);
+
+		try {
+
+			for (int i = 0; i < 100; i++) {
+				put(cache1, new BridgeRequestScopeMockImpl("portlet1", "session1", i));
+			}
+
+			waitForSize(cache2, 100);
+			Assert.assertEquals(100, cache2.size());
+			Assert.assertEquals(100, cache1.getBridgeRequestScopeReplicator().getPutCount());
+			Assert.assertEquals(100, cache2.getBridgeRequestScopeReplicator().getReceivedCount());
+
+			// Changes are batched, so there should be fewer batches than changes.
+			Assert.assertTrue(cache1.getBridgeRequestScopeReplicator().getBatchCount() < 100);
+
+			cache2.removeBridgeRequestScopesByPortletName("portlet1");
+			waitForSize(cache1, 0);
+			Assert.assertEquals(0, cache1.size());
+		}
+		finally {
+			cache1.close();
+			cache2.close();
+		}
+	}
+
+	@Test
+	public void testDisallowedClass() throws Exception {
+
+		int port1 = getFreePort();
+		int port2 = getFreePort();
+		BridgeRequestScopeCacheReplicatedImpl cache1 = newReplicatedCache(port1, port2,
+				newConfiguration(port1, port2, BridgeRequestScopeReplicator.Consistency.SYNC));
+
+		// The peer does not allow the class of the scope to be deserialized.
+		BridgeRequestScopeReplicator.Configuration configuration = newConfiguration(port2, port1,
+				BridgeRequestScopeReplicator.Consistency.SYNC);
+		configuration.getAllowedClassNamePrefixes().remove("com.liferay.faces.");
+
+		BridgeRequestScopeCacheReplicatedImpl cache2 = newReplicatedCache(port2, port1, configuration);
+
+		try {
+			put(cache1, new BridgeRequestScopeMockImpl("portlet1", "session1", 1L));
+			Assert.assertEquals(0, cache2.size());
+			Assert.assertEquals(0, cache2.getBridgeRequestScopeReplicator().getReceivedCount());
+
+			// The connection must remain usable for the changes that can be applied.
+			Assert.assertTrue(cache1.getBridgeRequestScopeReplicator().replicateRemove("portlet1:::session1:::1"));
+			Assert.assertEquals(1, cache2.getBridgeRequestScopeReplicator().getReceivedCount());
+		}
+		finally {
+			cache1.close();
+			cache2.close();
+		}
+	}
+
+	@Test
+	public void testInvalidSharedSecret() throws Exception {
+
+		int port1 = getFreePort();
+		int port2 = getFreePort();
+		BridgeRequestScopeCacheReplicatedImpl cache1 = newReplicatedCache(port1, port2,
+				newConfiguration(port1, port2, BridgeRequestScopeReplicator.Consistency.SYNC));
+
+		BridgeRequestScopeReplicator.Configuration configuration = newConfiguration(port2, port1,
+				BridgeRequestScopeReplicator.Consistency.SYNC);
+		configuration.setSharedSecret("wrong".getBytes("UTF-8"));
+
+		BridgeRequestScopeCacheReplicatedImpl cache2 = newReplicatedCache(port2, port1, configuration);
+
+		try {
+
+			// Frames that are not signed with the shared secret of the peer must be rejected without being applied,
+			// and the failure must be reported in SYNC mode.
+			BridgeRequestScopeReplicator bridgeRequestScopeReplicator = cache1.getBridgeRequestScopeReplicator();
+			Assert.assertFalse(bridgeRequestScopeReplicator.replicatePut("portlet1:::session1:::1",
+					new BridgeRequestScopeMockImpl("portlet1", "session1", 1L)));
+			Assert.assertEquals(0, cache2.size());
+			Assert.assertEquals(1, cache2.getBridgeRequestScopeReplicator().getRejectedCount());
+			Assert.assertEquals(1, bridgeRequestScopeReplicator.getSendFailureCount());
+		}
+		finally {
+			cache1.close();
+			cache2.close();
+		}
+	}
+
+	@Test
+	public void testMaxFrameSize() throws Exception {
+
+		int port1 = getFreePort();
+		int port2 = getFreePort();
+		BridgeRequestScopeReplicator.Configuration configuration = newConfiguration(port1, port2,
+				BridgeRequestScopeReplicator.Consistency.SYNC);
+		configuration.setMaxFrameSize(64);
+
+		BridgeRequestScopeCacheReplicatedImpl cache1 = newReplicatedCache(port1, port2, configuration);
+		BridgeRequestScopeCacheReplicatedImpl cache2 = newReplicatedCache(port2, port1,
+				newConfiguration(port2, port1, BridgeRequestScopeReplicator.Consistency.SYNC));
+
+		try {
+
+			// A scope that does not fit in a frame is not sent, but smaller changes still are.
+			BridgeRequestScopeReplicator bridgeRequestScopeReplicator = cache1.getBridgeRequestScopeReplicator();
+			Assert.assertFalse(bridgeRequestScopeReplicator.replicatePut("portlet1:::session1:::1",
+					new BridgeRequestScopeMockImpl("portlet1", "session1", 1L)));
+			Assert.assertEquals(1, bridgeRequestScopeReplicator.getSerializationFailureCount());
+			Assert.assertTrue(bridgeRequestScopeReplicator.replicateRemove("portlet1:::session1:::1"));
+			Assert.assertEquals(1, cache2.getBridgeRequestScopeReplicator().getReceivedCount());
+		}
+		finally {
+			cache1.close();
+			cache2.close();
+		}
+	}
+
+	@Test
+	public void testSyncReplication() throws Exception {
+
+		int port1 = getFreePort();
+		int port2 = getFreePort();
+		BridgeRequestScopeCacheReplicatedImpl cache1 = newReplicatedCache(port1, port2,
+				BridgeRequestScopeReplicator.Consistency.SYNC);
+		BridgeRequestScopeCacheReplicatedImpl cache2 = newReplicatedCache(port2, port1,
+				BridgeRequestScopeReplicator.Consistency.SYNC);
+
+		try {
+			put(cache1, new BridgeRequestScopeMockImpl("portlet1", "session1", 1L));
+			put(cache1, new BridgeRequestScopeMockImpl("portlet1", "session2", 2L));
+
+			// In SYNC mode the changes are visible on the peer as soon as put returns.
+			BridgeRequestScope bridgeRequestScope = cache2.get("portlet1:::session1:::1");
+			Assert.assertNotNull(bridgeRequestScope);
+			Assert.assertEquals(1L, bridgeRequestScope.getDateCreated());
+			Assert.assertEquals(2, cache2.size());
+
+			cache2.removeBridgeRequestScopesBySessionId("session1");
+			Assert.assertEquals(1, cache1.size());
+
+			cache2.remove("portlet1:::session2:::2");
+			Assert.assertEquals(0, cache1.size());
+			Assert.assertEquals(0, cache1.getBridgeRequestScopeReplicator().getSendFailureCount());
+			Assert.assertTrue(cache1.getBridgeRequestScopeReplicator().getBytesSentCount() > 0);
+		}
+		finally {
+			cache1.close();
+			cache2.close();
+		}
+	}
+
+	@Test
+	public void testUnreachablePeer() throws Exception {
+
+		BridgeRequestScopeCacheReplicatedImpl cache = newReplicatedCache(getFreePort(), getFreePort(),
+				BridgeRequestScopeReplicator.Consistency.SYNC);
+
+		try {
+
+			// The local cache must remain usable when the peer is down.
+			put(cache, new BridgeRequestScopeMockImpl("portlet1", "session1", 1L));
+			Assert.assertEquals(1, cache.size());
+			Assert.assertEquals(1, cache.getBridgeRequestScopeReplicator().getSendFailureCount());
+
+			// Once the peer has been marked down, the failure must be reported without waiting to connect to it.
+			long startTime = System.currentTimeMillis();
+			Assert.assertFalse(cache.getBridgeRequestScopeReplicator().replicateRemove("portlet1:::session1:::1"));
+			Assert.assertTrue((System.currentTimeMillis() - startTime) < 500L);
+			Assert.assertEquals(2, cache.getBridgeRequestScopeReplicator().getSendFailureCount());
+		}
+		finally {
+			cache.close();
+		}
+	}
+
+	protected int getFreePort() throws IOException {
+
+		ServerSocket serverSocket = new ServerSocket(0);
+
+		try {
+			return serverSocket.getLocalPort();
+		}
+		finally {
+			serverSocket.close();
+		}
+	}
+
+	protected BridgeRequestScopeReplicator.Configuration newConfiguration(int port, int peerPort,
+		BridgeRequestScopeReplicator.Consistency consistency) throws IOException {
+
+		BridgeRequestScopeReplicator.Configuration configuration = new BridgeRequestScopeReplicator.Configuration();
+		configuration.setBindAddress(new InetSocketAddress("127.0.0.1", port));
+		configuration.getPeerAddresses().add(new InetSocketAddress("127.0.0.1", peerPort));
+		configuration.setSharedSecret("secret".getBytes("UTF-8"));
+		configuration.setConsistency(consistency);
+
+		return configuration;
+	}
+
+	protected BridgeRequestScopeCacheReplicatedImpl newReplicatedCache(int port, int peerPort,
+		BridgeRequestScopeReplicator.Consistency consistency) throws IOException {
+		return newReplicatedCache(port, peerPort, newConfiguration(port, peerPort, consistency));
+	}
+
+	protected BridgeRequestScopeCacheReplicatedImpl newReplicatedCache(int port, int peerPort,
+		BridgeRequestScopeReplicator.Configuration configuration) throws IOException {
+
+		BridgeRequestScopeCacheImpl bridgeRequestScopeCache = new BridgeRequestScopeCacheImpl(-1);
+		BridgeRequestScopeReplicator bridgeRequestScopeReplicator = new BridgeRequestScopeReplicator(
+				bridgeRequestScopeCache, configuration);
+
+		return new BridgeRequestScopeCacheReplicatedImpl(bridgeRequestScopeCache, bridgeRequestScopeReplicator);
+	}
+
+	protected void put(BridgeRequestScopeCache bridgeRequestScopeCache, BridgeRequestScope bridgeRequestScope) {
+		bridgeRequestScopeCache.put(bridgeRequestScope.getId(), bridgeRequestScope);
+	}
+
+	protected void waitForSize(BridgeRequestScopeCache bridgeRequestScopeCache, int size)
+		throws InterruptedException {
+
+		for (int i = 0; (i < 500) && (bridgeRequestScopeCache.size() != size); i++) {
+			Thread.sleep(10L);
+		}
+	}
+}
@@ -0,0 +1,351 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.faces.application.FacesMessage;
+import javax.faces.component.UIOutput;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.portlet.PortletContext;
+import javax.portlet.PortletMode;
+import javax.portlet.PortletRequest;
+import javax.portlet.PortletSession;
+import javax.portlet.faces.Bridge;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.liferay.faces.bridge.config.BridgeConfig;
+import com.liferay.faces.bridge.config.BridgeConfigMockImpl;
+import com.liferay.faces.bridge.config.PortletConfigMockImpl;
+import com.liferay.faces.bridge.context.BridgeContext;
+import com.liferay.faces.bridge.context.BridgeContextMockImpl;
+import com.liferay.faces.bridge.context.FacesContextMockImpl;
+import com.liferay.faces.bridge.context.IncongruityContext;
+import com.liferay.faces.bridge.context.internal.IncongruityContextImpl;
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeImpl;
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeStateStoreOffHeapImpl;
+import com.liferay.faces.portlet.PortletContextMockImpl;
+import com.liferay.faces.portlet.PortletRequestMockImpl;
+import com.liferay.faces.portlet.PortletSessionMockImpl;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeStateRoundTripTest {
+
+	// Private Constants
+	private static final String FACES_MESSAGES = "com.liferay.faces.bridge.faces.messages";
+	private static final String FACES_VIEW_ROOT = "com.liferay.faces.bridge.faces.view.root";
+
+	@After
+	public void tearDown() {
+
+		BridgeContext.setCurrentInstance(null);
+
+		FacesContext facesContext = FacesContext.getCurrentInstance();
+
+		if (facesContext != null) {
+			facesContext.release();
+		}
+	}
+
+	@Test
+	public void testKeepStateOnHeap() {
+
+		PortletContext portletContext = newPortletContext();
+		BridgeRequestScopeImpl bridgeRequestScope = newBridgeRequestScope(portletContext);
+
+		// Save serializable state in the ACTION_PHASE so that it is moved into the state store.
+		FacesContext facesContext = newFacesContext(Bridge.PortletPhase.ACTION_PHASE);
+		facesContext.addMessage(null, new FacesMessage("first"));
+		bridgeRequestScope.saveState(facesContext);
+		facesContext.release();
+
+		// Save state that is not serializable in the EVENT_PHASE so that it is kept on the heap.
+		facesContext = newFacesContext(Bridge.PortletPhase.EVENT_PHASE);
+		facesContext.addMessage(null, new FacesMessage("second"));
+		facesContext.getExternalContext().getRequestMap().put("notSerializable", new Object());
+		bridgeRequestScope.saveState(facesContext);
+		facesContext.release();
+
+		// The state that was kept on the heap (including the more recently saved messages) must survive repeated render
+		// requests.
+		for (int i = 0; i < 2; i++) {
+
+			facesContext = newFacesContext(Bridge.PortletPhase.RENDER_PHASE);
+			bridgeRequestScope.restoreState(facesContext);
+			assertMessages(facesContext, "second");
+			Assert.assertNotNull(facesContext.getExternalContext().getRequestMap().get("notSerializable"));
+			Assert.assertEquals("/views/test.xhtml", facesContext.getViewRoot().getViewId());
+			facesContext.release();
+		}
+	}
+
+	@Test
+	public void testReplicationSnapshot() throws Exception {
+
+		BridgeRequestScopeImpl bridgeRequestScope = newBridgeRequestScope(new PortletContextMockImpl());
+
+		FacesContext facesContext = newFacesContext(Bridge.PortletPhase.ACTION_PHASE);
+		facesContext.addMessage(null, new FacesMessage("summary"));
+		bridgeRequestScope.saveState(facesContext);
+		bridgeRequestScope.getManagedBeanMap().put("bean1", "value1");
+		facesContext.release();
+
+		// The snapshot must not be affected by changes that the request thread makes to the scope after the snapshot
+		// was taken, and must not hold on to the live view root.
+		BridgeRequestScopeImpl snapshot = bridgeRequestScope.getReplicationSnapshot();
+		bridgeRequestScope.getManagedBeanMap().put("bean2", "value2");
+		bridgeRequestScope.setAttribute("attribute1", "value1");
+
+		Assert.assertNotNull(bridgeRequestScope.getAttribute(FACES_VIEW_ROOT));
+		Assert.assertNull(snapshot.getAttribute(FACES_VIEW_ROOT));
+		Assert.assertNull(snapshot.getAttribute("attribute1"));
+		Assert.assertEquals("value1", snapshot.getManagedBeanMap().get("bean1"));
+		Assert.assertFalse(snapshot.getManagedBeanMap().containsKey("bean2"));
+		Assert.assertEquals(bridgeRequestScope.getId(), snapshot.getId());
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+		objectOutputStream.writeObject(snapshot);
+		objectOutputStream.close();
+
+		ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(
+					byteArrayOutputStream.toByteArray()));
+		BridgeRequestScopeImpl replicatedBridgeRequestScope = (BridgeRequestScopeImpl) objectInputStream.readObject();
+		objectInputStream.close();
+
+		facesContext = newFacesContext(Bridge.PortletPhase.RENDER_PHASE);
+		replicatedBridgeRequestScope.restoreState(facesContext);
+		assertMessages(facesContext, "summary");
+		facesContext.release();
+	}
+
+	@Test
+	public void testRoundTrip() {
+
+		PortletContext portletContext = newPortletContext();
+		BridgeRequestScopeImpl bridgeRequestScope = newBridgeRequestScope(portletContext);
+
+		FacesContext facesContext = newFacesContext(Bridge.PortletPhase.ACTION_PHASE);
+		facesContext.addMessage("form:field", new FacesMessage(FacesMessage.SEVERITY_ERROR, "summary", "detail"));
+		facesContext.getExternalContext().getRequestMap().put("greeting", "hello");
+		bridgeRequestScope.saveState(facesContext);
+
+		UIViewRoot savedViewRoot = facesContext.getViewRoot();
+		facesContext.release();
+
+		// The saved state must be restorable on every render request, and must not be kept on the heap in between.
+		// The view root is the exception, since it can only be saved by the StateManager and is therefore kept as a
+		// live (and unmodified) object.
+		for (int i = 0; i < 2; i++) {
+
+			Assert.assertNull(bridgeRequestScope.getAttribute(FACES_MESSAGES));
+			Assert.assertSame(savedViewRoot, bridgeRequestScope.getAttribute(FACES_VIEW_ROOT));
+
+			facesContext = newFacesContext(Bridge.PortletPhase.RENDER_PHASE);
+			bridgeRequestScope.restoreState(facesContext);
+
+			UIViewRoot uiViewRoot = facesContext.getViewRoot();
+			Assert.assertSame(savedViewRoot, uiViewRoot);
+			Assert.assertEquals(1, uiViewRoot.getChildCount());
+			Assert.assertEquals("value", ((UIOutput) uiViewRoot.getChildren().get(0)).getValue());
+
+			Iterator<FacesMessage> facesMessages = facesContext.getMessages("form:field");
+			FacesMessage facesMessage = facesMessages.next();
+			Assert.assertEquals(FacesMessage.SEVERITY_ERROR, facesMessage.getSeverity());
+			Assert.assertEquals("summary", facesMessage.getSummary());
+			Assert.assertEquals("detail", facesMessage.getDetail());
+			Assert.assertFalse(facesMessages.hasNext());
+
+			Assert.assertEquals("hello", facesContext.getExternalContext().getRequestMap().get("greeting"));
+			facesContext.release();
+		}
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+
+		// The live view root is kept in the scope but is not replicated, so the view must be restored by the Faces
+		// lifecycle on the other node.
+		BridgeRequestScopeImpl bridgeRequestScope = newBridgeRequestScope(new PortletContextMockImpl());
+
+		FacesContext facesContext = newFacesContext(Bridge.PortletPhase.ACTION_PHASE);
+		facesContext.addMessage(null, new FacesMessage("summary"));
+		bridgeRequestScope.saveState(facesContext);
+		bridgeRequestScope.setFacesLifecycleExecuted(true);
+		bridgeRequestScope.getManagedBeanMap().put("serializableBean", new ArrayList<String>(Arrays.asList("value")));
+		bridgeRequestScope.getManagedBeanMap().put("notSerializableBean", new Object());
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+		objectOutputStream.writeObject(bridgeRequestScope);
+		objectOutputStream.close();
+		facesContext.release();
+
+		ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(
+					byteArrayOutputStream.toByteArray()));
+		BridgeRequestScopeImpl replicatedBridgeRequestScope = (BridgeRequestScopeImpl) objectInputStream.readObject();
+		objectInputStream.close();
+
+		Assert.assertEquals(bridgeRequestScope.getId(), replicatedBridgeRequestScope.getId());
+		Assert.assertEquals(Arrays.asList("value"), replicatedBridgeRequestScope.getManagedBeanMap().get(
+				"serializableBean"));
+		Assert.assertFalse(replicatedBridgeRequestScope.getManagedBeanMap().containsKey("notSerializableBean"));
+
+		facesContext = newFacesContext(Bridge.PortletPhase.RENDER_PHASE);
+		replicatedBridgeRequestScope.restoreState(facesContext);
+
+		Assert.assertNull(facesContext.getViewRoot());
+		Assert.assertFalse(replicatedBridgeRequestScope.isFacesLifecycleExecuted());
+		assertMessages(facesContext, "summary");
+		facesContext.release();
+	}
+
+	protected void assertMessages(FacesContext facesContext, String... summaries) {
+
+		Iterator<FacesMessage> facesMessages = facesContext.getMessages();
+
+		for (String summary : summaries) {
+			Assert.assertEquals(summary, facesMessages.next().getSummary());
+		}
+
+		Assert.assertFalse(facesMessages.hasNext());
+	}
+
+	protected BridgeRequestScopeImpl newBridgeRequestScope(final PortletContext portletContext) {
+
+		PortletConfigMockImpl portletConfig = new PortletConfigMockImpl() {
+
+				@Override
+				public PortletContext getPortletContext() {
+					return portletContext;
+				}
+
+				@Override
+				public String getPortletName() {
+					return "portlet1";
+				}
+			};
+
+		BridgeConfig bridgeConfig = new BridgeConfigMockImpl() {
+
+				@Override
+				public Set<String> getExcludedRequestAttributes() {
+					return null;
+				}
+			};
+
+		return new BridgeRequestScopeImpl(newPortletRequest(Bridge.PortletPhase.ACTION_PHASE), portletConfig,
+				bridgeConfig);
+	}
+
+	protected FacesContext newFacesContext(final Bridge.PortletPhase portletPhase) {
+
+		BridgeContext bridgeContext = new BridgeContextMockImpl(null, newPortletRequest(portletPhase), null) {
+
+				// Private Data Members
+				private IncongruityContext incongruityContext = new IncongruityContextImpl();
+
+				@Override
+				public IncongruityContext getIncongruityContext() {
+					return incongruityContext;
+				}
+
+				@Override
+				public Bridge.PortletPhase getPortletRequestPhase() {
+					return portletPhase;
+				}
+
+				@Override
+				public boolean isPreserveActionParams() {
+					return false;
+				}
+			};
+
+		BridgeContext.setCurrentInstance(bridgeContext);
+
+		FacesContext facesContext = new FacesContextMockImpl();
+
+		if (portletPhase != Bridge.PortletPhase.RENDER_PHASE) {
+
+			UIViewRoot uiViewRoot = new UIViewRoot();
+			uiViewRoot.setViewId("/views/test.xhtml");
+
+			UIOutput uiOutput = new UIOutput();
+			uiOutput.setId("output");
+			uiOutput.setRendererType(null);
+			uiOutput.setValue("value");
+			uiViewRoot.getChildren().add(uiOutput);
+			facesContext.setViewRoot(uiViewRoot);
+		}
+
+		return facesContext;
+	}
+
+	protected PortletContext newPortletContext() {
+
+		PortletContext portletContext = new PortletContextMockImpl();
+		portletContext.setAttribute(BridgeRequestScopeStateStore.class.getName(),
+			new BridgeRequestScopeStateStoreOffHeapImpl());
+
+		return portletContext;
+	}
+
+	protected PortletRequest newPortletRequest(final Bridge.PortletPhase portletPhase) {
+
+		return new PortletRequestMockImpl("/test") {
+
+				@Override
+				public Object getAttribute(String name) {
+
+					if (Bridge.PORTLET_LIFECYCLE_PHASE.equals(name)) {
+						return portletPhase;
+					}
+
+					return null;
+				}
+
+				@Override
+				public Enumeration<String> getAttributeNames() {
+					return Collections.enumeration(Collections.<String>emptyList());
+				}
+
+				@Override
+				public PortletMode getPortletMode() {
+					return PortletMode.VIEW;
+				}
+
+				@Override
+				public PortletSession getPortletSession() {
+					return new PortletSessionMockImpl("session1");
+				}
+			};
+	}
+}
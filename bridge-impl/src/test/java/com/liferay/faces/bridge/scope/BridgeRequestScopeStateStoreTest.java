@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.scope;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeStateStoreHeapImpl;
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeStateStoreMappedFileImpl;
+import com.liferay.faces.bridge.scope.internal.BridgeRequestScopeStateStoreOffHeapImpl;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BridgeRequestScopeStateStoreTest {
+
+	@Test
+	public void testHeap() throws IOException {
+		testStateStore(new BridgeRequestScopeStateStoreHeapImpl());
+	}
+
+	@Test
+	public void testMappedFile() throws IOException {
+		testStateStore(new BridgeRequestScopeStateStoreMappedFileImpl(new File(System.getProperty("java.io.tmpdir"))));
+	}
+
+	@Test
+	public void testMappedFileCleanup() throws IOException {
+
+		File directory = File.createTempFile("mappedFileCleanup", "");
+		Assert.assertTrue(directory.delete());
+		Assert.assertTrue(directory.mkdir());
+
+		try {
+
+			// Files that were left over from a previous run (for example on an operating system that does not
+			// permit a mapped file to be deleted) must be deleted when the state store is created.
+			File leftOverFile = new File(directory, "bridgeRequestScope_1.state");
+			Assert.assertTrue(leftOverFile.createNewFile());
+
+			BridgeRequestScopeStateStore stateStore = new BridgeRequestScopeStateStoreMappedFileImpl(directory);
+			Assert.assertFalse(leftOverFile.exists());
+			testStateStore(stateStore);
+		}
+		finally {
+
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testOffHeap() throws IOException {
+		testStateStore(new BridgeRequestScopeStateStoreOffHeapImpl());
+	}
+
+	protected void testStateStore(BridgeRequestScopeStateStore stateStore) throws IOException {
+
+		byte[] state = new byte[10000];
+
+		for (int i = 0; i < state.length; i++) {
+			state[i] = (byte) i;
+		}
+
+		Object handle = stateStore.store(state.clone());
+
+		// The state must be loadable more than once, since a bridge request scope is restored on every render request.
+		Assert.assertTrue(Arrays.equals(state, stateStore.load(handle)));
+		Assert.assertTrue(Arrays.equals(state, stateStore.load(handle)));
+
+		Object emptyHandle = stateStore.store(new byte[0]);
+		Assert.assertEquals(0, stateStore.load(emptyHandle).length);
+	}
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.bridge.servlet;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.liferay.faces.bridge.servlet.internal.SessionCleanupQueue;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class SessionCleanupQueueTest {
+
+	// Private Constants
+	private static final long TIMEOUT = 5000L;
+
+	// Private Data Members
+	private SessionCleanupQueueTestImpl sessionCleanupQueue;
+
+	@After
+	public void tearDown() {
+
+		if (sessionCleanupQueue != null) {
+			sessionCleanupQueue.unblock();
+			sessionCleanupQueue.close();
+		}
+	}
+
+	@Test
+	public void testBatching() throws InterruptedException {
+
+		sessionCleanupQueue = new SessionCleanupQueueTestImpl(10, 3);
+
+		// Block the background thread on the first session so that the others accumulate in the queue.
+		add("session1");
+		Assert.assertTrue(sessionCleanupQueue.awaitBlocked());
+
+		for (int i = 2; i <= 6; i++) {
+			add("session" + i);
+		}
+
+		Assert.assertEquals(5, sessionCleanupQueue.getQueueDepth());
+		sessionCleanupQueue.unblock();
+		sessionCleanupQueue.awaitProcessed(6);
+
+		// The queued sessions are cleaned up in batches of at most maxBatchSize sessions.
+		List<List<String>> batches = sessionCleanupQueue.getBatches();
+		Assert.assertEquals(3, batches.size());
+		Assert.assertEquals(1, batches.get(0).size());
+		Assert.assertEquals(3, batches.get(1).size());
+		Assert.assertEquals(2, batches.get(2).size());
+		Assert.assertEquals(3L, sessionCleanupQueue.getBatchCount());
+		Assert.assertEquals(0L, sessionCleanupQueue.getCallerRunsCount());
+	}
+
+	@Test
+	public void testCallerRuns() throws InterruptedException {
+
+		sessionCleanupQueue = new SessionCleanupQueueTestImpl(2, 10);
+		add("session1");
+		Assert.assertTrue(sessionCleanupQueue.awaitBlocked());
+		add("session2");
+		add("session3");
+
+		// Since the queue is full, the calling thread cleans up the session itself.
+		add("session4");
+		Assert.assertEquals(1L, sessionCleanupQueue.getCallerRunsCount());
+		Assert.assertEquals(Thread.currentThread().getName(), sessionCleanupQueue.getThreadName("session4"));
+		Assert.assertEquals(2, sessionCleanupQueue.getQueueDepth());
+
+		sessionCleanupQueue.unblock();
+		sessionCleanupQueue.awaitProcessed(4);
+		Assert.assertFalse(Thread.currentThread().getName().equals(sessionCleanupQueue.getThreadName("session2")));
+	}
+
+	@Test
+	public void testDrainOnClose() throws InterruptedException {
+
+		sessionCleanupQueue = new SessionCleanupQueueTestImpl(10, 10);
+		add("session1");
+		Assert.assertTrue(sessionCleanupQueue.awaitBlocked());
+		add("session2");
+		add("session3");
+
+		// Unblock the background thread while close() is waiting for it to drain the queue.
+		new Thread() {
+
+				@Override
+				public void run() {
+
+					try {
+						Thread.sleep(100L);
+					}
+					catch (InterruptedException e) {
+						// ignore
+					}
+
+					sessionCleanupQueue.unblock();
+				}
+			}.start();
+
+		sessionCleanupQueue.close();
+		Assert.assertEquals(3L, sessionCleanupQueue.getProcessedCount());
+		Assert.assertEquals(0, sessionCleanupQueue.getQueueDepth());
+		Assert.assertEquals(0L, sessionCleanupQueue.getCallerRunsCount());
+
+		// The remaining sessions are cleaned up by the background thread rather than by the thread that closed the
+		// queue.
+		Assert.assertFalse(Thread.currentThread().getName().equals(sessionCleanupQueue.getThreadName("session3")));
+
+		// Once closed, sessions are cleaned up by the calling thread.
+		add("session4");
+		Assert.assertEquals(1L, sessionCleanupQueue.getCallerRunsCount());
+		Assert.assertEquals(4L, sessionCleanupQueue.getProcessedCount());
+	}
+
+	private void add(String sessionId) {
+		sessionCleanupQueue.add(sessionId, null, Collections.<Object>singletonList(sessionId));
+	}
+
+	private static ServletContext newServletContext() {
+
+		return (ServletContext) Proxy.newProxyInstance(SessionCleanupQueueTest.class.getClassLoader(),
+				new Class[] { ServletContext.class }, new InvocationHandler() {
+
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+						if ("getContextPath".equals(method.getName())) {
+							return "/test";
+						}
+
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	/**
+	 * Since there is no JSF implementation, this class records the sessions that are cleaned up (and the thread that
+	 * cleaned them up) rather than destroying managed-beans. The first batch blocks until {@link #unblock()} is called.
+	 */
+	private static class SessionCleanupQueueTestImpl extends SessionCleanupQueue {
+
+		// Private Data Members
+		private List<List<String>> batches = new ArrayList<List<String>>();
+		private CountDownLatch blocked = new CountDownLatch(1);
+		private List<String> threadNames = new ArrayList<String>();
+		private CountDownLatch unblocked = new CountDownLatch(1);
+
+		public SessionCleanupQueueTestImpl(int capacity, int maxBatchSize) {
+			super(newServletContext(), capacity, maxBatchSize);
+		}
+
+		public boolean awaitBlocked() throws InterruptedException {
+			return blocked.await(TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+
+		public void awaitProcessed(long count) throws InterruptedException {
+
+			long timeout = System.currentTimeMillis() + TIMEOUT;
+
+			while ((getProcessedCount() < count) && (System.currentTimeMillis() < timeout)) {
+				Thread.sleep(10L);
+			}
+
+			Assert.assertEquals(count, getProcessedCount());
+		}
+
+		public void unblock() {
+			unblocked.countDown();
+		}
+
+		@Override
+		protected void destroyManagedBeans(List<Cleanup> cleanups) {
+
+			List<String> batch = new ArrayList<String>();
+
+			for (Cleanup cleanup : cleanups) {
+				batch.add(cleanup.getSessionId());
+			}
+
+			synchronized (this) {
+				batches.add(batch);
+
+				for (int i = 0; i < batch.size(); i++) {
+					threadNames.add(batch.get(i) + "=" + Thread.currentThread().getName());
+				}
+			}
+
+			if (blocked.getCount() > 0) {
+				blocked.countDown();
+
+				try {
+					unblocked.await(TIMEOUT, TimeUnit.MILLISECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		public synchronized List<List<String>> getBatches() {
+			return new ArrayList<List<String>>(batches);
+		}
+
+		public synchronized String getThreadName(String sessionId) {
+
+			for (String threadName : threadNames) {
+
+				if (threadName.startsWith(sessionId + "=")) {
+					return threadName.substring(sessionId.length() + 1);
+				}
+			}
+
+			return null;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.portlet;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.portlet.PortletContext;
+import javax.portlet.PortletRequestDispatcher;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class PortletContextMockImpl implements PortletContext {
+
+	// Private Data Members
+	private Map<String, Object> attributes = new HashMap<String, Object>();
+
+	public void log(String msg) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void log(String message, Throwable throwable) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void removeAttribute(String name) {
+		attributes.remove(name);
+	}
+
+	public Object getAttribute(String name) {
+		return attributes.get(name);
+	}
+
+	public void setAttribute(String name, Object object) {
+		attributes.put(name, object);
+	}
+
+	public Enumeration<String> getAttributeNames() {
+		return Collections.enumeration(attributes.keySet());
+	}
+
+	public Enumeration<String> getContainerRuntimeOptions() {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getInitParameter(String name) {
+		return null;
+	}
+
+	public Enumeration<String> getInitParameterNames() {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getMajorVersion() {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getMimeType(String file) {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getMinorVersion() {
+		throw new UnsupportedOperationException();
+	}
+
+	public PortletRequestDispatcher getNamedDispatcher(String name) {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getPortletContextName() {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getRealPath(String path) {
+		throw new UnsupportedOperationException();
+	}
+
+	public PortletRequestDispatcher getRequestDispatcher(String path) {
+		throw new UnsupportedOperationException();
+	}
+
+	public URL getResource(String path) {
+		throw new UnsupportedOperationException();
+	}
+
+	public InputStream getResourceAsStream(String path) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Set<String> getResourcePaths(String path) {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getServerInfo() {
+		throw new UnsupportedOperationException();
+	}
+}
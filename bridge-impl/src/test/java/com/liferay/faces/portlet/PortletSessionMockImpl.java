@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.portlet;
+
+import java.util.Enumeration;
+import java.util.Map;
+
+import javax.portlet.PortletContext;
+import javax.portlet.PortletSession;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class PortletSessionMockImpl implements PortletSession {
+
+	// Private Data Members
+	private String id;
+
+	public PortletSessionMockImpl(String id) {
+		this.id = id;
+	}
+
+	public void invalidate() {
+		throw new UnsupportedOperationException();
+	}
+
+	public void removeAttribute(String name) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void removeAttribute(String name, int scope) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Object getAttribute(String name) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Object getAttribute(String name, int scope) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setAttribute(String name, Object value) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setAttribute(String name, Object value, int scope) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Map<String, Object> getAttributeMap() {
+		throw new UnsupportedOperationException();
+	}
+
+	public Map<String, Object> getAttributeMap(int scope) {
+		throw new UnsupportedOperationException();
+	}
+
+	public Enumeration<String> getAttributeNames() {
+		throw new UnsupportedOperationException();
+	}
+
+	public Enumeration<String> getAttributeNames(int scope) {
+		throw new UnsupportedOperationException();
+	}
+
+	public long getCreationTime() {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public long getLastAccessedTime() {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getMaxInactiveInterval() {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setMaxInactiveInterval(int interval) {
+		throw new UnsupportedOperationException();
+	}
+
+	public boolean isNew() {
+		throw new UnsupportedOperationException();
+	}
+
+	public PortletContext getPortletContext() {
+		throw new UnsupportedOperationException();
+	}
+}
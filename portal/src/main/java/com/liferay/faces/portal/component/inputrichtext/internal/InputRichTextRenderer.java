@@ -235,10 +235,9 @@ public class InputRichTextRenderer extends InputRichTextRendererBase implements
 		// Encode the script that contains functions with names specific to this component, so that they can be
 		// invoked directly by the JavaScript generated by the JSP tag.
 		WYSIWYGTemplate wysiwygTemplate = getWYSIWYGTemplate(facesContext);
-		String formattedTemplate = wysiwygTemplate.format(facesContext, inputRichText);
 		responseWriter.startElement(StringPool.SCRIPT, uiComponent);
 		responseWriter.writeAttribute(StringPool.TYPE, ContentTypes.TEXT_JAVASCRIPT, null);
-		responseWriter.write(formattedTemplate);
+		wysiwygTemplate.format(responseWriter, facesContext, inputRichText);
 		responseWriter.endElement(StringPool.SCRIPT);
 
 		// Begin the JSP tag lifecycle and write the output to the response.
@@ -14,6 +14,7 @@
 package com.liferay.faces.portal.component.inputrichtext.internal;
 
 import java.io.IOException;
+import java.io.Writer;
 
 import javax.faces.component.UINamingContainer;
 import javax.faces.context.FacesContext;
@@ -22,6 +23,7 @@ import com.liferay.faces.portal.component.inputrichtext.InputRichText;
 import com.liferay.faces.util.factory.FactoryExtensionFinder;
 import com.liferay.faces.util.template.Template;
 import com.liferay.faces.util.template.TemplateFactory;
+import com.liferay.faces.util.template.TemplateUtil;
 
 
 /**
@@ -29,6 +31,9 @@ import com.liferay.faces.util.template.TemplateFactory;
  */
 public class WYSIWYGTemplate {
 
+	// Private Constants
+	private static final String[] TOKENS = new String[] { "_clientId_", "_functionNamespace_" };
+
 	// Private Data Members
 	private Template template;
 
@@ -37,14 +42,13 @@ public class WYSIWYGTemplate {
 		this.template = templateFactory.getTemplate(this.getClass(), "wysiwyg.js", minified);
 	}
 
-	public String format(FacesContext facesContext, InputRichText inputRichText) throws IOException {
+	public void format(Writer writer, FacesContext facesContext, InputRichText inputRichText) throws IOException {
 
-		String[] tokens = new String[] { "_clientId_", "_functionNamespace_" };
 		char separatorChar = UINamingContainer.getSeparatorChar(facesContext);
 		String clientId = inputRichText.getClientId();
 		String functionNamespace = clientId.replace(separatorChar, '_');
 		String[] replacements = new String[] { clientId, functionNamespace };
 
-		return template.formatTokens(tokens, replacements);
+		TemplateUtil.formatTokens(writer, template, TOKENS, replacements);
 	}
 }
@@ -21,6 +21,7 @@ import javax.portlet.PortletRequest;
 
 import com.liferay.faces.portal.bean.Liferay;
 import com.liferay.faces.portal.security.AuthorizationException;
+import com.liferay.faces.portal.security.internal.PermissionEvaluator;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
 import com.liferay.faces.util.portal.WebKeys;
@@ -36,7 +37,6 @@ import com.liferay.portal.security.permission.PermissionChecker;
 import com.liferay.portal.service.RoleLocalServiceUtil;
 import com.liferay.portal.service.ServiceContext;
 import com.liferay.portal.service.UserLocalServiceUtil;
-import com.liferay.portal.service.permission.PortletPermissionUtil;
 import com.liferay.portal.theme.ThemeDisplay;
 import com.liferay.portal.util.PortalUtil;
 
@@ -68,34 +68,20 @@ public class LiferayPortletHelperImpl implements LiferayPortletHelper, Serializa
 	}
 
 	public boolean userHasPortletPermission(String actionId) {
-		ThemeDisplay themeDisplay = getThemeDisplay();
-		PermissionChecker permissionChecker = themeDisplay.getPermissionChecker();
-		String portletId = themeDisplay.getPortletDisplay().getId();
-		boolean hasPermission = false;
 
-		try {
-			hasPermission = PortletPermissionUtil.contains(permissionChecker, themeDisplay.getPlid(), portletId,
-					actionId);
-		}
-		catch (Exception e) {
-			logger.error(e.getMessage(), e);
-		}
+		PermissionEvaluator permissionEvaluator = PermissionEvaluator.getInstance();
+		long ttl = permissionEvaluator.getTTL(FacesContext.getCurrentInstance().getExternalContext());
 
-		return hasPermission;
+		return permissionEvaluator.userHasPortletPermission(getThemeDisplay(), actionId, ttl);
 	}
 
 	public boolean userHasRole(String roleName) {
 
 		try {
-			List<Role> roles = getUserRoles();
-
-			for (Role role : roles) {
-
-				if (role.getName().equals(roleName)) {
-					return true;
-				}
-			}
+			PermissionEvaluator permissionEvaluator = PermissionEvaluator.getInstance();
+			long ttl = permissionEvaluator.getTTL(FacesContext.getCurrentInstance().getExternalContext());
 
+			return permissionEvaluator.userHasRole(getUserId(), roleName, ttl);
 		}
 		catch (Exception e) {
 			logger.error(e.getMessage(), e);
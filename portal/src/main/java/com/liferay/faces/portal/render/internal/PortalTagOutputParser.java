@@ -14,6 +14,7 @@
 package com.liferay.faces.portal.render.internal;
 
 import com.liferay.faces.util.jsp.PageContextAdapter;
+import com.liferay.faces.util.jsp.StringJspWriter;
 
 
 /**
@@ -23,5 +24,11 @@ public interface PortalTagOutputParser {
 
 	public PortalTagOutput parse(PageContextAdapter pageContextAdapter);
 
+	/**
+	 * Creates a new writer for the output of a JSP tag that is able to classify the output as it is written, so that
+	 * {@link #parse(PageContextAdapter)} does not have to scan the output again.
+	 */
+	public StringJspWriter newJspWriter();
+
 	public String getScriptSectionMarker();
 }
@@ -13,9 +13,11 @@
  */
 package com.liferay.faces.portal.render.internal;
 
+import java.io.IOException;
+
+import javax.servlet.jsp.JspWriter;
+
 import com.liferay.faces.util.jsp.PageContextAdapter;
-import com.liferay.faces.util.lang.StringPool;
-import com.liferay.faces.util.render.ContentTypes;
 
 
 /**
@@ -23,88 +25,39 @@ import com.liferay.faces.util.render.ContentTypes;
  */
 public class PortalTagOutputParserImpl implements PortalTagOutputParser {
 
-	// Private Constants
-	private static final String COMMENT_CDATA_CLOSE = "// " + StringPool.CDATA_CLOSE;
-	private static final String SCRIPT_TAG_BEGIN_TYPE_JS = "<script type=\"" + ContentTypes.TEXT_JAVASCRIPT + "\">";
-
 	@Override
 	public PortalTagOutput parse(PageContextAdapter pageContextAdapter) {
 
-		String markup = pageContextAdapter.getOut().toString();
-		String scriptText = null;
-		StringBuilder scriptBuilder = new StringBuilder();
+		JspWriter jspWriter = pageContextAdapter.getOut();
+		PortalTagOutputWriter portalTagOutputWriter;
 
-		String scriptSectionMarker = getScriptSectionMarker();
-		int scriptMarkerPos = markup.indexOf(scriptSectionMarker);
-
-		if (scriptMarkerPos > 0) {
-			scriptText = markup.substring(scriptMarkerPos);
-			markup = markup.substring(0, scriptMarkerPos);
+		// If the output was written to a PortalTagOutputWriter, then it has already been classified as it was written.
+		// Otherwise, classify the output now.
+		if (jspWriter instanceof PortalTagOutputWriter) {
+			portalTagOutputWriter = (PortalTagOutputWriter) jspWriter;
 		}
+		else {
 
-		boolean done1 = (scriptText == null);
+			portalTagOutputWriter = newJspWriter();
 
-		while (!done1) {
-			int beginPos = scriptText.indexOf(StringPool.SCRIPT_TAG_BEGIN);
+			String output = jspWriter.toString();
 
-			if (beginPos < 0) {
-				beginPos = scriptText.indexOf(SCRIPT_TAG_BEGIN_TYPE_JS);
+			try {
+				portalTagOutputWriter.write(output, 0, output.length());
 			}
+			catch (IOException e) {
 
-			int endPos = scriptText.indexOf(StringPool.SCRIPT_TAG_END, beginPos);
-
-			if ((beginPos >= 0) && (endPos > beginPos)) {
-				String script = scriptText.substring(beginPos, endPos + StringPool.SCRIPT_TAG_END.length());
-
-				boolean done2 = false;
-
-				while (!done2) {
-					int cdataOpenPos = script.indexOf(StringPool.CDATA_OPEN);
-
-					if (cdataOpenPos > 0) {
-						script = script.substring(cdataOpenPos + StringPool.CDATA_OPEN.length());
-
-						int cdataClosePos = script.indexOf(COMMENT_CDATA_CLOSE);
-
-						if (cdataClosePos > 0) {
-							script = script.substring(0, cdataClosePos);
-						}
-						else {
-							cdataClosePos = script.indexOf(StringPool.CDATA_CLOSE);
-
-							if (cdataClosePos > 0) {
-								script = script.substring(0, cdataClosePos);
-							}
-						}
-					}
-					else {
-						done2 = true;
-					}
-				}
-
-				// Remove all the "<![CDATA[" and "]]>" tokens since they will interfere with the JSF
-				// partial-response.
-				String[] tokensToRemove = new String[] { StringPool.CDATA_OPEN, StringPool.CDATA_CLOSE };
-
-				for (String token : tokensToRemove) {
-					int pos = script.indexOf(token);
-
-					while (pos >= 0) {
-						script = script.substring(0, pos) + script.substring(pos + token.length());
-						pos = script.indexOf(token);
-					}
-				}
-
-				scriptBuilder.append(script.trim());
-				scriptText = scriptText.substring(0, beginPos) +
-					scriptText.substring(endPos + StringPool.SCRIPT_TAG_END.length());
-			}
-			else {
-				done1 = true;
+				// This can't happen since the writer does not perform any I/O.
+				throw new IllegalStateException(e);
 			}
 		}
 
-		return new PortalTagOutputImpl(markup.trim(), scriptBuilder.toString());
+		return new PortalTagOutputImpl(portalTagOutputWriter.getMarkup().trim(), portalTagOutputWriter.getScripts());
+	}
+
+	@Override
+	public PortalTagOutputWriter newJspWriter() {
+		return new PortalTagOutputWriter(getScriptSectionMarker());
 	}
 
 	@Override
@@ -0,0 +1,427 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.portal.render.internal;
+
+import java.io.IOException;
+
+import com.liferay.faces.util.jsp.StringJspWriter;
+import com.liferay.faces.util.lang.StringPool;
+
+
+/**
+ * This class is a {@link javax.servlet.jsp.JspWriter} that classifies the output of a JSP tag as it is written. Output
+ * that is written before the script section marker is collected as markup. Output that is written after the marker is
+ * scanned for &lt;script&gt; elements, and the contents of each JavaScript element (without CDATA tokens) are collected
+ * as scripts. Elements with a type other than JavaScript (such as templates) are skipped. Since the output is
+ * classified in a single pass, the cost of parsing is linear in the size of the output.
+ *
+ * @author  Neil Griffin
+ */
+public class PortalTagOutputWriter extends StringJspWriter {
+
+	// Private Constants
+	private static final String COMMENT_CDATA_CLOSE = "// " + StringPool.CDATA_CLOSE;
+	private static final String[] JAVASCRIPT_TYPES = new String[] {
+			"text/javascript", "application/javascript", "module"
+		};
+	private static final String SCRIPT_TAG_OPEN = "<script";
+	private static final String TYPE = "type";
+
+	// Private Data Members
+	private boolean javaScript;
+	private StringBuilder markup;
+	private int matchLength;
+	private char quote;
+	private StringBuilder script;
+	private StringBuilder scripts;
+	private String scriptSectionMarker;
+	private State state;
+	private StringBuilder tag;
+
+	public PortalTagOutputWriter(String scriptSectionMarker) {
+		this.scriptSectionMarker = scriptSectionMarker;
+		this.markup = new StringBuilder(getBufferSize());
+		this.script = new StringBuilder();
+		this.scripts = new StringBuilder();
+		this.state = State.MARKUP;
+		this.tag = new StringBuilder();
+	}
+
+	/**
+	 * Determines whether or not the specified attributes of a &lt;script&gt; tag denote a JavaScript element, which is
+	 * the case when the type attribute is absent, empty, or a JavaScript MIME type or "module".
+	 */
+	protected static boolean isJavaScript(CharSequence attributes) {
+
+		String type = getAttributeValue(attributes, TYPE);
+
+		if (type == null) {
+			return true;
+		}
+
+		int semicolonPos = type.indexOf(';');
+
+		if (semicolonPos >= 0) {
+			type = type.substring(0, semicolonPos);
+		}
+
+		type = type.trim();
+
+		if (type.length() == 0) {
+			return true;
+		}
+
+		for (String javaScriptType : JAVASCRIPT_TYPES) {
+
+			if (javaScriptType.equalsIgnoreCase(type)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the value of the attribute with the specified name (ignoring case) found in the specified attributes of a
+	 * tag, or <code>null</code> if the attribute is not present. Attribute values may be double-quoted, single-quoted or
+	 * unquoted.
+	 */
+	private static String getAttributeValue(CharSequence attributes, String attributeName) {
+
+		int length = attributes.length();
+		int i = 0;
+
+		while (i < length) {
+
+			while ((i < length) &&
+					(Character.isWhitespace(attributes.charAt(i)) || (attributes.charAt(i) == '/'))) {
+				i++;
+			}
+
+			int nameBegin = i;
+
+			while ((i < length) && !Character.isWhitespace(attributes.charAt(i)) && (attributes.charAt(i) != '=') &&
+					(attributes.charAt(i) != '/')) {
+				i++;
+			}
+
+			String name = attributes.subSequence(nameBegin, i).toString();
+
+			while ((i < length) && Character.isWhitespace(attributes.charAt(i))) {
+				i++;
+			}
+
+			String value = StringPool.BLANK;
+
+			if ((i < length) && (attributes.charAt(i) == '=')) {
+
+				i++;
+
+				while ((i < length) && Character.isWhitespace(attributes.charAt(i))) {
+					i++;
+				}
+
+				int valueBegin;
+				int valueEnd;
+
+				if ((i < length) && ((attributes.charAt(i) == '"') || (attributes.charAt(i) == '\''))) {
+
+					char valueQuote = attributes.charAt(i);
+					valueBegin = ++i;
+
+					while ((i < length) && (attributes.charAt(i) != valueQuote)) {
+						i++;
+					}
+
+					valueEnd = i;
+					i++;
+				}
+				else {
+
+					valueBegin = i;
+
+					while ((i < length) && !Character.isWhitespace(attributes.charAt(i))) {
+						i++;
+					}
+
+					valueEnd = i;
+				}
+
+				value = attributes.subSequence(valueBegin, Math.min(valueEnd, length)).toString();
+			}
+
+			if ((name.length() > 0) && attributeName.equalsIgnoreCase(name)) {
+				return value;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public void clear() throws IOException {
+		markup.setLength(0);
+		script.setLength(0);
+		scripts.setLength(0);
+		tag.setLength(0);
+		matchLength = 0;
+		quote = 0;
+		state = State.MARKUP;
+	}
+
+	@Override
+	public void clearBuffer() throws IOException {
+		clear();
+	}
+
+	/**
+	 * Returns the markup that was written before the script section marker.
+	 */
+	@Override
+	public String toString() {
+		return markup.toString();
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+
+		int end = off + len;
+
+		for (int i = off; i < end; i++) {
+			classify(cbuf[i]);
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+
+		int end = off + len;
+
+		for (int i = off; i < end; i++) {
+			classify(str.charAt(i));
+		}
+	}
+
+	protected void classify(char c) {
+
+		switch (state) {
+
+		case MARKUP: {
+
+			markup.append(c);
+
+			if (c == scriptSectionMarker.charAt(matchLength)) {
+
+				matchLength++;
+
+				if (matchLength == scriptSectionMarker.length()) {
+					markup.setLength(markup.length() - matchLength);
+					matchLength = 0;
+					state = State.BETWEEN_SCRIPTS;
+				}
+			}
+			else {
+				matchLength = (c == scriptSectionMarker.charAt(0)) ? 1 : 0;
+			}
+
+			break;
+		}
+
+		case BETWEEN_SCRIPTS: {
+
+			if (matchLength == SCRIPT_TAG_OPEN.length()) {
+
+				// Only "<script>" and "<script ...>" begin a script element (as opposed to "<scripts>" for example).
+				if (c == '>') {
+					javaScript = true;
+					matchLength = 0;
+					state = State.SCRIPT_BODY;
+				}
+				else if (Character.isWhitespace(c)) {
+					tag.setLength(0);
+					quote = 0;
+					matchLength = 0;
+					state = State.SCRIPT_TAG;
+				}
+				else {
+					matchLength = (c == SCRIPT_TAG_OPEN.charAt(0)) ? 1 : 0;
+				}
+			}
+			else if (c == SCRIPT_TAG_OPEN.charAt(matchLength)) {
+				matchLength++;
+			}
+			else {
+				matchLength = (c == SCRIPT_TAG_OPEN.charAt(0)) ? 1 : 0;
+			}
+
+			break;
+		}
+
+		case SCRIPT_TAG: {
+
+			// A '>' character only ends the tag when it is not part of a quoted attribute value.
+			if (quote != 0) {
+
+				if (c == quote) {
+					quote = 0;
+				}
+
+				tag.append(c);
+			}
+			else if ((c == '"') || (c == '\'')) {
+				quote = c;
+				tag.append(c);
+			}
+			else if (c == '>') {
+				javaScript = isJavaScript(tag);
+				tag.setLength(0);
+				state = State.SCRIPT_BODY;
+			}
+			else {
+				tag.append(c);
+			}
+
+			break;
+		}
+
+		case SCRIPT_BODY: {
+
+			script.append(c);
+
+			if (c == StringPool.SCRIPT_TAG_END.charAt(matchLength)) {
+
+				matchLength++;
+
+				if (matchLength == StringPool.SCRIPT_TAG_END.length()) {
+					script.setLength(script.length() - matchLength);
+
+					if (javaScript) {
+						appendScript();
+					}
+					else {
+						script.setLength(0);
+					}
+
+					matchLength = 0;
+					state = State.BETWEEN_SCRIPTS;
+				}
+			}
+			else {
+				matchLength = (c == StringPool.SCRIPT_TAG_END.charAt(0)) ? 1 : 0;
+			}
+
+			break;
+		}
+		}
+	}
+
+	/**
+	 * Appends the contents of the current script element to the collected scripts. If the contents are wrapped in a
+	 * CDATA section, then only the contents of the CDATA section are kept. All remaining "&lt;![CDATA[" and "]]&gt;"
+	 * tokens are removed since they would interfere with the JSF partial-response.
+	 */
+	protected void appendScript() {
+
+		int begin = 0;
+		int end = script.length();
+		int cdataOpenPos = script.indexOf(StringPool.CDATA_OPEN);
+
+		if (cdataOpenPos >= 0) {
+
+			begin = cdataOpenPos + StringPool.CDATA_OPEN.length();
+
+			int cdataClosePos = script.indexOf(COMMENT_CDATA_CLOSE, begin);
+
+			if (cdataClosePos < 0) {
+				cdataClosePos = script.indexOf(StringPool.CDATA_CLOSE, begin);
+			}
+
+			if (cdataClosePos >= 0) {
+				end = cdataClosePos;
+			}
+		}
+
+		// Trim the contents while removing the remaining CDATA tokens.
+		while ((begin < end) && Character.isWhitespace(script.charAt(begin))) {
+			begin++;
+		}
+
+		while ((end > begin) && Character.isWhitespace(script.charAt(end - 1))) {
+			end--;
+		}
+
+		if ((begin < end) && (scripts.length() > 0)) {
+			scripts.append(StringPool.NEW_LINE);
+		}
+
+		int i = begin;
+
+		while (i < end) {
+
+			if (startsWith(script, i, end, StringPool.CDATA_OPEN)) {
+				i += StringPool.CDATA_OPEN.length();
+			}
+			else if (startsWith(script, i, end, StringPool.CDATA_CLOSE)) {
+				i += StringPool.CDATA_CLOSE.length();
+			}
+			else {
+				scripts.append(script.charAt(i));
+				i++;
+			}
+		}
+
+		script.setLength(0);
+	}
+
+	private boolean startsWith(StringBuilder stringBuilder, int index, int end, String token) {
+
+		int length = token.length();
+
+		if ((index + length) > end) {
+			return false;
+		}
+
+		for (int i = 0; i < length; i++) {
+
+			if (stringBuilder.charAt(index + i) != token.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the markup that was written before the script section marker.
+	 */
+	public String getMarkup() {
+		return markup.toString();
+	}
+
+	@Override
+	public int getRemaining() {
+		return Math.max(0, getBufferSize() - markup.length());
+	}
+
+	/**
+	 * Returns the contents of the script elements that were written after the script section marker.
+	 */
+	public String getScripts() {
+		return scripts.toString();
+	}
+
+	private static enum State {
+		MARKUP, BETWEEN_SCRIPTS, SCRIPT_TAG, SCRIPT_BODY
+	}
+}
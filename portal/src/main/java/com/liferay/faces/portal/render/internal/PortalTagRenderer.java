@@ -172,7 +172,7 @@ public abstract class PortalTagRenderer<U extends UIComponent, T extends Tag> ex
 		PortletResponse portletResponse = (PortletResponse) externalContext.getResponse();
 		HttpServletResponse httpServletResponse = getHttpServletResponse(portletResponse);
 		ELContext elContext = facesContext.getELContext();
-		StringJspWriter stringJspWriter = new StringJspWriter();
+		StringJspWriter stringJspWriter = portalTagOutputParser.newJspWriter();
 		PageContextAdapter pageContextAdapter = new PageContextAdapter(httpServletRequest, httpServletResponse,
 				elContext, stringJspWriter);
 
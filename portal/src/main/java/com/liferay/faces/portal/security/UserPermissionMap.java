@@ -14,8 +14,14 @@
 package com.liferay.faces.portal.security;
 
 import java.util.HashMap;
+import java.util.Set;
+
+import javax.faces.component.UIViewRoot;
 
 import com.liferay.faces.portal.context.LiferayFacesContext;
+import com.liferay.faces.portal.security.internal.PermissionEvaluator;
+
+import com.liferay.portal.theme.ThemeDisplay;
 
 
 /**
@@ -44,7 +50,26 @@ public class UserPermissionMap extends HashMap<String, Boolean> {
 			String actionId = (String) actionIdAsObject;
 
 			if (actionId != null) {
-				value = liferayFacesContext.userHasPortletPermission(actionId);
+
+				// When permissions are cached across requests, evaluate the specified action id along with all of the
+				// other action ids that have been referenced by the current view (and not yet evaluated) in a single
+				// batch.
+				PermissionEvaluator permissionEvaluator = PermissionEvaluator.getInstance();
+				ThemeDisplay themeDisplay = liferayFacesContext.getThemeDisplay();
+				String portletId = themeDisplay.getPortletDisplay().getId();
+				UIViewRoot viewRoot = liferayFacesContext.getViewRoot();
+				String viewId = null;
+
+				if (viewRoot != null) {
+					viewId = viewRoot.getViewId();
+				}
+
+				long ttl = permissionEvaluator.getTTL(liferayFacesContext.getExternalContext());
+				Set<String> actionIds = permissionEvaluator.getBatchActionIds(portletId, viewId, actionId, ttl);
+				actionIds.removeAll(keySet());
+				actionIds.add(actionId);
+				putAll(permissionEvaluator.prefetchPortletPermissions(themeDisplay, actionIds, ttl));
+				value = super.get(actionId);
 			}
 
 			put(actionId, value);
@@ -0,0 +1,327 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.portal.security.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.faces.context.ExternalContext;
+
+import com.liferay.faces.util.config.WebConfigParamUtil;
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+import com.liferay.portal.model.Role;
+import com.liferay.portal.security.permission.PermissionChecker;
+import com.liferay.portal.service.RoleLocalServiceUtil;
+import com.liferay.portal.service.permission.PortletPermissionUtil;
+import com.liferay.portal.theme.ThemeDisplay;
+
+
+/**
+ * This class evaluates the portlet permissions and roles of users on behalf of {@link
+ * com.liferay.faces.portal.security.UserPermissionMap} and {@link
+ * com.liferay.faces.portal.context.LiferayPortletHelper}. Permissions are evaluated in batches, and the results can be
+ * cached across requests (per user, portlet, and action) for the number of milliseconds specified by the {@link
+ * #PERMISSION_CACHE_TTL} context-param. Since a cached result will not reflect a change in permissions until it
+ * expires, cross-request caching is disabled by default, and {@link #invalidate()} or {@link #invalidateUser(long)}
+ * should be called when permissions are changed programmatically.
+ *
+ * @author  Neil Griffin
+ */
+public class PermissionEvaluator {
+
+	// Public Constants
+	public static final String PERMISSION_CACHE_TTL = "com.liferay.faces.portal.permissionCacheTTL";
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(PermissionEvaluator.class);
+
+	// Private Constants
+	private static final PermissionEvaluator INSTANCE = new PermissionEvaluator();
+	private static final int MAX_CACHED_ENTRIES = 10000;
+	private static final char SEPARATOR = '|';
+
+	// Private Data Members
+	private ConcurrentMap<String, CachedValue<Boolean>> portletPermissions;
+	private ConcurrentMap<String, Set<String>> referencedActionIds;
+	private ConcurrentMap<Long, CachedValue<Set<String>>> userRoleNames;
+
+	private PermissionEvaluator() {
+		this.portletPermissions = new ConcurrentHashMap<String, CachedValue<Boolean>>();
+		this.referencedActionIds = new ConcurrentHashMap<String, Set<String>>();
+		this.userRoleNames = new ConcurrentHashMap<Long, CachedValue<Set<String>>>();
+	}
+
+	public static PermissionEvaluator getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Records that the specified action id is referenced by the specified view of the specified portlet, so that it can
+	 * be prefetched (along with all the other action ids referenced by the view) the next time the view is rendered.
+	 * Since the same view can be used by more than one portlet, the action ids are recorded per portlet.
+	 */
+	public void addReferencedActionId(String portletId, String viewId, String actionId) {
+
+		String key = getReferencedActionIdsKey(portletId, viewId);
+		Set<String> actionIds = referencedActionIds.get(key);
+
+		if (actionIds == null) {
+			actionIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+			Set<String> existingActionIds = referencedActionIds.putIfAbsent(key, actionIds);
+
+			if (existingActionIds != null) {
+				actionIds = existingActionIds;
+			}
+		}
+
+		actionIds.add(actionId);
+	}
+
+	/**
+	 * Removes all cached permissions and roles.
+	 */
+	public void invalidate() {
+		portletPermissions.clear();
+		userRoleNames.clear();
+	}
+
+	/**
+	 * Removes the cached permissions and roles of the specified user.
+	 */
+	public void invalidateUser(long userId) {
+
+		String keyPrefix = Long.toString(userId) + SEPARATOR;
+		Iterator<String> iterator = portletPermissions.keySet().iterator();
+
+		while (iterator.hasNext()) {
+
+			if (iterator.next().startsWith(keyPrefix)) {
+				iterator.remove();
+			}
+		}
+
+		userRoleNames.remove(userId);
+	}
+
+	/**
+	 * Evaluates the permission of the user associated with the specified {@link ThemeDisplay} to perform each of the
+	 * specified actions on the current portlet. The portlet, page, and {@link PermissionChecker} are resolved once for
+	 * the entire batch, and only the actions whose results are not cached are evaluated.
+	 *
+	 * @return  A map of action ids to permissions.
+	 */
+	public Map<String, Boolean> prefetchPortletPermissions(ThemeDisplay themeDisplay, Collection<String> actionIds,
+		long ttl) {
+
+		Map<String, Boolean> permissions = new HashMap<String, Boolean>(actionIds.size());
+		PermissionChecker permissionChecker = themeDisplay.getPermissionChecker();
+		long plid = themeDisplay.getPlid();
+		String portletId = themeDisplay.getPortletDisplay().getId();
+		String keyPrefix = getKeyPrefix(themeDisplay.getUserId(), plid, portletId);
+		long now = System.currentTimeMillis();
+
+		for (String actionId : actionIds) {
+
+			String key = keyPrefix + actionId;
+			Boolean permission = getCachedValue(portletPermissions, key, now);
+
+			if (permission == null) {
+
+				boolean hasPermission = false;
+
+				try {
+					hasPermission = PortletPermissionUtil.contains(permissionChecker, plid, portletId, actionId);
+				}
+				catch (Exception e) {
+					logger.error(e.getMessage(), e);
+				}
+
+				permission = Boolean.valueOf(hasPermission);
+				putCachedValue(portletPermissions, key, permission, now, ttl);
+			}
+
+			permissions.put(actionId, permission);
+		}
+
+		return permissions;
+	}
+
+	/**
+	 * Determines whether or not the user associated with the specified {@link ThemeDisplay} has permission to perform
+	 * the specified action on the current portlet.
+	 */
+	public boolean userHasPortletPermission(ThemeDisplay themeDisplay, String actionId, long ttl) {
+
+		Map<String, Boolean> permissions = prefetchPortletPermissions(themeDisplay, Collections.singleton(actionId),
+				ttl);
+
+		return permissions.get(actionId);
+	}
+
+	/**
+	 * Determines whether or not the specified user has the specified role. The names of the roles of the user are
+	 * retrieved once and cached (subject to the specified time-to-live), rather than retrieved for each check.
+	 */
+	public boolean userHasRole(long userId, String roleName, long ttl) {
+
+		long now = System.currentTimeMillis();
+		Set<String> roleNames = getCachedValue(userRoleNames, userId, now);
+
+		if (roleNames == null) {
+
+			roleNames = new HashSet<String>();
+
+			try {
+				List<Role> roles = RoleLocalServiceUtil.getUserRoles(userId);
+
+				for (Role role : roles) {
+					roleNames.add(role.getName());
+				}
+
+				putCachedValue(userRoleNames, userId, roleNames, now, ttl);
+			}
+			catch (Exception e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+
+		return roleNames.contains(roleName);
+	}
+
+	/**
+	 * Returns the action ids that are to be evaluated in the same batch as the specified action id, which include the
+	 * other action ids that have been referenced by the specified view of the specified portlet. Since the results of
+	 * the other action ids are only retained when they are cached across requests, they are only included (and the
+	 * specified action id is only recorded as referenced) when the specified time-to-live is greater than 0.
+	 */
+	public Set<String> getBatchActionIds(String portletId, String viewId, String actionId, long ttl) {
+
+		Set<String> actionIds = new HashSet<String>();
+
+		if ((ttl > 0) && (viewId != null)) {
+			actionIds.addAll(getReferencedActionIds(portletId, viewId));
+			addReferencedActionId(portletId, viewId, actionId);
+		}
+
+		actionIds.add(actionId);
+
+		return actionIds;
+	}
+
+	/**
+	 * Returns the action ids that have been referenced by the specified view of the specified portlet.
+	 */
+	public Set<String> getReferencedActionIds(String portletId, String viewId) {
+
+		Set<String> actionIds = referencedActionIds.get(getReferencedActionIdsKey(portletId, viewId));
+
+		if (actionIds == null) {
+			actionIds = Collections.emptySet();
+		}
+
+		return actionIds;
+	}
+
+	/**
+	 * Returns the number of milliseconds that permissions are cached across requests, as specified by the {@link
+	 * #PERMISSION_CACHE_TTL} context-param. The default value is 0, meaning that permissions are not cached across
+	 * requests.
+	 */
+	public long getTTL(ExternalContext externalContext) {
+		return WebConfigParamUtil.getLongValue(externalContext, PERMISSION_CACHE_TTL, null, 0L);
+	}
+
+	private <K, V> V getCachedValue(ConcurrentMap<K, CachedValue<V>> cache, K key, long now) {
+
+		CachedValue<V> cachedValue = cache.get(key);
+
+		if (cachedValue == null) {
+			return null;
+		}
+		else if (cachedValue.expirationTime <= now) {
+			cache.remove(key, cachedValue);
+
+			return null;
+		}
+		else {
+			return cachedValue.value;
+		}
+	}
+
+	private <K, V> void putCachedValue(ConcurrentMap<K, CachedValue<V>> cache, K key, V value, long now, long ttl) {
+
+		if (ttl > 0) {
+
+			// Keep the size of the cache bounded by discarding expired entries (or if necessary, all entries) when the
+			// maximum size has been reached.
+			if (cache.size() >= MAX_CACHED_ENTRIES) {
+
+				Iterator<CachedValue<V>> iterator = cache.values().iterator();
+
+				while (iterator.hasNext()) {
+
+					if (iterator.next().expirationTime <= now) {
+						iterator.remove();
+					}
+				}
+
+				if (cache.size() >= MAX_CACHED_ENTRIES) {
+					cache.clear();
+				}
+			}
+
+			cache.put(key, new CachedValue<V>(value, now + ttl));
+		}
+	}
+
+	private String getKeyPrefix(long userId, long plid, String portletId) {
+
+		StringBuilder keyPrefix = new StringBuilder();
+		keyPrefix.append(userId);
+		keyPrefix.append(SEPARATOR);
+		keyPrefix.append(plid);
+		keyPrefix.append(SEPARATOR);
+		keyPrefix.append(portletId);
+		keyPrefix.append(SEPARATOR);
+
+		return keyPrefix.toString();
+	}
+
+	private String getReferencedActionIdsKey(String portletId, String viewId) {
+		return portletId + SEPARATOR + viewId;
+	}
+
+	private static final class CachedValue<V> {
+
+		// Private Data Members
+		private final long expirationTime;
+		private final V value;
+
+		public CachedValue(V value, long expirationTime) {
+			this.value = value;
+			this.expirationTime = expirationTime;
+		}
+	}
+}
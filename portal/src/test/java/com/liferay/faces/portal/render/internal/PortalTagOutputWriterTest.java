@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.portal.render.internal;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class PortalTagOutputWriterTest {
+
+	// Private Constants
+	private static final String SCRIPT_SECTION_MARKER = "<hr id=\"scripts\"/>";
+
+	@Test
+	public void testAttributeContainingGreaterThan() throws IOException {
+
+		PortalTagOutputWriter portalTagOutputWriter = new PortalTagOutputWriter(SCRIPT_SECTION_MARKER);
+		portalTagOutputWriter.write(SCRIPT_SECTION_MARKER +
+			"<script data-condition=\"a > b\" data-other='c>d' type=\"text/javascript\">alert('one');</script>");
+
+		Assert.assertEquals("alert('one');", portalTagOutputWriter.getScripts());
+	}
+
+	@Test
+	public void testCdata() throws IOException {
+
+		PortalTagOutputWriter portalTagOutputWriter = new PortalTagOutputWriter(SCRIPT_SECTION_MARKER);
+		portalTagOutputWriter.write(SCRIPT_SECTION_MARKER +
+			"<script type=\"text/javascript\">\n// <![CDATA[\nalert('one');\n// ]]>\n</script>");
+
+		Assert.assertEquals("alert('one');", portalTagOutputWriter.getScripts());
+	}
+
+	@Test
+	public void testConsecutiveScripts() throws IOException {
+
+		PortalTagOutputWriter portalTagOutputWriter = new PortalTagOutputWriter(SCRIPT_SECTION_MARKER);
+		portalTagOutputWriter.write("<div>markup</div>" + SCRIPT_SECTION_MARKER +
+			"<script>alert('one');</script><script type=\"module\">alert('two');</script>\n" +
+			"<script\ntype='text/javascript;charset=UTF-8'>alert('three');</script>");
+
+		Assert.assertEquals("<div>markup</div>", portalTagOutputWriter.getMarkup());
+		Assert.assertEquals("alert('one');\nalert('two');\nalert('three');", portalTagOutputWriter.getScripts());
+	}
+
+	@Test
+	public void testNonJavaScriptTypes() throws IOException {
+
+		PortalTagOutputWriter portalTagOutputWriter = new PortalTagOutputWriter(SCRIPT_SECTION_MARKER);
+		portalTagOutputWriter.write(SCRIPT_SECTION_MARKER +
+			"<script type=\"text/x-template\"><div>template</div></script>" +
+			"<script type=\"application/json\">{\"a\":1}</script>" + "<script type=\"\">alert('one');</script>" +
+			"<scripts>ignored</scripts>");
+
+		Assert.assertEquals("alert('one');", portalTagOutputWriter.getScripts());
+		Assert.assertFalse(PortalTagOutputWriter.isJavaScript(" type=\"text/x-template\""));
+		Assert.assertTrue(PortalTagOutputWriter.isJavaScript(" TYPE=Application/JavaScript"));
+		Assert.assertTrue(PortalTagOutputWriter.isJavaScript(" data-type=\"json\" defer"));
+	}
+
+	@Test
+	public void testSplitTags() throws IOException {
+
+		String output = "<p>markup</p>" + SCRIPT_SECTION_MARKER +
+			"<script type=\"text/javascript\">alert('one');</script><script>alert('two');</script>";
+
+		// Write the output one character at a time so that the marker, the tags and the end tags are split across
+		// writes.
+		PortalTagOutputWriter portalTagOutputWriter = new PortalTagOutputWriter(SCRIPT_SECTION_MARKER);
+
+		for (int i = 0; i < output.length(); i++) {
+			portalTagOutputWriter.write(output.charAt(i));
+		}
+
+		Assert.assertEquals("<p>markup</p>", portalTagOutputWriter.getMarkup());
+		Assert.assertEquals("alert('one');\nalert('two');", portalTagOutputWriter.getScripts());
+
+		// Write the same output in chunks of three characters.
+		portalTagOutputWriter.clear();
+
+		for (int i = 0; i < output.length(); i += 3) {
+			portalTagOutputWriter.write(output, i, Math.min(3, output.length() - i));
+		}
+
+		Assert.assertEquals("<p>markup</p>", portalTagOutputWriter.getMarkup());
+		Assert.assertEquals("alert('one');\nalert('two');", portalTagOutputWriter.getScripts());
+	}
+}
@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.portal.security.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.liferay.portal.kernel.bean.BeanLocator;
+import com.liferay.portal.kernel.bean.PortalBeanLocatorUtil;
+import com.liferay.portal.model.Role;
+import com.liferay.portal.service.RoleLocalService;
+import com.liferay.portal.service.permission.PortletPermission;
+import com.liferay.portal.service.permission.PortletPermissionUtil;
+import com.liferay.portal.theme.ThemeDisplay;
+
+
+/**
+ * Since Liferay Portal services are not available, the {@link PortletPermission} and {@link RoleLocalService} are
+ * replaced with proxies that record each evaluation, so that the tests can determine which evaluations were cached.
+ *
+ * @author  Neil Griffin
+ */
+public class PermissionEvaluatorTest {
+
+	// Private Constants
+	private static final long PLID = 1001L;
+	private static final String PORTLET_ID = "portlet_WAR_test";
+	private static final long TTL = 60000L;
+	private static final long USER_ID_1 = 101L;
+	private static final long USER_ID_2 = 102L;
+
+	// Since RoleLocalServiceUtil keeps the service that it locates the first time, the proxies of every test record
+	// their evaluations in the same (static) collections.
+	private static final List<String> evaluatedActionIds = new ArrayList<String>();
+	private static final List<Long> evaluatedUserIds = new ArrayList<Long>();
+	private static final Set<String> grantedActionIds = new HashSet<String>();
+	private static final Map<Long, List<String>> userRoleNames = new HashMap<Long, List<String>>();
+
+	// Private Data Members
+	private PermissionEvaluator permissionEvaluator;
+
+	@Before
+	public void setUp() {
+
+		evaluatedActionIds.clear();
+		evaluatedUserIds.clear();
+		grantedActionIds.clear();
+		grantedActionIds.addAll(Arrays.asList("VIEW", "CONFIGURATION"));
+		userRoleNames.clear();
+		userRoleNames.put(USER_ID_1, Arrays.asList("Administrator", "User"));
+		userRoleNames.put(USER_ID_2, Arrays.asList("User"));
+
+		PortletPermission portletPermission = newProxy(PortletPermission.class, new InvocationHandler() {
+
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+						if ("contains".equals(method.getName()) && (args.length == 4)) {
+
+							String actionId = (String) args[3];
+							evaluatedActionIds.add(actionId);
+
+							return grantedActionIds.contains(actionId);
+						}
+
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		new PortletPermissionUtil().setPortletPermission(portletPermission);
+
+		final RoleLocalService roleLocalService = newProxy(RoleLocalService.class, new InvocationHandler() {
+
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+						if ("getUserRoles".equals(method.getName()) && (args.length == 1)) {
+
+							Long userId = (Long) args[0];
+							evaluatedUserIds.add(userId);
+
+							List<Role> roles = new ArrayList<Role>();
+
+							for (String roleName : userRoleNames.get(userId)) {
+								roles.add(newRole(roleName));
+							}
+
+							return roles;
+						}
+
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		PortalBeanLocatorUtil.setBeanLocator(newProxy(BeanLocator.class, new InvocationHandler() {
+
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+						if ("locate".equals(method.getName())) {
+							return roleLocalService;
+						}
+						else if ("getClassLoader".equals(method.getName())) {
+							return getClass().getClassLoader();
+						}
+
+						throw new UnsupportedOperationException(method.getName());
+					}
+				}));
+
+		permissionEvaluator = PermissionEvaluator.getInstance();
+		permissionEvaluator.invalidate();
+	}
+
+	@Test
+	public void testBatch() {
+
+		ThemeDisplay themeDisplay = newThemeDisplay(USER_ID_1, PORTLET_ID);
+		Map<String, Boolean> permissions = permissionEvaluator.prefetchPortletPermissions(themeDisplay,
+				Arrays.asList("VIEW", "DELETE"), TTL);
+
+		Assert.assertEquals(Boolean.TRUE, permissions.get("VIEW"));
+		Assert.assertEquals(Boolean.FALSE, permissions.get("DELETE"));
+		Assert.assertEquals(2, evaluatedActionIds.size());
+
+		// Only the actions whose results are not cached are evaluated.
+		permissions = permissionEvaluator.prefetchPortletPermissions(themeDisplay,
+				Arrays.asList("VIEW", "DELETE", "CONFIGURATION"), TTL);
+		Assert.assertEquals(3, permissions.size());
+		Assert.assertEquals(Boolean.TRUE, permissions.get("CONFIGURATION"));
+		Assert.assertEquals(Arrays.asList("VIEW", "DELETE", "CONFIGURATION"), evaluatedActionIds.subList(0, 3));
+		Assert.assertEquals(3, evaluatedActionIds.size());
+
+		// The results are cached per portlet.
+		Assert.assertTrue(permissionEvaluator.userHasPortletPermission(newThemeDisplay(USER_ID_1, "other"), "VIEW",
+				TTL));
+		Assert.assertEquals(4, evaluatedActionIds.size());
+	}
+
+	@Test
+	public void testBatchActionIds() {
+
+		permissionEvaluator.addReferencedActionId(PORTLET_ID, "/views/batch.xhtml", "VIEW");
+
+		// Since the results are not cached across requests when the TTL is 0, the other action ids referenced by the
+		// view must not be evaluated along with the specified action id.
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("DELETE")),
+			permissionEvaluator.getBatchActionIds(PORTLET_ID, "/views/batch.xhtml", "DELETE", 0L));
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("VIEW")),
+			permissionEvaluator.getReferencedActionIds(PORTLET_ID, "/views/batch.xhtml"));
+
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("VIEW", "DELETE")),
+			permissionEvaluator.getBatchActionIds(PORTLET_ID, "/views/batch.xhtml", "DELETE", TTL));
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("VIEW", "DELETE")),
+			permissionEvaluator.getReferencedActionIds(PORTLET_ID, "/views/batch.xhtml"));
+	}
+
+	@Test
+	public void testInvalidateUser() {
+
+		ThemeDisplay themeDisplay1 = newThemeDisplay(USER_ID_1, PORTLET_ID);
+		ThemeDisplay themeDisplay2 = newThemeDisplay(USER_ID_2, PORTLET_ID);
+		Assert.assertTrue(permissionEvaluator.userHasPortletPermission(themeDisplay1, "VIEW", TTL));
+		Assert.assertTrue(permissionEvaluator.userHasPortletPermission(themeDisplay2, "VIEW", TTL));
+		Assert.assertTrue(permissionEvaluator.userHasRole(USER_ID_1, "Administrator", TTL));
+		Assert.assertFalse(permissionEvaluator.userHasRole(USER_ID_2, "Administrator", TTL));
+		Assert.assertEquals(2, evaluatedActionIds.size());
+		Assert.assertEquals(2, evaluatedUserIds.size());
+
+		// Invalidating the first user must not affect the cached permissions and roles of the second user.
+		grantedActionIds.remove("VIEW");
+		userRoleNames.put(USER_ID_1, Arrays.asList("User"));
+		permissionEvaluator.invalidateUser(USER_ID_1);
+
+		Assert.assertFalse(permissionEvaluator.userHasPortletPermission(themeDisplay1, "VIEW", TTL));
+		Assert.assertTrue(permissionEvaluator.userHasPortletPermission(themeDisplay2, "VIEW", TTL));
+		Assert.assertFalse(permissionEvaluator.userHasRole(USER_ID_1, "Administrator", TTL));
+		Assert.assertFalse(permissionEvaluator.userHasRole(USER_ID_2, "Administrator", TTL));
+		Assert.assertEquals(3, evaluatedActionIds.size());
+		Assert.assertEquals(Arrays.asList(USER_ID_1, USER_ID_2, USER_ID_1), evaluatedUserIds);
+	}
+
+	@Test
+	public void testReferencedActionIds() {
+
+		permissionEvaluator.addReferencedActionId(PORTLET_ID, "/views/view.xhtml", "VIEW");
+		permissionEvaluator.addReferencedActionId(PORTLET_ID, "/views/view.xhtml", "DELETE");
+		permissionEvaluator.addReferencedActionId("other", "/views/view.xhtml", "CONFIGURATION");
+
+		// The same view can be used by more than one portlet, so the action ids are recorded per portlet.
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("VIEW", "DELETE")),
+			permissionEvaluator.getReferencedActionIds(PORTLET_ID, "/views/view.xhtml"));
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("CONFIGURATION")),
+			permissionEvaluator.getReferencedActionIds("other", "/views/view.xhtml"));
+		Assert.assertTrue(permissionEvaluator.getReferencedActionIds(PORTLET_ID, "/views/edit.xhtml").isEmpty());
+	}
+
+	@Test
+	public void testTTL() throws InterruptedException {
+
+		ThemeDisplay themeDisplay = newThemeDisplay(USER_ID_1, PORTLET_ID);
+
+		// When the TTL is 0 (the default) nothing is cached across calls.
+		permissionEvaluator.userHasPortletPermission(themeDisplay, "VIEW", 0L);
+		permissionEvaluator.userHasPortletPermission(themeDisplay, "VIEW", 0L);
+		permissionEvaluator.userHasRole(USER_ID_1, "User", 0L);
+		permissionEvaluator.userHasRole(USER_ID_1, "User", 0L);
+		Assert.assertEquals(2, evaluatedActionIds.size());
+		Assert.assertEquals(2, evaluatedUserIds.size());
+
+		// Results are cached until they expire.
+		long ttl = 50L;
+		permissionEvaluator.userHasPortletPermission(themeDisplay, "VIEW", ttl);
+		permissionEvaluator.userHasPortletPermission(themeDisplay, "VIEW", ttl);
+		permissionEvaluator.userHasRole(USER_ID_1, "User", ttl);
+		permissionEvaluator.userHasRole(USER_ID_1, "User", ttl);
+		Assert.assertEquals(3, evaluatedActionIds.size());
+		Assert.assertEquals(3, evaluatedUserIds.size());
+
+		Thread.sleep(ttl + 10L);
+
+		permissionEvaluator.userHasPortletPermission(themeDisplay, "VIEW", ttl);
+		permissionEvaluator.userHasRole(USER_ID_1, "User", ttl);
+		Assert.assertEquals(4, evaluatedActionIds.size());
+		Assert.assertEquals(4, evaluatedUserIds.size());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T newProxy(Class<T> type, InvocationHandler invocationHandler) {
+		return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { type }, invocationHandler);
+	}
+
+	private Role newRole(final String roleName) {
+
+		return newProxy(Role.class, new InvocationHandler() {
+
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+						if ("getName".equals(method.getName())) {
+							return roleName;
+						}
+
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private ThemeDisplay newThemeDisplay(final long userId, String portletId) {
+
+		ThemeDisplay themeDisplay = new ThemeDisplay() {
+
+				// serialVersionUID
+				private static final long serialVersionUID = 3262617327093917467L;
+
+				@Override
+				public long getUserId() {
+					return userId;
+				}
+			};
+
+		themeDisplay.setPlid(PLID);
+		themeDisplay.getPortletDisplay().setId(portletId);
+
+		return themeDisplay;
+	}
+}
@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.application;
+
+/**
+ * This interface is implemented by {@link javax.faces.application.ResourceWrapper} classes whose {@link
+ * javax.faces.application.Resource#getInputStream()} method returns the unaltered contents of the wrapped resource. It
+ * enables {@link ResourceHandlerWrapperBase} to unwrap such resources in order to determine whether the length of the
+ * contents is known in advance.
+ *
+ * @author  Neil Griffin
+ */
+public interface ContentPreservingResource {
+}
@@ -13,10 +13,13 @@
  */
 package com.liferay.faces.util.application;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
@@ -25,6 +28,7 @@ import java.util.Map;
 import javax.faces.application.Resource;
 import javax.faces.application.ResourceHandler;
 import javax.faces.application.ResourceHandlerWrapper;
+import javax.faces.application.ResourceWrapper;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import javax.servlet.http.HttpServletResponse;
@@ -33,6 +37,8 @@ import com.liferay.faces.util.io.Filterable;
 import com.liferay.faces.util.io.ResourceOutputStream;
 import com.liferay.faces.util.logging.Logger;
 import com.liferay.faces.util.logging.LoggerFactory;
+import com.liferay.faces.util.render.ContentTypes;
+import com.liferay.faces.util.render.HttpHeaders;
 
 
 /**
@@ -119,77 +125,99 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 						externalContext.setResponseContentType(responseContentType);
 					}
 
-					// Rather than write the input stream directly to the response, write it to an
-					// buffered output stream so that the length can be calculated for the
-					// Content-Length header. See: http://issues.liferay.com/browse/FACES-1207
 					ResourceOutputStream resourceOutputStream = getResourceOutputStream(resource, bufferSize);
+					long streamingContentLength = getStreamingContentLength(resource, resourceOutputStream,
+							responseHeaderMap, inputStream);
+
+					// If the contents of the resource do not need to be filtered and the length of the contents is
+					// known in advance, then write the input stream directly to the response.
+					if (streamingContentLength >= 0) {
+
+						streamResource(externalContext, inputStream, streamingContentLength, byteBuffer);
+
+						if (logger.isDebugEnabled()) {
+							logger.debug(
+								"HANDLED (SC_OK) resourceName=[{0}], libraryName[{1}], responseContentType=[{2}], " +
+								"responseContentLength=[{3}]",
+								new Object[] {
+									resourceName, libraryName, responseContentType, streamingContentLength
+								});
+						}
+					}
+					else {
 
-					int responseContentLength = 0;
-					readableByteChannel = Channels.newChannel(inputStream);
-					writableByteChannel = Channels.newChannel(resourceOutputStream);
+						// Otherwise, rather than write the input stream directly to the response, write it to an
+						// buffered output stream so that the length can be calculated for the Content-Length header.
+						// See: http://issues.liferay.com/browse/FACES-1207
+						int responseContentLength = 0;
+						readableByteChannel = Channels.newChannel(inputStream);
+						writableByteChannel = Channels.newChannel(resourceOutputStream);
 
-					int bytesRead = readableByteChannel.read(byteBuffer);
+						int bytesRead = readableByteChannel.read(byteBuffer);
 
-					if (logger.isTraceEnabled()) {
+						if (logger.isTraceEnabled()) {
 
-						// Surround with isTraceEnabled check in order to avoid unnecessary conversion of
-						// int to String.
-						logger.trace("Handling - bytesRead=[{0}]", Integer.toString(bytesRead));
-					}
+							// Surround with isTraceEnabled check in order to avoid unnecessary conversion of
+							// int to String.
+							logger.trace("Handling - bytesRead=[{0}]", Integer.toString(bytesRead));
+						}
 
-					int bytesWritten = 0;
+						int bytesWritten = 0;
 
-					while (bytesRead != -1) {
-						byteBuffer.rewind();
-						byteBuffer.limit(bytesRead);
+						while (bytesRead != -1) {
+							byteBuffer.rewind();
+							byteBuffer.limit(bytesRead);
 
-						do {
-							bytesWritten += writableByteChannel.write(byteBuffer);
-						}
-						while (bytesWritten < responseContentLength);
+							do {
+								bytesWritten += writableByteChannel.write(byteBuffer);
+							}
+							while (bytesWritten < responseContentLength);
 
-						byteBuffer.clear();
-						responseContentLength += bytesRead;
-						bytesRead = readableByteChannel.read(byteBuffer);
+							byteBuffer.clear();
+							responseContentLength += bytesRead;
+							bytesRead = readableByteChannel.read(byteBuffer);
 
-						if (logger.isTraceEnabled()) {
+							if (logger.isTraceEnabled()) {
 
-							// Surround with isTraceEnabled check in order to avoid unnecessary conversion
-							// of int to String.
-							logger.trace("Handling - MORE bytesRead=[{0}]", Integer.toString(bytesRead));
+								// Surround with isTraceEnabled check in order to avoid unnecessary conversion
+								// of int to String.
+								logger.trace("Handling - MORE bytesRead=[{0}]", Integer.toString(bytesRead));
+							}
 						}
-					}
 
-					if (resourceOutputStream instanceof Filterable) {
-						Filterable filterable = (Filterable) resourceOutputStream;
-						filterable.filter();
-					}
+						if (resourceOutputStream instanceof Filterable) {
+							Filterable filterable = (Filterable) resourceOutputStream;
+							filterable.filter();
+						}
 
-					responseContentLength = resourceOutputStream.size();
+						responseContentLength = resourceOutputStream.size();
 
-					// Now that we know how big the file is, set the response Content-Length header and the status.
-					externalContext.setResponseContentLength(responseContentLength);
-					externalContext.setResponseStatus(HttpServletResponse.SC_OK);
+						// Now that we know how big the file is, set the response Content-Length header and the status.
+						externalContext.setResponseContentLength(responseContentLength);
+						externalContext.setResponseStatus(HttpServletResponse.SC_OK);
 
-					// Set the response buffer size.
-					externalContext.setResponseBufferSize(responseContentLength);
+						// Set the response buffer size.
+						externalContext.setResponseBufferSize(responseContentLength);
 
-					if (logger.isTraceEnabled()) {
+						if (logger.isTraceEnabled()) {
 
-						// Surround with isTraceEnabled check in order to avoid unnecessary conversion of
-						// int to String.
-						logger.trace("Handling - responseBufferSize=[{0}]", Integer.toString(responseContentLength));
-					}
+							// Surround with isTraceEnabled check in order to avoid unnecessary conversion of
+							// int to String.
+							logger.trace("Handling - responseBufferSize=[{0}]",
+								Integer.toString(responseContentLength));
+						}
 
-					// Write the data to the response.
-					resourceOutputStream.writeTo(externalContext.getResponseOutputStream());
-					resourceOutputStream.flush();
-					resourceOutputStream.close();
+						// Write the data to the response.
+						resourceOutputStream.writeTo(externalContext.getResponseOutputStream());
+						resourceOutputStream.flush();
+						resourceOutputStream.close();
 
-					if (logger.isDebugEnabled()) {
-						logger.debug(
-							"HANDLED (SC_OK) resourceName=[{0}], libraryName[{1}], responseContentType=[{4}], responseContentLength=[{5}]",
-							new Object[] { resourceName, libraryName, responseContentType, responseContentLength });
+						if (logger.isDebugEnabled()) {
+							logger.debug(
+								"HANDLED (SC_OK) resourceName=[{0}], libraryName[{1}], responseContentType=[{2}], " +
+								"responseContentLength=[{3}]",
+								new Object[] { resourceName, libraryName, responseContentType, responseContentLength });
+						}
 					}
 				}
 				else {
@@ -201,7 +229,7 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 			}
 			catch (IOException e) {
 				externalContext.setResponseStatus(HttpServletResponse.SC_NOT_FOUND);
-				logger.error("NOT HANDLED (SC_NOT_FOUND) resourceName=[{0}], libraryName[{1}], errorMessage=[{4}]",
+				logger.error("NOT HANDLED (SC_NOT_FOUND) resourceName=[{0}], libraryName[{1}], errorMessage=[{2}]",
 					new Object[] { resourceName, libraryName, e.getMessage() }, e);
 			}
 			finally {
@@ -237,6 +265,59 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 		return DEFAULT_BUFFER_SIZE;
 	}
 
+	/**
+	 * Writes the contents of the specified input stream directly to the response without buffering all of the contents
+	 * on the heap. If the input stream is backed by a file, then the contents are transferred with {@link
+	 * FileChannel#transferTo(long, long, WritableByteChannel)}.
+	 */
+	protected void streamResource(ExternalContext externalContext, InputStream inputStream, long contentLength,
+		ByteBuffer byteBuffer) throws IOException {
+
+		if (contentLength <= Integer.MAX_VALUE) {
+			externalContext.setResponseContentLength((int) contentLength);
+		}
+
+		externalContext.setResponseStatus(HttpServletResponse.SC_OK);
+
+		OutputStream responseOutputStream = externalContext.getResponseOutputStream();
+		WritableByteChannel writableByteChannel = Channels.newChannel(responseOutputStream);
+
+		if (inputStream instanceof FileInputStream) {
+
+			FileChannel fileChannel = ((FileInputStream) inputStream).getChannel();
+			long position = fileChannel.position();
+			long size = fileChannel.size();
+
+			while (position < size) {
+				position += fileChannel.transferTo(position, size - position, writableByteChannel);
+			}
+		}
+		else {
+
+			ReadableByteChannel readableByteChannel = Channels.newChannel(inputStream);
+			long totalBytesRead = 0L;
+			int bytesRead;
+
+			while ((bytesRead = readableByteChannel.read(byteBuffer)) != -1) {
+				totalBytesRead += bytesRead;
+				byteBuffer.flip();
+
+				while (byteBuffer.hasRemaining()) {
+					writableByteChannel.write(byteBuffer);
+				}
+
+				byteBuffer.clear();
+			}
+
+			if (totalBytesRead != contentLength) {
+				logger.warn("Content-Length=[{0}] does not match the number of bytes=[{1}] written to the response",
+					contentLength, totalBytesRead);
+			}
+		}
+
+		responseOutputStream.flush();
+	}
+
 	protected boolean isAbleToSetHttpStatusCode(FacesContext facesContext) {
 		return true;
 	}
@@ -255,6 +336,56 @@ public class ResourceHandlerWrapperBase extends ResourceHandlerWrapper {
 		return new ResourceOutputStream(resource, size);
 	}
 
+	/**
+	 * Determines the length of the contents of the specified resource in the case that the contents can be written
+	 * directly to the response without first being buffered. The contents must be buffered if the specified resource
+	 * output stream is {@link Filterable} (since the contents will be rewritten), or if the length of the contents
+	 * cannot be known in advance. The length is known in advance if the input stream is backed by a file, or if the
+	 * length is found in the {@link ResourceMetadata} and the stream is known to match the contents of the resource URL
+	 * from which the metadata was determined. That is only the case when the resource is not a {@link ResourceWrapper}
+	 * (that might filter the contents in {@link Resource#getInputStream()}) after unwrapping each {@link
+	 * ContentPreservingResource}, and the JSF implementation will not alter the contents (by encoding them, or by
+	 * evaluating EL expressions in stylesheets).
+	 *
+	 * @return  The length of the contents, or -1 if the contents must be buffered.
+	 */
+	protected long getStreamingContentLength(Resource resource, ResourceOutputStream resourceOutputStream,
+		Map<String, String> responseHeaderMap, InputStream inputStream) throws IOException {
+
+		long streamingContentLength = -1L;
+
+		if (!(resourceOutputStream instanceof Filterable)) {
+
+			if (inputStream instanceof FileInputStream) {
+				FileChannel fileChannel = ((FileInputStream) inputStream).getChannel();
+				streamingContentLength = fileChannel.size() - fileChannel.position();
+			}
+			else {
+
+				Resource unwrappedResource = resource;
+
+				while ((unwrappedResource instanceof ContentPreservingResource) &&
+						(unwrappedResource instanceof ResourceWrapper)) {
+					unwrappedResource = ((ResourceWrapper) unwrappedResource).getWrapped();
+				}
+
+				if (!(unwrappedResource instanceof ResourceWrapper) &&
+						!ContentTypes.TEXT_CSS.equals(resource.getContentType()) &&
+						((responseHeaderMap == null) ||
+							!responseHeaderMap.containsKey(HttpHeaders.CONTENT_ENCODING))) {
+
+					ResourceMetadata resourceMetadata = ResourceMetadataUtil.getResourceMetadata(unwrappedResource);
+
+					if (resourceMetadata != null) {
+						streamingContentLength = resourceMetadata.getContentLength();
+					}
+				}
+			}
+		}
+
+		return streamingContentLength;
+	}
+
 	@Override
 	public ResourceHandler getWrapped() {
 		return wrappedResourceHandler;
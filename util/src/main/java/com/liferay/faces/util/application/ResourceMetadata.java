@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.application;
+
+import java.io.Serializable;
+
+
+/**
+ * This class represents immutable metadata about the contents of a {@link javax.faces.application.Resource} that is
+ * needed in order to answer conditional requests (If-Modified-Since and If-None-Match) and to deliver the resource.
+ *
+ * @author  Neil Griffin
+ */
+public class ResourceMetadata implements Serializable {
+
+	// serialVersionUID
+	private static final long serialVersionUID = 3209537521865437617L;
+
+	// Private Data Members
+	private long contentLength;
+	private String eTag;
+	private long lastModified;
+
+	public ResourceMetadata(long lastModified, long contentLength, String eTag) {
+		this.lastModified = lastModified;
+		this.contentLength = contentLength;
+		this.eTag = eTag;
+	}
+
+	/**
+	 * Returns the length of the resource in bytes, or -1 if the length is unknown.
+	 */
+	public long getContentLength() {
+		return contentLength;
+	}
+
+	/**
+	 * Returns the weak entity tag (including the weak prefix and the surrounding quotes) that was computed from a digest
+	 * of the unfiltered and uncompressed contents of the resource, or <code>null</code> if the contents could not be
+	 * read. It is weak since the same entity tag is sent for every representation of the resource.
+	 */
+	public String getETag() {
+		return eTag;
+	}
+
+	/**
+	 * Returns the date in which the resource was last modified, measured in UTC milliseconds from the epoch, or 0 if
+	 * the date is unknown.
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Returns the date in which the resource was last modified, measured in UTC seconds from the epoch, or 0 if the date
+	 * is unknown.
+	 */
+	public long getLastModifiedInSeconds() {
+		return lastModified / 1000L;
+	}
+}
@@ -0,0 +1,391 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.faces.application.ProjectStage;
+import javax.faces.application.Resource;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import com.liferay.faces.util.lang.StringPool;
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class maintains an application-scoped index of {@link ResourceMetadata} that is shared by all requests, keyed
+ * by the library name, resource name, locale and library version of each {@link Resource}. The metadata for a resource
+ * is determined the first time it is requested by resolving the URL of the resource and reading its contents exactly
+ * once, after which conditional requests can be answered without resolving the URL or opening a connection to the
+ * resource. Since the same entity tag is sent for the filtered and/or compressed representations of a resource, it is a
+ * weak entity tag. Since the index is stored in the
+ * application map, it is discarded along with the application when it is redeployed. When the project stage is
+ * Development the index is bypassed so that changes to resources are picked up without a redeploy.
+ *
+ * @author  Neil Griffin
+ */
+public class ResourceMetadataUtil {
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(ResourceMetadataUtil.class);
+
+	// Private Constants
+	private static final String HTTP_SPEC_DATE_PATTERN = "EEE, dd MMM yyyy HH:mm:ss zzz";
+	private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final String LOCALE_PARAM_NAME = "loc";
+	private static final String RESOURCE_METADATA_INDEX = ResourceMetadataUtil.class.getName() + ".INDEX";
+	private static final String VERSION_PARAM_NAME = "v";
+	private static final String WEAK_PREFIX = "W/";
+
+	// Note that SimpleDateFormat is not thread-safe, so a separate instance is maintained for each thread. It is only
+	// used as a fallback for dates that are not in the preferred RFC 1123 format.
+	private static final ThreadLocal<SimpleDateFormat> HTTP_SPEC_DATE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+
+			@Override
+			protected SimpleDateFormat initialValue() {
+
+				SimpleDateFormat httpSpecDateFormat = new SimpleDateFormat(HTTP_SPEC_DATE_PATTERN, Locale.US);
+				httpSpecDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+				return httpSpecDateFormat;
+			}
+		};
+
+	/**
+	 * Determines whether or not the specified value of an If-None-Match request header matches the specified entity
+	 * tag, according to the weak comparison function that is required for If-None-Match (which ignores the weak
+	 * prefix of both entity tags).
+	 *
+	 * @param   ifNoneMatch  The value of the If-None-Match request header.
+	 * @param   eTag         The (possibly weak) entity tag, including the surrounding quotes.
+	 */
+	public static boolean matchesETag(String ifNoneMatch, String eTag) {
+
+		boolean matches = false;
+
+		if ((ifNoneMatch != null) && (eTag != null)) {
+
+			String trimmedIfNoneMatch = ifNoneMatch.trim();
+
+			if (trimmedIfNoneMatch.equals(StringPool.STAR)) {
+				matches = true;
+			}
+			else {
+
+				// Since the opaque part of the entity tag is quoted, it is sufficient to search for it within the
+				// (possibly comma-delimited and/or weak-prefixed) list of entity tags.
+				String opaqueTag = eTag;
+
+				if (opaqueTag.startsWith(WEAK_PREFIX)) {
+					opaqueTag = opaqueTag.substring(WEAK_PREFIX.length());
+				}
+
+				matches = trimmedIfNoneMatch.contains(opaqueTag);
+			}
+		}
+
+		return matches;
+	}
+
+	/**
+	 * Parses the specified HTTP date (as found in the If-Modified-Since request header) without allocating any objects
+	 * when the date is in the preferred RFC 1123 format (for example "Sun, 06 Nov 1994 08:49:37 GMT").
+	 *
+	 * @return  The date measured in UTC milliseconds from the epoch, or -1 if the date could not be parsed.
+	 */
+	public static long parseHttpDate(String value) {
+
+		long date = -1L;
+
+		if (value != null) {
+
+			int pos = value.indexOf(',') + 2;
+
+			if ((pos > 1) && (value.length() >= (pos + 20)) && (value.charAt(pos + 2) == ' ') &&
+					(value.charAt(pos + 6) == ' ') && (value.charAt(pos + 11) == ' ') &&
+					(value.charAt(pos + 14) == ':') && (value.charAt(pos + 17) == ':')) {
+
+				int day = parseDigits(value, pos, 2);
+				int month = -1;
+
+				for (int i = 0; i < 12; i++) {
+
+					if (value.regionMatches(true, pos + 3, MONTHS, i * 3, 3)) {
+						month = i + 1;
+
+						break;
+					}
+				}
+
+				int year = parseDigits(value, pos + 7, 4);
+				int hours = parseDigits(value, pos + 12, 2);
+				int minutes = parseDigits(value, pos + 15, 2);
+				int seconds = parseDigits(value, pos + 18, 2);
+
+				if ((day > 0) && (month > 0) && (year >= 0) && (hours >= 0) && (minutes >= 0) && (seconds >= 0)) {
+					date = ((((toEpochDay(year, month, day) * 24L) + hours) * 60L + minutes) * 60L + seconds) * 1000L;
+				}
+			}
+
+			if (date == -1L) {
+
+				try {
+					date = HTTP_SPEC_DATE_FORMAT.get().parse(value).getTime();
+				}
+				catch (ParseException e) {
+					logger.debug("Unable to parse HTTP date=[{0}]", value);
+				}
+			}
+		}
+
+		return date;
+	}
+
+	protected static int parseDigits(String value, int beginIndex, int length) {
+
+		int number = 0;
+
+		for (int i = beginIndex; i < (beginIndex + length); i++) {
+
+			char ch = value.charAt(i);
+
+			if ((ch < '0') || (ch > '9')) {
+				return -1;
+			}
+
+			number = (number * 10) + (ch - '0');
+		}
+
+		return number;
+	}
+
+	/**
+	 * Returns the number of days from the epoch (1970-01-01) for the specified date in the proleptic Gregorian
+	 * calendar.
+	 */
+	protected static long toEpochDay(int year, int month, int day) {
+
+		long y = (month <= 2) ? (year - 1) : year;
+		long era = ((y >= 0) ? y : (y - 399)) / 400;
+		long yearOfEra = y - (era * 400);
+		long dayOfYear = (((153 * (month + ((month > 2) ? -3 : 9))) + 2) / 5) + day - 1;
+		long dayOfEra = (yearOfEra * 365) + (yearOfEra / 4) - (yearOfEra / 100) + dayOfYear;
+
+		return (era * 146097) + dayOfEra - 719468;
+	}
+
+	/**
+	 * Returns new metadata for the specified resource, or <code>null</code> if the URL of the resource could not be
+	 * determined.
+	 */
+	protected static ResourceMetadata newResourceMetadata(Resource resource) {
+
+		ResourceMetadata resourceMetadata = null;
+		URL url = resource.getURL();
+
+		if (url != null) {
+			resourceMetadata = newResourceMetadata(url);
+		}
+
+		return resourceMetadata;
+	}
+
+	protected static ResourceMetadata newResourceMetadata(URL url) {
+
+		long lastModified = 0L;
+		long contentLength = -1L;
+		String eTag = null;
+		InputStream inputStream = null;
+
+		try {
+			URLConnection urlConnection = url.openConnection();
+			urlConnection.setUseCaches(false);
+			urlConnection.connect();
+			lastModified = urlConnection.getLastModified();
+			inputStream = urlConnection.getInputStream();
+
+			MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+			byte[] buffer = new byte[ResourceHandlerWrapperBase.DEFAULT_BUFFER_SIZE];
+			long totalBytesRead = 0L;
+			int bytesRead;
+
+			while ((bytesRead = inputStream.read(buffer)) != -1) {
+				messageDigest.update(buffer, 0, bytesRead);
+				totalBytesRead += bytesRead;
+			}
+
+			contentLength = totalBytesRead;
+
+			byte[] digest = messageDigest.digest();
+			char[] eTagChars = new char[(digest.length * 2) + 4];
+			eTagChars[0] = 'W';
+			eTagChars[1] = '/';
+			eTagChars[2] = '"';
+
+			for (int i = 0; i < digest.length; i++) {
+				eTagChars[(i * 2) + 3] = HEX_DIGITS[(digest[i] >> 4) & 0x0f];
+				eTagChars[(i * 2) + 4] = HEX_DIGITS[digest[i] & 0x0f];
+			}
+
+			eTagChars[eTagChars.length - 1] = '"';
+			eTag = new String(eTagChars);
+		}
+		catch (IOException e) {
+			logger.error("Unable to read resource url=[{0}] error=[{1}]", url, e.getMessage());
+		}
+		catch (NoSuchAlgorithmException e) {
+			logger.error(e);
+		}
+		finally {
+
+			if (inputStream != null) {
+
+				try {
+					inputStream.close();
+				}
+				catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+
+		return new ResourceMetadata(lastModified, contentLength, eTag);
+	}
+
+	/**
+	 * Returns the metadata for the specified resource from the index of the current application. If the index does not
+	 * yet contain the metadata, then it is determined (by reading the contents of the resource) and added to the index.
+	 *
+	 * @return  The metadata, or <code>null</code> if the URL of the resource could not be determined.
+	 */
+	public static ResourceMetadata getResourceMetadata(Resource resource) {
+		return getResourceMetadata(FacesContext.getCurrentInstance(), resource);
+	}
+
+	/**
+	 * Returns the metadata for the specified resource from the index of the application associated with the specified
+	 * faces context. If the index does not yet contain the metadata, then it is determined (by reading the contents of
+	 * the resource) and added to the index.
+	 *
+	 * @return  The metadata, or <code>null</code> if the URL of the resource could not be determined.
+	 */
+	public static ResourceMetadata getResourceMetadata(FacesContext facesContext, Resource resource) {
+
+		ResourceMetadata resourceMetadata = null;
+		String resourceName = resource.getResourceName();
+
+		if (resourceName != null) {
+
+			if ((facesContext == null) || facesContext.isProjectStage(ProjectStage.Development)) {
+				resourceMetadata = newResourceMetadata(resource);
+			}
+			else {
+
+				// Since resolving the URL of the resource can be expensive, the key consists of the inputs that the
+				// JSF implementation uses to resolve it: the library name, resource name, locale (of the view, or the
+				// locale prefix requested by the resource URL) and library version (requested by the resource URL).
+				StringBuilder buf = new StringBuilder();
+				String libraryName = resource.getLibraryName();
+
+				if (libraryName != null) {
+					buf.append(libraryName);
+				}
+
+				buf.append(StringPool.FORWARD_SLASH);
+				buf.append(resourceName);
+				buf.append(StringPool.SEMICOLON);
+
+				UIViewRoot viewRoot = facesContext.getViewRoot();
+
+				if ((viewRoot != null) && (viewRoot.getLocale() != null)) {
+					buf.append(viewRoot.getLocale());
+				}
+
+				ExternalContext externalContext = facesContext.getExternalContext();
+				Map<String, String> requestParameterMap = externalContext.getRequestParameterMap();
+				buf.append(StringPool.SEMICOLON);
+
+				String localePrefix = requestParameterMap.get(LOCALE_PARAM_NAME);
+
+				if (localePrefix != null) {
+					buf.append(localePrefix);
+				}
+
+				buf.append(StringPool.SEMICOLON);
+
+				String libraryVersion = requestParameterMap.get(VERSION_PARAM_NAME);
+
+				if (libraryVersion != null) {
+					buf.append(libraryVersion);
+				}
+
+				String key = buf.toString();
+				ConcurrentMap<String, ResourceMetadata> resourceMetadataIndex = getResourceMetadataIndex(
+						externalContext);
+				resourceMetadata = resourceMetadataIndex.get(key);
+
+				if (resourceMetadata == null) {
+
+					resourceMetadata = newResourceMetadata(resource);
+
+					if (resourceMetadata != null) {
+
+						ResourceMetadata existingResourceMetadata = resourceMetadataIndex.putIfAbsent(key,
+								resourceMetadata);
+
+						if (existingResourceMetadata != null) {
+							resourceMetadata = existingResourceMetadata;
+						}
+					}
+				}
+			}
+		}
+
+		return resourceMetadata;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected static ConcurrentMap<String, ResourceMetadata> getResourceMetadataIndex(
+		ExternalContext externalContext) {
+
+		Map<String, Object> applicationMap = externalContext.getApplicationMap();
+		ConcurrentMap<String, ResourceMetadata> resourceMetadataIndex = (ConcurrentMap<String, ResourceMetadata>)
+			applicationMap.get(RESOURCE_METADATA_INDEX);
+
+		// It is harmless if more than one thread creates the index at the same time, since the only consequence is
+		// that the metadata of a resource might be determined more than once.
+		if (resourceMetadataIndex == null) {
+			resourceMetadataIndex = new ConcurrentHashMap<String, ResourceMetadata>();
+			applicationMap.put(RESOURCE_METADATA_INDEX, resourceMetadataIndex);
+		}
+
+		return resourceMetadataIndex;
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.client.internal;
+
+/**
+ * This class is an immutable classification of a User-Agent. The boolean traits are stored in a single bitset so that
+ * a classification is compact enough to be shared by all requests that have the same User-Agent.
+ *
+ * @author  Neil Griffin
+ */
+public class BrowserClassification {
+
+	// Public Constants
+	public static final int AIR = 1;
+	public static final int ANDROID = 1 << 1;
+	public static final int CHROME = 1 << 2;
+	public static final int FIREFOX = 1 << 3;
+	public static final int GECKO = 1 << 4;
+	public static final int IE = 1 << 5;
+	public static final int IE_ON_WIN32 = 1 << 6;
+	public static final int IE_ON_WIN64 = 1 << 7;
+	public static final int IPAD = 1 << 8;
+	public static final int IPHONE = 1 << 9;
+	public static final int LINUX = 1 << 10;
+	public static final int MAC = 1 << 11;
+	public static final int MOBILE = 1 << 12;
+	public static final int MOZILLA = 1 << 13;
+	public static final int OPERA = 1 << 14;
+	public static final int RTF = 1 << 15;
+	public static final int SAFARI = 1 << 16;
+	public static final int SUN = 1 << 17;
+	public static final int WEBKIT = 1 << 18;
+	public static final int WINDOWS = 1 << 19;
+
+	// Private Data Members
+	private final String browserId;
+	private final float majorVersion;
+	private final String revision;
+	private final int traits;
+	private final String version;
+
+	public BrowserClassification(int traits, String browserId, float majorVersion, String version, String revision) {
+		this.traits = traits;
+		this.browserId = browserId;
+		this.majorVersion = majorVersion;
+		this.version = version;
+		this.revision = revision;
+	}
+
+	public boolean is(int trait) {
+		return (traits & trait) != 0;
+	}
+
+	public String getBrowserId() {
+		return browserId;
+	}
+
+	public float getMajorVersion() {
+		return majorVersion;
+	}
+
+	public String getRevision() {
+		return revision;
+	}
+
+	public int getTraits() {
+		return traits;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.client.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.faces.context.ExternalContext;
+
+import com.liferay.faces.util.config.WebConfigParam;
+
+
+/**
+ * This class provides a bounded, least-recently-used cache of {@link BrowserClassification} instances keyed by
+ * User-Agent, so that each distinct User-Agent is classified only once while it remains in use. When the cache is
+ * full, the classification of the least-recently-used User-Agent is evicted. Since the maximum size is configured per
+ * application, the cache is stored in the application map.
+ *
+ * @author  Neil Griffin
+ */
+public class BrowserClassificationCache {
+
+	// Private Constants
+	private static final String ATTRIBUTE_NAME = BrowserClassificationCache.class.getName();
+
+	// Private Data Members
+	private Map<String, BrowserClassification> browserClassifications;
+	private AtomicLong hitCount;
+	private AtomicLong missCount;
+
+	public BrowserClassificationCache(final int maxSize) {
+
+		this.browserClassifications = new LinkedHashMap<String, BrowserClassification>(16, 0.75f, true) {
+
+				// serialVersionUID
+				private static final long serialVersionUID = 2316718224862337218L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, BrowserClassification> eldest) {
+					return size() > maxSize;
+				}
+			};
+		this.hitCount = new AtomicLong();
+		this.missCount = new AtomicLong();
+	}
+
+	/**
+	 * Returns the cache of the application associated with the specified external context, creating it if necessary.
+	 */
+	public static BrowserClassificationCache getInstance(ExternalContext externalContext) {
+
+		Map<String, Object> applicationMap = externalContext.getApplicationMap();
+		BrowserClassificationCache browserClassificationCache = (BrowserClassificationCache) applicationMap.get(
+				ATTRIBUTE_NAME);
+
+		// It is harmless if more than one thread creates the cache at the same time, since the only consequence is that
+		// a User-Agent might be classified more than once.
+		if (browserClassificationCache == null) {
+
+			int maxSize = WebConfigParam.BrowserSnifferCacheSize.getIntegerValue(externalContext);
+			browserClassificationCache = new BrowserClassificationCache(maxSize);
+			applicationMap.put(ATTRIBUTE_NAME, browserClassificationCache);
+		}
+
+		return browserClassificationCache;
+	}
+
+	public void clear() {
+
+		synchronized (browserClassifications) {
+			browserClassifications.clear();
+		}
+
+		hitCount.set(0L);
+		missCount.set(0L);
+	}
+
+	/**
+	 * Returns the cached classification of the specified User-Agent, or <code>null</code> if the User-Agent has not
+	 * yet been classified (or its classification has been evicted).
+	 */
+	public BrowserClassification get(String userAgent) {
+
+		BrowserClassification browserClassification;
+
+		synchronized (browserClassifications) {
+			browserClassification = browserClassifications.get(userAgent);
+		}
+
+		if (browserClassification == null) {
+			missCount.incrementAndGet();
+		}
+		else {
+			hitCount.incrementAndGet();
+		}
+
+		return browserClassification;
+	}
+
+	/**
+	 * Adds the specified classification to the cache, evicting the least-recently-used classification if the cache is
+	 * full.
+	 */
+	public void put(String userAgent, BrowserClassification browserClassification) {
+
+		synchronized (browserClassifications) {
+			browserClassifications.put(userAgent, browserClassification);
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the ratio of lookups that were satisfied by the cache, or 0 if there have not been any lookups.
+	 */
+	public double getHitRate() {
+
+		long hitCount = this.hitCount.get();
+		long lookupCount = hitCount + missCount.get();
+
+		if (lookupCount == 0L) {
+			return 0.0;
+		}
+		else {
+			return (double) hitCount / lookupCount;
+		}
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public int getSize() {
+
+		synchronized (browserClassifications) {
+			return browserClassifications.size();
+		}
+	}
+}
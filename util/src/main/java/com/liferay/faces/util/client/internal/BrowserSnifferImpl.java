@@ -17,6 +17,7 @@ import javax.faces.context.ExternalContext;
 import javax.servlet.http.HttpServletRequest;
 
 import com.liferay.faces.util.client.BrowserSniffer;
+import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.portal.PortalUtil;
 import com.liferay.faces.util.product.ProductConstants;
 import com.liferay.faces.util.product.ProductMap;
@@ -34,6 +35,8 @@ public class BrowserSnifferImpl extends LiferayPortalBrowserSnifferImpl implemen
 		.isDetected();
 
 	// Private Data Members
+	private BrowserClassification browserClassification;
+	private BrowserClassificationCache browserClassificationCache;
 	private HttpServletRequest httpServletRequest;
 
 	public BrowserSnifferImpl(ExternalContext externalContext) {
@@ -48,17 +51,13 @@ public class BrowserSnifferImpl extends LiferayPortalBrowserSnifferImpl implemen
 		else {
 			this.httpServletRequest = (HttpServletRequest) externalContext.getRequest();
 		}
+
+		this.browserClassificationCache = BrowserClassificationCache.getInstance(externalContext);
 	}
 
 	@Override
 	public boolean isIpad() {
-		String userAgent = getUserAgent(httpServletRequest);
-
-		if (userAgent.contains("ipad")) {
-			return true;
-		}
-
-		return false;
+		return getBrowserClassification().is(BrowserClassification.IPAD);
 	}
 
 	@Override
@@ -68,67 +67,67 @@ public class BrowserSnifferImpl extends LiferayPortalBrowserSnifferImpl implemen
 
 	@Override
 	public boolean isIeOnWin32() {
-		return isIeOnWin32(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.IE_ON_WIN32);
 	}
 
 	@Override
 	public boolean isIeOnWin64() {
-		return isIeOnWin64(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.IE_ON_WIN64);
 	}
 
 	@Override
 	public boolean isMozilla() {
-		return isMozilla(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.MOZILLA);
 	}
 
 	@Override
 	public boolean isOpera() {
-		return isOpera(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.OPERA);
 	}
 
 	@Override
 	public String getBrowserId() {
-		return getBrowserId(httpServletRequest);
+		return getBrowserClassification().getBrowserId();
 	}
 
 	@Override
 	public boolean isMac() {
-		return isMac(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.MAC);
 	}
 
 	@Override
 	public boolean isAndroid() {
-		return isAndroid(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.ANDROID);
 	}
 
 	@Override
 	public boolean isChrome() {
-		return isChrome(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.CHROME);
 	}
 
 	@Override
 	public boolean isIe() {
-		return isIe(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.IE);
 	}
 
 	@Override
 	public boolean isIphone() {
-		return isIphone(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.IPHONE);
 	}
 
 	@Override
 	public boolean isMobile() {
-		return isMobile(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.MOBILE);
 	}
 
 	@Override
 	public boolean isRtf() {
-		return isRtf(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.RTF);
 	}
 
 	@Override
 	public boolean isSafari() {
-		return isSafari(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.SAFARI);
 	}
 
 	@Override
@@ -143,17 +142,17 @@ public class BrowserSnifferImpl extends LiferayPortalBrowserSnifferImpl implemen
 
 	@Override
 	public float getMajorVersion() {
-		return getMajorVersion(httpServletRequest);
+		return getBrowserClassification().getMajorVersion();
 	}
 
 	@Override
 	public boolean isSun() {
-		return isSun(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.SUN);
 	}
 
 	@Override
 	public boolean isGecko() {
-		return isGecko(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.GECKO);
 	}
 
 	@Override
@@ -163,36 +162,152 @@ public class BrowserSnifferImpl extends LiferayPortalBrowserSnifferImpl implemen
 
 	@Override
 	public boolean isAir() {
-		return isAir(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.AIR);
 	}
 
 	@Override
 	public String getRevision() {
-		return getRevision(httpServletRequest);
+		return getBrowserClassification().getRevision();
 	}
 
 	@Override
 	public boolean isWindows() {
-		return isWindows(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.WINDOWS);
 	}
 
 	@Override
 	public boolean isWebKit() {
-		return isWebKit(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.WEBKIT);
 	}
 
 	@Override
 	public String getVersion() {
-		return getVersion(httpServletRequest);
+		return getBrowserClassification().getVersion();
 	}
 
 	@Override
 	public boolean isFirefox() {
-		return isFirefox(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.FIREFOX);
 	}
 
 	@Override
 	public boolean isLinux() {
-		return isLinux(httpServletRequest);
+		return getBrowserClassification().is(BrowserClassification.LINUX);
+	}
+
+	/**
+	 * Returns the classification of the User-Agent of the current request. Since the traits of a browser depend only
+	 * on the User-Agent, the classification is cached and shared by all requests with the same User-Agent.
+	 * Traits that depend on other request headers (such as Accept and Accept-Encoding) are not part of the
+	 * classification.
+	 */
+	protected BrowserClassification getBrowserClassification() {
+
+		if (browserClassification == null) {
+
+			String userAgent = getUserAgent(httpServletRequest);
+			browserClassification = browserClassificationCache.get(userAgent);
+
+			if (browserClassification == null) {
+				browserClassification = newBrowserClassification(userAgent);
+				browserClassificationCache.put(userAgent, browserClassification);
+			}
+		}
+
+		return browserClassification;
+	}
+
+	protected BrowserClassification newBrowserClassification(String userAgent) {
+
+		// Without the underlying HttpServletRequest the version and revision can't be parsed, and none of the traits
+		// are present.
+		if (httpServletRequest == null) {
+			return new BrowserClassification(0, BROWSER_ID_OTHER, 0, StringPool.BLANK, StringPool.BLANK);
+		}
+
+		int traits = 0;
+
+		if (isAir(httpServletRequest)) {
+			traits |= BrowserClassification.AIR;
+		}
+
+		if (isAndroid(httpServletRequest)) {
+			traits |= BrowserClassification.ANDROID;
+		}
+
+		if (isChrome(httpServletRequest)) {
+			traits |= BrowserClassification.CHROME;
+		}
+
+		if (isFirefox(httpServletRequest)) {
+			traits |= BrowserClassification.FIREFOX;
+		}
+
+		if (isGecko(httpServletRequest)) {
+			traits |= BrowserClassification.GECKO;
+		}
+
+		if (isIe(httpServletRequest)) {
+			traits |= BrowserClassification.IE;
+		}
+
+		if (isIeOnWin32(httpServletRequest)) {
+			traits |= BrowserClassification.IE_ON_WIN32;
+		}
+
+		if (isIeOnWin64(httpServletRequest)) {
+			traits |= BrowserClassification.IE_ON_WIN64;
+		}
+
+		if (userAgent.contains("ipad")) {
+			traits |= BrowserClassification.IPAD;
+		}
+
+		if (isIphone(httpServletRequest)) {
+			traits |= BrowserClassification.IPHONE;
+		}
+
+		if (isLinux(httpServletRequest)) {
+			traits |= BrowserClassification.LINUX;
+		}
+
+		if (isMac(httpServletRequest)) {
+			traits |= BrowserClassification.MAC;
+		}
+
+		if (isMobile(httpServletRequest)) {
+			traits |= BrowserClassification.MOBILE;
+		}
+
+		if (isMozilla(httpServletRequest)) {
+			traits |= BrowserClassification.MOZILLA;
+		}
+
+		if (isOpera(httpServletRequest)) {
+			traits |= BrowserClassification.OPERA;
+		}
+
+		if (isRtf(httpServletRequest)) {
+			traits |= BrowserClassification.RTF;
+		}
+
+		if (isSafari(httpServletRequest)) {
+			traits |= BrowserClassification.SAFARI;
+		}
+
+		if (isSun(httpServletRequest)) {
+			traits |= BrowserClassification.SUN;
+		}
+
+		if (isWebKit(httpServletRequest)) {
+			traits |= BrowserClassification.WEBKIT;
+		}
+
+		if (isWindows(httpServletRequest)) {
+			traits |= BrowserClassification.WINDOWS;
+		}
+
+		return new BrowserClassification(traits, getBrowserId(httpServletRequest), getMajorVersion(httpServletRequest),
+				getVersion(httpServletRequest), getRevision(httpServletRequest));
 	}
 }
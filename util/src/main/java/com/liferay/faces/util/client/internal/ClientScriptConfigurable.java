@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.client.internal;
+
+import com.liferay.faces.util.client.ClientScript;
+
+
+/**
+ * This interface is implemented by the {@link ClientScript} implementations that are able to coalesce script content
+ * that requires a YUI config. Since it is not part of the public API, the {@link ClientScript} interface (and
+ * implementations that are provided by third parties) are unaffected by it.
+ *
+ * @author  Neil Griffin
+ */
+public interface ClientScriptConfigurable extends ClientScript {
+
+	/**
+	 * Appends script content that requires the specified YUI config. Content that is appended with the same config is
+	 * rendered in a single sandbox that uses all of the modules that were specified for that config.
+	 *
+	 * @param  content  The script content.
+	 * @param  use      The comma-delimited list of modules that the content uses.
+	 * @param  config   The YUI config, or null if the content does not require a config.
+	 */
+	public void append(String content, String use, String config);
+}
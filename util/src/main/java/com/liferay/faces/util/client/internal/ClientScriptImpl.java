@@ -14,57 +14,70 @@
 package com.liferay.faces.util.client.internal;
 
 import java.io.Serializable;
-import java.util.Arrays;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.faces.context.FacesContext;
 
-import com.liferay.faces.util.client.ClientScript;
 import com.liferay.faces.util.lang.StringPool;
-import com.liferay.faces.util.render.internal.RendererUtil;
 
 
 /**
+ * This class coalesces the script content that uses YUI modules into a single sandbox per YUI config, so that the YUI
+ * loader is invoked once (with the union of the modules) rather than once for each component.
+ *
  * @author  Neil Griffin
  */
-public class ClientScriptImpl implements ClientScript, Serializable {
+public class ClientScriptImpl implements ClientScriptConfigurable, Serializable {
 
 	// serialVersionUID
 	private static final long serialVersionUID = 875641899489661794L;
 
 	// Private Data Members
-	private StringBuilder alloyJavaScript;
 	private StringBuilder javascript;
-	private Set<String> useSet;
+	private Map<String, ClientScriptSandbox> sandboxes;
 
 	public ClientScriptImpl() {
-		this.alloyJavaScript = new StringBuilder();
 		this.javascript = new StringBuilder();
-		this.useSet = new TreeSet<String>();
+		this.sandboxes = new LinkedHashMap<String, ClientScriptSandbox>();
 	}
 
 	@Override
 	public void append(String content, String use) {
+		append(content, use, null);
+	}
+
+	@Override
+	public void append(String content, String use, String config) {
+
+		boolean configured = (config != null) && (config.length() > 0);
 
-		if ((use == null) || (use.trim().length() == 0)) {
+		if (((use == null) || (use.trim().length() == 0)) && !configured) {
 			javascript.append(content);
 		}
 		else {
-			alloyJavaScript.append("(function() {");
-			alloyJavaScript.append(content);
-			alloyJavaScript.append("})();");
 
-			String[] useArray = use.split(StringPool.COMMA);
-			useSet.addAll(Arrays.asList(useArray));
+			String sandboxKey = StringPool.BLANK;
+
+			if (configured) {
+				sandboxKey = config;
+			}
+
+			ClientScriptSandbox sandbox = sandboxes.get(sandboxKey);
+
+			if (sandbox == null) {
+				sandbox = new ClientScriptSandbox();
+				sandboxes.put(sandboxKey, sandbox);
+			}
+
+			sandbox.append(content, use);
 		}
 	}
 
 	@Override
 	public void clear() {
-		alloyJavaScript.setLength(0);
 		javascript.setLength(0);
-		useSet.clear();
+		sandboxes.clear();
 	}
 
 	@Override
@@ -72,16 +85,17 @@ public class ClientScriptImpl implements ClientScript, Serializable {
 
 		StringBuilder value = new StringBuilder();
 
-		value.append(javascript.toString());
+		value.append(javascript);
 
-		if (alloyJavaScript.length() > 0) {
+		if (!sandboxes.isEmpty()) {
 
 			FacesContext facesContext = FacesContext.getCurrentInstance();
-			String[] useArray = new String[useSet.size()];
-			String alloyBeginScript = RendererUtil.getAlloyBeginScript(facesContext, useSet.toArray(useArray));
-			value.append(alloyBeginScript);
-			value.append(alloyJavaScript.toString());
-			value.append("});");
+
+			for (Map.Entry<String, ClientScriptSandbox> mapEntry : sandboxes.entrySet()) {
+
+				ClientScriptSandbox sandbox = mapEntry.getValue();
+				value.append(sandbox.toString(facesContext, mapEntry.getKey()));
+			}
 		}
 
 		return value.toString();
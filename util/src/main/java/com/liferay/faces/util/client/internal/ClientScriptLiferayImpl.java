@@ -13,6 +13,7 @@
  */
 package com.liferay.faces.util.client.internal;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.faces.context.ExternalContext;
@@ -29,9 +30,10 @@ import com.liferay.portal.kernel.servlet.taglib.aui.ScriptData;
 /**
  * @author  Neil Griffin
  */
-public class ClientScriptLiferayImpl extends ClientScriptLiferayCompatImpl {
+public class ClientScriptLiferayImpl extends ClientScriptLiferayCompatImpl implements ClientScriptConfigurable {
 
 	// Private Data Members
+	private Map<String, ClientScriptSandbox> sandboxes = new LinkedHashMap<String, ClientScriptSandbox>();
 	private ScriptData scriptData;
 
 	@Override
@@ -57,6 +59,30 @@ public class ClientScriptLiferayImpl extends ClientScriptLiferayCompatImpl {
 		appendScriptData(scriptData, portletId, content, use);
 	}
 
+	/**
+	 * Since the {@link ScriptData} of Liferay Portal is unable to render a YUI config, script content that requires a
+	 * config is buffered in a sandbox per config until the sandboxes are flushed to the {@link ScriptData} by {@link
+	 * #flush()}.
+	 */
+	@Override
+	public void append(String content, String use, String config) {
+
+		if ((config == null) || (config.length() == 0)) {
+			append(content, use);
+		}
+		else {
+
+			ClientScriptSandbox sandbox = sandboxes.get(config);
+
+			if (sandbox == null) {
+				sandbox = new ClientScriptSandbox();
+				sandboxes.put(config, sandbox);
+			}
+
+			sandbox.append(content, use);
+		}
+	}
+
 	@Override
 	public void clear() {
 
@@ -64,10 +90,35 @@ public class ClientScriptLiferayImpl extends ClientScriptLiferayCompatImpl {
 		Map<String, Object> requestMap = extFacesContext.getExternalContext().getRequestMap();
 		requestMap.remove(WebKeys.AUI_SCRIPT_DATA);
 		scriptData = null;
+		sandboxes.clear();
+	}
+
+	/**
+	 * Appends each of the buffered sandboxes to the {@link ScriptData} as a single script. This method is called after
+	 * the RENDER_RESPONSE phase by {@link ClientScriptPhaseListener} so that the sandboxes are present when Liferay
+	 * Portal renders (or merges) the {@link ScriptData} of the portlet.
+	 */
+	public void flush() {
+
+		if (!sandboxes.isEmpty()) {
+
+			FacesContext facesContext = FacesContext.getCurrentInstance();
+
+			for (Map.Entry<String, ClientScriptSandbox> mapEntry : sandboxes.entrySet()) {
+
+				ClientScriptSandbox sandbox = mapEntry.getValue();
+				append(sandbox.toString(facesContext, mapEntry.getKey()), null);
+			}
+
+			sandboxes.clear();
+		}
 	}
 
 	@Override
 	public String toString() {
+
+		flush();
+
 		return getScriptText(FacesContext.getCurrentInstance(), scriptData);
 	}
 }
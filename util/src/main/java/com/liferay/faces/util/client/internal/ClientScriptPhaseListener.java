@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.client.internal;
+
+import java.util.Map;
+
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PhaseListener;
+
+
+/**
+ * This class is a JSF {@link PhaseListener} that flushes the sandboxes that are buffered by {@link
+ * ClientScriptLiferayImpl} after the RENDER_RESPONSE phase.
+ *
+ * @author  Neil Griffin
+ */
+public class ClientScriptPhaseListener implements PhaseListener {
+
+	// serialVersionUID
+	private static final long serialVersionUID = 2716306484384853287L;
+
+	public void afterPhase(PhaseEvent phaseEvent) {
+
+		FacesContext facesContext = phaseEvent.getFacesContext();
+		Map<String, Object> requestMap = facesContext.getExternalContext().getRequestMap();
+		Object clientScript = requestMap.get(ClientScriptFactoryImpl.class.getName());
+
+		if (clientScript instanceof ClientScriptLiferayImpl) {
+
+			ClientScriptLiferayImpl clientScriptLiferayImpl = (ClientScriptLiferayImpl) clientScript;
+			clientScriptLiferayImpl.flush();
+		}
+	}
+
+	public void beforePhase(PhaseEvent phaseEvent) {
+		// no-op
+	}
+
+	public PhaseId getPhaseId() {
+		return PhaseId.RENDER_RESPONSE;
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.client.internal;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.faces.context.FacesContext;
+
+import com.liferay.faces.util.lang.StringPool;
+import com.liferay.faces.util.render.internal.RendererUtil;
+
+
+/**
+ * This class accumulates the script content of a single sandbox along with the de-duplicated union of the YUI modules
+ * that the content uses.
+ *
+ * @author  Neil Griffin
+ */
+class ClientScriptSandbox implements Serializable {
+
+	// serialVersionUID
+	private static final long serialVersionUID = 4413082396174581047L;
+
+	// Private Data Members
+	private StringBuilder alloyJavaScript = new StringBuilder();
+	private Set<String> useSet = new TreeSet<String>();
+
+	public void append(String content, String use) {
+
+		alloyJavaScript.append("(function() {");
+		alloyJavaScript.append(content);
+		alloyJavaScript.append("})();");
+
+		if (use != null) {
+
+			// Trim the module names so that the same module is not used more than once because of whitespace.
+			for (String module : use.split(StringPool.COMMA)) {
+
+				module = module.trim();
+
+				if (module.length() > 0) {
+					useSet.add(module);
+				}
+			}
+		}
+	}
+
+	public String toString(FacesContext facesContext, String config) {
+
+		String[] useArray = useSet.toArray(new String[useSet.size()]);
+		String alloyBeginScript = RendererUtil.getAlloyBeginScript(facesContext, useArray, config);
+
+		StringBuilder value = new StringBuilder(alloyBeginScript.length() + alloyJavaScript.length() + 3);
+		value.append(alloyBeginScript);
+		value.append(alloyJavaScript);
+		value.append("});");
+
+		return value.toString();
+	}
+}
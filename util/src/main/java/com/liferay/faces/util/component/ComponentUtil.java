@@ -28,6 +28,7 @@ import javax.faces.component.html.HtmlOutputLabel;
 import javax.faces.context.FacesContext;
 import javax.faces.convert.Converter;
 
+import com.liferay.faces.util.component.internal.ClientIdIndex;
 import com.liferay.faces.util.lang.StringPool;
 
 
@@ -170,29 +171,24 @@ public class ComponentUtil {
 
 	public static UIComponent matchComponentInHierarchy(FacesContext facesContext, UIComponent parent,
 		String partialClientId) {
+
 		UIComponent uiComponent = null;
 
 		if (parent != null) {
 
-			String parentClientId = parent.getClientId(facesContext);
+			// If the parent is part of the current view, then resolve the partial client id through the request-scoped
+			// index of client ids rather than walking the component tree.
+			ClientIdIndex clientIdIndex = null;
 
-			if ((parentClientId != null) && (parentClientId.indexOf(partialClientId) >= 0)) {
-				uiComponent = parent;
+			if (facesContext != null) {
+				clientIdIndex = ClientIdIndex.getInstance(facesContext);
 			}
-			else {
-				Iterator<UIComponent> itr = parent.getFacetsAndChildren();
 
-				if (itr != null) {
-
-					while (itr.hasNext()) {
-						UIComponent child = itr.next();
-						uiComponent = matchComponentInHierarchy(facesContext, child, partialClientId);
-
-						if (uiComponent != null) {
-							break;
-						}
-					}
-				}
+			if ((clientIdIndex != null) && clientIdIndex.contains(parent)) {
+				uiComponent = clientIdIndex.matchComponent(facesContext, parent, partialClientId);
+			}
+			else {
+				uiComponent = walkComponentHierarchy(facesContext, parent, partialClientId);
 			}
 		}
 
@@ -299,4 +295,36 @@ public class ComponentUtil {
 
 		return siblingLabelValue;
 	}
+
+	private static UIComponent walkComponentHierarchy(FacesContext facesContext, UIComponent parent,
+		String partialClientId) {
+
+		UIComponent uiComponent = null;
+
+		if (parent != null) {
+
+			String parentClientId = parent.getClientId(facesContext);
+
+			if ((parentClientId != null) && (parentClientId.indexOf(partialClientId) >= 0)) {
+				uiComponent = parent;
+			}
+			else {
+				Iterator<UIComponent> itr = parent.getFacetsAndChildren();
+
+				if (itr != null) {
+
+					while (itr.hasNext()) {
+						UIComponent child = itr.next();
+						uiComponent = walkComponentHierarchy(facesContext, child, partialClientId);
+
+						if (uiComponent != null) {
+							break;
+						}
+					}
+				}
+			}
+		}
+
+		return uiComponent;
+	}
 }
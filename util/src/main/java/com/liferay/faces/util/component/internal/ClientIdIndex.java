@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.component.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIData;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseId;
+
+
+/**
+ * This class provides an index of the client ids of the components in the view, which is used to match partial client
+ * ids without walking the component tree (and calling {@link UIComponent#getClientId(FacesContext)}) on every lookup.
+ * The components are recorded in depth-first order so that the subtree of any component is a contiguous range, and the
+ * first match within the entire view is remembered for each partial client id.
+ *
+ * <p>The client ids of the descendants of an iterating component (like {@link UIData} or ui:repeat) depend on the
+ * current row, so they are not recorded. Instead, the descendants of an iterating component are searched by walking
+ * the component tree at the time of the lookup, which means that they are resolved against the current row just as
+ * they would be without the index.</p>
+ *
+ * <p>The index is built lazily on the first lookup and is only used for the lifecycle phase in which it was built. In
+ * addition, the index is discarded by {@link ClientIdIndexListener} whenever a component is added to or removed from
+ * the view, so a lookup that finds no match in the index does not need to walk the component tree.</p>
+ *
+ * @author  Neil Griffin
+ */
+public class ClientIdIndex {
+
+	// Private Constants
+	private static final String ATTRIBUTE_NAME = ClientIdIndex.class.getName();
+	private static final int NO_MATCH = -1;
+	private static final String UI_REPEAT_CLASS_NAME_SUFFIX = ".UIRepeat";
+
+	// Private Data Members
+	private String[] clientIds;
+	private UIComponent[] components;
+	private Map<String, Integer> firstMatches;
+	private int[] iteratorPositions;
+	private PhaseId phaseId;
+	private Map<UIComponent, Integer> positions;
+	private int[] subtreeEnds;
+	private UIViewRoot uiViewRoot;
+
+	private ClientIdIndex(FacesContext facesContext, UIViewRoot uiViewRoot) {
+
+		List<UIComponent> componentList = new ArrayList<UIComponent>();
+		List<String> clientIdList = new ArrayList<String>();
+		List<Integer> subtreeEndList = new ArrayList<Integer>();
+		List<Integer> iteratorPositionList = new ArrayList<Integer>();
+		addComponent(facesContext, uiViewRoot, componentList, clientIdList, subtreeEndList, iteratorPositionList);
+
+		int size = componentList.size();
+		this.components = componentList.toArray(new UIComponent[size]);
+		this.clientIds = clientIdList.toArray(new String[size]);
+		this.subtreeEnds = new int[size];
+		this.positions = new IdentityHashMap<UIComponent, Integer>(size);
+
+		for (int i = 0; i < size; i++) {
+			this.subtreeEnds[i] = subtreeEndList.get(i);
+			this.positions.put(components[i], i);
+		}
+
+		this.iteratorPositions = new int[iteratorPositionList.size()];
+
+		for (int i = 0; i < iteratorPositions.length; i++) {
+			this.iteratorPositions[i] = iteratorPositionList.get(i);
+		}
+
+		this.firstMatches = new HashMap<String, Integer>();
+		this.phaseId = facesContext.getCurrentPhaseId();
+		this.uiViewRoot = uiViewRoot;
+	}
+
+	/**
+	 * Returns the index of the view of the specified context, building it if necessary. Returns null if there is no
+	 * view.
+	 */
+	public static ClientIdIndex getInstance(FacesContext facesContext) {
+
+		ClientIdIndex clientIdIndex = null;
+		UIViewRoot uiViewRoot = facesContext.getViewRoot();
+
+		if (uiViewRoot != null) {
+
+			Map<Object, Object> attributes = facesContext.getAttributes();
+			clientIdIndex = (ClientIdIndex) attributes.get(ATTRIBUTE_NAME);
+
+			if ((clientIdIndex == null) || (clientIdIndex.uiViewRoot != uiViewRoot) ||
+					(clientIdIndex.phaseId != facesContext.getCurrentPhaseId())) {
+				clientIdIndex = new ClientIdIndex(facesContext, uiViewRoot);
+				attributes.put(ATTRIBUTE_NAME, clientIdIndex);
+			}
+		}
+
+		return clientIdIndex;
+	}
+
+	/**
+	 * Discards the index of the view of the specified context (if any) so that it will be rebuilt on the next lookup.
+	 */
+	public static void invalidate(FacesContext facesContext) {
+		facesContext.getAttributes().remove(ATTRIBUTE_NAME);
+	}
+
+	private static void addComponent(FacesContext facesContext, UIComponent uiComponent,
+		List<UIComponent> componentList, List<String> clientIdList, List<Integer> subtreeEndList,
+		List<Integer> iteratorPositionList) {
+
+		int position = componentList.size();
+		componentList.add(uiComponent);
+		clientIdList.add(uiComponent.getClientId(facesContext));
+		subtreeEndList.add(null);
+
+		// The client ids of the descendants of an iterating component depend on the current row, so the descendants
+		// are not recorded.
+		if (isIterating(uiComponent)) {
+			iteratorPositionList.add(position);
+		}
+		else {
+
+			Iterator<UIComponent> itr = uiComponent.getFacetsAndChildren();
+
+			if (itr != null) {
+
+				while (itr.hasNext()) {
+					addComponent(facesContext, itr.next(), componentList, clientIdList, subtreeEndList,
+						iteratorPositionList);
+				}
+			}
+		}
+
+		subtreeEndList.set(position, componentList.size());
+	}
+
+	private static boolean isIterating(UIComponent uiComponent) {
+		return (uiComponent instanceof UIData) ||
+			uiComponent.getClass().getName().endsWith(UI_REPEAT_CLASS_NAME_SUFFIX);
+	}
+
+	private static UIComponent walkFacetsAndChildren(FacesContext facesContext, UIComponent parent,
+		String partialClientId) {
+
+		UIComponent uiComponent = null;
+		Iterator<UIComponent> itr = parent.getFacetsAndChildren();
+
+		if (itr != null) {
+
+			while ((uiComponent == null) && itr.hasNext()) {
+
+				UIComponent child = itr.next();
+				String clientId = child.getClientId(facesContext);
+
+				if ((clientId != null) && (clientId.indexOf(partialClientId) >= 0)) {
+					uiComponent = child;
+				}
+				else {
+					uiComponent = walkFacetsAndChildren(facesContext, child, partialClientId);
+				}
+			}
+		}
+
+		return uiComponent;
+	}
+
+	/**
+	 * Returns true if the specified component is part of the indexed view.
+	 */
+	public boolean contains(UIComponent uiComponent) {
+		return positions.containsKey(uiComponent);
+	}
+
+	/**
+	 * Returns the first component (in depth-first order) of the subtree of the specified parent whose client id
+	 * contains the specified partial client id, or null if there is no such component. The parent must be part of the
+	 * indexed view.
+	 */
+	public UIComponent matchComponent(FacesContext facesContext, UIComponent parent, String partialClientId) {
+
+		int start = positions.get(parent);
+		int end = subtreeEnds[start];
+		Integer firstMatch = firstMatches.get(partialClientId);
+
+		if (firstMatch == null) {
+			firstMatch = findFirstMatch(0, components.length, partialClientId);
+			firstMatches.put(partialClientId, firstMatch);
+		}
+
+		// If there is no match in the entire view, or the first match in the view comes after the subtree, then there
+		// is no match among the recorded client ids of the subtree. If the first match in the view falls within the
+		// subtree then it is the first recorded match in the subtree. Otherwise, the subtree must be searched.
+		int match = firstMatch;
+
+		if ((match < 0) || (match >= end)) {
+			match = NO_MATCH;
+		}
+		else if (match < start) {
+			match = findFirstMatch(start, end, partialClientId);
+		}
+
+		UIComponent uiComponent = null;
+
+		// If an iterating component precedes the recorded match within the subtree, then one of its descendants
+		// might match the partial client id for the current row, so the descendants must be searched in order.
+		int iteratorLimit = (match >= 0) ? match : end;
+		int iterator = findFirstIterator(start, iteratorLimit);
+
+		while ((uiComponent == null) && (iterator != NO_MATCH)) {
+
+			uiComponent = walkFacetsAndChildren(facesContext, components[iterator], partialClientId);
+
+			if (uiComponent == null) {
+				iterator = findFirstIterator(iterator + 1, iteratorLimit);
+			}
+		}
+
+		if ((uiComponent == null) && (match >= 0)) {
+			uiComponent = components[match];
+		}
+
+		return uiComponent;
+	}
+
+	private int findFirstIterator(int start, int end) {
+
+		int iterator = NO_MATCH;
+		int pos = Arrays.binarySearch(iteratorPositions, start);
+
+		if (pos < 0) {
+			pos = -(pos + 1);
+		}
+
+		if ((pos < iteratorPositions.length) && (iteratorPositions[pos] < end)) {
+			iterator = iteratorPositions[pos];
+		}
+
+		return iterator;
+	}
+
+	private int findFirstMatch(int start, int end, String partialClientId) {
+
+		int match = NO_MATCH;
+
+		for (int i = start; i < end; i++) {
+
+			String clientId = clientIds[i];
+
+			if ((clientId != null) && (clientId.indexOf(partialClientId) >= 0)) {
+				match = i;
+
+				break;
+			}
+		}
+
+		return match;
+	}
+}
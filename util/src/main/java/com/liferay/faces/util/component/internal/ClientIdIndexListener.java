@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.component.internal;
+
+import javax.faces.component.UIComponent;
+import javax.faces.context.FacesContext;
+import javax.faces.event.AbortProcessingException;
+import javax.faces.event.SystemEvent;
+import javax.faces.event.SystemEventListener;
+
+
+/**
+ * This class is a system event listener for the {@link javax.faces.event.PostAddToViewEvent} and {@link
+ * javax.faces.event.PreRemoveFromViewEvent} of every component, which discards the {@link ClientIdIndex} of the view
+ * whenever a component is added to or removed from the view, so that the index can trust its misses.
+ *
+ * @author  Neil Griffin
+ */
+public class ClientIdIndexListener implements SystemEventListener {
+
+	public boolean isListenerForSource(Object source) {
+		return (source instanceof UIComponent);
+	}
+
+	public void processEvent(SystemEvent systemEvent) throws AbortProcessingException {
+
+		FacesContext facesContext = FacesContext.getCurrentInstance();
+
+		if (facesContext != null) {
+			ClientIdIndex.invalidate(facesContext);
+		}
+	}
+}
@@ -13,6 +13,7 @@
  */
 package com.liferay.faces.util.config;
 
+import java.io.File;
 import java.io.IOException;
 
 import javax.faces.context.ExternalContext;
@@ -34,11 +35,27 @@ public class ApplicationConfigInitializerImpl implements ApplicationConfigInitia
 
 	// Private Data Members
 	private String contextPath;
+	private int parserThreads;
 	private boolean resolveEntities;
+	private File snapshotDir;
 
 	public ApplicationConfigInitializerImpl(String contextPath, boolean resolveEntities) {
+		this(contextPath, resolveEntities, 1, null);
+	}
+
+	/**
+	 * @param  contextPath      The context path of the web application.
+	 * @param  resolveEntities  Flag indicating whether or not XML entities should be resolved.
+	 * @param  parserThreads    The number of threads that are used to parse descriptors found in the classpath.
+	 * @param  snapshotDir      The directory in which a snapshot of the configuration is stored, or null if snapshots
+	 *                          are not to be used.
+	 */
+	public ApplicationConfigInitializerImpl(String contextPath, boolean resolveEntities, int parserThreads,
+		File snapshotDir) {
 		this.contextPath = contextPath;
 		this.resolveEntities = resolveEntities;
+		this.parserThreads = parserThreads;
+		this.snapshotDir = snapshotDir;
 	}
 
 	public ApplicationConfig initialize() throws IOException {
@@ -49,27 +66,54 @@ public class ApplicationConfigInitializerImpl implements ApplicationConfigInitia
 		// Obtain a ResourceReader that is compatible with a startup ExternalContext
 		ResourceReader resourceReader = newResourceReader();
 
+		// If the descriptors have not changed since the snapshot was stored, then skip parsing them.
+		ApplicationConfigSnapshotStore snapshotStore = null;
+		String snapshotKey = null;
+
+		if (snapshotDir != null) {
+
+			snapshotStore = new ApplicationConfigSnapshotStore(snapshotDir, contextPath);
+			snapshotKey = snapshotStore.getKey(classLoader, resourceReader, resolveEntities);
+
+			if (snapshotKey != null) {
+
+				ApplicationConfig applicationConfig = snapshotStore.read(snapshotKey, contextPath);
+
+				if (applicationConfig != null) {
+					logger.info("Using config snapshot for contextPath=[{0}]", contextPath);
+
+					return applicationConfig;
+				}
+			}
+		}
+
 		// Obtain a SAX Parser Factory.
 		SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
 		saxParserFactory.setValidating(false);
 		saxParserFactory.setNamespaceAware(true);
 
-		try {
+		// Obtain a pool that provides each of its threads with a SAX Parser from the factory.
+		DescriptorParserPool descriptorParserPool = new DescriptorParserPool(saxParserFactory, parserThreads);
 
-			// Obtain a SAX Parser from the factory.
-			SAXParser saxParser = saxParserFactory.newSAXParser();
+		try {
 
 			// Scan all the web.xml and web-fragment.xml descriptors in the classpath.
-			WebConfigScanner webConfigScanner = newWebConfigScanner(classLoader, resourceReader, saxParser,
-					resolveEntities);
+			WebConfigScanner webConfigScanner = newWebConfigScanner(classLoader, resourceReader,
+					descriptorParserPool, resolveEntities);
 			WebConfig webConfig = webConfigScanner.scan();
 
 			// Scan all the faces-config.xml descriptors in the classpath.
-			FacesConfigScanner facesConfigScanner = newFacesConfigScanner(classLoader, resourceReader, saxParser,
-					resolveEntities, webConfig);
+			FacesConfigScanner facesConfigScanner = newFacesConfigScanner(classLoader, resourceReader,
+					descriptorParserPool, resolveEntities, webConfig);
 			FacesConfig facesConfig = facesConfigScanner.scan();
 
-			return new ApplicationConfigImpl(contextPath, facesConfig, webConfig);
+			ApplicationConfig applicationConfig = new ApplicationConfigImpl(contextPath, facesConfig, webConfig);
+
+			if (snapshotKey != null) {
+				snapshotStore.write(snapshotKey, applicationConfig);
+			}
+
+			return applicationConfig;
 		}
 		catch (Exception e) {
 
@@ -78,6 +122,15 @@ public class ApplicationConfigInitializerImpl implements ApplicationConfigInitia
 			logger.error(e);
 			throw new IOException(e.getMessage());
 		}
+		finally {
+			descriptorParserPool.close();
+		}
+	}
+
+	protected FacesConfigScanner newFacesConfigScanner(ClassLoader classLoader, ResourceReader resourceReader,
+		DescriptorParserPool descriptorParserPool, boolean resolveEntities, WebConfig webConfig) {
+		return new FacesConfigScannerImpl(classLoader, resourceReader, descriptorParserPool, resolveEntities,
+				webConfig);
 	}
 
 	protected FacesConfigScanner newFacesConfigScanner(ClassLoader classLoader, ResourceReader resourceReader,
@@ -97,4 +150,9 @@ public class ApplicationConfigInitializerImpl implements ApplicationConfigInitia
 		return new WebConfigScannerImpl(classLoader, resourceReader, saxParser, resolveEntities);
 	}
 
+	protected WebConfigScanner newWebConfigScanner(ClassLoader classLoader, ResourceReader resourceReader,
+		DescriptorParserPool descriptorParserPool, boolean resolveEntities) {
+		return new WebConfigScannerImpl(classLoader, resourceReader, descriptorParserPool, resolveEntities);
+	}
+
 }
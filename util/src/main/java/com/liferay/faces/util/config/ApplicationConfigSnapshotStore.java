@@ -0,0 +1,478 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class stores a binary snapshot of the {@link FacesConfig} and {@link WebConfig} of a web application in a
+ * directory on disk, so that redeploying the web application with unchanged descriptors can skip parsing them. The
+ * snapshot is identified by a key that is computed from the path, size, and last-modified time of each jar (or
+ * directory) that contains a descriptor in the classpath, along with a digest of the contents of the descriptors in
+ * the WEB-INF folder. If any of the descriptors are found at a location that is not in the file system, then no key
+ * can be computed and snapshots are not used.
+ *
+ * @author  Neil Griffin
+ */
+public class ApplicationConfigSnapshotStore {
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(ApplicationConfigSnapshotStore.class);
+
+	// Private Constants
+	private static final String[] CLASSPATH_DESCRIPTOR_PATHS = new String[] {
+			"META-INF/web-fragment.xml", "META-INF/faces-config.xml", "com/sun/faces/jsf-ri-runtime.xml"
+		};
+	private static final int MAGIC = 0x4C464353;
+	private static final int VERSION = 1;
+	private static final String[] WEB_INF_DESCRIPTOR_PATHS = new String[] {
+			"/WEB-INF/web.xml", "/WEB-INF/liferay-web.xml", "/WEB-INF/faces-config.xml"
+		};
+
+	// Private Data Members
+	private File snapshotFile;
+
+	public ApplicationConfigSnapshotStore(File directory, String contextPath) {
+
+		String fileName = "liferay-faces-config" + contextPath.replaceAll("[^A-Za-z0-9_.-]", "_") + ".snapshot";
+		this.snapshotFile = new File(directory, fileName);
+	}
+
+	/**
+	 * Returns the key that identifies the current state of the descriptors of the web application, or null if the key
+	 * cannot be computed.
+	 */
+	public String getKey(ClassLoader classLoader, ResourceReader resourceReader, boolean resolveEntities) {
+
+		try {
+
+			MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+			StringBuilder buf = new StringBuilder();
+			buf.append(VERSION);
+			buf.append(resolveEntities);
+
+			for (String classpathDescriptorPath : CLASSPATH_DESCRIPTOR_PATHS) {
+
+				Enumeration<URL> urls = classLoader.getResources(classpathDescriptorPath);
+
+				while (urls.hasMoreElements()) {
+
+					URL url = urls.nextElement();
+					File file = getFile(url);
+
+					if ((file == null) || !file.exists()) {
+						logger.debug("Unable to use config snapshot since url=[{0}] is not in the file system", url);
+
+						return null;
+					}
+
+					buf.append('\n');
+					buf.append(url);
+					buf.append('|');
+					buf.append(file.length());
+					buf.append('|');
+					buf.append(file.lastModified());
+				}
+			}
+
+			messageDigest.update(buf.toString().getBytes("UTF-8"));
+
+			byte[] bytes = new byte[4096];
+
+			for (String webInfDescriptorPath : WEB_INF_DESCRIPTOR_PATHS) {
+
+				InputStream inputStream = resourceReader.getResourceAsStream(webInfDescriptorPath);
+				messageDigest.update(webInfDescriptorPath.getBytes("UTF-8"));
+
+				if (inputStream != null) {
+
+					try {
+						int length;
+
+						while ((length = inputStream.read(bytes)) != -1) {
+							messageDigest.update(bytes, 0, length);
+						}
+					}
+					finally {
+						inputStream.close();
+					}
+				}
+			}
+
+			StringBuilder key = new StringBuilder();
+
+			for (byte digestByte : messageDigest.digest()) {
+				key.append(Integer.toHexString((digestByte & 0xFF) | 0x100).substring(1));
+			}
+
+			return key.toString();
+		}
+		catch (IOException e) {
+			logger.error(e);
+
+			return null;
+		}
+		catch (NoSuchAlgorithmException e) {
+			logger.error(e);
+
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the configuration that was stored with the specified key, or null if there is no snapshot or if the
+	 * snapshot was stored with a different key.
+	 */
+	public ApplicationConfig read(String key, String contextPath) {
+
+		ApplicationConfig applicationConfig = null;
+
+		if (snapshotFile.exists()) {
+
+			DataInputStream dataInputStream = null;
+
+			try {
+				dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+
+				if ((dataInputStream.readInt() == MAGIC) && (dataInputStream.readInt() == VERSION) &&
+						key.equals(dataInputStream.readUTF())) {
+
+					FacesConfig facesConfig = readFacesConfig(dataInputStream);
+					WebConfig webConfig = readWebConfig(dataInputStream);
+					applicationConfig = new ApplicationConfigImpl(contextPath, facesConfig, webConfig);
+					logger.debug("Read config snapshot file=[{0}] key=[{1}]", snapshotFile, key);
+				}
+				else {
+					logger.debug("Ignoring stale config snapshot file=[{0}]", snapshotFile);
+				}
+			}
+			catch (IOException e) {
+				logger.error("Unable to read config snapshot file=[{0}] error=[{1}]", snapshotFile, e.getMessage());
+			}
+			finally {
+				close(dataInputStream);
+			}
+		}
+
+		return applicationConfig;
+	}
+
+	/**
+	 * Stores the specified configuration with the specified key, replacing any existing snapshot.
+	 */
+	public void write(String key, ApplicationConfig applicationConfig) {
+
+		File directory = snapshotFile.getParentFile();
+
+		if ((directory != null) && !directory.exists() && !directory.mkdirs()) {
+			logger.error("Unable to create config snapshot directory=[{0}]", directory);
+
+			return;
+		}
+
+		File tempFile = new File(directory, snapshotFile.getName() + ".tmp");
+		DataOutputStream dataOutputStream = null;
+
+		try {
+			dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			dataOutputStream.writeInt(MAGIC);
+			dataOutputStream.writeInt(VERSION);
+			dataOutputStream.writeUTF(key);
+			writeFacesConfig(dataOutputStream, applicationConfig.getFacesConfig());
+			writeWebConfig(dataOutputStream, applicationConfig.getWebConfig());
+			dataOutputStream.close();
+			dataOutputStream = null;
+
+			// Replace the existing snapshot so that a partially written file is never read.
+			if ((snapshotFile.exists() && !snapshotFile.delete()) || !tempFile.renameTo(snapshotFile)) {
+				logger.error("Unable to replace config snapshot file=[{0}]", snapshotFile);
+			}
+			else {
+				logger.debug("Wrote config snapshot file=[{0}] key=[{1}]", snapshotFile, key);
+			}
+		}
+		catch (IOException e) {
+			logger.error("Unable to write config snapshot file=[{0}] error=[{1}]", snapshotFile, e.getMessage());
+		}
+		finally {
+			close(dataOutputStream);
+			tempFile.delete();
+		}
+	}
+
+	protected File getFile(URL url) {
+
+		String protocol = url.getProtocol();
+
+		try {
+
+			if ("file".equals(protocol)) {
+				return new File(url.toURI());
+			}
+			else if ("jar".equals(protocol)) {
+
+				// Example: jar:file:/webapps/portlet/WEB-INF/lib/liferay-faces-util.jar!/META-INF/faces-config.xml
+				String path = url.getPath();
+				int pos = path.indexOf("!/");
+
+				if ((pos > 0) && path.startsWith("file:")) {
+					return new File(new URI(path.substring(0, pos)));
+				}
+			}
+		}
+		catch (URISyntaxException e) {
+			logger.debug("Unable to convert url=[{0}] to a file: {1}", url, e.getMessage());
+		}
+		catch (IllegalArgumentException e) {
+			logger.debug("Unable to convert url=[{0}] to a file: {1}", url, e.getMessage());
+		}
+
+		return null;
+	}
+
+	protected FacesConfig readFacesConfig(DataInputStream dataInputStream) throws IOException {
+
+		List<ConfiguredElement> configuredApplicationExtensions = readConfiguredElements(dataInputStream);
+		List<ConfiguredElement> configuredFactoryExtensions = readConfiguredElements(dataInputStream);
+		List<ConfiguredServletMapping> configuredFacesServletMappings = readConfiguredServletMappings(
+				dataInputStream);
+
+		int size = dataInputStream.readInt();
+		List<ConfiguredManagedBean> configuredManagedBeans = new ArrayList<ConfiguredManagedBean>(size);
+
+		for (int i = 0; i < size; i++) {
+			configuredManagedBeans.add(new ConfiguredManagedBeanImpl(readString(dataInputStream),
+					readString(dataInputStream), readString(dataInputStream)));
+		}
+
+		size = dataInputStream.readInt();
+
+		List<String> configuredSuffixes = new ArrayList<String>(size);
+
+		for (int i = 0; i < size; i++) {
+			configuredSuffixes.add(readString(dataInputStream));
+		}
+
+		size = dataInputStream.readInt();
+
+		List<ConfiguredSystemEventListener> configuredSystemEventListeners =
+			new ArrayList<ConfiguredSystemEventListener>(size);
+
+		for (int i = 0; i < size; i++) {
+			configuredSystemEventListeners.add(new ConfiguredSystemEventListenerImpl(readString(dataInputStream),
+					readString(dataInputStream), readString(dataInputStream)));
+		}
+
+		return new FacesConfigImpl(configuredApplicationExtensions, configuredFactoryExtensions,
+				configuredFacesServletMappings, configuredManagedBeans, configuredSuffixes,
+				configuredSystemEventListeners);
+	}
+
+	protected WebConfig readWebConfig(DataInputStream dataInputStream) throws IOException {
+
+		int size = dataInputStream.readInt();
+		Map<String, String> configuredContextParams = new HashMap<String, String>();
+
+		for (int i = 0; i < size; i++) {
+			configuredContextParams.put(readString(dataInputStream), readString(dataInputStream));
+		}
+
+		size = dataInputStream.readInt();
+
+		List<ConfiguredServlet> configuredServlets = new ArrayList<ConfiguredServlet>(size);
+
+		for (int i = 0; i < size; i++) {
+
+			String servletName = readString(dataInputStream);
+			String servletClass = readString(dataInputStream);
+			MultiPartConfig multiPartConfig = null;
+
+			if (dataInputStream.readBoolean()) {
+				multiPartConfig = new MultiPartConfigImpl(readString(dataInputStream), dataInputStream.readLong());
+			}
+
+			configuredServlets.add(new ConfiguredServletImpl(servletName, servletClass, multiPartConfig));
+		}
+
+		List<ConfiguredServletMapping> configuredServletMappings = readConfiguredServletMappings(dataInputStream);
+
+		return new WebConfigImpl(configuredContextParams, configuredServlets, configuredServletMappings);
+	}
+
+	protected void writeFacesConfig(DataOutputStream dataOutputStream, FacesConfig facesConfig) throws IOException {
+
+		writeConfiguredElements(dataOutputStream, facesConfig.getConfiguredApplicationExtensions());
+		writeConfiguredElements(dataOutputStream, facesConfig.getConfiguredFactoryExtensions());
+		writeConfiguredServletMappings(dataOutputStream, facesConfig.getConfiguredFacesServletMappings());
+
+		List<ConfiguredManagedBean> configuredManagedBeans = facesConfig.getConfiguredManagedBeans();
+		dataOutputStream.writeInt(configuredManagedBeans.size());
+
+		for (ConfiguredManagedBean configuredManagedBean : configuredManagedBeans) {
+			writeString(dataOutputStream, configuredManagedBean.getManagedBeanClass());
+			writeString(dataOutputStream, configuredManagedBean.getManagedBeanName());
+			writeString(dataOutputStream, configuredManagedBean.getManagedBeanScope());
+		}
+
+		List<String> configuredSuffixes = facesConfig.getConfiguredSuffixes();
+		dataOutputStream.writeInt(configuredSuffixes.size());
+
+		for (String configuredSuffix : configuredSuffixes) {
+			writeString(dataOutputStream, configuredSuffix);
+		}
+
+		List<ConfiguredSystemEventListener> configuredSystemEventListeners =
+			facesConfig.getConfiguredSystemEventListeners();
+		dataOutputStream.writeInt(configuredSystemEventListeners.size());
+
+		for (ConfiguredSystemEventListener configuredSystemEventListener : configuredSystemEventListeners) {
+			writeString(dataOutputStream, configuredSystemEventListener.getSourceClass());
+			writeString(dataOutputStream, configuredSystemEventListener.getSystemEventClass());
+			writeString(dataOutputStream, configuredSystemEventListener.getSystemEventListenerClass());
+		}
+	}
+
+	protected void writeWebConfig(DataOutputStream dataOutputStream, WebConfig webConfig) throws IOException {
+
+		Map<String, String> configuredContextParams = webConfig.getConfiguredContextParams();
+		dataOutputStream.writeInt(configuredContextParams.size());
+
+		for (Map.Entry<String, String> mapEntry : configuredContextParams.entrySet()) {
+			writeString(dataOutputStream, mapEntry.getKey());
+			writeString(dataOutputStream, mapEntry.getValue());
+		}
+
+		List<ConfiguredServlet> configuredServlets = webConfig.getConfiguredServlets();
+		dataOutputStream.writeInt(configuredServlets.size());
+
+		for (ConfiguredServlet configuredServlet : configuredServlets) {
+
+			writeString(dataOutputStream, configuredServlet.getServletName());
+			writeString(dataOutputStream, configuredServlet.getServletClass());
+
+			MultiPartConfig multiPartConfig = configuredServlet.getMultiPartConfig();
+			dataOutputStream.writeBoolean(multiPartConfig != null);
+
+			if (multiPartConfig != null) {
+				writeString(dataOutputStream, multiPartConfig.getLocation());
+				dataOutputStream.writeLong(multiPartConfig.getMaxFileSize());
+			}
+		}
+
+		writeConfiguredServletMappings(dataOutputStream, webConfig.getConfiguredServletMappings());
+	}
+
+	private void close(Closeable closeable) {
+
+		if (closeable != null) {
+
+			try {
+				closeable.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private List<ConfiguredElement> readConfiguredElements(DataInputStream dataInputStream) throws IOException {
+
+		int size = dataInputStream.readInt();
+		List<ConfiguredElement> configuredElements = new ArrayList<ConfiguredElement>(size);
+
+		for (int i = 0; i < size; i++) {
+			configuredElements.add(new ConfiguredElementImpl(readString(dataInputStream), readString(dataInputStream)));
+		}
+
+		return configuredElements;
+	}
+
+	private List<ConfiguredServletMapping> readConfiguredServletMappings(DataInputStream dataInputStream)
+		throws IOException {
+
+		int size = dataInputStream.readInt();
+		List<ConfiguredServletMapping> configuredServletMappings = new ArrayList<ConfiguredServletMapping>(size);
+
+		for (int i = 0; i < size; i++) {
+			configuredServletMappings.add(new ConfiguredServletMappingImpl(readString(dataInputStream),
+					readString(dataInputStream)));
+		}
+
+		return configuredServletMappings;
+	}
+
+	private String readString(DataInputStream dataInputStream) throws IOException {
+
+		if (dataInputStream.readBoolean()) {
+			return dataInputStream.readUTF();
+		}
+		else {
+			return null;
+		}
+	}
+
+	private void writeConfiguredElements(DataOutputStream dataOutputStream, List<ConfiguredElement> configuredElements)
+		throws IOException {
+
+		dataOutputStream.writeInt(configuredElements.size());
+
+		for (ConfiguredElement configuredElement : configuredElements) {
+			writeString(dataOutputStream, configuredElement.getName());
+			writeString(dataOutputStream, configuredElement.getValue());
+		}
+	}
+
+	private void writeConfiguredServletMappings(DataOutputStream dataOutputStream,
+		List<ConfiguredServletMapping> configuredServletMappings) throws IOException {
+
+		dataOutputStream.writeInt(configuredServletMappings.size());
+
+		for (ConfiguredServletMapping configuredServletMapping : configuredServletMappings) {
+			writeString(dataOutputStream, configuredServletMapping.getServletName());
+			writeString(dataOutputStream, configuredServletMapping.getUrlPattern());
+		}
+	}
+
+	private void writeString(DataOutputStream dataOutputStream, String value) throws IOException {
+
+		dataOutputStream.writeBoolean(value != null);
+
+		if (value != null) {
+			dataOutputStream.writeUTF(value);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.config;
+
+import com.liferay.faces.util.helper.BooleanHelper;
+import com.liferay.faces.util.helper.IntegerHelper;
+import com.liferay.faces.util.helper.LongHelper;
+
+
+/**
+ * This class provides an immutable snapshot of the typed values of all of the constants of a {@link ConfigParam}
+ * enumeration. The values are resolved once when the snapshot is created and are stored in arrays that are indexed by
+ * the ordinal of the enumeration constant, so that getting a value does not require any lookups or parsing. In order
+ * to pick up changes to the configuration, a new snapshot must be created.
+ *
+ * @param   <E>  The type of the {@link ConfigParam} enumeration.
+ * @param   <C>  The type of the config that the values are resolved from.
+ *
+ * @author  Neil Griffin
+ */
+public final class ConfigParamSnapshot<E extends Enum<E> & ConfigParam<C>, C> {
+
+	// Private Data Members
+	private final boolean[] booleanValues;
+	private final String[] configuredValues;
+	private final int[] integerValues;
+	private final long[] longValues;
+	private final String[] stringValues;
+
+	public ConfigParamSnapshot(Class<E> configParamClass, C config) {
+
+		E[] configParams = configParamClass.getEnumConstants();
+
+		this.booleanValues = new boolean[configParams.length];
+		this.configuredValues = new String[configParams.length];
+		this.integerValues = new int[configParams.length];
+		this.longValues = new long[configParams.length];
+		this.stringValues = new String[configParams.length];
+
+		for (E configParam : configParams) {
+
+			int ordinal = configParam.ordinal();
+			String configuredValue = configParam.getConfiguredValue(config);
+			configuredValues[ordinal] = configuredValue;
+
+			if (configuredValue == null) {
+				booleanValues[ordinal] = configParam.getDefaultBooleanValue();
+				integerValues[ordinal] = configParam.getDefaultIntegerValue();
+				longValues[ordinal] = configParam.getDefaultLongValue();
+				stringValues[ordinal] = configParam.getDefaultStringValue();
+			}
+			else {
+				booleanValues[ordinal] = BooleanHelper.isTrueToken(configuredValue);
+				integerValues[ordinal] = IntegerHelper.toInteger(configuredValue);
+				longValues[ordinal] = LongHelper.toLong(configuredValue);
+				stringValues[ordinal] = configuredValue;
+			}
+		}
+	}
+
+	public boolean getBooleanValue(E configParam) {
+		return booleanValues[configParam.ordinal()];
+	}
+
+	public String getConfiguredValue(E configParam) {
+		return configuredValues[configParam.ordinal()];
+	}
+
+	public boolean isConfigured(E configParam) {
+		return (configuredValues[configParam.ordinal()] != null);
+	}
+
+	public int getIntegerValue(E configParam) {
+		return integerValues[configParam.ordinal()];
+	}
+
+	public long getLongValue(E configParam) {
+		return longValues[configParam.ordinal()];
+	}
+
+	public String getStringValue(E configParam) {
+		return stringValues[configParam.ordinal()];
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.SAXException;
+
+import com.liferay.faces.util.logging.Logger;
+import com.liferay.faces.util.logging.LoggerFactory;
+
+
+/**
+ * This class parses configuration descriptors in parallel at startup. Since a {@link SAXParser} is not thread-safe,
+ * each thread of the pool has its own parser. Since a {@link SAXParserFactory} is not thread-safe either, the parsers
+ * are created while holding the lock of the factory. The results of the tasks are always returned in the order in
+ * which the tasks were specified, so that merging them produces the same configuration as parsing the descriptors one
+ * at a time.
+ *
+ * @author  Neil Griffin
+ */
+public class DescriptorParserPool implements Closeable {
+
+	// Logger
+	private static final Logger logger = LoggerFactory.getLogger(DescriptorParserPool.class);
+
+	// Private Data Members
+	private ExecutorService executorService;
+	private SAXParser saxParser;
+	private SAXParserFactory saxParserFactory;
+
+	/**
+	 * Creates a pool that parses descriptors one at a time with the specified parser.
+	 */
+	public DescriptorParserPool(SAXParser saxParser) {
+		this.saxParser = saxParser;
+	}
+
+	/**
+	 * Creates a pool that parses descriptors with the specified number of threads, each of which obtains its own parser
+	 * from the specified factory.
+	 */
+	public DescriptorParserPool(SAXParserFactory saxParserFactory, int parallelism) {
+
+		this.saxParserFactory = saxParserFactory;
+
+		if (parallelism > 1) {
+			this.executorService = Executors.newFixedThreadPool(parallelism, new ParserThreadFactory());
+		}
+	}
+
+	public void close() {
+
+		if (executorService != null) {
+			executorService.shutdown();
+		}
+	}
+
+	/**
+	 * Executes the specified tasks and returns their results in the same order as the tasks. If the pool is not
+	 * parallel, or if there is only one task, then the tasks are executed by the calling thread.
+	 */
+	public <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+
+		List<T> results = new ArrayList<T>(tasks.size());
+
+		try {
+
+			if ((executorService == null) || (tasks.size() < 2)) {
+
+				for (Callable<T> task : tasks) {
+					results.add(task.call());
+				}
+			}
+			else {
+
+				List<Future<T>> futures = executorService.invokeAll(tasks);
+
+				for (Future<T> future : futures) {
+					results.add(future.get());
+				}
+			}
+		}
+		catch (ExecutionException e) {
+
+			Throwable cause = e.getCause();
+
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			else {
+				logger.error(cause);
+				throw new IOException(cause.getMessage());
+			}
+		}
+		catch (IOException e) {
+			throw e;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e.getMessage());
+		}
+		catch (Exception e) {
+			logger.error(e);
+			throw new IOException(e.getMessage());
+		}
+
+		return results;
+	}
+
+	/**
+	 * Returns the parser that belongs to the current thread of the pool, or the parser of the calling thread if the
+	 * current thread does not belong to the pool.
+	 */
+	public SAXParser getSAXParser() throws ParserConfigurationException, SAXException {
+
+		Thread currentThread = Thread.currentThread();
+
+		if ((currentThread instanceof ParserThread) && (((ParserThread) currentThread).getPool() == this)) {
+			return ((ParserThread) currentThread).getSAXParser();
+		}
+
+		synchronized (this) {
+
+			if (saxParser == null) {
+				saxParser = newSAXParser();
+			}
+
+			return saxParser;
+		}
+	}
+
+	protected SAXParser newSAXParser() throws ParserConfigurationException, SAXException {
+
+		synchronized (saxParserFactory) {
+			return saxParserFactory.newSAXParser();
+		}
+	}
+
+	protected class ParserThread extends Thread {
+
+		// Private Data Members
+		private SAXParser threadSAXParser;
+
+		public ParserThread(Runnable runnable, String name) {
+			super(runnable, name);
+		}
+
+		public DescriptorParserPool getPool() {
+			return DescriptorParserPool.this;
+		}
+
+		public SAXParser getSAXParser() throws ParserConfigurationException, SAXException {
+
+			if (threadSAXParser == null) {
+				threadSAXParser = newSAXParser();
+			}
+
+			return threadSAXParser;
+		}
+	}
+
+	protected class ParserThreadFactory implements ThreadFactory {
+
+		// Private Data Members
+		private ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		private AtomicInteger threadCount = new AtomicInteger();
+
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new ParserThread(runnable,
+					"liferay-faces-util-descriptor-parser-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+
+			// Descriptors are located and parsed with the class loader of the web application.
+			thread.setContextClassLoader(classLoader);
+
+			return thread;
+		}
+	}
+}
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.faces.application.ViewHandler;
 import javax.faces.webapp.FacesServlet;
@@ -46,6 +47,7 @@ public class FacesConfigScannerImpl implements FacesConfigScanner {
 	private static final String MOJARRA_CONFIG_PATH = "com/sun/faces/jsf-ri-runtime.xml";
 
 	// Private Data Members
+	private DescriptorParserPool descriptorParserPool;
 	private boolean resolveEntities;
 
 	private ResourceReader resourceReader;
@@ -54,7 +56,13 @@ public class FacesConfigScannerImpl implements FacesConfigScanner {
 
 	public FacesConfigScannerImpl(ClassLoader classLoader, ResourceReader resourceReader, SAXParser saxParser,
 		boolean resolveEntities, WebConfig webConfig) {
+		this(classLoader, resourceReader, new DescriptorParserPool(saxParser), resolveEntities, webConfig);
 		this.saxParser = saxParser;
+	}
+
+	public FacesConfigScannerImpl(ClassLoader classLoader, ResourceReader resourceReader,
+		DescriptorParserPool descriptorParserPool, boolean resolveEntities, WebConfig webConfig) {
+		this.descriptorParserPool = descriptorParserPool;
 		this.resourceReader = resourceReader;
 		this.resolveEntities = resolveEntities;
 		this.webConfig = webConfig;
@@ -134,6 +142,10 @@ public class FacesConfigScannerImpl implements FacesConfigScanner {
 
 		try {
 
+			if (saxParser == null) {
+				saxParser = descriptorParserPool.getSAXParser();
+			}
+
 			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 			FacesConfigDescriptorParser facesConfigDescriptorParser = newFacesConfigDescriptorParser();
 
@@ -185,37 +197,17 @@ public class FacesConfigScannerImpl implements FacesConfigScanner {
 				// Build up a semi-sorted list of faces-config.xml descriptor files, ensuring that
 				// liferay-faces-bridge-impl.jar!META-INF/faces-config.xml is ordered first and that
 				// liferay-faces-util.jar!META-INF/faces-config.xml is ordered second.
-				// (Note that the JSF 2.0 <ordering> element is not yet supported.)
-				while (facesConfigURLs.hasMoreElements()) {
-
-					URL facesConfigURL = facesConfigURLs.nextElement();
-					logger.debug("Pre-processing faces-config: [{0}]", facesConfigURL);
-					inputStream = facesConfigURL.openStream();
-
-					FacesConfigDescriptor facesConfigDescriptor = facesConfigDescriptorParser.parse(inputStream,
-							facesConfigURL);
-
-					// If the name is not set, then the <name> element was omitted. In JSF 2.x the <name> element is
-					// optional, and it JSF 1.x <name> element is not permitted by the XML Schema. Regardless, use the
-					// URL as the name in order to uniquely identify the configuration.
-					String facesConfigName = facesConfigDescriptor.getName();
-
-					if (facesConfigName == null) {
-
-						// Example #1 (JRebel ClassLoader URL):
-						// file:/Projects/liferay-faces/bridge-impl/target/classes/META-INF/faces-config.xml
-						// Example #2 (Typical ClassLoader URL):
-						// jar:file:/Servers/liferay-portal/tomcat/webapps/WEB-INF/lib/liferay-faces-bridge-impl.jar!/META-INF/faces-config.xml
-						facesConfigName = facesConfigURL.toString();
-					}
-
-					facesConfigDescriptors.add(facesConfigDescriptor);
-					facesConfigName = null;
-
-					inputStream.close();
+				// (Note that the JSF 2.0 <ordering> element is not yet supported.) The descriptors are pre-processed
+				// independently (possibly in parallel) and are returned in classpath order.
+				List<Callable<FacesConfigDescriptor>> descriptorTasks =
+					new ArrayList<Callable<FacesConfigDescriptor>>();
 
+				while (facesConfigURLs.hasMoreElements()) {
+					descriptorTasks.add(new FacesConfigDescriptorParserTask(facesConfigURLs.nextElement()));
 				}
 
+				facesConfigDescriptors.addAll(descriptorParserPool.invokeAll(descriptorTasks));
+
 				// Sort the faces configuration files in accord with
 				// javax.faces-api-2.2-FINAL_JSF_20130320_11.4.8_Ordering_of_Artifacts
 				logger.debug("re-ordering artifacts ...");
@@ -223,28 +215,18 @@ public class FacesConfigScannerImpl implements FacesConfigScanner {
 				List<FacesConfigDescriptor> orderedConfigs = getOrderedConfigs(facesConfigDescriptors,
 						webInfFacesConfigDescriptor);
 
-				for (FacesConfigDescriptor config : orderedConfigs) {
-
-					String urlString = config.getURL();
-					URL url = new URL(urlString);
-					logger.debug("Post-processing faces-config: [{0}]", url);
-
-					inputStream = url.openStream();
+				// Parse each of the ordered descriptors independently (possibly in parallel) and then merge the results
+				// in the sorted order, which is the same as parsing them one after another.
+				List<Callable<FacesConfig>> parserTasks = new ArrayList<Callable<FacesConfig>>(orderedConfigs.size());
 
-					try {
-						facesConfig = facesConfigParser.parse(inputStream, facesConfig);
-					}
-					catch (IOException e) {
-						logger.error(e);
-					}
+				for (FacesConfigDescriptor config : orderedConfigs) {
+					parserTasks.add(new FacesConfigParserTask(new URL(config.getURL()), facesConfig));
+				}
 
-					inputStream.close();
+				for (FacesConfig descriptorFacesConfig : descriptorParserPool.invokeAll(parserTasks)) {
 
-					try {
-						saxParser.reset();
-					}
-					catch (Exception e) {
-						logger.error(e);
+					if (descriptorFacesConfig != null) {
+						facesConfig = merge(facesConfig, descriptorFacesConfig);
 					}
 				}
 			}
@@ -267,13 +249,48 @@ public class FacesConfigScannerImpl implements FacesConfigScanner {
 	}
 
 	protected FacesConfigDescriptorParser newFacesConfigDescriptorParser() {
+		return newFacesConfigDescriptorParser(saxParser);
+	}
+
+	protected FacesConfigDescriptorParser newFacesConfigDescriptorParser(SAXParser saxParser) {
 		return new FacesConfigDescriptorParserImpl(saxParser, resolveEntities);
 	}
 
 	protected FacesConfigParser newFacesConfigParser() {
+		return newFacesConfigParser(saxParser);
+	}
+
+	protected FacesConfigParser newFacesConfigParser(SAXParser saxParser) {
 		return new FacesConfigParserImpl(saxParser, resolveEntities);
 	}
 
+	/**
+	 * Returns a new {@link FacesConfig} that contains the entries of the first specified configuration followed by the
+	 * entries of the second, which is the same result as parsing the second descriptor into the first configuration.
+	 */
+	protected FacesConfig merge(FacesConfig facesConfig, FacesConfig descriptorFacesConfig) {
+
+		List<ConfiguredElement> configuredApplicationExtensions = new ArrayList<ConfiguredElement>(
+				facesConfig.getConfiguredApplicationExtensions());
+		configuredApplicationExtensions.addAll(descriptorFacesConfig.getConfiguredApplicationExtensions());
+
+		List<ConfiguredElement> configuredFactoryExtensions = new ArrayList<ConfiguredElement>(
+				facesConfig.getConfiguredFactoryExtensions());
+		configuredFactoryExtensions.addAll(descriptorFacesConfig.getConfiguredFactoryExtensions());
+
+		List<ConfiguredManagedBean> configuredManagedBeans = new ArrayList<ConfiguredManagedBean>(
+				facesConfig.getConfiguredManagedBeans());
+		configuredManagedBeans.addAll(descriptorFacesConfig.getConfiguredManagedBeans());
+
+		List<ConfiguredSystemEventListener> configuredSystemEventListeners =
+			new ArrayList<ConfiguredSystemEventListener>(facesConfig.getConfiguredSystemEventListeners());
+		configuredSystemEventListeners.addAll(descriptorFacesConfig.getConfiguredSystemEventListeners());
+
+		return new FacesConfigImpl(configuredApplicationExtensions, configuredFactoryExtensions,
+				facesConfig.getConfiguredFacesServletMappings(), configuredManagedBeans,
+				facesConfig.getConfiguredSuffixes(), configuredSystemEventListeners);
+	}
+
 	private List<FacesConfigDescriptor> getOrderedConfigs(List<FacesConfigDescriptor> facesConfigDescriptors,
 		FacesConfigDescriptor webInfFacesConfig) throws Exception {
 
@@ -308,4 +325,69 @@ public class FacesConfigScannerImpl implements FacesConfigScanner {
 	protected WebConfig getWebConfig() {
 		return webConfig;
 	}
+
+	protected class FacesConfigDescriptorParserTask implements Callable<FacesConfigDescriptor> {
+
+		// Private Data Members
+		private URL facesConfigURL;
+
+		public FacesConfigDescriptorParserTask(URL facesConfigURL) {
+			this.facesConfigURL = facesConfigURL;
+		}
+
+		public FacesConfigDescriptor call() throws Exception {
+
+			logger.debug("Pre-processing faces-config: [{0}]", facesConfigURL);
+
+			InputStream inputStream = facesConfigURL.openStream();
+
+			try {
+				FacesConfigDescriptorParser facesConfigDescriptorParser = newFacesConfigDescriptorParser(
+						descriptorParserPool.getSAXParser());
+
+				return facesConfigDescriptorParser.parse(inputStream, facesConfigURL);
+			}
+			finally {
+				inputStream.close();
+			}
+		}
+	}
+
+	protected class FacesConfigParserTask implements Callable<FacesConfig> {
+
+		// Private Data Members
+		private FacesConfig facesConfig;
+		private URL url;
+
+		public FacesConfigParserTask(URL url, FacesConfig facesConfig) {
+			this.url = url;
+			this.facesConfig = facesConfig;
+		}
+
+		public FacesConfig call() throws Exception {
+
+			logger.debug("Post-processing faces-config: [{0}]", url);
+
+			FacesConfig descriptorFacesConfig = null;
+			InputStream inputStream = url.openStream();
+
+			try {
+
+				// Parse into an empty configuration that only shares the servlet mappings and suffixes, since the
+				// parser does not discover new ones.
+				FacesConfigParser facesConfigParser = newFacesConfigParser(descriptorParserPool.getSAXParser());
+				descriptorFacesConfig = facesConfigParser.parse(inputStream,
+						new FacesConfigImpl(facesConfig.getConfiguredFacesServletMappings(),
+							facesConfig.getConfiguredSuffixes()));
+			}
+			catch (IOException e) {
+				logger.error(e);
+			}
+			finally {
+				inputStream.close();
+			}
+
+			return descriptorFacesConfig;
+		}
+	}
 }
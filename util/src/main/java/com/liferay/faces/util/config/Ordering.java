@@ -309,123 +309,17 @@ public class Ordering {
 	// getOrder when no absolute order is specified
 	public static List<FacesConfigDescriptor> getOrder(List<FacesConfigDescriptor> configs) throws Exception {
 
-//      for (FacesConfigDescriptor config : configs) {
-//          String name = config.getName();
-//          Ordering ordering = config.getOrdering();
-//
-//          if (ordering != null) {
-//              String[][] routes = ordering.getRoutes();
-//
-//              if (routes != null) {
-//
-//                  if (routes[0].length != 0) {
-//                	  System.err.println("getOrder: before: " + name + " b: " + Arrays.asList(routes[0]).toString() + " " + ordering.isBeforeOthers());
-//                  }
-//
-//                  if (routes[1].length != 0) {
-//                	  System.err.println("getOrder: before: " + name + " a: " + Arrays.asList(routes[1]).toString() + " " + ordering.isAfterOthers());
-//                  }
-//              }
-//          }
-//      }
-
-		// Check for "duplicate name exception" and "circular references" as described in 11.4.8 Ordering of Artifacts
-		checkForSpecExceptions(configs);
-
-//      for (FacesConfigDescriptor config : configs) {
-//          String name = config.getName();
-//          Ordering ordering = config.getOrdering();
-//
-//          if (ordering != null) {
-//              String[][] routes = ordering.getRoutes();
-//
-//              if (routes != null) {
-//
-//                  if (routes[0].length != 0) {
-//                	  System.err.println("getOrder:  after: " + name + " b: " + Arrays.asList(routes[0]).toString() + " " + ordering.isBeforeOthers());
-//                  }
-//
-//                  if (routes[1].length != 0) {
-//                	  System.err.println("getOrder:  after: " + name + " a: " + Arrays.asList(routes[1]).toString() + " " + ordering.isAfterOthers());
-//                  }
-//              }
-//          }
-//      }
-
-		String[] extractedNames = extractNames(configs);
-//		System.err.println("getOrder: before preSort:  extractedNames = " + Arrays.asList(extractedNames).toString());
-		
-		// Sort the documents such that specified ordering will be considered.
-		//
-		// It turns out that some of the specified ordering, if it was not discovered by the sort routine 
-		// until later in its processing, was not being considered correctly in the ordering algorithm.
-		//
-		// This preSort method puts all of the documents with specified ordering as early on in the
-		// list of documents as possible for to consider it quickly, and be 
-		// able to use its ordering algorithm to the best of its ability to achieve the specified ordering.
-		configs = preSort(configs);
-
-		extractedNames = extractNames(configs);
-//		System.err.println("getOrder: after preSort:  extractedNames = " + Arrays.asList(extractedNames).toString());
-		
-		HashMap<String, FacesConfigDescriptor> configMap = getConfigHashMap(configs);
-
-		boolean attempting = true;
-		int attempts = 0;
-
-		while (attempting) {
-
-			if (attempts > LIMIT) {
-				throw new Exception(TOO_MANY_ATTEMPTS_NEEDED_TO_SORT + " the faces-config files.  More than " + LIMIT +
-					" passes.");
-			}
-			else {
-				attempting = false;
-			}
-
-			int last = extractedNames.length - 1;
-
-			for (int i = 0; i < extractedNames.length; i++) {
-				int first = i;
-				int second = first + 1;
-
-				if (first == last) {
-					second = first;
-					first = 0;
-				}
-
-				String firstName = extractedNames[first];
-				String secondName = extractedNames[second];
-
-				FacesConfigDescriptor firstConfig = configMap.get(firstName);
-				FacesConfigDescriptor secondConfig = configMap.get(secondName);
-
-				if (disordered(firstConfig, secondConfig)) {
-					String[] thisStringArray = { firstName, secondName };
-					Arrays.sort(thisStringArray);
-					extractedNames[first] = secondName;
-					extractedNames[second] = firstName;
-					attempting = true;
-				}
-			}
-
-//			logger.info("getOrder: during:  extractedNames = " + Arrays.asList(extractedNames).toString());
-			attempts++;
+		// Check for "duplicate name exception" as described in 11.4.8 Ordering of Artifacts. Circular references are
+		// detected while sorting the dependency graph of the routes.
+		for (FacesConfigDescriptor config : configs) {
+			checkForBothBeforeAndAfter(config);
 		}
 
-		logger.warn("getOrder: " + attempts + "/" + LIMIT);
+		OrderingGraph orderingGraph = new OrderingGraph(configs);
 
-		List<FacesConfigDescriptor> orderedList = new ArrayList<FacesConfigDescriptor>();
-
-//		logger.info("getOrder: after:  extractedNames = " + Arrays.asList(extractedNames).toString());
-		for (String name : extractedNames) {
-			FacesConfigDescriptor facesConfigDescriptor = configMap.get(name);
-			orderedList.add(facesConfigDescriptor);
-		}
-
-		return orderedList;
+		return orderingGraph.getOrder();
 	}
-	
+
 	public static List<FacesConfigDescriptor> preSort(List<FacesConfigDescriptor> configs) {
 
 		List<FacesConfigDescriptor> newConfigList = new ArrayList<FacesConfigDescriptor>();
@@ -0,0 +1,460 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+
+/**
+ * Dependency graph of the relative &lt;ordering&gt; declared by a list of faces-config descriptors. Every named
+ * before/after route is turned into a single edge when the graph is built, and {@link #getOrder()} sorts the graph
+ * topologically in time proportional to the number of descriptors plus the number of routes.
+ *
+ * <p>Descriptors that are before others (along with every descriptor that they must come after) are placed first,
+ * descriptors that are after others (along with every descriptor that must come after them) are placed last, and all
+ * remaining descriptors are placed in between. A route that cannot be satisfied causes an exception that mentions
+ * {@link Ordering#CIRCULAR_DEPENDENCIES_DETECTED}.</p>
+ *
+ * @author  Neil Griffin
+ */
+class OrderingGraph {
+
+	// Private Constants
+	private static final int BEFORE_OTHERS_GROUP = 0;
+	private static final int OTHERS_GROUP = 1;
+	private static final int AFTER_OTHERS_GROUP = 2;
+	private static final int[] GROUPS = { BEFORE_OTHERS_GROUP, OTHERS_GROUP, AFTER_OTHERS_GROUP };
+
+	// Private Data Members
+	private List<FacesConfigDescriptor> configs;
+	private int[] depths;
+	private int[] groupHeights;
+	private int[] groups;
+	private int[] heights;
+	private int[][] predecessors;
+	private int[] ranks;
+	private int[][] successors;
+
+	public OrderingGraph(List<FacesConfigDescriptor> configs) throws Exception {
+
+		this.configs = configs;
+
+		int size = configs.size();
+		Map<String, Integer> indexes = new HashMap<String, Integer>();
+
+		for (int i = 0; i < size; i++) {
+
+			String name = configs.get(i).getName();
+
+			if ((name != null) && (name.length() > 0) && !indexes.containsKey(name)) {
+				indexes.put(name, i);
+			}
+		}
+
+		List<List<Integer>> successorLists = new ArrayList<List<Integer>>(size);
+		List<List<Integer>> predecessorLists = new ArrayList<List<Integer>>(size);
+
+		for (int i = 0; i < size; i++) {
+			successorLists.add(new ArrayList<Integer>());
+			predecessorLists.add(new ArrayList<Integer>());
+		}
+
+		boolean[] beforeOthers = new boolean[size];
+		boolean[] afterOthers = new boolean[size];
+
+		for (int i = 0; i < size; i++) {
+
+			Ordering ordering = configs.get(i).getOrdering();
+
+			if (ordering != null) {
+
+				String[][] routes = ordering.getRoutes();
+
+				for (String name : routes[Ordering.BEFORE]) {
+
+					if (Ordering.OTHERS.equals(name)) {
+						beforeOthers[i] = true;
+					}
+					else {
+
+						Integer j = indexes.get(name);
+
+						if (j != null) {
+							successorLists.get(i).add(j);
+							predecessorLists.get(j).add(i);
+						}
+					}
+				}
+
+				for (String name : routes[Ordering.AFTER]) {
+
+					if (Ordering.OTHERS.equals(name)) {
+						afterOthers[i] = true;
+					}
+					else {
+
+						Integer j = indexes.get(name);
+
+						if (j != null) {
+							successorLists.get(j).add(i);
+							predecessorLists.get(i).add(j);
+						}
+					}
+				}
+			}
+		}
+
+		this.successors = toArrays(successorLists);
+		this.predecessors = toArrays(predecessorLists);
+		this.groups = newGroups(beforeOthers, afterOthers);
+		this.ranks = newRanks();
+
+		int[] topologicalOrder = newTopologicalOrder();
+		this.depths = new int[size];
+		this.heights = new int[size];
+		this.groupHeights = new int[size];
+
+		for (int i : topologicalOrder) {
+
+			for (int j : successors[i]) {
+				depths[j] = Math.max(depths[j], depths[i] + 1);
+			}
+		}
+
+		for (int k = size - 1; k >= 0; k--) {
+
+			int i = topologicalOrder[k];
+
+			for (int j : successors[i]) {
+				heights[i] = Math.max(heights[i], heights[j] + 1);
+
+				if (groups[i] == groups[j]) {
+					groupHeights[i] = Math.max(groupHeights[i], groupHeights[j] + 1);
+				}
+			}
+		}
+	}
+
+	private static int[][] toArrays(List<List<Integer>> lists) {
+
+		int[][] arrays = new int[lists.size()][];
+
+		for (int i = 0; i < arrays.length; i++) {
+
+			List<Integer> list = lists.get(i);
+			arrays[i] = new int[list.size()];
+
+			for (int j = 0; j < arrays[i].length; j++) {
+				arrays[i][j] = list.get(j);
+			}
+		}
+
+		return arrays;
+	}
+
+	/**
+	 * Returns the descriptors in an order that satisfies every route. Within a group, the descriptor placed next is the
+	 * one that heads the longest chain within the group, then the one that continues the longest chain of descriptors
+	 * already placed, then the one with the shortest chain after it (so that it stays close to the descriptors it must
+	 * precede) and finally the one that comes first according to {@link Ordering#preSort(List)}. Descriptors of the
+	 * middle group that must come after another descriptor are placed after the ones that have no routes at all.
+	 */
+	public List<FacesConfigDescriptor> getOrder() {
+
+		int size = configs.size();
+		int[] remaining = new int[size];
+
+		for (int i = 0; i < size; i++) {
+
+			for (int j : successors[i]) {
+
+				if (groups[i] == groups[j]) {
+					remaining[j]++;
+				}
+			}
+		}
+
+		int unordered = 0;
+
+		for (int i = 0; i < size; i++) {
+
+			if (isUnordered(i)) {
+				unordered++;
+			}
+		}
+
+		if (unordered > 0) {
+
+			for (int i = 0; i < size; i++) {
+
+				if (isAfterUnordered(i)) {
+					remaining[i]++;
+				}
+			}
+		}
+
+		List<FacesConfigDescriptor> orderedList = new ArrayList<FacesConfigDescriptor>(size);
+		PriorityQueue<Integer> ready = new PriorityQueue<Integer>(Math.max(size, 1), new ReadyComparator());
+
+		for (int group : GROUPS) {
+
+			for (int i = 0; i < size; i++) {
+
+				if ((groups[i] == group) && (remaining[i] == 0)) {
+					ready.add(i);
+				}
+			}
+
+			while (!ready.isEmpty()) {
+
+				int i = ready.poll();
+				orderedList.add(configs.get(i));
+
+				if (isUnordered(i)) {
+
+					unordered--;
+
+					if (unordered == 0) {
+
+						for (int j = 0; j < size; j++) {
+
+							if (isAfterUnordered(j) && (--remaining[j] == 0)) {
+								ready.add(j);
+							}
+						}
+					}
+				}
+
+				for (int j : successors[i]) {
+
+					if ((groups[i] == groups[j]) && (--remaining[j] == 0)) {
+						ready.add(j);
+					}
+				}
+			}
+		}
+
+		return orderedList;
+	}
+
+	private boolean isAfterUnordered(int i) {
+		return (groups[i] == OTHERS_GROUP) && (predecessors[i].length > 0);
+	}
+
+	private boolean isUnordered(int i) {
+		return (groups[i] == OTHERS_GROUP) && (predecessors[i].length == 0) && (successors[i].length == 0);
+	}
+
+	private int[] newGroups(boolean[] beforeOthers, boolean[] afterOthers) throws Exception {
+
+		int size = configs.size();
+		boolean[] beforeGroup = new boolean[size];
+		boolean[] afterGroup = new boolean[size];
+		int[] stack = new int[size];
+		int top = 0;
+
+		// Everything that must come before a descriptor that is before others is also before others.
+		for (int i = 0; i < size; i++) {
+
+			if (beforeOthers[i]) {
+				beforeGroup[i] = true;
+				stack[top++] = i;
+			}
+		}
+
+		while (top > 0) {
+
+			int i = stack[--top];
+
+			for (int j : predecessors[i]) {
+
+				if (!beforeGroup[j]) {
+					beforeGroup[j] = true;
+					stack[top++] = j;
+				}
+			}
+		}
+
+		// Everything that must come after a descriptor that is after others is also after others.
+		for (int i = 0; i < size; i++) {
+
+			if (afterOthers[i]) {
+				afterGroup[i] = true;
+				stack[top++] = i;
+			}
+		}
+
+		while (top > 0) {
+
+			int i = stack[--top];
+
+			for (int j : successors[i]) {
+
+				if (!afterGroup[j]) {
+					afterGroup[j] = true;
+					stack[top++] = j;
+				}
+			}
+		}
+
+		int[] groups = new int[size];
+
+		for (int i = 0; i < size; i++) {
+
+			if (beforeGroup[i] && afterGroup[i]) {
+				throw new Exception(Ordering.CIRCULAR_DEPENDENCIES_DETECTED +
+					" when traversing 'others' declarations: " + configs.get(i).getName() +
+					" would have to be both before others and after others\n");
+			}
+			else if (beforeGroup[i]) {
+				groups[i] = BEFORE_OTHERS_GROUP;
+			}
+			else if (afterGroup[i]) {
+				groups[i] = AFTER_OTHERS_GROUP;
+			}
+			else {
+				groups[i] = OTHERS_GROUP;
+			}
+		}
+
+		return groups;
+	}
+
+	private int[] newRanks() {
+
+		int size = configs.size();
+		Integer[] indexes = new Integer[size];
+
+		for (int i = 0; i < size; i++) {
+			indexes[i] = i;
+		}
+
+		// Same order as Ordering.preSort(List): named descriptors with the most routes first, unnamed ones last.
+		Arrays.sort(indexes, new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer i, Integer j) {
+
+					boolean unnamedI = isUnnamed(i);
+					boolean unnamedJ = isUnnamed(j);
+
+					if (unnamedI || unnamedJ) {
+						return (unnamedI == unnamedJ) ? 0 : (unnamedI ? 1 : -1);
+					}
+
+					return getRouteCount(j) - getRouteCount(i);
+				}
+			});
+
+		int[] ranks = new int[size];
+
+		for (int rank = 0; rank < size; rank++) {
+			ranks[indexes[rank]] = rank;
+		}
+
+		return ranks;
+	}
+
+	private int[] newTopologicalOrder() throws Exception {
+
+		int size = configs.size();
+		int[] remaining = new int[size];
+		int[] order = new int[size];
+		int head = 0;
+		int tail = 0;
+
+		for (int i = 0; i < size; i++) {
+			remaining[i] = predecessors[i].length;
+
+			if (remaining[i] == 0) {
+				order[tail++] = i;
+			}
+		}
+
+		while (head < tail) {
+
+			int i = order[head++];
+
+			for (int j : successors[i]) {
+
+				if (--remaining[j] == 0) {
+					order[tail++] = j;
+				}
+			}
+		}
+
+		if (tail < size) {
+
+			List<String> names = new ArrayList<String>();
+
+			for (int i = 0; i < size; i++) {
+
+				if (remaining[i] > 0) {
+					names.add(configs.get(i).getName());
+				}
+			}
+
+			throw new Exception(Ordering.CIRCULAR_DEPENDENCIES_DETECTED +
+				" when traversing 'before' and 'after' declarations of: " + names + "\n");
+		}
+
+		return order;
+	}
+
+	private int getRouteCount(int i) {
+
+		Ordering ordering = configs.get(i).getOrdering();
+
+		if (ordering == null) {
+			return 0;
+		}
+
+		String[][] routes = ordering.getRoutes();
+
+		return routes[Ordering.BEFORE].length + routes[Ordering.AFTER].length;
+	}
+
+	private boolean isUnnamed(int i) {
+
+		String name = configs.get(i).getName();
+
+		return (name == null) || (name.length() == 0);
+	}
+
+	private class ReadyComparator implements Comparator<Integer> {
+
+		@Override
+		public int compare(Integer i, Integer j) {
+
+			if (groupHeights[i] != groupHeights[j]) {
+				return groupHeights[j] - groupHeights[i];
+			}
+			else if (depths[i] != depths[j]) {
+				return depths[j] - depths[i];
+			}
+			else if (heights[i] != heights[j]) {
+				return heights[i] - heights[j];
+			}
+			else {
+				return ranks[i] - ranks[j];
+			}
+		}
+	}
+}
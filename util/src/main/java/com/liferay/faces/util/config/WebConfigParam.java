@@ -23,6 +23,34 @@ import com.liferay.faces.util.helper.BooleanHelper;
  */
 public enum WebConfigParam implements ConfigParam<ExternalContext> {
 
+	/**
+	 * Maximum number of distinct User-Agents whose classification is cached by the {@link
+	 * com.liferay.faces.util.client.BrowserSniffer}. Default is 1024.
+	 */
+	BrowserSnifferCacheSize("com.liferay.faces.util.browserSnifferCacheSize", 1024),
+
+	/**
+	 * Boolean indicating whether or not the scripts of sandboxed components should be coalesced into a single sandbox
+	 * per distinct YUI config, rather than rendering a separate sandbox for each component. Only components whose
+	 * renderer reports them as sandboxed are affected, which is currently the case for alloy:inputDate and
+	 * alloy:inputTime when their locale differs from the locale of the view. Default is false.
+	 */
+	ClientScriptCoalescingEnabled("com.liferay.faces.util.clientScriptCoalescingEnabled", null, false),
+
+	/**
+	 * Number of threads that are used to parse the web-fragment.xml and faces-config.xml descriptors found in the
+	 * classpath at startup. Default is the number of available processors, up to a maximum of 4.
+	 */
+	ConfigParserThreads("com.liferay.faces.util.configParserThreads",
+		Math.min(Runtime.getRuntime().availableProcessors(), 4)),
+
+	/**
+	 * Absolute path to a directory (folder) in which a binary snapshot of the parsed configuration descriptors is
+	 * stored, so that redeploying the web application with unchanged jars and descriptors can skip parsing them.
+	 * Default value is null, meaning that snapshots are not used.
+	 */
+	ConfigSnapshotDir("com.liferay.faces.util.configSnapshotDir", null),
+
 	/** Boolean indicating whether or not XML entities should be resolved */
 	ResolveXMLEntities("com.liferay.faces.util.resolveXMLEntities", "com.liferay.faces.bridge.resolveXMLEntities",
 		false),
@@ -109,7 +137,7 @@ public enum WebConfigParam implements ConfigParam<ExternalContext> {
 
 	@Override
 	public boolean getBooleanValue(ExternalContext externalContext) {
-		return WebConfigParamUtil.getBooleanValue(externalContext, name, alternateName, defaultBooleanValue);
+		return WebConfigParamUtil.getSnapshot(externalContext).getBooleanValue(this);
 	}
 
 	@Override
@@ -119,7 +147,7 @@ public enum WebConfigParam implements ConfigParam<ExternalContext> {
 
 	@Override
 	public boolean isConfigured(ExternalContext externalContext) {
-		return WebConfigParamUtil.isSpecified(externalContext, name, alternateName);
+		return WebConfigParamUtil.getSnapshot(externalContext).isConfigured(this);
 	}
 
 	public boolean getDefaultBooleanValue() {
@@ -141,12 +169,12 @@ public enum WebConfigParam implements ConfigParam<ExternalContext> {
 
 	@Override
 	public int getIntegerValue(ExternalContext externalContext) {
-		return WebConfigParamUtil.getIntegerValue(externalContext, name, alternateName, defaultIntegerValue);
+		return WebConfigParamUtil.getSnapshot(externalContext).getIntegerValue(this);
 	}
 
 	@Override
 	public long getLongValue(ExternalContext externalContext) {
-		return WebConfigParamUtil.getLongValue(externalContext, name, alternateName, defaultLongValue);
+		return WebConfigParamUtil.getSnapshot(externalContext).getLongValue(this);
 	}
 
 	public String getName() {
@@ -155,6 +183,6 @@ public enum WebConfigParam implements ConfigParam<ExternalContext> {
 
 	@Override
 	public String getStringValue(ExternalContext externalContext) {
-		return WebConfigParamUtil.getStringValue(externalContext, name, alternateName, defaultStringValue);
+		return WebConfigParamUtil.getSnapshot(externalContext).getStringValue(this);
 	}
 }
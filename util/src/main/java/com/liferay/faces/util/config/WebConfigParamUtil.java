@@ -13,8 +13,8 @@
  */
 package com.liferay.faces.util.config;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.faces.context.ExternalContext;
 import javax.servlet.ServletContext;
@@ -32,9 +32,12 @@ import com.liferay.faces.util.helper.LongHelper;
  */
 public class WebConfigParamUtil {
 
-	// Note: Performance is faster with a synchronized block around HashMap.put(String, Object) rather than using a
-	// ConcurrentHashMap.
-	private static final Map<String, Object> configParamCache = new HashMap<String, Object>();
+	// Private Constants
+	private static final String SNAPSHOT = WebConfigParamUtil.class.getName() + ".snapshot";
+
+	// Note: A ConcurrentHashMap is necessary since an unsynchronized HashMap.get(Object) can fail while another thread
+	// is resizing the map in HashMap.put(String, Object).
+	private static final Map<String, Object> configParamCache = new ConcurrentHashMap<String, Object>();
 
 	public static boolean getBooleanValue(ExternalContext externalContext, String name, String alternateName,
 		boolean defaultBooleanValue) {
@@ -53,14 +56,26 @@ public class WebConfigParamUtil {
 				booleanValue = BooleanHelper.isTrueToken(configuredValue);
 			}
 
-			synchronized (configParamCache) {
-				configParamCache.put(name, Boolean.valueOf(booleanValue));
-			}
+			configParamCache.put(name, Boolean.valueOf(booleanValue));
 		}
 
 		return booleanValue;
 	}
 
+	/**
+	 * Creates a new snapshot of the values of the {@link WebConfigParam} constants and replaces the snapshot that is
+	 * returned by {@link #getSnapshot(ExternalContext)}. This is a hook for picking up changes to the context-param
+	 * values without redeploying the application.
+	 */
+	public static ConfigParamSnapshot<WebConfigParam, ExternalContext> reload(ExternalContext externalContext) {
+
+		ConfigParamSnapshot<WebConfigParam, ExternalContext> snapshot =
+			new ConfigParamSnapshot<WebConfigParam, ExternalContext>(WebConfigParam.class, externalContext);
+		externalContext.getApplicationMap().put(SNAPSHOT, snapshot);
+
+		return snapshot;
+	}
+
 	public static String getConfiguredValue(ExternalContext externalContext, String name, String alternateName) {
 
 		String configuredValue = externalContext.getInitParameter(name);
@@ -76,6 +91,24 @@ public class WebConfigParamUtil {
 		return (getConfiguredValue(externalContext, name, alternateName) != null);
 	}
 
+	/**
+	 * Returns the snapshot of the values of the {@link WebConfigParam} constants for the application, creating it if
+	 * necessary.
+	 */
+	@SuppressWarnings("unchecked")
+	public static ConfigParamSnapshot<WebConfigParam, ExternalContext> getSnapshot(ExternalContext externalContext) {
+
+		ConfigParamSnapshot<WebConfigParam, ExternalContext> snapshot =
+			(ConfigParamSnapshot<WebConfigParam, ExternalContext>) externalContext.getApplicationMap().get(SNAPSHOT);
+
+		// Since the snapshot is immutable, it is harmless if more than one thread creates it at the same time.
+		if (snapshot == null) {
+			snapshot = reload(externalContext);
+		}
+
+		return snapshot;
+	}
+
 	public static int getIntegerValue(ExternalContext externalContext, String name, String alternateName,
 		int defaultIntegerValue) {
 
@@ -93,9 +126,7 @@ public class WebConfigParamUtil {
 				integerValue = IntegerHelper.toInteger(configuredValue);
 			}
 
-			synchronized (configParamCache) {
-				configParamCache.put(name, Integer.valueOf(integerValue));
-			}
+			configParamCache.put(name, Integer.valueOf(integerValue));
 		}
 
 		return integerValue;
@@ -118,9 +149,7 @@ public class WebConfigParamUtil {
 				longValue = LongHelper.toLong(configuredValue);
 			}
 
-			synchronized (configParamCache) {
-				configParamCache.put(name, Long.valueOf(longValue));
-			}
+			configParamCache.put(name, Long.valueOf(longValue));
 		}
 
 		return longValue;
@@ -143,7 +172,7 @@ public class WebConfigParamUtil {
 				stringValue = configuredValue;
 			}
 
-			synchronized (configParamCache) {
+			if (stringValue != null) {
 				configParamCache.put(name, stringValue);
 			}
 		}
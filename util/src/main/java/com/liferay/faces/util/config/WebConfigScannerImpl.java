@@ -16,7 +16,12 @@ package com.liferay.faces.util.config;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.xml.parsers.SAXParser;
 
@@ -39,25 +44,48 @@ public class WebConfigScannerImpl implements WebConfigScanner {
 
 	// Private Data Members
 	private ClassLoader classLoader;
+	private DescriptorParserPool descriptorParserPool;
 	private boolean resolveEntities;
 	private ResourceReader resourceReader;
 	private SAXParser saxParser;
 
 	public WebConfigScannerImpl(ClassLoader classLoader, ResourceReader resourceReader, SAXParser saxParser,
 		boolean resolveEntities) {
+		this(classLoader, resourceReader, new DescriptorParserPool(saxParser), resolveEntities);
+		this.saxParser = saxParser;
+	}
+
+	public WebConfigScannerImpl(ClassLoader classLoader, ResourceReader resourceReader,
+		DescriptorParserPool descriptorParserPool, boolean resolveEntities) {
 		this.classLoader = classLoader;
 		this.resourceReader = resourceReader;
-		this.saxParser = saxParser;
+		this.descriptorParserPool = descriptorParserPool;
 		this.resolveEntities = resolveEntities;
 	}
 
 	protected WebConfigParser newWebConfigParser() {
+
+		if (saxParser == null) {
+
+			try {
+				saxParser = descriptorParserPool.getSAXParser();
+			}
+			catch (Exception e) {
+				logger.error(e);
+			}
+		}
+
+		return newWebConfigParser(saxParser);
+	}
+
+	protected WebConfigParser newWebConfigParser(SAXParser saxParser) {
 		return new WebConfigParserImpl(saxParser, resolveEntities);
 	}
 
 	public WebConfig scan() throws IOException {
 
-		// Parse the Servlet 3.0 META-INF/web-fragment.xml descriptor files found in the classpath.
+		// Parse the Servlet 3.0 META-INF/web-fragment.xml descriptor files found in the classpath. Each descriptor is
+		// parsed independently (possibly in parallel) and the results are merged in classpath order.
 		Enumeration<URL> webFragmentURLs = classLoader.getResources(WEB_FRAGMENT_META_INF_PATH);
 
 		WebConfig webConfig = new WebConfigImpl();
@@ -66,22 +94,19 @@ public class WebConfigScannerImpl implements WebConfigScanner {
 
 		if (webFragmentURLs != null) {
 
+			List<Callable<WebConfig>> tasks = new ArrayList<Callable<WebConfig>>();
+
 			while (webFragmentURLs.hasMoreElements()) {
-				URL webFragmentURL = webFragmentURLs.nextElement();
-				inputStream = webFragmentURL.openStream();
+				tasks.add(new WebFragmentParserTask(webFragmentURLs.nextElement()));
+			}
 
-				WebConfigParser webConfigParser = newWebConfigParser();
+			for (WebConfig webFragmentConfig : descriptorParserPool.invokeAll(tasks)) {
 
-				try {
-					webConfig = webConfigParser.parse(inputStream, webConfig);
-					inputStream.close();
-				}
-				catch (Exception e) {
-					logger.error(e.getMessage());
+				if (webFragmentConfig != null) {
+					webConfig = merge(webConfig, webFragmentConfig);
 				}
 			}
 		}
-
 		// Parse the WEB-INF/web.xml descriptor.
 		inputStream = resourceReader.getResourceAsStream(WEB_XML_PATH);
 
@@ -119,4 +144,58 @@ public class WebConfigScannerImpl implements WebConfigScanner {
 		return webConfig;
 	}
 
+	/**
+	 * Returns a new {@link WebConfig} that contains the entries of the first specified configuration followed by the
+	 * entries of the second, which is the same result as parsing the second descriptor into the first configuration.
+	 */
+	protected WebConfig merge(WebConfig webConfig, WebConfig webFragmentConfig) {
+
+		Map<String, String> configuredContextParams = new HashMap<String, String>(
+				webConfig.getConfiguredContextParams());
+		configuredContextParams.putAll(webFragmentConfig.getConfiguredContextParams());
+
+		List<ConfiguredServlet> configuredServlets = new ArrayList<ConfiguredServlet>(
+				webConfig.getConfiguredServlets());
+		configuredServlets.addAll(webFragmentConfig.getConfiguredServlets());
+
+		List<ConfiguredServletMapping> configuredServletMappings = new ArrayList<ConfiguredServletMapping>(
+				webConfig.getConfiguredServletMappings());
+		configuredServletMappings.addAll(webFragmentConfig.getConfiguredServletMappings());
+
+		return new WebConfigImpl(configuredContextParams, configuredServlets, configuredServletMappings);
+	}
+
+	protected class WebFragmentParserTask implements Callable<WebConfig> {
+
+		// Private Data Members
+		private URL webFragmentURL;
+
+		public WebFragmentParserTask(URL webFragmentURL) {
+			this.webFragmentURL = webFragmentURL;
+		}
+
+		public WebConfig call() throws Exception {
+
+			WebConfig webFragmentConfig = null;
+			InputStream inputStream = null;
+
+			try {
+				inputStream = webFragmentURL.openStream();
+
+				WebConfigParser webConfigParser = newWebConfigParser(descriptorParserPool.getSAXParser());
+				webFragmentConfig = webConfigParser.parse(inputStream, new WebConfigImpl());
+			}
+			catch (Exception e) {
+				logger.error(e.getMessage());
+			}
+			finally {
+
+				if (inputStream != null) {
+					inputStream.close();
+				}
+			}
+
+			return webFragmentConfig;
+		}
+	}
 }
@@ -13,6 +13,7 @@
  */
 package com.liferay.faces.util.event.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.EventObject;
 import java.util.List;
@@ -29,6 +30,7 @@ import com.liferay.faces.util.config.ApplicationConfigInitializerImpl;
 import com.liferay.faces.util.config.ConfiguredElement;
 import com.liferay.faces.util.config.FacesConfig;
 import com.liferay.faces.util.config.WebConfigParam;
+import com.liferay.faces.util.config.WebConfigParamUtil;
 import com.liferay.faces.util.factory.FactoryExtensionFinder;
 
 
@@ -49,11 +51,22 @@ public class ApplicationStartupListener extends ApplicationStartupListenerCompat
 
 		if (applicationConfig == null) {
 
+			// Take the snapshot of the context-param values at startup so that requests never need to resolve them.
+			WebConfigParamUtil.reload(externalContext);
+
 			boolean resolveEntities = WebConfigParam.ResolveXMLEntities.getBooleanValue(externalContext);
 
+			int parserThreads = WebConfigParam.ConfigParserThreads.getIntegerValue(externalContext);
+			String snapshotDirPath = WebConfigParam.ConfigSnapshotDir.getStringValue(externalContext);
+			File snapshotDir = null;
+
+			if ((snapshotDirPath != null) && (snapshotDirPath.trim().length() > 0)) {
+				snapshotDir = new File(snapshotDirPath.trim());
+			}
+
 			String contextPath = getApplicationContextPath(externalContext);
 			ApplicationConfigInitializer applicationConfigInitializer = new ApplicationConfigInitializerImpl(
-					contextPath, resolveEntities);
+					contextPath, resolveEntities, parserThreads, snapshotDir);
 
 			try {
 				applicationConfig = applicationConfigInitializer.initialize();
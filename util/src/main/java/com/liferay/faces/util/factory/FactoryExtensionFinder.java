@@ -17,6 +17,8 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Map;
 
 import javax.faces.FacesException;
 
@@ -29,7 +31,7 @@ import com.liferay.faces.util.config.ConfiguredElement;
 public abstract class FactoryExtensionFinder {
 
 	// Private Static Data Members
-	private static FactoryExtensionFinder instance;
+	private static volatile FactoryExtensionFinder instance;
 
 	public static String getClassPathResourceAsString(String resourcePath) {
 		String classPathResourceAsString = null;
@@ -101,4 +103,12 @@ public abstract class FactoryExtensionFinder {
 	public abstract void registerFactory(ConfiguredElement configuredFactoryExtension);
 
 	public abstract Object getFactoryInstance(Class<?> clazz);
+
+	/**
+	 * Returns the number of times that each registered factory has been looked up, keyed by the class of the factory.
+	 * The default implementation returns an empty map for implementations that do not count lookups.
+	 */
+	public Map<Class<?>, Long> getLookupCounts() {
+		return Collections.emptyMap();
+	}
 }
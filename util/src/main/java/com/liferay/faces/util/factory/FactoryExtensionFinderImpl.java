@@ -15,8 +15,10 @@ package com.liferay.faces.util.factory;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.liferay.faces.util.config.ConfiguredElement;
 import com.liferay.faces.util.logging.Logger;
@@ -24,6 +26,11 @@ import com.liferay.faces.util.logging.LoggerFactory;
 
 
 /**
+ * This class is the default implementation of {@link FactoryExtensionFinder}. Factories are registered (typically at
+ * startup) by building a new immutable registry that replaces the current one, and the registry is published via a
+ * volatile field. This makes lookups lock-free and safe for concurrent readers, since lookups only ever read an
+ * immutable map.
+ *
  * @author  Neil Griffin
  */
 public class FactoryExtensionFinderImpl extends FactoryExtensionFinder {
@@ -32,11 +39,10 @@ public class FactoryExtensionFinderImpl extends FactoryExtensionFinder {
 	private static final Logger logger = LoggerFactory.getLogger(FactoryExtensionFinderImpl.class);
 
 	// Private Data Members
-	private Map<Class<?>, Object> factoryExtensionCache = new HashMap<Class<?>, Object>();
+	private volatile Map<Class<?>, RegisteredFactory> registry = Collections.emptyMap();
 
 	@Override
-	@SuppressWarnings("unchecked")
-	public void registerFactory(ConfiguredElement configuredFactoryExtension) {
+	public synchronized void registerFactory(ConfiguredElement configuredFactoryExtension) {
 
 		if (configuredFactoryExtension != null) {
 
@@ -46,11 +52,20 @@ public class FactoryExtensionFinderImpl extends FactoryExtensionFinder {
 
 				Class<?> factoryExtensionClass = Class.forName(factoryClassFQCN);
 				Class<?> baseFactoryExtensionClass = getBaseFactoryExtensionClass(factoryExtensionClass);
-				Object existingFactoryInstance = getFactoryInstance(baseFactoryExtensionClass);
+				RegisteredFactory existingRegisteredFactory = registry.get(baseFactoryExtensionClass);
+				Object existingFactoryInstance = null;
+
+				if (existingRegisteredFactory != null) {
+					existingFactoryInstance = existingRegisteredFactory.factory;
+				}
+
 				Object factoryInstance = newFactoryInstance(factoryExtensionClass, baseFactoryExtensionClass,
 						existingFactoryInstance);
 
-				factoryExtensionCache.put(baseFactoryExtensionClass, factoryInstance);
+				// Copy-on-write so that concurrent readers always see a fully constructed registry.
+				Map<Class<?>, RegisteredFactory> newRegistry = new HashMap<Class<?>, RegisteredFactory>(registry);
+				newRegistry.put(baseFactoryExtensionClass, new RegisteredFactory(factoryInstance));
+				registry = Collections.unmodifiableMap(newRegistry);
 			}
 			catch (Exception e) {
 				logger.error(e);
@@ -62,47 +77,41 @@ public class FactoryExtensionFinderImpl extends FactoryExtensionFinder {
 		Object wrappedFactory) throws ClassNotFoundException, InstantiationException, IllegalAccessException,
 		IllegalArgumentException, InvocationTargetException {
 
-		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 		Object classInstance = null;
 
-		if (classLoader != null) {
+		if (factoryExtensionClass != null) {
 
-			if (factoryExtensionClass != null) {
-				Constructor<?> wrapperConstructor = null;
-				Constructor<?>[] constructors = factoryExtensionClass.getDeclaredConstructors();
+			Constructor<?> wrapperConstructor = null;
 
-				for (Constructor<?> constructor : constructors) {
-					Class<?>[] parameterTypes = constructor.getParameterTypes();
-
-					if ((parameterTypes != null) && (parameterTypes.length == 1) &&
-							(parameterTypes[0].getName().equals(baseFactoryExtensionClass.getName()))) {
-						wrapperConstructor = constructor;
-					}
-				}
+			try {
+				wrapperConstructor = factoryExtensionClass.getDeclaredConstructor(baseFactoryExtensionClass);
+			}
+			catch (NoSuchMethodException e) {
+				// The factory does not wrap another factory.
+			}
 
-				if (wrapperConstructor == null) {
-					logger.debug("Creating instance with zero-arg constructor since wrapperConstructor=null");
-					classInstance = factoryExtensionClass.newInstance();
-				}
-				else {
-					logger.debug("Creating instance with one-arg constructor since wrapperConstructor=[{0}]",
-						wrapperConstructor);
-					classInstance = wrapperConstructor.newInstance(wrappedFactory);
-				}
+			if (wrapperConstructor == null) {
+				logger.debug("Creating instance with zero-arg constructor since wrapperConstructor=null");
+				classInstance = factoryExtensionClass.newInstance();
+			}
+			else {
+				logger.debug("Creating instance with one-arg constructor since wrapperConstructor=[{0}]",
+					wrapperConstructor);
+				classInstance = wrapperConstructor.newInstance(wrappedFactory);
 			}
 		}
 
 		return classInstance;
 	}
 
-	@SuppressWarnings("unchecked")
 	protected Class<?> getBaseFactoryExtensionClass(Class<?> factoryClass) {
 
 		Class<?> baseFactoryExtensionClass = factoryClass;
 		Class<?> factorySuperclass = factoryClass.getSuperclass();
 
-		if (!Object.class.getName().equals(factorySuperclass.getName())) {
-			baseFactoryExtensionClass = getBaseFactoryExtensionClass(factorySuperclass);
+		while ((factorySuperclass != null) && (factorySuperclass != Object.class)) {
+			baseFactoryExtensionClass = factorySuperclass;
+			factorySuperclass = factorySuperclass.getSuperclass();
 		}
 
 		return baseFactoryExtensionClass;
@@ -110,12 +119,44 @@ public class FactoryExtensionFinderImpl extends FactoryExtensionFinder {
 
 	@Override
 	public Object getFactoryInstance(Class<?> clazz) {
+
 		Object factory = null;
 
 		if (clazz != null) {
-			factory = factoryExtensionCache.get(clazz);
+
+			RegisteredFactory registeredFactory = registry.get(clazz);
+
+			if (registeredFactory != null) {
+				registeredFactory.lookupCount.incrementAndGet();
+				factory = registeredFactory.factory;
+			}
 		}
 
 		return factory;
 	}
+
+	@Override
+	public Map<Class<?>, Long> getLookupCounts() {
+
+		Map<Class<?>, RegisteredFactory> registry = this.registry;
+		Map<Class<?>, Long> lookupCounts = new HashMap<Class<?>, Long>(registry.size());
+
+		for (Map.Entry<Class<?>, RegisteredFactory> mapEntry : registry.entrySet()) {
+			lookupCounts.put(mapEntry.getKey(), mapEntry.getValue().lookupCount.get());
+		}
+
+		return lookupCounts;
+	}
+
+	private static final class RegisteredFactory {
+
+		// Private Data Members
+		private final Object factory;
+		private final AtomicLong lookupCount;
+
+		public RegisteredFactory(Object factory) {
+			this.factory = factory;
+			this.lookupCount = new AtomicLong();
+		}
+	}
 }
@@ -22,7 +22,9 @@ import com.liferay.faces.util.lang.StringPool;
 
 
 /**
- * This class is an implementation of {@link JspWriter} that writes to an underlying String instead of JSP.
+ * This class is an implementation of {@link JspWriter} that writes to an underlying String instead of JSP. All of the
+ * print methods are implemented in terms of the write methods, so that subclasses are able to intercept all of the
+ * output by overriding {@link #write(char[], int, int)} and {@link #write(String, int, int)}.
  *
  * @author  Neil Griffin
  */
@@ -70,49 +72,49 @@ public class StringJspWriter extends JspWriter {
 
 	@Override
 	public void newLine() throws IOException {
-		stringWriter.write(StringPool.NEW_LINE);
+		write(StringPool.NEW_LINE);
 	}
 
 	@Override
 	public void print(boolean b) throws IOException {
-		stringWriter.write(Boolean.toString(b));
+		write(Boolean.toString(b));
 	}
 
 	@Override
 	public void print(char c) throws IOException {
-		stringWriter.write(Character.toString(c));
+		write(Character.toString(c));
 	}
 
 	@Override
 	public void print(int i) throws IOException {
-		stringWriter.write(Integer.toString(i));
+		write(Integer.toString(i));
 	}
 
 	@Override
 	public void print(long l) throws IOException {
-		stringWriter.write(Long.toString(l));
+		write(Long.toString(l));
 	}
 
 	@Override
 	public void print(float f) throws IOException {
-		stringWriter.write(Float.toString(f));
+		write(Float.toString(f));
 	}
 
 	@Override
 	public void print(double d) throws IOException {
-		stringWriter.write(Double.toString(d));
+		write(Double.toString(d));
 	}
 
 	@Override
 	public void print(char[] s) throws IOException {
-		stringWriter.write(s);
+		write(s);
 	}
 
 	@Override
 	public void print(String s) throws IOException {
 
 		if (s != null) {
-			stringWriter.write(s);
+			write(s);
 		}
 	}
 
@@ -120,13 +122,13 @@ public class StringJspWriter extends JspWriter {
 	public void print(Object o) throws IOException {
 
 		if (o != null) {
-			stringWriter.write(o.toString());
+			write(o.toString());
 		}
 	}
 
 	@Override
 	public void println() throws IOException {
-		stringWriter.write(StringPool.NEW_LINE);
+		write(StringPool.NEW_LINE);
 	}
 
 	@Override
@@ -193,6 +195,11 @@ public class StringJspWriter extends JspWriter {
 		stringWriter.write(cbuf, off, len);
 	}
 
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		stringWriter.write(str, off, len);
+	}
+
 	@Override
 	public int getRemaining() {
 		return getBufferSize() - stringWriter.getBuffer().length();
@@ -28,7 +28,13 @@ public interface HttpHeaders {
 
 	public static final String CONTENT_DISPOSITION = "Content-Disposition";
 
+	public static final String CONTENT_ENCODING = "Content-Encoding";
+
+	public static final String ETAG = "ETag";
+
 	public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
 
+	public static final String IF_NONE_MATCH = "If-None-Match";
+
 	public static final String USER_AGENT = "User-Agent";
 }
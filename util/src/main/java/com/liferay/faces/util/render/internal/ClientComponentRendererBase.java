@@ -20,6 +20,7 @@ import javax.faces.context.FacesContext;
 import javax.faces.context.ResponseWriter;
 import javax.faces.render.Renderer;
 
+import com.liferay.faces.util.config.WebConfigParam;
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.render.ContentTypes;
 
@@ -102,8 +103,15 @@ public abstract class ClientComponentRendererBase extends Renderer implements Cl
 		encodeJavaScriptEnd(facesContext, uiComponent);
 
 		String use = null;
+		String config = null;
+		boolean sandboxed = isSandboxed(facesContext, uiComponent);
+		boolean clientScriptCoalescingEnabled = isClientScriptCoalescingEnabled(facesContext);
 
-		if (!isSandboxed(facesContext, uiComponent)) {
+		if (sandboxed && clientScriptCoalescingEnabled) {
+			config = getClientScriptConfig(facesContext, uiComponent);
+		}
+
+		if (!sandboxed || clientScriptCoalescingEnabled) {
 
 			String[] modules = getModules(facesContext, uiComponent);
 
@@ -124,10 +132,22 @@ public abstract class ClientComponentRendererBase extends Renderer implements Cl
 			}
 		}
 
-		RendererUtil.renderScript(bufferedScriptResponseWriter.toString(), use);
+		RendererUtil.renderScript(bufferedScriptResponseWriter.toString(), use, config);
 		facesContext.setResponseWriter(responseWriter);
 	}
 
+	/**
+	 * Returns the config (if any) of the sandbox that the script of the specified component is to be rendered in when
+	 * client script coalescing is enabled.
+	 */
+	protected String getClientScriptConfig(FacesContext facesContext, UIComponent uiComponent) throws IOException {
+		return null;
+	}
+
+	protected boolean isClientScriptCoalescingEnabled(FacesContext facesContext) {
+		return WebConfigParam.ClientScriptCoalescingEnabled.getBooleanValue(facesContext.getExternalContext());
+	}
+
 	protected boolean isSandboxed(FacesContext facesContext, UIComponent uiComponent) {
 		return false;
 	}
@@ -27,6 +27,7 @@ import com.liferay.faces.util.client.BrowserSniffer;
 import com.liferay.faces.util.client.BrowserSnifferFactory;
 import com.liferay.faces.util.client.ClientScript;
 import com.liferay.faces.util.client.ClientScriptFactory;
+import com.liferay.faces.util.client.internal.ClientScriptConfigurable;
 import com.liferay.faces.util.component.ComponentUtil;
 import com.liferay.faces.util.component.Styleable;
 import com.liferay.faces.util.factory.FactoryExtensionFinder;
@@ -51,15 +52,20 @@ public class RendererUtil {
 	public static final String[] KEYBOARD_DOM_EVENTS = { "onkeydown", "onkeypress", "onkeyup" };
 
 	// Private Constants
-	private static final String FUNCTION_A = "function(A)";
+	private static final String ALLOY_READY_REQUIRED = RendererUtil.class.getName() + ".alloyReadyRequired";
+	private static final String FUNCTION_A_BEGIN = "function(A){";
 	private static final String JAVA_SCRIPT_HEX_PREFIX = "\\x";
 	private static final boolean LIFERAY_FACES_BRIDGE_DETECTED = ProductMap.getInstance().get(
 			ProductConstants.LIFERAY_FACES_BRIDGE).isDetected();
 	private static final boolean LIFERAY_PORTAL_DETECTED = ProductMap.getInstance().get(ProductConstants.LIFERAY_PORTAL)
 		.isDetected();
-	private static final String READY = "ready";
-	private static final String USE = "use";
-	private static final String AUI = "AUI";
+
+	// Precomputed prefixes of the YUI loader invocation.
+	private static final String AUI_READY_BEGIN = "AUI().ready(";
+	private static final String AUI_USE_BEGIN = "AUI().use(";
+	private static final String READY_BEGIN = ").ready(";
+	private static final String USE_BEGIN = ").use(";
+	private static final String YUI_BEGIN = "YUI(";
 
 	private static final char[] _HEX_DIGITS = {
 			'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
@@ -262,6 +268,38 @@ public class RendererUtil {
 		clientScript.append(script, use);
 	}
 
+	/**
+	 * Renders script content that requires the specified YUI config. If the {@link ClientScript} is unable to coalesce
+	 * content per config (for example, because it is provided by a third party) then the content is rendered in its own
+	 * sandbox.
+	 */
+	public static void renderScript(String script, String use, String config) {
+
+		ClientScriptFactory clientScriptFactory = (ClientScriptFactory) FactoryExtensionFinder.getFactory(
+				ClientScriptFactory.class);
+		ClientScript clientScript = clientScriptFactory.getClientScript();
+
+		if ((config == null) || (config.length() == 0)) {
+			clientScript.append(script, use);
+		}
+		else if (clientScript instanceof ClientScriptConfigurable) {
+
+			ClientScriptConfigurable clientScriptConfigurable = (ClientScriptConfigurable) clientScript;
+			clientScriptConfigurable.append(script, use, config);
+		}
+		else {
+
+			String[] useArray = null;
+
+			if (use != null) {
+				useArray = use.split(StringPool.COMMA);
+			}
+
+			FacesContext facesContext = FacesContext.getCurrentInstance();
+			clientScript.append(getAlloyBeginScript(facesContext, useArray, config) + script + "});", null);
+		}
+	}
+
 	private static String toHexString(int i) {
 		char[] buffer = new char[8];
 
@@ -282,61 +320,79 @@ public class RendererUtil {
 	}
 
 	public static String getAlloyBeginScript(FacesContext facesContext, String[] modules, String config) {
+		return getAlloyBeginScript(modules, config, isAlloyReadyRequired(facesContext));
+	}
 
-		boolean browserIE = false;
-		float browserMajorVersion = 1;
+	public static String getAlloyBeginScript(String[] modules, float browserMajorVersion, boolean browserIE) {
+		return getAlloyBeginScript(modules, null, browserIE && (browserMajorVersion < 8));
+	}
 
-		BrowserSnifferFactory browserSnifferFactory = (BrowserSnifferFactory) FactoryExtensionFinder.getFactory(
-				BrowserSnifferFactory.class);
-		BrowserSniffer browserSniffer = browserSnifferFactory.getBrowserSniffer(facesContext.getExternalContext());
+	/**
+	 * Determines whether or not the browser requires the YUI loader to be invoked with "ready" rather than "use". Since
+	 * the answer is the same for every script in the request, it is only determined once per request.
+	 */
+	private static boolean isAlloyReadyRequired(FacesContext facesContext) {
 
-		if (LIFERAY_PORTAL_DETECTED) {
-			browserIE = browserSniffer.isIe();
-			browserMajorVersion = browserSniffer.getMajorVersion();
-		}
-		else if (LIFERAY_FACES_BRIDGE_DETECTED) {
-			// no-op because there is no way to obtain the underlying HttpServletRequest.
-		}
-		else {
-			browserIE = browserSniffer.isIe();
-			browserMajorVersion = browserSniffer.getMajorVersion();
+		Map<Object, Object> attributes = facesContext.getAttributes();
+		Boolean alloyReadyRequired = (Boolean) attributes.get(ALLOY_READY_REQUIRED);
+
+		if (alloyReadyRequired == null) {
+
+			boolean browserIE = false;
+			float browserMajorVersion = 1;
+
+			BrowserSnifferFactory browserSnifferFactory = (BrowserSnifferFactory) FactoryExtensionFinder.getFactory(
+					BrowserSnifferFactory.class);
+			BrowserSniffer browserSniffer = browserSnifferFactory.getBrowserSniffer(facesContext.getExternalContext());
+
+			if (LIFERAY_PORTAL_DETECTED) {
+				browserIE = browserSniffer.isIe();
+				browserMajorVersion = browserSniffer.getMajorVersion();
+			}
+			else if (LIFERAY_FACES_BRIDGE_DETECTED) {
+				// no-op because there is no way to obtain the underlying HttpServletRequest.
+			}
+			else {
+				browserIE = browserSniffer.isIe();
+				browserMajorVersion = browserSniffer.getMajorVersion();
+			}
+
+			alloyReadyRequired = browserIE && (browserMajorVersion < 8);
+			attributes.put(ALLOY_READY_REQUIRED, alloyReadyRequired);
 		}
 
-		return getAlloyBeginScript(modules, config, browserMajorVersion, browserIE);
+		return alloyReadyRequired;
 	}
 
-	public static String getAlloyBeginScript(String[] modules, float browserMajorVersion, boolean browserIE) {
-		return getAlloyBeginScript(modules, null, browserMajorVersion, browserIE);
-	}
+	private static String getAlloyBeginScript(String[] modules, String config, boolean alloyReadyRequired) {
 
-	private static String getAlloyBeginScript(String[] modules, String config, float browserMajorVersion,
-		boolean browserIE) {
+		boolean configured = (config != null) && (config.length() > 0);
+		int length = FUNCTION_A_BEGIN.length() + YUI_BEGIN.length() + AUI_READY_BEGIN.length();
 
-		StringBuilder stringBuilder = new StringBuilder();
-		String loadMethod = USE;
+		if (configured) {
+			length += config.length();
+		}
+
+		if (modules != null) {
 
-		if (browserIE && (browserMajorVersion < 8)) {
-			loadMethod = READY;
+			for (String module : modules) {
+				length += module.length() + 4;
+			}
 		}
 
+		StringBuilder stringBuilder = new StringBuilder(length);
+
 		// If there is config render a YUI sandbox to avoid using the preconfigured AUI sandbox in Liferay Portal.
-		if ((config != null) && (config.length() > 0)) {
+		if (configured) {
 
-			stringBuilder.append("YUI");
-			stringBuilder.append(StringPool.OPEN_PARENTHESIS);
+			stringBuilder.append(YUI_BEGIN);
 			stringBuilder.append(config);
+			stringBuilder.append(alloyReadyRequired ? READY_BEGIN : USE_BEGIN);
 		}
 		else {
-
-			stringBuilder.append(AUI);
-			stringBuilder.append(StringPool.OPEN_PARENTHESIS);
+			stringBuilder.append(alloyReadyRequired ? AUI_READY_BEGIN : AUI_USE_BEGIN);
 		}
 
-		stringBuilder.append(StringPool.CLOSE_PARENTHESIS);
-		stringBuilder.append(StringPool.PERIOD);
-		stringBuilder.append(loadMethod);
-		stringBuilder.append(StringPool.OPEN_PARENTHESIS);
-
 		if (modules != null) {
 
 			for (String module : modules) {
@@ -347,8 +403,7 @@ public class RendererUtil {
 			}
 		}
 
-		stringBuilder.append(FUNCTION_A);
-		stringBuilder.append(StringPool.OPEN_CURLY_BRACE);
+		stringBuilder.append(FUNCTION_A_BEGIN);
 
 		return stringBuilder.toString();
 	}
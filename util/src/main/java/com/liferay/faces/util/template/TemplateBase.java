@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.template;
+
+import java.io.IOException;
+import java.io.Writer;
+
+
+/**
+ * This class provides a base implementation of {@link Template} that is also able to write the formatted template to a
+ * {@link Writer}. Implementations that extend this class can {@link Override} {@link #formatTokens(Writer, String[],
+ * Object[])} in order to avoid creating an intermediate String.
+ *
+ * @author  Neil Griffin
+ */
+public abstract class TemplateBase implements Template {
+
+	/**
+	 * Writes the template to the specified writer, substituting each of the specified tokens with the corresponding
+	 * replacement. The default implementation writes the String returned by {@link #formatTokens(String[], Object[])}.
+	 */
+	public void formatTokens(Writer writer, String[] tokens, Object[] replacements) throws IOException {
+		writer.write(formatTokens(tokens, replacements));
+	}
+}
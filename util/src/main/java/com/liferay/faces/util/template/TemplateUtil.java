@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.template;
+
+import java.io.IOException;
+import java.io.Writer;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class TemplateUtil {
+
+	/**
+	 * Writes the specified template to the specified writer, substituting each of the specified tokens with the
+	 * corresponding replacement. If the template extends {@link TemplateBase} then it is written without creating an
+	 * intermediate String.
+	 */
+	public static void formatTokens(Writer writer, Template template, String[] tokens, Object[] replacements)
+		throws IOException {
+
+		if (template instanceof TemplateBase) {
+			((TemplateBase) template).formatTokens(writer, tokens, replacements);
+		}
+		else {
+			writer.write(template.formatTokens(tokens, replacements));
+		}
+	}
+}
@@ -13,18 +13,26 @@
  */
 package com.liferay.faces.util.template;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import javax.faces.FacesWrapper;
 
 
 /**
  * @author  Neil Griffin
  */
-public abstract class TemplateWrapper implements Template, FacesWrapper<Template> {
+public abstract class TemplateWrapper extends TemplateBase implements FacesWrapper<Template> {
 
 	@Override
 	public String formatTokens(String[] expressions, Object[] replacements) {
 		return getWrapped().formatTokens(expressions, replacements);
 	}
 
+	@Override
+	public void formatTokens(Writer writer, String[] tokens, Object[] replacements) throws IOException {
+		TemplateUtil.formatTokens(writer, getWrapped(), tokens, replacements);
+	}
+
 	public abstract Template getWrapped();
 }
@@ -15,19 +15,32 @@ package com.liferay.faces.util.template.internal;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.faces.context.FacesContext;
 
 import com.liferay.faces.util.io.TextResource;
 import com.liferay.faces.util.io.TextResourceUtil;
+import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.render.ContentTypes;
 import com.liferay.faces.util.template.Template;
 import com.liferay.faces.util.template.TemplateFactory;
 
 
 /**
+ * This class is the default {@link TemplateFactory}. Since the factory instance might be shared by more than one
+ * application, the cache of templates that are read from resources is stored in the application map, so that it is
+ * discarded along with the application when it is redeployed.
+ *
  * @author  Neil Griffin
  */
 public class TemplateFactoryImpl extends TemplateFactory {
 
+	// Private Constants
+	private static final String TEMPLATE_CACHE = TemplateFactoryImpl.class.getName() + ".CACHE";
+
 	protected String getContentType(String filename) {
 
 		String contentType = null;
@@ -57,17 +70,64 @@ public class TemplateFactoryImpl extends TemplateFactory {
 			resourcePath = resourcePath.substring(0, pos) + "-min.js";
 		}
 
-		URL resourceURL = relativeClass.getResource(resourcePath);
+		// Templates are immutable after they are read, so each one is read and compiled only once per class and path.
+		String templateKey = relativeClass.getName() + StringPool.COLON + resourcePath;
+		ConcurrentMap<String, Template> templateCache = getTemplateCache(FacesContext.getCurrentInstance());
+		Template template = null;
+
+		if (templateCache != null) {
+			template = templateCache.get(templateKey);
+		}
+
+		if (template == null) {
+
+			URL resourceURL = relativeClass.getResource(resourcePath);
+
+			if (resourceURL != null) {
+				TextResource textResource = TextResourceUtil.read(resourceURL);
+				String templateText = textResource.getText();
+				template = getTemplate(templateText, contentType);
+
+				if (templateCache != null) {
 
-		if (resourceURL != null) {
-			TextResource textResource = TextResourceUtil.read(resourceURL);
-			String templateText = textResource.getText();
+					Template existingTemplate = templateCache.putIfAbsent(templateKey, template);
 
-			return getTemplate(templateText, contentType);
+					if (existingTemplate != null) {
+						template = existingTemplate;
+					}
+				}
+			}
+			else {
+				throw new IOException("Unable to read file " + resourcePath);
+			}
 		}
-		else {
-			throw new IOException("Unable to read file " + resourcePath);
+
+		return template;
+	}
+
+	/**
+	 * Returns the cache of templates of the application associated with the specified faces context, or null if there
+	 * is no faces context.
+	 */
+	@SuppressWarnings("unchecked")
+	protected ConcurrentMap<String, Template> getTemplateCache(FacesContext facesContext) {
+
+		ConcurrentMap<String, Template> templateCache = null;
+
+		if (facesContext != null) {
+
+			Map<String, Object> applicationMap = facesContext.getExternalContext().getApplicationMap();
+			templateCache = (ConcurrentMap<String, Template>) applicationMap.get(TEMPLATE_CACHE);
+
+			// It is harmless if more than one thread creates the cache at the same time, since the only consequence is
+			// that a template might be read more than once.
+			if (templateCache == null) {
+				templateCache = new ConcurrentHashMap<String, Template>();
+				applicationMap.put(TEMPLATE_CACHE, templateCache);
+			}
 		}
+
+		return templateCache;
 	}
 
 	@Override
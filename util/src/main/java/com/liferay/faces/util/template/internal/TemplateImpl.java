@@ -13,51 +13,205 @@
  */
 package com.liferay.faces.util.template.internal;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import com.liferay.faces.util.lang.StringPool;
 import com.liferay.faces.util.template.Template;
+import com.liferay.faces.util.template.TemplateBase;
 
 
 /**
+ * This class provides an implementation of {@link Template} that compiles the template text into a list of literal
+ * segments and token slots the first time it is formatted with a given array of tokens. Subsequent calls with the same
+ * tokens render the template in a single pass without searching the template text.
+ *
  * @author  Neil Griffin
  */
-public class TemplateImpl implements Template {
+public class TemplateImpl extends TemplateBase {
 
 	// Private Data Members
+	private volatile CompiledTemplate compiledTemplate;
 	private String template;
 
 	public TemplateImpl(String template) {
 		this.template = template;
 	}
 
+	@Override
 	public String formatTokens(String[] tokens, Object[] replacements) {
 
 		String formattedTemplate = template;
 
 		if ((tokens != null) && (replacements != null)) {
 
-			if (tokens.length != replacements.length) {
-				throw new java.lang.IllegalArgumentException("Number of tokens and replacements must be the same.");
+			CompiledTemplate compiledTemplate = getCompiledTemplate(tokens, replacements);
+			String[] values = toStrings(replacements);
+			int capacity = compiledTemplate.literalLength;
+
+			for (int slot : compiledTemplate.slots) {
+				capacity += values[slot].length();
 			}
-			else {
 
-				for (int i = 0; i < tokens.length; i++) {
+			StringBuilder buf = new StringBuilder(capacity);
+			String[] literals = compiledTemplate.literals;
+			int[] slots = compiledTemplate.slots;
 
-					Object curReplacement = replacements[i];
+			for (int i = 0; i < slots.length; i++) {
+				buf.append(literals[i]);
+				buf.append(values[slots[i]]);
+			}
 
-					if (curReplacement == null) {
-						curReplacement = StringPool.BLANK;
-					}
+			buf.append(literals[slots.length]);
+			formattedTemplate = buf.toString();
+		}
+
+		return formattedTemplate;
+	}
+
+	@Override
+	public void formatTokens(Writer writer, String[] tokens, Object[] replacements) throws IOException {
+
+		if ((tokens != null) && (replacements != null)) {
+
+			CompiledTemplate compiledTemplate = getCompiledTemplate(tokens, replacements);
+			String[] literals = compiledTemplate.literals;
+			int[] slots = compiledTemplate.slots;
+
+			for (int i = 0; i < slots.length; i++) {
+
+				writer.write(literals[i]);
 
-					formattedTemplate = formattedTemplate.replace(tokens[i], curReplacement.toString());
+				Object replacement = replacements[slots[i]];
+
+				if (replacement != null) {
+					writer.write(replacement.toString());
 				}
 			}
+
+			writer.write(literals[slots.length]);
+		}
+		else {
+			writer.write(template);
 		}
+	}
 
-		return formattedTemplate;
+	protected CompiledTemplate compile(String[] tokens) {
+
+		List<String> literals = new ArrayList<String>();
+		List<Integer> slots = new ArrayList<Integer>();
+		int pos = 0;
+		int templateLength = template.length();
+
+		while (pos < templateLength) {
+
+			// Find the token that occurs first in the remaining text. In the event of a tie, the longest token wins.
+			int matchPos = -1;
+			int matchSlot = -1;
+
+			for (int i = 0; i < tokens.length; i++) {
+
+				String token = tokens[i];
+
+				if ((token != null) && (token.length() > 0)) {
+
+					int tokenPos = template.indexOf(token, pos);
+
+					if ((tokenPos >= 0) &&
+							((matchPos < 0) || (tokenPos < matchPos) ||
+								((tokenPos == matchPos) && (token.length() > tokens[matchSlot].length())))) {
+						matchPos = tokenPos;
+						matchSlot = i;
+					}
+				}
+			}
+
+			if (matchPos < 0) {
+				break;
+			}
+
+			literals.add(template.substring(pos, matchPos));
+			slots.add(matchSlot);
+			pos = matchPos + tokens[matchSlot].length();
+		}
+
+		literals.add(template.substring(pos));
+
+		int[] slotArray = new int[slots.size()];
+
+		for (int i = 0; i < slotArray.length; i++) {
+			slotArray[i] = slots.get(i);
+		}
+
+		return new CompiledTemplate(tokens.clone(), literals.toArray(new String[literals.size()]), slotArray);
+	}
+
+	protected String[] toStrings(Object[] replacements) {
+
+		String[] values = new String[replacements.length];
+
+		for (int i = 0; i < replacements.length; i++) {
+
+			Object replacement = replacements[i];
+
+			if (replacement == null) {
+				values[i] = StringPool.BLANK;
+			}
+			else {
+				values[i] = replacement.toString();
+			}
+		}
+
+		return values;
+	}
+
+	protected CompiledTemplate getCompiledTemplate(String[] tokens, Object[] replacements) {
+
+		if (tokens.length != replacements.length) {
+			throw new java.lang.IllegalArgumentException("Number of tokens and replacements must be the same.");
+		}
+
+		// Callers typically format the template with the same array of tokens every time, so the most recently
+		// compiled template is almost always the one that is needed.
+		CompiledTemplate compiledTemplate = this.compiledTemplate;
+
+		if ((compiledTemplate == null) || !compiledTemplate.matches(tokens)) {
+			compiledTemplate = compile(tokens);
+			this.compiledTemplate = compiledTemplate;
+		}
+
+		return compiledTemplate;
 	}
 
 	@Override
 	public String toString() {
 		return template;
 	}
+
+	protected static final class CompiledTemplate {
+
+		// Private Data Members
+		private String[] literals;
+		private int literalLength;
+		private int[] slots;
+		private String[] tokens;
+
+		public CompiledTemplate(String[] tokens, String[] literals, int[] slots) {
+
+			this.tokens = tokens;
+			this.literals = literals;
+			this.slots = slots;
+
+			for (String literal : literals) {
+				this.literalLength += literal.length();
+			}
+		}
+
+		public boolean matches(String[] tokens) {
+			return Arrays.equals(this.tokens, tokens);
+		}
+	}
 }
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import javax.faces.application.Resource;
+import javax.faces.application.ResourceWrapper;
+import javax.faces.context.FacesContext;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.util.application.ResourceMetadataUtilTest.URLCountingResource;
+import com.liferay.faces.util.context.FacesContextMockImpl;
+import com.liferay.faces.util.io.ResourceOutputStream;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ResourceHandlerWrapperBaseTest {
+
+	@Test
+	public void testStreamingContentLength() throws IOException {
+
+		File file = File.createTempFile("streamingContentLength", ".js");
+
+		try {
+			FileOutputStream fileOutputStream = new FileOutputStream(file);
+			fileOutputStream.write("alert('hello');".getBytes("UTF-8"));
+			fileOutputStream.close();
+
+			FacesContext facesContext = new FacesContextMockImpl();
+
+			try {
+				ResourceHandlerWrapperBase resourceHandler = new ResourceHandlerWrapperBase(null);
+				Resource resource = new URLCountingResource(file.toURI().toURL());
+
+				// A wrapper that preserves the contents is unwrapped, so the length of the contents is trusted.
+				Resource contentPreservingResource = new ContentPreservingResourceWrapper(resource);
+				Assert.assertEquals(15L, getStreamingContentLength(resourceHandler, contentPreservingResource));
+
+				// Any other wrapper might filter the contents, so they must be buffered.
+				Resource otherResource = new OtherResourceWrapper(contentPreservingResource);
+				Assert.assertEquals(-1L, getStreamingContentLength(resourceHandler, otherResource));
+			}
+			finally {
+				facesContext.release();
+			}
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	protected long getStreamingContentLength(ResourceHandlerWrapperBase resourceHandler, Resource resource)
+		throws IOException {
+
+		return resourceHandler.getStreamingContentLength(resource, new ResourceOutputStream(resource, 16), null,
+				new ByteArrayInputStream(new byte[0]));
+	}
+
+	protected static class ContentPreservingResourceWrapper extends OtherResourceWrapper
+		implements ContentPreservingResource {
+
+		public ContentPreservingResourceWrapper(Resource resource) {
+			super(resource);
+		}
+	}
+
+	protected static class OtherResourceWrapper extends ResourceWrapper {
+
+		// Private Data Members
+		private Resource wrappedResource;
+
+		public OtherResourceWrapper(Resource resource) {
+			this.wrappedResource = resource;
+		}
+
+		@Override
+		public String getContentType() {
+			return "text/javascript";
+		}
+
+		@Override
+		public Resource getWrapped() {
+			return wrappedResource;
+		}
+	}
+}
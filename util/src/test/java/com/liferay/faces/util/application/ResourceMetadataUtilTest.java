@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.application;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.faces.application.Resource;
+import javax.faces.context.FacesContext;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.util.context.FacesContextMockImpl;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ResourceMetadataUtilTest {
+
+	@Test
+	public void testGetResourceMetadata() throws IOException {
+
+		File file = File.createTempFile("resourceMetadata", ".js");
+
+		try {
+			FileOutputStream fileOutputStream = new FileOutputStream(file);
+			fileOutputStream.write("alert('hello');".getBytes("UTF-8"));
+			fileOutputStream.close();
+
+			FacesContext facesContext = new FacesContextMockImpl();
+
+			try {
+				URLCountingResource resource = new URLCountingResource(file.toURI().toURL());
+				ResourceMetadata resourceMetadata = ResourceMetadataUtil.getResourceMetadata(facesContext, resource);
+				Assert.assertEquals(15L, resourceMetadata.getContentLength());
+				Assert.assertTrue(resourceMetadata.getETag().startsWith("W/\""));
+
+				// Once the metadata is in the index, the URL of the resource is no longer resolved.
+				Assert.assertSame(resourceMetadata, ResourceMetadataUtil.getResourceMetadata(facesContext, resource));
+				Assert.assertEquals(1, resource.getURLCount());
+
+				// A different version of the library is a different key.
+				Map<String, String> requestParameterMap = facesContext.getExternalContext().getRequestParameterMap();
+				requestParameterMap.put("v", "2_0");
+				Assert.assertNotSame(resourceMetadata,
+					ResourceMetadataUtil.getResourceMetadata(facesContext, resource));
+				Assert.assertEquals(2, resource.getURLCount());
+			}
+			finally {
+				facesContext.release();
+			}
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testMatchesETag() {
+
+		String eTag = "\"0123456789abcdef\"";
+		Assert.assertTrue(ResourceMetadataUtil.matchesETag(eTag, eTag));
+		Assert.assertTrue(ResourceMetadataUtil.matchesETag("W/" + eTag, eTag));
+		Assert.assertTrue(ResourceMetadataUtil.matchesETag("\"foo\", " + eTag, eTag));
+		Assert.assertTrue(ResourceMetadataUtil.matchesETag(" * ", eTag));
+		Assert.assertFalse(ResourceMetadataUtil.matchesETag("\"foo\"", eTag));
+		Assert.assertFalse(ResourceMetadataUtil.matchesETag(null, eTag));
+
+		// The weak comparison function ignores the weak prefix of both entity tags.
+		String weakETag = "W/" + eTag;
+		Assert.assertTrue(ResourceMetadataUtil.matchesETag(eTag, weakETag));
+		Assert.assertTrue(ResourceMetadataUtil.matchesETag(weakETag, weakETag));
+		Assert.assertFalse(ResourceMetadataUtil.matchesETag("W/\"foo\"", weakETag));
+	}
+
+	@Test
+	public void testParseHttpDate() {
+
+		SimpleDateFormat httpSpecDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+		httpSpecDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+		long[] dates = new long[] { 0L, 784111777000L, 951782400000L, 1330473599000L, 4102444800000L };
+
+		for (long date : dates) {
+			String value = httpSpecDateFormat.format(new Date(date));
+			Assert.assertEquals(value, date, ResourceMetadataUtil.parseHttpDate(value));
+		}
+
+		Assert.assertEquals(784111777000L, ResourceMetadataUtil.parseHttpDate("Sun, 06 Nov 1994 08:49:37 GMT"));
+		Assert.assertEquals(-1L, ResourceMetadataUtil.parseHttpDate("not a date"));
+	}
+
+	protected static class URLCountingResource extends Resource {
+
+		// Private Data Members
+		private URL url;
+		private AtomicInteger urlCount = new AtomicInteger();
+
+		public URLCountingResource(URL url) {
+			this.url = url;
+			setLibraryName("foo");
+			setResourceName("foo.js");
+		}
+
+		@Override
+		public boolean userAgentNeedsUpdate(FacesContext context) {
+			return true;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return url.openStream();
+		}
+
+		@Override
+		public String getRequestPath() {
+			return null;
+		}
+
+		@Override
+		public Map<String, String> getResponseHeaders() {
+			return null;
+		}
+
+		@Override
+		public URL getURL() {
+			urlCount.incrementAndGet();
+
+			return url;
+		}
+
+		public int getURLCount() {
+			return urlCount.get();
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.client.internal;
+
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.util.context.FacesContextMockImpl;
+import com.liferay.faces.util.lang.StringPool;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class BrowserClassificationCacheTest {
+
+	@Test
+	public void testGetInstance() {
+
+		FacesContext facesContext = new FacesContextMockImpl();
+
+		try {
+			ExternalContext externalContext = facesContext.getExternalContext();
+			BrowserClassificationCache browserClassificationCache = BrowserClassificationCache.getInstance(
+					externalContext);
+			Assert.assertNotNull(browserClassificationCache);
+			Assert.assertSame(browserClassificationCache, BrowserClassificationCache.getInstance(externalContext));
+		}
+		finally {
+			facesContext.release();
+		}
+	}
+
+	@Test
+	public void testHitRate() {
+
+		BrowserClassificationCache browserClassificationCache = new BrowserClassificationCache(2);
+		Assert.assertEquals(0.0, browserClassificationCache.getHitRate(), 0.0);
+
+		Assert.assertNull(browserClassificationCache.get("a"));
+		browserClassificationCache.put("a", newBrowserClassification());
+		Assert.assertNotNull(browserClassificationCache.get("a"));
+		Assert.assertNotNull(browserClassificationCache.get("a"));
+		Assert.assertNull(browserClassificationCache.get("b"));
+
+		Assert.assertEquals(2L, browserClassificationCache.getHitCount());
+		Assert.assertEquals(2L, browserClassificationCache.getMissCount());
+		Assert.assertEquals(0.5, browserClassificationCache.getHitRate(), 0.0);
+
+		browserClassificationCache.clear();
+		Assert.assertEquals(0, browserClassificationCache.getSize());
+		Assert.assertEquals(0L, browserClassificationCache.getHitCount());
+		Assert.assertEquals(0L, browserClassificationCache.getMissCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+
+		BrowserClassificationCache browserClassificationCache = new BrowserClassificationCache(2);
+		BrowserClassification a = newBrowserClassification();
+		BrowserClassification b = newBrowserClassification();
+		BrowserClassification c = newBrowserClassification();
+		browserClassificationCache.put("a", a);
+		browserClassificationCache.put("b", b);
+
+		// Since "a" is used after "b", adding "c" must evict "b" rather than the first User-Agent that was added.
+		Assert.assertSame(a, browserClassificationCache.get("a"));
+		browserClassificationCache.put("c", c);
+
+		Assert.assertEquals(2, browserClassificationCache.getSize());
+		Assert.assertSame(a, browserClassificationCache.get("a"));
+		Assert.assertNull(browserClassificationCache.get("b"));
+		Assert.assertSame(c, browserClassificationCache.get("c"));
+
+		// Since the cache keeps adding new User-Agents after it is full, a User-Agent that was evicted can be cached
+		// again.
+		browserClassificationCache.put("b", b);
+		Assert.assertEquals(2, browserClassificationCache.getSize());
+		Assert.assertSame(b, browserClassificationCache.get("b"));
+	}
+
+	protected BrowserClassification newBrowserClassification() {
+		return new BrowserClassification(0, LiferayPortalBrowserSniffer.BROWSER_ID_OTHER, 0, StringPool.BLANK,
+				StringPool.BLANK);
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.client.internal;
+
+import javax.faces.context.FacesContext;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.liferay.faces.util.context.FacesContextMockImpl;
+import com.liferay.faces.util.render.internal.RendererUtil;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ClientScriptImplTest {
+
+	// Private Constants
+	private static final String ALLOY_READY_REQUIRED = RendererUtil.class.getName() + ".alloyReadyRequired";
+	private static final String CONFIG_DE = "{lang:'de-DE'}";
+	private static final String CONFIG_FR = "{lang:'fr-FR'}";
+
+	// Private Data Members
+	private FacesContext facesContext;
+
+	@After
+	public void tearDown() {
+		facesContext.release();
+	}
+
+	@Before
+	public void setUp() {
+
+		// Since there is no User-Agent to sniff, determine up front that the YUI loader is invoked with "use".
+		facesContext = new FacesContextMockImpl();
+		facesContext.getAttributes().put(ALLOY_READY_REQUIRED, Boolean.FALSE);
+	}
+
+	@Test
+	public void testDifferentConfig() {
+
+		ClientScriptImpl clientScript = new ClientScriptImpl();
+		clientScript.append("first();", "aui-datepicker", CONFIG_DE);
+		clientScript.append("second();", "aui-datepicker", CONFIG_FR);
+
+		String script = clientScript.toString();
+		Assert.assertEquals(2, count(script, "YUI("));
+		Assert.assertTrue(script.contains("YUI(" + CONFIG_DE + ").use('aui-datepicker', function(A){"));
+		Assert.assertTrue(script.contains("YUI(" + CONFIG_FR + ").use('aui-datepicker', function(A){"));
+	}
+
+	@Test
+	public void testSameConfig() {
+
+		ClientScriptImpl clientScript = new ClientScriptImpl();
+		clientScript.append("first();", "aui-datepicker", CONFIG_DE);
+		clientScript.append("second();", "aui-timepicker, aui-datepicker", CONFIG_DE);
+
+		String script = clientScript.toString();
+		Assert.assertEquals(1, count(script, "YUI("));
+		Assert.assertEquals(0, count(script, "AUI("));
+		Assert.assertTrue(script.startsWith("YUI(" + CONFIG_DE +
+				").use('aui-datepicker', 'aui-timepicker', function(A){"));
+		Assert.assertTrue(script.endsWith("(function() {first();})();(function() {second();})();});"));
+
+		clientScript.clear();
+		Assert.assertEquals("", clientScript.toString());
+	}
+
+	@Test
+	public void testWithoutConfig() {
+
+		ClientScriptImpl clientScript = new ClientScriptImpl();
+		clientScript.append("plain();", null);
+		clientScript.append("first();", "aui-base");
+		clientScript.append("second();", "aui-base", CONFIG_DE);
+
+		String script = clientScript.toString();
+		Assert.assertTrue(script.startsWith("plain();AUI().use('aui-base', function(A){"));
+		Assert.assertEquals(1, count(script, "AUI("));
+		Assert.assertEquals(1, count(script, "YUI("));
+	}
+
+	private int count(String string, String substring) {
+
+		int count = 0;
+		int index = string.indexOf(substring);
+
+		while (index >= 0) {
+			count++;
+			index = string.indexOf(substring, index + substring.length());
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.component.internal;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.faces.component.UIColumn;
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIData;
+import javax.faces.component.UIForm;
+import javax.faces.component.UIOutput;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PostAddToViewEvent;
+import javax.faces.event.PreRemoveFromViewEvent;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.liferay.faces.util.component.ComponentUtil;
+import com.liferay.faces.util.context.FacesContextMockImpl;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ClientIdIndexTest {
+
+	// Private Data Members
+	private FacesContext facesContext;
+	private UIOutput footer;
+	private UIForm form;
+	private UIData table;
+	private UIOutput text;
+	private UIViewRoot viewRoot;
+
+	@After
+	public void tearDown() {
+		facesContext.release();
+	}
+
+	@Before
+	public void setUp() {
+
+		facesContext = new FacesContextMockImpl();
+		viewRoot = new UIViewRoot();
+		viewRoot.setId("view");
+		facesContext.setViewRoot(viewRoot);
+
+		// Since the mock context has no render kit, none of the components have a renderer.
+		form = new UIForm();
+		form.setId("f");
+		form.setRendererType(null);
+		viewRoot.getChildren().add(form);
+
+		UIOutput header = new UIOutput();
+		header.setId("header");
+		header.setRendererType(null);
+		form.getChildren().add(header);
+
+		List<String> rows = Arrays.asList("a", "b", "c");
+		table = new UIData();
+		table.setId("table");
+		table.setRendererType(null);
+		table.setValue(rows);
+		form.getChildren().add(table);
+
+		UIColumn column = new UIColumn();
+		column.setId("column");
+		table.getChildren().add(column);
+
+		text = new UIOutput();
+		text.setId("text");
+		text.setRendererType(null);
+		column.getChildren().add(text);
+
+		footer = new UIOutput();
+		footer.setId("footer");
+		footer.setRendererType(null);
+		form.getChildren().add(footer);
+	}
+
+	@Test
+	public void testAddedComponent() {
+
+		Assert.assertSame(footer, ComponentUtil.matchComponentInViewRoot(facesContext, "footer"));
+
+		UIOutput added = new UIOutput();
+		added.setId("added");
+		added.setRendererType(null);
+		form.getChildren().add(added);
+
+		// Since the mock application does not publish system events, the index trusts its miss until the listener is
+		// notified that the component was added to the view.
+		Assert.assertNull(ComponentUtil.matchComponentInViewRoot(facesContext, "added"));
+		new ClientIdIndexListener().processEvent(new PostAddToViewEvent(added));
+		Assert.assertSame(added, ComponentUtil.matchComponentInViewRoot(facesContext, "added"));
+	}
+
+	@Test
+	public void testIteratingParent() {
+
+		// Build the index while the table is positioned on the second row.
+		table.setRowIndex(1);
+		Assert.assertSame(text, ComponentUtil.matchComponentInViewRoot(facesContext, "table:1:text"));
+		Assert.assertSame(text, ComponentUtil.matchComponentInHierarchy(facesContext, table, "text"));
+
+		// The client ids of the descendants of the table must be resolved against the current row rather than the row
+		// at the time the index was built.
+		table.setRowIndex(2);
+		Assert.assertNull(ComponentUtil.matchComponentInViewRoot(facesContext, "table:1:text"));
+		Assert.assertSame(text, ComponentUtil.matchComponentInViewRoot(facesContext, "table:2:text"));
+		Assert.assertEquals("f:table:2:text", ComponentUtil.findClientId("table:2:text"));
+
+		table.setRowIndex(-1);
+		Assert.assertSame(text, ComponentUtil.matchComponentInViewRoot(facesContext, "table:text"));
+
+		// A component that follows the table is matched through the index.
+		Assert.assertSame(footer, ComponentUtil.matchComponentInViewRoot(facesContext, "f:footer"));
+	}
+
+	@Test
+	public void testPhaseChange() {
+
+		ClientIdIndex clientIdIndex = ClientIdIndex.getInstance(facesContext);
+		Assert.assertSame(clientIdIndex, ClientIdIndex.getInstance(facesContext));
+
+		facesContext.setCurrentPhaseId(PhaseId.INVOKE_APPLICATION);
+		Assert.assertNotSame(clientIdIndex, ClientIdIndex.getInstance(facesContext));
+	}
+
+	@Test
+	public void testRemovedComponent() {
+
+		Assert.assertSame(footer, ComponentUtil.matchComponentInViewRoot(facesContext, "footer"));
+
+		new ClientIdIndexListener().processEvent(new PreRemoveFromViewEvent(footer));
+		form.getChildren().remove(footer);
+		Assert.assertNull(ComponentUtil.matchComponentInViewRoot(facesContext, "footer"));
+	}
+
+	@Test
+	public void testSubtree() {
+
+		UIComponent header = form.getChildren().get(0);
+		Assert.assertSame(header, ComponentUtil.matchComponentInHierarchy(facesContext, form, "header"));
+		Assert.assertNull(ComponentUtil.matchComponentInHierarchy(facesContext, table, "header"));
+		Assert.assertSame(form, ComponentUtil.matchComponentInHierarchy(facesContext, form, "f"));
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class ApplicationConfigSnapshotStoreTest {
+
+	@Test
+	public void testReadWrite() throws Exception {
+
+		List<ConfiguredElement> configuredApplicationExtensions = new ArrayList<ConfiguredElement>();
+		configuredApplicationExtensions.add(new ConfiguredElementImpl("parameter", "customerId"));
+		configuredApplicationExtensions.add(new ConfiguredElementImpl("model-el", null));
+
+		List<ConfiguredElement> configuredFactoryExtensions = new ArrayList<ConfiguredElement>();
+		configuredFactoryExtensions.add(new ConfiguredElementImpl("bean-manager-factory", "com.example.Factory"));
+
+		List<ConfiguredServletMapping> configuredFacesServletMappings = new ArrayList<ConfiguredServletMapping>();
+		configuredFacesServletMappings.add(new ConfiguredServletMappingImpl("Faces Servlet", "*.xhtml"));
+
+		List<ConfiguredManagedBean> configuredManagedBeans = new ArrayList<ConfiguredManagedBean>();
+		configuredManagedBeans.add(new ConfiguredManagedBeanImpl("com.example.Bean", "bean", "request"));
+
+		List<String> configuredSuffixes = new ArrayList<String>();
+		configuredSuffixes.add(".xhtml");
+
+		List<ConfiguredSystemEventListener> configuredSystemEventListeners =
+			new ArrayList<ConfiguredSystemEventListener>();
+		configuredSystemEventListeners.add(new ConfiguredSystemEventListenerImpl(null,
+				"javax.faces.event.PostConstructApplicationEvent", "com.example.Listener"));
+
+		FacesConfig facesConfig = new FacesConfigImpl(configuredApplicationExtensions, configuredFactoryExtensions,
+				configuredFacesServletMappings, configuredManagedBeans, configuredSuffixes,
+				configuredSystemEventListeners);
+
+		Map<String, String> configuredContextParams = new HashMap<String, String>();
+		configuredContextParams.put("javax.faces.PROJECT_STAGE", "Development");
+
+		List<ConfiguredServlet> configuredServlets = new ArrayList<ConfiguredServlet>();
+		configuredServlets.add(new ConfiguredServletImpl("Faces Servlet", "javax.faces.webapp.FacesServlet",
+				new MultiPartConfigImpl("/tmp", 1024L)));
+		configuredServlets.add(new ConfiguredServletImpl("Other Servlet", "com.example.Servlet", null));
+
+		List<ConfiguredServletMapping> configuredServletMappings = new ArrayList<ConfiguredServletMapping>();
+		configuredServletMappings.add(new ConfiguredServletMappingImpl("Faces Servlet", "/faces/*"));
+
+		WebConfig webConfig = new WebConfigImpl(configuredContextParams, configuredServlets, configuredServletMappings);
+
+		File directory = File.createTempFile("snapshotStore", "");
+		Assert.assertTrue(directory.delete());
+		Assert.assertTrue(directory.mkdir());
+
+		try {
+			ApplicationConfigSnapshotStore snapshotStore = new ApplicationConfigSnapshotStore(directory, "/portlet");
+			snapshotStore.write("key1", new ApplicationConfigImpl("/portlet", facesConfig, webConfig));
+
+			// A snapshot that was stored with a different key must be ignored.
+			Assert.assertNull(snapshotStore.read("key2", "/portlet"));
+
+			ApplicationConfig applicationConfig = snapshotStore.read("key1", "/portlet");
+			Assert.assertNotNull(applicationConfig);
+			Assert.assertEquals("/portlet", applicationConfig.getContextPath());
+
+			FacesConfig snapshotFacesConfig = applicationConfig.getFacesConfig();
+			Assert.assertEquals(2, snapshotFacesConfig.getConfiguredApplicationExtensions().size());
+			Assert.assertEquals("customerId",
+				snapshotFacesConfig.getConfiguredApplicationExtensions().get(0).getValue());
+			Assert.assertNull(snapshotFacesConfig.getConfiguredApplicationExtensions().get(1).getValue());
+			Assert.assertEquals("com.example.Factory",
+				snapshotFacesConfig.getConfiguredFactoryExtensions().get(0).getValue());
+			Assert.assertTrue(snapshotFacesConfig.getConfiguredFacesServletMappings().get(0).isExtensionMapped());
+			Assert.assertEquals("bean", snapshotFacesConfig.getConfiguredManagedBeans().get(0).getManagedBeanName());
+			Assert.assertEquals(".xhtml", snapshotFacesConfig.getConfiguredSuffixes().get(0));
+			Assert.assertNull(snapshotFacesConfig.getConfiguredSystemEventListeners().get(0).getSourceClass());
+			Assert.assertEquals("com.example.Listener",
+				snapshotFacesConfig.getConfiguredSystemEventListeners().get(0).getSystemEventListenerClass());
+
+			WebConfig snapshotWebConfig = applicationConfig.getWebConfig();
+			Assert.assertEquals("Development",
+				snapshotWebConfig.getConfiguredContextParams().get("javax.faces.PROJECT_STAGE"));
+			Assert.assertEquals(2, snapshotWebConfig.getConfiguredServlets().size());
+			Assert.assertEquals(1024L,
+				snapshotWebConfig.getConfiguredServlets().get(0).getMultiPartConfig().getMaxFileSize());
+			Assert.assertNull(snapshotWebConfig.getConfiguredServlets().get(1).getMultiPartConfig());
+			Assert.assertTrue(snapshotWebConfig.getConfiguredServletMappings().get(0).isPathMapped());
+		}
+		finally {
+
+			File[] files = directory.listFiles();
+
+			if (files != null) {
+
+				for (File file : files) {
+					file.delete();
+				}
+			}
+
+			directory.delete();
+		}
+	}
+}
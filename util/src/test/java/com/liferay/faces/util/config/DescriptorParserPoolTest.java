@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class DescriptorParserPoolTest {
+
+	// Private Constants
+	private static final int DESCRIPTOR_COUNT = 16;
+
+	@Test
+	public void testParallelScan() throws IOException {
+
+		File directory = File.createTempFile("descriptorParserPool", "");
+		Assert.assertTrue(directory.delete());
+		Assert.assertTrue(directory.mkdir());
+
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+		try {
+			URL[] urls = new URL[DESCRIPTOR_COUNT];
+
+			for (int i = 0; i < DESCRIPTOR_COUNT; i++) {
+
+				File metaInfDirectory = new File(directory, "jar" + i + "/META-INF");
+				Assert.assertTrue(metaInfDirectory.mkdirs());
+				write(new File(metaInfDirectory, "faces-config.xml"),
+					"<faces-config><managed-bean><managed-bean-name>bean" + i +
+					"</managed-bean-name><managed-bean-class>com.example.Bean" + i +
+					"</managed-bean-class><managed-bean-scope>request</managed-bean-scope></managed-bean>" +
+					"</faces-config>");
+				write(new File(metaInfDirectory, "web-fragment.xml"),
+					"<web-fragment><servlet><servlet-name>Servlet" + i + "</servlet-name><servlet-class>" +
+					"com.example.Servlet" + i + "</servlet-class></servlet><servlet-mapping><servlet-name>Servlet" +
+					i + "</servlet-name><url-pattern>/servlet" + i + "/*</url-pattern></servlet-mapping>" +
+					"</web-fragment>");
+				urls[i] = new File(directory, "jar" + i).toURI().toURL();
+			}
+
+			// Descriptors are located with the context class loader, so only the generated descriptors are found.
+			Thread.currentThread().setContextClassLoader(new URLClassLoader(urls, null));
+
+			ApplicationConfig sequentialApplicationConfig = newApplicationConfig(1);
+			ApplicationConfig parallelApplicationConfig = newApplicationConfig(4);
+
+			List<String> sequentialManagedBeanNames = getManagedBeanNames(sequentialApplicationConfig);
+			Assert.assertEquals(DESCRIPTOR_COUNT, sequentialManagedBeanNames.size());
+			Assert.assertEquals(sequentialManagedBeanNames, getManagedBeanNames(parallelApplicationConfig));
+
+			List<String> sequentialServletNames = getServletNames(sequentialApplicationConfig);
+			Assert.assertEquals(DESCRIPTOR_COUNT, sequentialServletNames.size());
+			Assert.assertEquals(sequentialServletNames, getServletNames(parallelApplicationConfig));
+		}
+		finally {
+			Thread.currentThread().setContextClassLoader(contextClassLoader);
+			delete(directory);
+		}
+	}
+
+	protected void delete(File file) {
+
+		File[] files = file.listFiles();
+
+		if (files != null) {
+
+			for (File child : files) {
+				delete(child);
+			}
+		}
+
+		file.delete();
+	}
+
+	protected void write(File file, String text) throws IOException {
+
+		FileOutputStream fileOutputStream = new FileOutputStream(file);
+
+		try {
+			fileOutputStream.write(text.getBytes("UTF-8"));
+		}
+		finally {
+			fileOutputStream.close();
+		}
+	}
+
+	protected List<String> getManagedBeanNames(ApplicationConfig applicationConfig) {
+
+		List<String> managedBeanNames = new ArrayList<String>();
+
+		for (ConfiguredManagedBean configuredManagedBean :
+			applicationConfig.getFacesConfig().getConfiguredManagedBeans()) {
+			managedBeanNames.add(configuredManagedBean.getManagedBeanName());
+		}
+
+		return managedBeanNames;
+	}
+
+	protected ApplicationConfig newApplicationConfig(int parserThreads) throws IOException {
+
+		ApplicationConfigInitializer applicationConfigInitializer = new ApplicationConfigInitializerImpl("/portlet",
+				false, parserThreads, null) {
+
+				@Override
+				protected ResourceReader newResourceReader() {
+
+					// The WEB-INF/faces-config.xml descriptor is empty and there are no other WEB-INF descriptors.
+					return new ResourceReader() {
+
+							public InputStream getResourceAsStream(String path) {
+
+								if ("/WEB-INF/faces-config.xml".equals(path)) {
+									return new ByteArrayInputStream("<faces-config/>".getBytes());
+								}
+								else {
+									return null;
+								}
+							}
+						};
+				}
+			};
+
+		return applicationConfigInitializer.initialize();
+	}
+
+	protected List<String> getServletNames(ApplicationConfig applicationConfig) {
+
+		List<String> servletNames = new ArrayList<String>();
+
+		for (ConfiguredServlet configuredServlet : applicationConfig.getWebConfig().getConfiguredServlets()) {
+			servletNames.add(configuredServlet.getServletName());
+		}
+
+		return servletNames;
+	}
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.context;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.faces.application.Application;
+import javax.faces.application.ApplicationWrapper;
+import javax.faces.application.FacesMessage;
+import javax.faces.application.FacesMessage.Severity;
+import javax.faces.application.ProjectStage;
+import javax.faces.component.UINamingContainer;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.ExternalContextWrapper;
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseStream;
+import javax.faces.context.ResponseWriter;
+import javax.faces.event.PhaseId;
+import javax.faces.event.SystemEvent;
+import javax.faces.render.RenderKit;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class FacesContextMockImpl extends FacesContext {
+
+	// Private Data Members
+	private Application application;
+	private Map<Object, Object> attributes;
+	private PhaseId currentPhaseId;
+	private ExternalContext externalContext;
+	private UIViewRoot viewRoot;
+
+	public FacesContextMockImpl() {
+
+		// Since there is no JSF implementation, the external context only needs to supply (empty) init parameters and
+		// maps, and the application only needs to supply the project stage and ignore the system events that are
+		// published when components are added to or removed from the view.
+		final Map<String, Object> applicationMap = new HashMap<String, Object>();
+		final Map<String, String> requestParameterMap = new HashMap<String, String>();
+		this.application = new ApplicationWrapper() {
+
+				@Override
+				public void publishEvent(FacesContext facesContext, Class<? extends SystemEvent> systemEventClass,
+					Object source) {
+				}
+
+				@Override
+				public void publishEvent(FacesContext facesContext, Class<? extends SystemEvent> systemEventClass,
+					Class<?> sourceBaseType, Object source) {
+				}
+
+				@Override
+				public ProjectStage getProjectStage() {
+					return ProjectStage.Production;
+				}
+
+				@Override
+				public Application getWrapped() {
+					throw new UnsupportedOperationException();
+				}
+			};
+
+		this.externalContext = new ExternalContextWrapper() {
+
+				@Override
+				public Map<String, Object> getApplicationMap() {
+					return applicationMap;
+				}
+
+				@Override
+				public String getInitParameter(String name) {
+					return null;
+				}
+
+				@Override
+				public Map<String, String> getRequestParameterMap() {
+					return requestParameterMap;
+				}
+
+				@Override
+				public ExternalContext getWrapped() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		this.attributes = new HashMap<Object, Object>();
+		this.attributes.put(UINamingContainer.SEPARATOR_CHAR_PARAM_NAME, ':');
+		this.currentPhaseId = PhaseId.RENDER_RESPONSE;
+		setCurrentInstance(this);
+	}
+
+	@Override
+	public void addMessage(String clientId, FacesMessage message) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void release() {
+		setCurrentInstance(null);
+	}
+
+	@Override
+	public void renderResponse() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void responseComplete() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Application getApplication() {
+		return application;
+	}
+
+	@Override
+	public Map<Object, Object> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public Iterator<String> getClientIdsWithMessages() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public PhaseId getCurrentPhaseId() {
+		return currentPhaseId;
+	}
+
+	@Override
+	public void setCurrentPhaseId(PhaseId currentPhaseId) {
+		this.currentPhaseId = currentPhaseId;
+	}
+
+	@Override
+	public ExternalContext getExternalContext() {
+		return externalContext;
+	}
+
+	@Override
+	public Severity getMaximumSeverity() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Iterator<FacesMessage> getMessages() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Iterator<FacesMessage> getMessages(String clientId) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public RenderKit getRenderKit() {
+		return null;
+	}
+
+	@Override
+	public boolean getRenderResponse() {
+		return false;
+	}
+
+	@Override
+	public boolean getResponseComplete() {
+		return false;
+	}
+
+	@Override
+	public ResponseStream getResponseStream() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setResponseStream(ResponseStream responseStream) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public ResponseWriter getResponseWriter() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setResponseWriter(ResponseWriter responseWriter) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public UIViewRoot getViewRoot() {
+		return viewRoot;
+	}
+
+	@Override
+	public void setViewRoot(UIViewRoot viewRoot) {
+		this.viewRoot = viewRoot;
+	}
+}
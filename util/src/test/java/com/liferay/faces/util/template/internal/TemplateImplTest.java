@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2000-2015 Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+package com.liferay.faces.util.template.internal;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.liferay.faces.util.template.Template;
+import com.liferay.faces.util.template.TemplateUtil;
+
+
+/**
+ * @author  Neil Griffin
+ */
+public class TemplateImplTest {
+
+	@Test
+	public void testFormatTokens() throws IOException {
+
+		TemplateImpl template = new TemplateImpl("<div id=\"${clientId}\">${label}: ${clientId}${missing}</div>");
+		String[] tokens = new String[] { "${clientId}", "${label}", "${missing}" };
+		Object[] replacements = new Object[] { "form:input", "Label", null };
+		String expected = "<div id=\"form:input\">Label: form:input</div>";
+
+		Assert.assertEquals(expected, template.formatTokens(tokens, replacements));
+
+		StringWriter stringWriter = new StringWriter();
+		template.formatTokens(stringWriter, tokens, replacements);
+		Assert.assertEquals(expected, stringWriter.toString());
+
+		// Formatting with a different set of tokens must cause the template to be recompiled.
+		tokens = new String[] { "${label}", "${clientId}", "${missing}" };
+		replacements = new Object[] { "Name", "form:name", "!" };
+		Assert.assertEquals("<div id=\"form:name\">Name: form:name!</div>", template.formatTokens(tokens, replacements));
+
+		// Without tokens, the template is returned as-is.
+		Assert.assertEquals(template.toString(), template.formatTokens(null, null));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMismatchedReplacements() {
+
+		TemplateImpl template = new TemplateImpl("_clientId_");
+		template.formatTokens(new String[] { "_clientId_" }, new Object[] {});
+	}
+
+	@Test
+	public void testOverlappingTokens() {
+
+		TemplateImpl template = new TemplateImpl("_clientId_ _clientIdSuffix_");
+		String[] tokens = new String[] { "_clientId_", "_clientIdSuffix_" };
+		Object[] replacements = new Object[] { "a", "b" };
+		Assert.assertEquals("a b", template.formatTokens(tokens, replacements));
+	}
+
+	@Test
+	public void testTemplateUtil() throws IOException {
+
+		String[] tokens = new String[] { "${clientId}" };
+		Object[] replacements = new Object[] { "form:input" };
+
+		// A template that does not extend TemplateBase is written by way of the formatted String.
+		Template template = new Template() {
+
+				public String formatTokens(String[] tokens, Object[] replacements) {
+					return "<div id=\"" + replacements[0] + "\"></div>";
+				}
+			};
+
+		StringWriter stringWriter = new StringWriter();
+		TemplateUtil.formatTokens(stringWriter, template, tokens, replacements);
+		Assert.assertEquals("<div id=\"form:input\"></div>", stringWriter.toString());
+
+		stringWriter = new StringWriter();
+		TemplateUtil.formatTokens(stringWriter, new TemplateImpl("<div id=\"${clientId}\"></div>"), tokens,
+			replacements);
+		Assert.assertEquals("<div id=\"form:input\"></div>", stringWriter.toString());
+	}
+}
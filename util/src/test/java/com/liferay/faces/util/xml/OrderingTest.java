@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Random;
 
 import javax.xml.parsers.SAXParser;
 
@@ -30,6 +31,7 @@ import org.junit.Test;
 
 import com.liferay.faces.util.config.FacesConfigDescriptor;
 import com.liferay.faces.util.config.FacesConfigDescriptorParser;
+import com.liferay.faces.util.config.FacesConfigDescriptorImpl;
 import com.liferay.faces.util.config.FacesConfigDescriptorParserImpl;
 import com.liferay.faces.util.config.Ordering;
 import com.liferay.faces.util.logging.Logger;
@@ -1147,4 +1149,106 @@ public class OrderingTest {
 
 	}
 
+	@Test
+	public void test20_hundredsOfFragments() throws Exception {
+
+		int total = 500;
+		int beforeOthersCount = 50;
+		int afterOthersCount = 50;
+		Random random = new Random(20151017L);
+		List<FacesConfigDescriptor> facesConfigDescriptors = new ArrayList<FacesConfigDescriptor>();
+
+		// Fragments are only ever after lower numbered fragments and before higher numbered ones, and the lowest
+		// numbered fragments are before others while the highest numbered ones are after others.
+		for (int i = 0; i < total; i++) {
+
+			List<String> befores = new ArrayList<String>();
+			List<String> afters = new ArrayList<String>();
+
+			if (i < beforeOthersCount) {
+				befores.add(Ordering.OTHERS);
+			}
+			else if (i >= (total - afterOthersCount)) {
+				afters.add(Ordering.OTHERS);
+			}
+
+			if (i > 0) {
+				afters.add(getFragmentName(random.nextInt(i)));
+			}
+
+			if ((i > beforeOthersCount) && (i < (total - afterOthersCount)) && ((i % 3) == 0)) {
+				befores.add(getFragmentName(i + 1 + random.nextInt(total - afterOthersCount - i)));
+			}
+
+			facesConfigDescriptors.add(newFacesConfigDescriptor(getFragmentName(i), befores, afters));
+		}
+
+		Collections.shuffle(facesConfigDescriptors, random);
+
+		long startTime = System.currentTimeMillis();
+		List<FacesConfigDescriptor> order = Ordering.getOrder(facesConfigDescriptors);
+		long elapsedTime = System.currentTimeMillis() - startTime;
+
+		Assert.assertEquals(total, order.size());
+
+		HashMap<String, Integer> positions = new HashMap<String, Integer>();
+
+		for (int i = 0; i < order.size(); i++) {
+			positions.put(order.get(i).getName(), i);
+		}
+
+		for (FacesConfigDescriptor facesConfigDescriptor : order) {
+
+			String name = facesConfigDescriptor.getName();
+			int position = positions.get(name);
+			Ordering ordering = facesConfigDescriptor.getOrdering();
+
+			if (ordering.isBeforeOthers()) {
+				Assert.assertTrue(name + " is not before others", position < (total - afterOthersCount));
+			}
+
+			if (ordering.isAfterOthers()) {
+				Assert.assertTrue(name + " is not after others", position >= beforeOthersCount);
+			}
+
+			String[][] routes = ordering.getRoutes();
+
+			for (String beforeName : routes[0]) {
+
+				if (!Ordering.OTHERS.equals(beforeName)) {
+					Assert.assertTrue(name + " is not before " + beforeName, position < positions.get(beforeName));
+				}
+			}
+
+			for (String afterName : routes[1]) {
+
+				if (!Ordering.OTHERS.equals(afterName)) {
+					Assert.assertTrue(name + " is not after " + afterName, position > positions.get(afterName));
+				}
+			}
+		}
+
+		logger.info("test20_hundredsOfFragments: Passed\n ordered " + total + " fragments in " + elapsedTime + "ms\n");
+	}
+
+	private static String getFragmentName(int i) {
+		return "fragment" + i;
+	}
+
+	private static FacesConfigDescriptor newFacesConfigDescriptor(String name, List<String> befores,
+		List<String> afters) {
+
+		String[] beforeNames = befores.toArray(new String[befores.size()]);
+		Arrays.sort(beforeNames);
+
+		String[] afterNames = afters.toArray(new String[afters.size()]);
+		Arrays.sort(afterNames);
+
+		Ordering ordering = new Ordering();
+		ordering.setRoutes(new String[][] { beforeNames, afterNames });
+
+		return new FacesConfigDescriptorImpl(name, "jar:file:/" + name + ".jar!/" + META_INF_FACES_CONFIG_XML, false,
+				null, ordering);
+	}
+
 }